@@ -109,12 +109,32 @@ public class RedisKeyConstants {
      */
     public static final String MARKET_SENTIMENT_SCORE = "market:sentiment:score";
 
+    /**
+     * 市场情绪分数发布频道（Redis Pub/Sub）
+     * 由 quant-risk-control 在分数变化或续期时发布 MarketSentimentDTO JSON，信号中心订阅后更新内存快照
+     */
+    public static final String MARKET_SENTIMENT_SCORE_CHANNEL = "market:sentiment:score:channel";
+
     /**
      * 股票信号列表缓存 Key 前缀
      * 格式：stock:signal:list:{策略名}:{交易日}
      */
     public static final String STOCK_SIGNAL_LIST_PREFIX = "stock:signal:list:";
 
+    /**
+     * 股票信号列表版本号 Key 前缀（INCR 计数）
+     * 格式：stock:signal:version:{策略名}:{交易日}
+     * 信号中心每次写入信号列表后递增，股票列表模块据此判断本地快照是否过期
+     */
+    public static final String STOCK_SIGNAL_VERSION_PREFIX = "stock:signal:version:";
+
+    /**
+     * 股票信号列表变更发布频道（Redis Pub/Sub）
+     * 消息体：{策略名}:{交易日}
+     * 信号中心写入信号列表并递增版本号后发布，股票列表模块订阅后刷新对应的本地缓存
+     */
+    public static final String STOCK_SIGNAL_CHANGE_CHANNEL = "stock:signal:change:channel";
+
     // ==================== 股票列表模块 Redis Key ====================
 
     /**
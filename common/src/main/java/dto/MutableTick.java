@@ -0,0 +1,226 @@
+package dto;
+
+import util.WindCodeRegistry;
+
+import java.time.LocalDateTime;
+
+/**
+ * 可复用的原始类型行情对象 (Mutable Tick)
+ * <p>
+ * 类职责：
+ * {@link TickView} 的可变实现，由 TickJsonDecoder 原地填充，配合对象池循环使用。
+ * <p>
+ * 设计目的：
+ * 1. 价格/成交量使用 double，时间使用 long epoch 秒，消除 Double/LocalDateTime/String 的逐条分配
+ * 2. 股票代码使用驻留后的编号与字符串，同一代码全进程只有一个 String 实例
+ * <p>
+ * 线程安全：非线程安全，同一时刻只能由一个线程写入或读取。
+ *
+ * @author hli
+ * @date 2026-02-03
+ */
+public final class MutableTick implements TickView {
+
+    /**
+     * 北京时间相对 UTC 的偏移秒数
+     */
+    private static final int BEIJING_OFFSET_SECONDS = 8 * 3600;
+
+    private int codeId = -1;
+    private String windCode;
+    private long epochSecond;
+    private int tradeDay;
+    private int secondOfDay;
+    private double latestPrice = Double.NaN;
+    private double totalVolume = Double.NaN;
+    private double averagePrice = Double.NaN;
+
+    /**
+     * 重置为初始状态
+     */
+    public void reset() {
+        codeId = -1;
+        windCode = null;
+        epochSecond = 0L;
+        tradeDay = 0;
+        secondOfDay = 0;
+        latestPrice = Double.NaN;
+        totalVolume = Double.NaN;
+        averagePrice = Double.NaN;
+    }
+
+    /**
+     * 从另一个视图复制全部字段
+     *
+     * @param other 来源视图
+     */
+    public void copyFrom(TickView other) {
+        codeId = other.getCodeId();
+        windCode = other.getWindCode();
+        epochSecond = other.getEpochSecond();
+        tradeDay = other.getTradeDay();
+        secondOfDay = other.getSecondOfDay();
+        latestPrice = other.getLatestPrice();
+        totalVolume = other.getTotalVolume();
+        averagePrice = other.getAveragePrice();
+    }
+
+    /**
+     * 从 HistoryTrendDTO 填充（兼容旧的逐条解析路径）
+     *
+     * @param dto 行情 DTO
+     */
+    public void fillFrom(HistoryTrendDTO dto) {
+        setCode(WindCodeRegistry.idOf(dto.getWindCode()));
+        LocalDateTime time = dto.getTradeDate();
+        if (time != null) {
+            setTradeTime(time.getYear(), time.getMonthValue(), time.getDayOfMonth(),
+                    time.getHour(), time.getMinute(), time.getSecond());
+        } else {
+            epochSecond = 0L;
+            tradeDay = 0;
+            secondOfDay = 0;
+        }
+        latestPrice = dto.getLatestPrice() != null ? dto.getLatestPrice() : Double.NaN;
+        totalVolume = dto.getTotalVolume() != null ? dto.getTotalVolume() : Double.NaN;
+        averagePrice = dto.getAveragePrice() != null ? dto.getAveragePrice() : Double.NaN;
+    }
+
+    /**
+     * 设置股票代码编号（同时取出驻留字符串）
+     *
+     * @param codeId WindCodeRegistry 分配的编号，-1 表示缺失
+     */
+    public void setCode(int codeId) {
+        this.codeId = codeId;
+        this.windCode = codeId >= 0 ? WindCodeRegistry.codeOf(codeId) : null;
+    }
+
+    /**
+     * 设置行情时间（北京时间），同时计算 epoch 秒
+     */
+    public void setTradeTime(int year, int month, int day, int hour, int minute, int second) {
+        this.tradeDay = year * 10000 + month * 100 + day;
+        this.secondOfDay = hour * 3600 + minute * 60 + second;
+        this.epochSecond = daysFromCivil(year, month, day) * 86400L + secondOfDay - BEIJING_OFFSET_SECONDS;
+    }
+
+    /**
+     * 按 Unix 秒设置行情时间，同时换算北京时间的交易日与当日秒数
+     *
+     * @param epochSecond epoch 秒
+     */
+    public void setEpochSecond(long epochSecond) {
+        this.epochSecond = epochSecond;
+        long local = epochSecond + BEIJING_OFFSET_SECONDS;
+        long days = Math.floorDiv(local, 86400L);
+        this.secondOfDay = (int) Math.floorMod(local, 86400L);
+        this.tradeDay = civilFromDays(days);
+    }
+
+    public void setLatestPrice(double latestPrice) {
+        this.latestPrice = latestPrice;
+    }
+
+    public void setTotalVolume(double totalVolume) {
+        this.totalVolume = totalVolume;
+    }
+
+    public void setAveragePrice(double averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    @Override
+    public int getCodeId() {
+        return codeId;
+    }
+
+    @Override
+    public String getWindCode() {
+        return windCode;
+    }
+
+    @Override
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    @Override
+    public int getTradeDay() {
+        return tradeDay;
+    }
+
+    @Override
+    public int getSecondOfDay() {
+        return secondOfDay;
+    }
+
+    @Override
+    public double getLatestPrice() {
+        return latestPrice;
+    }
+
+    @Override
+    public double getTotalVolume() {
+        return totalVolume;
+    }
+
+    @Override
+    public double getAveragePrice() {
+        return averagePrice;
+    }
+
+    @Override
+    public HistoryTrendDTO toHistoryTrendDTO() {
+        HistoryTrendDTO dto = new HistoryTrendDTO();
+        dto.setWindCode(windCode);
+        if (tradeDay > 0) {
+            int hour = secondOfDay / 3600;
+            int minute = secondOfDay % 3600 / 60;
+            int second = secondOfDay % 60;
+            dto.setTradeDate(LocalDateTime.of(tradeDay / 10000, tradeDay / 100 % 100, tradeDay % 100,
+                    hour, minute, second));
+            // traceId 格式：yyyyMMdd_HHmmss
+            dto.setTraceId(String.format("%08d_%02d%02d%02d", tradeDay, hour, minute, second));
+        }
+        dto.setLatestPrice(Double.isNaN(latestPrice) ? null : latestPrice);
+        dto.setTotalVolume(Double.isNaN(totalVolume) ? null : totalVolume);
+        dto.setAveragePrice(Double.isNaN(averagePrice) ? null : averagePrice);
+        return dto;
+    }
+
+    @Override
+    public String toString() {
+        return "MutableTick{windCode=" + windCode + ", tradeDay=" + tradeDay + ", secondOfDay=" + secondOfDay
+                + ", latestPrice=" + latestPrice + ", totalVolume=" + totalVolume
+                + ", averagePrice=" + averagePrice + "}";
+    }
+
+    /**
+     * 公历日期转 1970-01-01 起的天数（Howard Hinnant 算法，无对象分配）
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097L + doe - 719468L;
+    }
+
+    /**
+     * 1970-01-01 起的天数转 yyyyMMdd 数值（daysFromCivil 的逆运算）
+     */
+    static int civilFromDays(long days) {
+        long z = days + 719468L;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 10000 + month * 100 + day);
+    }
+}
@@ -0,0 +1,83 @@
+package dto;
+
+/**
+ * 行情只读视图 (Tick View)
+ * <p>
+ * 类职责：
+ * 以原始类型暴露单条分时行情，供策略在热路径上读取，避免装箱与对象分配。
+ * <p>
+ * 使用场景：
+ * 1. 策略引擎分片模式下，Lane 线程复用同一批可变行情对象执行策略判断
+ * 2. BaseStrategy#isMatch(TickView) 的入参
+ * <p>
+ * 注意：视图对象可能被复用，调用方不得在方法返回后继续持有引用，
+ * 如需保存请调用 {@link #toHistoryTrendDTO()} 生成独立副本。
+ *
+ * @author hli
+ * @date 2026-02-03
+ */
+public interface TickView {
+
+    /**
+     * 股票代码的内部编号（进程内唯一，由 WindCodeRegistry 分配）
+     *
+     * @return 代码编号
+     */
+    int getCodeId();
+
+    /**
+     * 股票代码（已驻留的字符串，不产生新对象）
+     *
+     * @return 股票代码，如 600519.SH
+     */
+    String getWindCode();
+
+    /**
+     * 行情时间（北京时间对应的 Unix 秒）
+     *
+     * @return epoch 秒
+     */
+    long getEpochSecond();
+
+    /**
+     * 交易日（yyyyMMdd 数值）
+     *
+     * @return 如 20260105
+     */
+    int getTradeDay();
+
+    /**
+     * 当日秒数（北京时间 0 点起算）
+     *
+     * @return 如 09:30:00 对应 34200
+     */
+    int getSecondOfDay();
+
+    /**
+     * 最新价，缺失时为 NaN
+     *
+     * @return 最新价
+     */
+    double getLatestPrice();
+
+    /**
+     * 总成交量，缺失时为 NaN
+     *
+     * @return 总成交量
+     */
+    double getTotalVolume();
+
+    /**
+     * 均价，缺失时为 NaN
+     *
+     * @return 均价
+     */
+    double getAveragePrice();
+
+    /**
+     * 生成独立的 HistoryTrendDTO 副本（会分配对象，仅用于信号触发等低频路径）
+     *
+     * @return 行情 DTO
+     */
+    HistoryTrendDTO toHistoryTrendDTO();
+}
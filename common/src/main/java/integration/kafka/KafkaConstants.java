@@ -43,6 +43,8 @@ public final class KafkaConstants {
 
     // Bean 名称
     public static final String LISTENER_CONTAINER_FACTORY = "kafkaListenerContainerFactory";
+    // Bean 名称（批量监听）
+    public static final String BATCH_LISTENER_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
 
     // ======================== Logback Kafka Appender 常量 ========================
     /** 日志主题前缀（各服务日志主题名 = LOG_TOPIC_PREFIX + 服务名） */
@@ -0,0 +1,300 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 定点价格 (Fixed-point Price)
+ * <p>
+ * 类职责：
+ * 以“long 未缩放值 + 小数位数”表示价格、成交量等只带 2~4 位小数的数值，并提供与 {@link MathUtil} 口径一致的缩放与舍入工具。
+ * <p>
+ * 设计目的：
+ * 1. 行情入库路径上的数值都是 Wind 返回的整数再按固定位数缩放，用 long 运算即可得到精确结果，不需要为每个字段解析字符串、创建 BigDecimal。
+ * 2. 舍入语义与 MathUtil 完全一致：{@link #shiftDecimal(long, int)} 对应 {@link MathUtil#shiftDecimal(String, int)}，
+ * {@link #formatDecimal(long, int, boolean)} 对应 {@link MathUtil#formatDecimal(Number, int, boolean)}。
+ * 3. 超出 long 精确范围（溢出、小数位过大或为负、非整数的 double 输入）时回退到 MathUtil，结果与异常行为保持不变。
+ * <p>
+ * 转换为 double 的依据：整数除以 10^n 的精确商在 n 位小数内没有截断误差；当被除数与 10^n 都能被 double 精确表示时，
+ * IEEE 754 除法返回精确商的最近 double，与 {@link BigDecimal#doubleValue()} 相同。
+ * <p>
+ * 实例不可变，可被多线程共享；静态方法无状态。
+ *
+ * @author hli
+ * @date 2026-02-15
+ */
+public final class FixedPrice implements Comparable<FixedPrice> {
+
+    /**
+     * 支持的最大小数位数（10^18 仍在 long 范围内）
+     */
+    public static final int MAX_SCALE = 18;
+
+    /**
+     * MathUtil.shiftDecimal 的固定结果小数位
+     */
+    private static final int SHIFT_SCALE = 2;
+
+    /**
+     * 2^53，绝对值在此以内的 long 可无损转为 double
+     */
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+
+    /**
+     * 10 的 0~22 次方均可由 double 精确表示
+     */
+    private static final double[] POW10_DOUBLE = new double[23];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        POW10_DOUBLE[0] = 1d;
+        for (int i = 1; i < POW10_DOUBLE.length; i++) {
+            POW10_DOUBLE[i] = POW10_DOUBLE[i - 1] * 10;
+        }
+    }
+
+    private final long unscaled;
+    private final int scale;
+
+    private FixedPrice(long unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    /**
+     * @param unscaled 未缩放值，如 142350
+     * @param scale    小数位数，如 2 表示 1423.50
+     * @return 定点价格
+     */
+    public static FixedPrice of(long unscaled, int scale) {
+        checkScale(scale);
+        return new FixedPrice(unscaled, scale);
+    }
+
+    /**
+     * Wind 原始整数缩小 10^digits 倍（digits 为负时放大），四舍五入保留 2 位小数
+     *
+     * @param raw    原始整数
+     * @param digits 缩放位数
+     * @return 定点价格（2 位小数），超出 long 范围时抛出 ArithmeticException
+     */
+    public static FixedPrice shift(long raw, int digits) {
+        return new FixedPrice(shiftUnscaled(raw, digits), SHIFT_SCALE);
+    }
+
+    /**
+     * @return 未缩放值
+     */
+    public long unscaled() {
+        return unscaled;
+    }
+
+    /**
+     * @return 小数位数
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * 调整小数位数
+     *
+     * @param newScale 目标小数位数
+     * @param mode     舍入模式，仅支持 HALF_UP（四舍五入）与 DOWN（向零截断）
+     * @return 调整后的定点价格，位数增加时溢出抛出 ArithmeticException
+     */
+    public FixedPrice setScale(int newScale, RoundingMode mode) {
+        checkScale(newScale);
+        if (newScale == scale) {
+            return this;
+        }
+        if (newScale > scale) {
+            return new FixedPrice(Math.multiplyExact(unscaled, POW10[newScale - scale]), newScale);
+        }
+        return new FixedPrice(divide(unscaled, POW10[scale - newScale], mode), newScale);
+    }
+
+    /**
+     * 相加，结果取两者较大的小数位数
+     */
+    public FixedPrice add(FixedPrice other) {
+        int target = Math.max(scale, other.scale);
+        return new FixedPrice(Math.addExact(setScale(target, RoundingMode.DOWN).unscaled,
+                other.setScale(target, RoundingMode.DOWN).unscaled), target);
+    }
+
+    /**
+     * 相减，结果取两者较大的小数位数
+     */
+    public FixedPrice subtract(FixedPrice other) {
+        int target = Math.max(scale, other.scale);
+        return new FixedPrice(Math.subtractExact(setScale(target, RoundingMode.DOWN).unscaled,
+                other.setScale(target, RoundingMode.DOWN).unscaled), target);
+    }
+
+    /**
+     * @return 最接近的 double
+     */
+    public double toDouble() {
+        return toDouble(unscaled, scale);
+    }
+
+    /**
+     * @return 等值且小数位数相同的 BigDecimal（入库使用）
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    @Override
+    public int compareTo(FixedPrice other) {
+        if (scale == other.scale) {
+            return Long.compare(unscaled, other.unscaled);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    /**
+     * 与 BigDecimal 一致：数值与小数位数都相同才相等
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FixedPrice other)) {
+            return false;
+        }
+        return unscaled == other.unscaled && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(unscaled) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // ==================== 原始类型工具（热点路径不创建对象） ====================
+
+    /**
+     * 等价于 {@code MathUtil.shiftDecimal(String.valueOf(raw), digits)}
+     *
+     * @param raw    原始整数
+     * @param digits 缩放位数
+     * @return 2 位小数的 BigDecimal
+     */
+    public static BigDecimal shiftDecimal(long raw, int digits) {
+        if (digits > MAX_SCALE || digits < -MAX_SCALE) {
+            return MathUtil.shiftDecimal(String.valueOf(raw), digits);
+        }
+        try {
+            return BigDecimal.valueOf(shiftUnscaled(raw, digits), SHIFT_SCALE);
+        } catch (ArithmeticException e) {
+            return MathUtil.shiftDecimal(String.valueOf(raw), digits);
+        }
+    }
+
+    /**
+     * 等价于 {@code MathUtil.formatDecimal(raw, decimalPlaces, roundUp)}
+     * <p>
+     * roundUp 为 false 时返回 raw / 10^decimalPlaces；为 true 时先四舍五入到整数。
+     *
+     * @param raw           原始整数
+     * @param decimalPlaces 缩放位数
+     * @param roundUp       是否四舍五入到整数
+     * @return 缩放后的数值
+     */
+    public static double formatDecimal(long raw, int decimalPlaces, boolean roundUp) {
+        if (decimalPlaces < 0 || decimalPlaces > MAX_SCALE) {
+            return MathUtil.formatDecimal(raw, decimalPlaces, roundUp);
+        }
+        if (roundUp) {
+            return divide(raw, POW10[decimalPlaces], RoundingMode.HALF_UP);
+        }
+        return toDouble(raw, decimalPlaces);
+    }
+
+    /**
+     * 等价于 {@code MathUtil.formatDecimal(value, decimalPlaces, roundUp)}
+     * <p>
+     * 行情累加值都是整数，走 long 路径；非整数或超出 2^53 时回退到 BigDecimal。
+     *
+     * @param value         原始值
+     * @param decimalPlaces 缩放位数
+     * @param roundUp       是否四舍五入到整数
+     * @return 缩放后的数值，null 返回 0
+     */
+    public static double formatDecimal(Double value, int decimalPlaces, boolean roundUp) {
+        if (value == null) {
+            return 0.0;
+        }
+        double v = value;
+        if (v > -MAX_EXACT_DOUBLE && v < MAX_EXACT_DOUBLE && v == Math.rint(v)) {
+            return formatDecimal((long) v, decimalPlaces, roundUp);
+        }
+        return MathUtil.formatDecimal(value, decimalPlaces, roundUp);
+    }
+
+    /**
+     * 未缩放值转换为最接近的 double
+     *
+     * @param unscaled 未缩放值
+     * @param scale    小数位数
+     * @return unscaled / 10^scale
+     */
+    public static double toDouble(long unscaled, int scale) {
+        if (scale >= 0 && scale < POW10_DOUBLE.length && unscaled > -MAX_EXACT_DOUBLE && unscaled < MAX_EXACT_DOUBLE) {
+            return unscaled / POW10_DOUBLE[scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    /**
+     * 缩放到 2 位小数的未缩放值，四舍五入
+     */
+    private static long shiftUnscaled(long raw, int digits) {
+        if (digits <= SHIFT_SCALE) {
+            // 缩小位数不超过 2（或为放大）：只需乘以 10 的幂，结果精确
+            int exponent = SHIFT_SCALE - digits;
+            checkScale(exponent);
+            return Math.multiplyExact(raw, POW10[exponent]);
+        }
+        int exponent = digits - SHIFT_SCALE;
+        checkScale(exponent);
+        return divide(raw, POW10[exponent], RoundingMode.HALF_UP);
+    }
+
+    /**
+     * long 除法并按模式舍入
+     *
+     * @param mode HALF_UP：0.5 远离零进位；DOWN：向零截断
+     */
+    private static long divide(long value, long divisor, RoundingMode mode) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        return switch (mode) {
+            case DOWN -> quotient;
+            // |remainder| < divisor <= 10^18，乘 2 不会溢出
+            case HALF_UP -> Math.abs(remainder) * 2 >= divisor ? quotient + Long.signum(value) : quotient;
+            default -> throw new IllegalArgumentException("不支持的舍入模式|Unsupported_rounding_mode,mode=" + mode);
+        };
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("小数位数超出范围|Scale_out_of_range,scale=" + scale);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 策略预热数据列式二进制编解码 (Preheat Columnar Codec)
+ * <p>
+ * 类职责：
+ * 将"多只股票 × 多个交易日"的收盘价（可选最高/最低价）编码为一个紧凑的二进制块，并提供零拷贝读取视图。
+ * <p>
+ * 设计目的：
+ * 1. 替代每只股票一个 ClosePriceDTO JSON 数组的存储方式：日期字符串只在头部出现一次，价格不再装箱和格式化。
+ * 2. 一个策略一天只写少量 Redis Field（按股票代码分块），预热写入与引擎加载都从数千次往返降为个位数。
+ * 3. 读取端直接在 Redis 返回的 byte[] 上按偏移量读取 double，不构建中间对象。
+ * <p>
+ * 二进制布局（小端序）：
+ * <pre>
+ * ┌────────────── Header（12 字节）──────────────┐
+ * │ int   magic = 'QPH1'                          │
+ * │ byte  version = 1                             │
+ * │ byte  flags   (bit0=含高低价, bit1=float32)   │
+ * │ short dateCount                               │
+ * │ int   stockCount                              │
+ * ├────────────── 交易日索引 ────────────────────┤
+ * │ int[dateCount] tradeDay(yyyyMMdd)，0=最新     │
+ * ├────────────── 股票代码表 ────────────────────┤
+ * │ stockCount × (byte len + ASCII bytes)         │
+ * │ 补齐到 8 字节边界                             │
+ * ├────────────── 价格列 ────────────────────────┤
+ * │ CLOSE[stockCount][dateCount]                  │
+ * │ HIGH [stockCount][dateCount]（可选）          │
+ * │ LOW  [stockCount][dateCount]（可选）          │
+ * └───────────────────────────────────────────────┘
+ * </pre>
+ * 停牌/缺失用 NaN 表示，与 JSON 中 closePrice=null 的语义一致。
+ * <p>
+ * 线程安全：Writer 非线程安全；Reader 只做绝对位置读取，可被多线程共享。
+ *
+ * @author hli
+ * @date 2026-02-05
+ */
+public final class PreheatColumnarCodec {
+
+    /**
+     * 魔数 "QPH1"
+     */
+    public static final int MAGIC = 0x51504831;
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 标志位：包含最高价/最低价列
+     */
+    public static final int FLAG_HIGH_LOW = 1;
+
+    /**
+     * 标志位：价格以 float32 存储（体积减半，精度约 7 位有效数字）
+     */
+    public static final int FLAG_FLOAT32 = 1 << 1;
+
+    /**
+     * 二进制 Key 的中缀，完整格式：{策略前缀}BIN:{yyyyMMdd}，如 NINE_TURN:PREHEAT:BIN:20260105
+     */
+    public static final String BINARY_KEY_INFIX = "BIN:";
+
+    private static final int HEADER_BYTES = 12;
+
+    private PreheatColumnarCodec() {
+    }
+
+    /**
+     * 构建二进制预热数据 Key
+     *
+     * @param keyPrefix  策略预热 Key 前缀，如 NINE_TURN:PREHEAT:
+     * @param dateSuffix 交易日（yyyyMMdd）
+     * @return 二进制 Key
+     */
+    public static String binaryKey(String keyPrefix, String dateSuffix) {
+        return keyPrefix + BINARY_KEY_INFIX + dateSuffix;
+    }
+
+    /**
+     * 在字节数组上创建读取视图（不复制数据）
+     *
+     * @param bytes 编码后的数据
+     * @return 读取视图
+     * @throws IllegalArgumentException 魔数或版本不匹配
+     */
+    public static Reader wrap(byte[] bytes) {
+        return new Reader(ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * 编码器
+     * <p>
+     * 使用方式：
+     * <pre>
+     * Writer writer = new Writer(tradeDays, true, false);
+     * writer.add("600519.SH", closes, highs, lows);
+     * byte[] blob = writer.toBytes();
+     * </pre>
+     */
+    public static final class Writer {
+
+        private final int[] tradeDays;
+        private final boolean withHighLow;
+        private final boolean float32;
+        private final List<String> codes = new ArrayList<>();
+        private final List<double[][]> series = new ArrayList<>();
+
+        /**
+         * @param tradeDays   交易日索引（yyyyMMdd，0=最新），所有股票的价格数组与之一一对应
+         * @param withHighLow 是否写入最高/最低价列
+         * @param float32     是否以 float32 存储价格
+         */
+        public Writer(int[] tradeDays, boolean withHighLow, boolean float32) {
+            if (tradeDays.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("too many trade days: " + tradeDays.length);
+            }
+            this.tradeDays = tradeDays.clone();
+            this.withHighLow = withHighLow;
+            this.float32 = float32;
+        }
+
+        /**
+         * 追加一只股票
+         *
+         * @param windCode 股票代码（ASCII，长度不超过 127）
+         * @param closes   收盘价，长度等于 tradeDays，停牌为 NaN
+         * @param highs    最高价（withHighLow=false 时可为 null）
+         * @param lows     最低价（withHighLow=false 时可为 null）
+         */
+        public Writer add(String windCode, double[] closes, double[] highs, double[] lows) {
+            if (windCode.length() > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("windCode too long: " + windCode);
+            }
+            checkLength(closes);
+            if (withHighLow) {
+                checkLength(highs);
+                checkLength(lows);
+            }
+            codes.add(windCode);
+            series.add(new double[][]{closes, highs, lows});
+            return this;
+        }
+
+        public int size() {
+            return codes.size();
+        }
+
+        public byte[] toBytes() {
+            int stockCount = codes.size();
+            int dateCount = tradeDays.length;
+            int codeBytes = 0;
+            for (String code : codes) {
+                codeBytes += 1 + code.length();
+            }
+            int columnsOffset = align8(HEADER_BYTES + dateCount * Integer.BYTES + codeBytes);
+            int columnCount = withHighLow ? 3 : 1;
+            int valueBytes = float32 ? Float.BYTES : Double.BYTES;
+            int total = columnsOffset + columnCount * stockCount * dateCount * valueBytes;
+
+            ByteBuffer buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.put((byte) ((withHighLow ? FLAG_HIGH_LOW : 0) | (float32 ? FLAG_FLOAT32 : 0)));
+            buffer.putShort((short) dateCount);
+            buffer.putInt(stockCount);
+            for (int tradeDay : tradeDays) {
+                buffer.putInt(tradeDay);
+            }
+            for (String code : codes) {
+                buffer.put((byte) code.length());
+                buffer.put(code.getBytes(StandardCharsets.US_ASCII));
+            }
+            buffer.position(columnsOffset);
+            for (int column = 0; column < columnCount; column++) {
+                for (double[][] values : series) {
+                    double[] data = values[column];
+                    for (int d = 0; d < dateCount; d++) {
+                        if (float32) {
+                            buffer.putFloat((float) data[d]);
+                        } else {
+                            buffer.putDouble(data[d]);
+                        }
+                    }
+                }
+            }
+            return buffer.array();
+        }
+
+        private void checkLength(double[] values) {
+            if (values == null || values.length != tradeDays.length) {
+                throw new IllegalArgumentException("series length must equal tradeDays length: " + tradeDays.length);
+            }
+        }
+    }
+
+    /**
+     * 零拷贝读取视图
+     * <p>
+     * 创建时只解析头部与股票代码偏移表，价格按需从底层字节数组按绝对位置读取。
+     */
+    public static final class Reader {
+
+        private final ByteBuffer buffer;
+        private final boolean withHighLow;
+        private final boolean float32;
+        private final int dateCount;
+        private final int stockCount;
+        private final int[] codeOffsets;
+        private final int columnsOffset;
+        private final int columnBytes;
+        private final int valueBytes;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException("not a preheat columnar block");
+            }
+            if (buffer.get(4) != VERSION) {
+                throw new IllegalArgumentException("unsupported preheat block version: " + buffer.get(4));
+            }
+            int flags = buffer.get(5);
+            this.withHighLow = (flags & FLAG_HIGH_LOW) != 0;
+            this.float32 = (flags & FLAG_FLOAT32) != 0;
+            this.dateCount = buffer.getShort(6);
+            this.stockCount = buffer.getInt(8);
+            this.codeOffsets = new int[stockCount];
+            int position = HEADER_BYTES + dateCount * Integer.BYTES;
+            for (int i = 0; i < stockCount; i++) {
+                codeOffsets[i] = position;
+                position += 1 + buffer.get(position);
+            }
+            this.columnsOffset = align8(position);
+            this.valueBytes = float32 ? Float.BYTES : Double.BYTES;
+            this.columnBytes = stockCount * dateCount * valueBytes;
+        }
+
+        public int stockCount() {
+            return stockCount;
+        }
+
+        public int dateCount() {
+            return dateCount;
+        }
+
+        public boolean hasHighLow() {
+            return withHighLow;
+        }
+
+        /**
+         * 交易日
+         *
+         * @param dateIndex 0=最新
+         * @return yyyyMMdd
+         */
+        public int tradeDay(int dateIndex) {
+            return buffer.getInt(HEADER_BYTES + dateIndex * Integer.BYTES);
+        }
+
+        public String windCode(int stockIndex) {
+            int offset = codeOffsets[stockIndex];
+            int length = buffer.get(offset);
+            return new String(buffer.array(), buffer.arrayOffset() + offset + 1, length, StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * 收盘价
+         *
+         * @param stockIndex 股票下标
+         * @param dateIndex  交易日下标（0=最新）
+         * @return 价格，停牌为 NaN
+         */
+        public double close(int stockIndex, int dateIndex) {
+            return value(0, stockIndex, dateIndex);
+        }
+
+        /**
+         * 最高价，不含高低价列时返回收盘价
+         */
+        public double high(int stockIndex, int dateIndex) {
+            return withHighLow ? value(1, stockIndex, dateIndex) : close(stockIndex, dateIndex);
+        }
+
+        /**
+         * 最低价，不含高低价列时返回收盘价
+         */
+        public double low(int stockIndex, int dateIndex) {
+            return withHighLow ? value(2, stockIndex, dateIndex) : close(stockIndex, dateIndex);
+        }
+
+        private double value(int column, int stockIndex, int dateIndex) {
+            int position = columnsOffset + column * columnBytes + (stockIndex * dateCount + dateIndex) * valueBytes;
+            return float32 ? buffer.getFloat(position) : buffer.getDouble(position);
+        }
+    }
+
+    private static int align8(int value) {
+        return (value + 7) & ~7;
+    }
+}
@@ -0,0 +1,93 @@
+package util;
+
+import dto.StrategySignalDTO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 策略信号信封编解码器 (Signal Envelope Codec)
+ * <p>
+ * 类职责：
+ * 定义 stock-strategy-signal 主题上的两种消息体，并提供编码与统一解码。
+ * <p>
+ * 消息格式：
+ * - 单条信号：StrategySignalDTO 的 JSON 对象（旧格式，{...}）
+ * - 信号信封：多个 StrategySignalDTO JSON 对象组成的 JSON 数组（[{...},{...}]）
+ * <p>
+ * 设计目的：
+ * 1. 策略在同一 tick 对数百只股票触发时，一条 Kafka 记录携带多条信号，减少发送次数与回调
+ * 2. 编码时直接拼接各信号已序列化的 JSON，按总长度预分配缓冲区，不做二次序列化
+ * 3. 消费端按首字符区分格式，新旧生产者可以并存，灰度期间无需切换主题
+ * <p>
+ * 线程安全：无状态，可被多线程共享。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+public final class SignalEnvelopeCodec {
+
+    private SignalEnvelopeCodec() {
+    }
+
+    /**
+     * 编码信号信封
+     *
+     * @param signalJsons 已序列化的信号 JSON 列表（保持发送顺序）
+     * @param totalChars  各 JSON 的总长度，用于预分配缓冲区
+     * @return JSON 数组字符串
+     */
+    public static String encode(List<String> signalJsons, int totalChars) {
+        StringBuilder sb = new StringBuilder(totalChars + signalJsons.size() + 1);
+        sb.append('[');
+        for (int i = 0; i < signalJsons.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(signalJsons.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 判断消息体是否为信号信封
+     *
+     * @param value 消息体
+     * @return 首个非空白字符为 '[' 时返回 true
+     */
+    public static boolean isEnvelope(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解码消息体（兼容单条信号与信号信封）
+     * <p>
+     * 实现逻辑：
+     * 1. 信封按数组解析，保持原有顺序；单条信号包装为单元素列表。
+     * 2. 无法解析时返回空列表，由调用方按无效消息处理（跳过并确认）。
+     *
+     * @param value 消息体
+     * @return 信号列表（可能包含 windCode 为空的无效元素，由调用方过滤）
+     */
+    public static List<StrategySignalDTO> decode(String value) {
+        try {
+            if (isEnvelope(value)) {
+                List<StrategySignalDTO> signals = JsonUtil.toList(value, StrategySignalDTO.class);
+                return signals != null ? signals : Collections.emptyList();
+            }
+            StrategySignalDTO signal = JsonUtil.toBean(value, StrategySignalDTO.class);
+            return signal != null ? Collections.singletonList(signal) : Collections.emptyList();
+        } catch (RuntimeException e) {
+            return Collections.emptyList();
+        }
+    }
+}
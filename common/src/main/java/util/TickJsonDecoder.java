@@ -0,0 +1,215 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dto.MutableTick;
+import dto.TickView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 行情 JSON 流式解码器 (Tick JSON Decoder)
+ * <p>
+ * 类职责：
+ * 使用 Jackson JsonParser 逐 token 解析行情消息，原地填充 {@link MutableTick}。
+ * <p>
+ * 设计目的：
+ * 1. 替代 ObjectMapper.readValue 为每条消息创建 HistoryTrendDTO / Double / LocalDateTime / String
+ * 2. 股票代码直接用解析缓冲区字符查 WindCodeRegistry，时间字段按位置解析数字
+ * 3. 字段名由 JsonFactory 规范化缓存，switch 比较不产生新字符串
+ * <p>
+ * 兼容的时间格式：
+ * - "yyyy-MM-dd HH:mm:ss"（fastjson / @JsonFormat 默认格式）
+ * - "yyyy-MM-dd'T'HH:mm:ss[.SSS]"（ISO 格式）
+ * - [yyyy, M, d, H, m, s]（JavaTimeModule 时间戳数组）
+ * - 毫秒时间戳数值
+ * <p>
+ * 线程安全：无状态，可被多线程共享；目标对象由调用方保证线程封闭。
+ *
+ * @author hli
+ * @date 2026-02-03
+ */
+public final class TickJsonDecoder {
+
+    private static final String FIELD_WIND_CODE = "windCode";
+    private static final String FIELD_TRADE_DATE = "tradeDate";
+    private static final String FIELD_LATEST_PRICE = "latestPrice";
+    private static final String FIELD_TOTAL_VOLUME = "totalVolume";
+    private static final String FIELD_AVERAGE_PRICE = "averagePrice";
+
+    private final JsonFactory jsonFactory;
+
+    public TickJsonDecoder() {
+        this(new JsonFactory());
+    }
+
+    public TickJsonDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * 解码字符串消息
+     *
+     * @param json   行情 JSON
+     * @param target 待填充的行情对象（先被重置）
+     * @return true-解析成功且包含股票代码
+     * @throws IOException JSON 格式错误
+     */
+    public boolean decode(String json, MutableTick target) throws IOException {
+        target.reset();
+        if (json == null || json.isEmpty()) {
+            return false;
+        }
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser, target);
+        }
+    }
+
+    /**
+     * 解码字节消息（直接消费 Kafka ByteArrayDeserializer 的输出，免去 String 转换）
+     *
+     * @param json   行情 JSON 字节
+     * @param target 待填充的行情对象（先被重置）
+     * @return true-解析成功且包含股票代码
+     * @throws IOException JSON 格式错误
+     */
+    public boolean decode(byte[] json, MutableTick target) throws IOException {
+        target.reset();
+        if (json == null || json.length == 0) {
+            return false;
+        }
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return decode(parser, target);
+        }
+    }
+
+    /**
+     * 流式解码行情 JSON 数组（如 HTTP 接口返回的 List&lt;HistoryTrendDTO&gt;）
+     * <p>
+     * 逐个元素填充同一个 target 后回调 consumer，整个数组不在内存中物化；
+     * consumer 返回后 target 即被下一条覆盖，不得继续持有。
+     *
+     * @param json     JSON 数组输入流（由调用方关闭）
+     * @param target   复用的行情对象
+     * @param consumer 每条有效行情的回调
+     * @return 回调的行情条数
+     * @throws IOException JSON 格式错误或读取失败
+     */
+    public long decodeArray(InputStream json, MutableTick target, Consumer<? super TickView> consumer) throws IOException {
+        long count = 0;
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected JSON array of ticks");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                target.reset();
+                if (decodeFields(parser, target)) {
+                    consumer.accept(target);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean decode(JsonParser parser, MutableTick target) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        return decodeFields(parser, target);
+    }
+
+    /**
+     * 解析当前对象的字段，调用前 parser 已位于 START_OBJECT
+     */
+    private boolean decodeFields(JsonParser parser, MutableTick target) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case FIELD_WIND_CODE -> {
+                    if (token == JsonToken.VALUE_STRING) {
+                        target.setCode(WindCodeRegistry.idOf(parser.getTextCharacters(),
+                                parser.getTextOffset(), parser.getTextLength()));
+                    }
+                }
+                case FIELD_TRADE_DATE -> readTradeDate(parser, token, target);
+                case FIELD_LATEST_PRICE -> target.setLatestPrice(readDouble(parser, token));
+                case FIELD_TOTAL_VOLUME -> target.setTotalVolume(readDouble(parser, token));
+                case FIELD_AVERAGE_PRICE -> target.setAveragePrice(readDouble(parser, token));
+                default -> parser.skipChildren();
+            }
+        }
+        return target.getCodeId() >= 0;
+    }
+
+    /**
+     * 读取数值字段，null 或无法识别时返回 NaN
+     */
+    private static double readDouble(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            // 少见的字符串数值，允许分配
+            String text = parser.getText().trim();
+            return text.isEmpty() ? Double.NaN : Double.parseDouble(text);
+        }
+        parser.skipChildren();
+        return Double.NaN;
+    }
+
+    /**
+     * 读取时间字段
+     */
+    private static void readTradeDate(JsonParser parser, JsonToken token, MutableTick target) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            char[] buf = parser.getTextCharacters();
+            int off = parser.getTextOffset();
+            int len = parser.getTextLength();
+            // yyyy-MM-dd HH:mm:ss 或 yyyy-MM-ddTHH:mm:ss，毫秒部分忽略
+            if (len < 19) {
+                throw new IOException("Unsupported tradeDate format: " + new String(buf, off, len));
+            }
+            target.setTradeTime(
+                    digits(buf, off, 4),
+                    digits(buf, off + 5, 2),
+                    digits(buf, off + 8, 2),
+                    digits(buf, off + 11, 2),
+                    digits(buf, off + 14, 2),
+                    digits(buf, off + 17, 2));
+        } else if (token == JsonToken.VALUE_NUMBER_INT) {
+            target.setEpochSecond(Math.floorDiv(parser.getLongValue(), 1000L));
+        } else if (token == JsonToken.START_ARRAY) {
+            int[] parts = new int[6];
+            int idx = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (idx < parts.length) {
+                    parts[idx] = parser.getIntValue();
+                }
+                idx++;
+            }
+            target.setTradeTime(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5]);
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * 解析定长十进制数字
+     */
+    private static int digits(char[] buf, int offset, int count) throws IOException {
+        int value = 0;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                throw new IOException("Invalid digit in tradeDate at " + (i - offset));
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
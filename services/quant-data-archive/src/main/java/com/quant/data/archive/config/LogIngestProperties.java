@@ -0,0 +1,97 @@
+package com.quant.data.archive.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日志入库（Kafka → Elasticsearch）配置属性类
+ *
+ * 设计目的：
+ * 1. 控制日志消费模式（逐条 / 批量）与 Bulk 写入参数。
+ * 2. 两种模式可通过配置切换，便于对比吞吐。
+ *
+ * 配置示例（application.yml）：
+ * <pre>
+ * archive:
+ *   log-ingest:
+ *     batch-enabled: true
+ *     max-poll-records: 1000
+ *     bulk-max-actions: 2000
+ *     bulk-max-bytes: 5242880
+ *     flush-interval-ms: 1000
+ *     max-in-flight-bulks: 2
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "archive.log-ingest")
+public class LogIngestProperties {
+
+    /**
+     * 是否启用批量消费 + Bulk 写入
+     * 默认值：true
+     * 说明：false-逐条消费并单条 save（旧模式）
+     */
+    private boolean batchEnabled = true;
+
+    /**
+     * 批量模式单次poll最大拉取条数（max.poll.records）
+     * 默认值：1000
+     */
+    private int maxPollRecords = 1000;
+
+    /**
+     * 批量拉取最大等待时间（fetch.max.wait.ms）
+     * 默认值：100毫秒
+     */
+    private int batchMaxWaitMs = 100;
+
+    /**
+     * 批量拉取最小字节数（fetch.min.bytes）
+     * 默认值：65536（64KB）
+     */
+    private int batchMinBytes = 65536;
+
+    /**
+     * 单个 Bulk 请求的最大文档数，缓冲区达到即刷写
+     * 默认值：2000
+     */
+    private int bulkMaxActions = 2000;
+
+    /**
+     * 单个 Bulk 请求的最大字节数（按 Kafka 消息体估算），缓冲区达到即刷写
+     * 默认值：5MB
+     */
+    private long bulkMaxBytes = 5L * 1024 * 1024;
+
+    /**
+     * 缓冲区最长停留时间（毫秒），超过即刷写，低峰期保证日志可见延迟
+     * 默认值：1000
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 同时在途的 Bulk 请求上限，达到上限后监听线程阻塞（背压）
+     * 默认值：2
+     */
+    private int maxInFlightBulks = 2;
+
+    /**
+     * 单个 Bulk 请求失败（整体失败或 429/5xx 文档）的最大重试次数
+     * 默认值：3
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 重试初始退避时间（毫秒），每次重试翻倍
+     * 默认值：200
+     */
+    private long retryBackoffMs = 200;
+
+    /**
+     * 吞吐统计输出周期（秒）
+     * 默认值：30
+     */
+    private int metricsWindowSeconds = 30;
+}
@@ -1,5 +1,6 @@
 package com.quant.data.archive.integration.kafka;
 
+import com.quant.data.archive.config.LogIngestProperties;
 import integration.kafka.KafkaConstants;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -39,4 +41,45 @@ public class ConsumerConfig {
         ); //  设置手动提交模式
         return factory;
     }
+
+    /**
+     * 日志批量消费者工厂
+     * <p>
+     * 单批条数与凑批等待由 {@link LogIngestProperties} 控制。
+     *
+     * @param properties 日志入库配置
+     * @return ConsumerFactory 实例
+     */
+    @Bean
+    public ConsumerFactory<String, String> batchConsumerFactory(LogIngestProperties properties) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, serversConfig);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG, KafkaConstants.GROUP_DATA_ARCHIVE);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.FETCH_MIN_BYTES_CONFIG, properties.getBatchMinBytes());
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, properties.getBatchMaxWaitMs());
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * 日志批量监听器容器工厂
+     * <p>
+     * 确认由 Bulk 写入线程在 ES 确认后调用，容器将跨线程的确认排队到消费线程提交。
+     *
+     * @param properties 日志入库配置
+     * @return ConcurrentKafkaListenerContainerFactory 实例
+     */
+    @Bean(name = KafkaConstants.BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory(
+            LogIngestProperties properties) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory(properties));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
+    }
 }
@@ -4,10 +4,15 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quant.data.archive.model.es.LogDocument;
 import com.quant.data.archive.repository.LogEsRepository;
+import com.quant.data.archive.service.LogBulkIndexer;
+import com.quant.data.archive.service.LogIngestMetrics;
 import constants.DateTimeFormatConstants;
 import integration.kafka.KafkaConstants;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
@@ -17,6 +22,10 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -46,6 +55,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * - 性能优化：批量处理、异步确认、内存缓冲等提升吞吐量
  * - 监控友好：提供消费速率、错误率等关键指标
  * - 扩展性：预留接口支持日志存储到ES、数据库等多种后端
+ *
+ * <p>消费模式（archive.log-ingest.batch-enabled）：
+ * - 批量模式：整批解析为 LogDocument → {@link LogBulkIndexer} 按阈值 Bulk 写入 → ES 确认后提交 Offset
+ * - 逐条模式：每条消息单独 save 并立即确认（旧模式）
+ * 两个监听器只会启动其中一个，避免同组内互相争抢分区。
+ * 两种模式都不再逐条输出 INFO 日志（本服务日志同样经 Kafka Appender 回流），吞吐见 {@link LogIngestMetrics}。
  */
 @Slf4j
 @Service
@@ -58,6 +73,12 @@ public class LogConsumerService {
     @Autowired
     private LogEsRepository logEsRepository;
 
+    @Autowired
+    private LogBulkIndexer logBulkIndexer;
+
+    @Autowired
+    private LogIngestMetrics logIngestMetrics;
+
     /** 消费计数器 */
     private final AtomicLong consumeCounter = new AtomicLong(0);
     
@@ -69,6 +90,7 @@ public class LogConsumerService {
             DateTimeFormatter.ofPattern(DateTimeFormatConstants.ISO_DATETIME_UTC_FORMAT);
 
     @KafkaListener(
+            id = "logSingleListener",
             topics = {
                     KafkaConstants.TOPIC_LOG_SERVICE_ORDER,
                     KafkaConstants.TOPIC_LOG_QUANT_XXL_JOB,
@@ -80,7 +102,8 @@ public class LogConsumerService {
                     KafkaConstants.TOPIC_LOG_QUANT_DATA_ARCHIVE
             },
             groupId = KafkaConstants.GROUP_DATA_ARCHIVE,
-            containerFactory = KafkaConstants.LISTENER_CONTAINER_FACTORY
+            containerFactory = KafkaConstants.LISTENER_CONTAINER_FACTORY,
+            autoStartup = "#{!${archive.log-ingest.batch-enabled:true}}"
     )
     /**
      * 消费Kafka日志消息
@@ -107,6 +130,7 @@ public class LogConsumerService {
         // 2. 处理后进行统计与确认。
         long startTime = System.currentTimeMillis();
         long currentCount = consumeCounter.incrementAndGet();
+        logIngestMetrics.onReceived(1);
         
         try {
             String key = record.key();
@@ -115,8 +139,9 @@ public class LogConsumerService {
             // 解析结构化日志
             LogMessage logMessage = parseLogMessage(value);
             if (logMessage == null) {
+                logIngestMetrics.onParseFailed();
                 log.warn("日志解析失败|Log_parse_failed,topic={},partition={},offset={},value={}",
-                        topic, partition, offset, value);
+                        topic, partition, offset, truncateMessage(value, 200));
                 ack.acknowledge();
                 return;
             }
@@ -158,6 +183,96 @@ public class LogConsumerService {
         }
     }
 
+    /**
+     * 批量消费Kafka日志消息
+     *
+     * 实现逻辑：
+     * 1. 若此前有 Bulk 重试耗尽失败，先把所有分区回退到已提交 Offset，本批随之重新投递。
+     * 2. 整批解析为 ES 文档，解析失败的消息跳过（随整批一起确认）。
+     * 3. 交给 Bulk 写入器缓冲，ES 确认后由写入器提交本批 Offset。
+     *
+     * @param records 本次 poll 拉取的消息
+     * @param ack 整批确认器
+     * @param consumer Kafka 消费者（仅在监听线程内用于回退 Offset）
+     */
+    @KafkaListener(
+            id = "logBatchListener",
+            topics = {
+                    KafkaConstants.TOPIC_LOG_SERVICE_ORDER,
+                    KafkaConstants.TOPIC_LOG_QUANT_XXL_JOB,
+                    KafkaConstants.TOPIC_LOG_QUANT_DATA_COLLECTOR,
+                    KafkaConstants.TOPIC_LOG_QUANT_STRATEGY_ENGINE,
+                    KafkaConstants.TOPIC_LOG_QUANT_RISK_CONTROL,
+                    KafkaConstants.TOPIC_LOG_QUANT_SIGNAL_CENTER,
+                    KafkaConstants.TOPIC_LOG_QUANT_STOCK_LIST,
+                    KafkaConstants.TOPIC_LOG_QUANT_DATA_ARCHIVE
+            },
+            groupId = KafkaConstants.GROUP_DATA_ARCHIVE,
+            containerFactory = KafkaConstants.BATCH_LISTENER_CONTAINER_FACTORY,
+            autoStartup = "${archive.log-ingest.batch-enabled:true}"
+    )
+    public void consumeLogBatch(List<ConsumerRecord<String, String>> records,
+                                Acknowledgment ack,
+                                Consumer<?, ?> consumer) {
+        if (logBulkIndexer.isRewindRequested()) {
+            rewindToCommitted(consumer);
+            return;
+        }
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        logIngestMetrics.onReceived(records.size());
+
+        LocalDateTime consumeTime = LocalDateTime.now();
+        List<LogDocument> docs = new ArrayList<>(records.size());
+        long bytes = 0;
+        for (ConsumerRecord<String, String> record : records) {
+            bytes += Math.max(0, record.serializedValueSize());
+            LogMessage logMessage = parseLogMessage(record.value());
+            if (logMessage == null) {
+                logIngestMetrics.onParseFailed();
+                log.debug("日志解析失败|Log_parse_failed,topic={},partition={},offset={}",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            logMessage.setKafkaTopic(record.topic());
+            logMessage.setKafkaPartition(record.partition());
+            logMessage.setKafkaOffset(record.offset());
+            logMessage.setKafkaKey(record.key());
+            logMessage.setConsumeTime(consumeTime);
+            if (isExceptionLog(logMessage)) {
+                logIngestMetrics.onErrorLog();
+            }
+            docs.add(convertToEsDoc(logMessage));
+        }
+        logBulkIndexer.append(docs, bytes, ack);
+    }
+
+    /**
+     * 回退到已提交 Offset
+     *
+     * 实现逻辑：
+     * 1. 重置 Bulk 写入器（丢弃缓冲、重建确认链）。
+     * 2. 所有已分配分区 seek 到已提交位点，未确认的消息重新投递；文档 ID 固定，重复写入会覆盖。
+     *
+     * @param consumer Kafka 消费者
+     */
+    private void rewindToCommitted(Consumer<?, ?> consumer) {
+        logBulkIndexer.reset();
+        logIngestMetrics.onRewind();
+        Set<TopicPartition> assignment = consumer.assignment();
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(assignment);
+        for (TopicPartition partition : assignment) {
+            OffsetAndMetadata offset = committed.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset.offset());
+            } else {
+                log.warn("分区无已提交位点，无法回退|No_committed_offset_to_rewind,partition={}", partition);
+            }
+        }
+        log.warn("日志Bulk写入失败，回退到已提交位点重新消费|Log_bulk_failed_rewind,partitions={}", assignment.size());
+    }
+
     /**
      * 解析日志消息
      *
@@ -270,22 +385,10 @@ public class LogConsumerService {
      */
     private void processLogMessage(LogMessage logMessage) {
         // 实现思路：
-        // 1. 输出日志摘要与核心字段。
-        // 2. 异常日志单独记录。
-        // 记录接收的日志信息
-        log.info("收到日志|Log_received,instanceId={},level={},timestamp={},message={}",
-                logMessage.getInstanceId(), 
-                logMessage.getLevel(), 
-                logMessage.getTimestamp(), 
-                truncateMessage(logMessage.getMessage(), 200));
-        
-        // 特殊处理错误日志
-        if ("ERROR".equalsIgnoreCase(logMessage.getLevel()) && 
-            logMessage.getException() != null && !logMessage.getException().isEmpty()) {
-            
-            log.warn("发现异常日志|Exception_log_detected,instanceId={},exception={}",
-                    logMessage.getInstanceId(), 
-                    truncateMessage(logMessage.getException(), 500));
+        // 1. 统计异常日志（不再逐条打印，避免经 Kafka Appender 回流放大）。
+        // 2. 单条写入 ES。
+        if (isExceptionLog(logMessage)) {
+            logIngestMetrics.onErrorLog();
         }
         
         // 写入 Elasticsearch
@@ -305,18 +408,31 @@ public class LogConsumerService {
         // 3. 实现告警抑制（防止刷屏）
     }
 
+    /**
+     * 是否为携带异常堆栈的 ERROR 日志
+     *
+     * @param logMessage 日志实体
+     * @return 是否为异常日志
+     */
+    private boolean isExceptionLog(LogMessage logMessage) {
+        return "ERROR".equalsIgnoreCase(logMessage.getLevel())
+                && logMessage.getException() != null && !logMessage.getException().isEmpty();
+    }
+
     /**
      * 转换 LogMessage 为 ES 文档
      *
      * 实现逻辑：
      * 1. 复制所有日志字段到 ES 文档实体
      * 2. 保留 Kafka 元信息用于追溯
+     * 3. 文档 ID 取 topic-partition-offset，重复消费时覆盖而不是新增
      *
      * @param msg 日志消息实体
      * @return ES 文档实体
      */
     private LogDocument convertToEsDoc(LogMessage msg) {
         LogDocument doc = new LogDocument();
+        doc.setId(msg.getKafkaTopic() + "-" + msg.getKafkaPartition() + "-" + msg.getKafkaOffset());
         doc.setService(msg.getService());
         doc.setEnv(msg.getEnv());
         doc.setLevel(msg.getLevel());
@@ -0,0 +1,286 @@
+package com.quant.data.archive.service;
+
+import com.quant.data.archive.config.LogIngestProperties;
+import com.quant.data.archive.model.es.LogDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志 Bulk 写入器
+ *
+ * 设计目的：
+ * 1. 把逐条 save 改为 Bulk API 批量写入，降低 ES 的单文档请求压力。
+ * 2. 写入异步流水线化，同时保证 Kafka Offset 只在 Bulk 被 ES 确认后提交。
+ *
+ * 为什么需要该类：
+ * - 8 个服务的日志汇入后，逐条 index 请求会打满 ES 的写线程池。
+ *
+ * 核心实现思路：
+ * - 缓冲区按文档数 / 字节数 / 停留时间三个阈值触发刷写。
+ * - 刷写在 IO 线程池上异步执行，在途 Bulk 数由信号量限制；达到上限时监听线程阻塞，形成背压。
+ * - 每次刷写把所属批次的 Acknowledgment 串到确认链尾部，前一个 Bulk 确认后才确认下一个，
+ *   保证 Offset 按顺序提交；某个 Bulk 重试耗尽失败时确认链中断，由监听线程回退 Offset 重新消费。
+ * - 文档 ID 取 topic-partition-offset，重新消费时覆盖写入，不会产生重复文档。
+ */
+@Slf4j
+@Service
+public class LogBulkIndexer {
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ThreadPoolTaskExecutor ioTaskExecutor;
+    private final LogIngestProperties properties;
+    private final LogIngestMetrics metrics;
+    private final IndexCoordinates indexCoordinates;
+    private final Semaphore inFlightPermits;
+
+    /** 当前批次（epoch），回退 Offset 后递增，旧批次的失败不再触发回退 */
+    private final AtomicLong epoch = new AtomicLong();
+
+    /** 是否需要回退 Offset（由监听线程处理） */
+    private volatile boolean rewindRequested;
+
+    // 以下字段由 this 锁保护
+    private List<IndexQuery> buffer = new ArrayList<>();
+    private List<Acknowledgment> bufferAcks = new ArrayList<>();
+    private long bufferBytes;
+    private long bufferStartMillis;
+    private CompletableFuture<Void> ackTail = CompletableFuture.completedFuture(null);
+
+    public LogBulkIndexer(ElasticsearchOperations elasticsearchOperations,
+                          @Qualifier("ioTaskExecutor") ThreadPoolTaskExecutor ioTaskExecutor,
+                          LogIngestProperties properties,
+                          LogIngestMetrics metrics) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.ioTaskExecutor = ioTaskExecutor;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.indexCoordinates = elasticsearchOperations.getIndexCoordinatesFor(LogDocument.class);
+        this.inFlightPermits = new Semaphore(Math.max(1, properties.getMaxInFlightBulks()));
+    }
+
+    /**
+     * 追加一批文档
+     *
+     * 实现逻辑：
+     * 1. 文档与该批的 Acknowledgment 一起进入缓冲区（空批也要登记确认，保证 Offset 前进）。
+     * 2. 达到文档数或字节数阈值时立即刷写，在途 Bulk 已满则阻塞等待。
+     *
+     * @param docs  ES 文档（ID 已设置）
+     * @param bytes 本批消息体字节数
+     * @param ack   本批的 Kafka 确认器
+     */
+    public synchronized void append(List<LogDocument> docs, long bytes, Acknowledgment ack) {
+        if (rewindRequested) {
+            // 等待监听线程回退 Offset，本批会被重新投递
+            return;
+        }
+        if (buffer.isEmpty() && bufferAcks.isEmpty()) {
+            bufferStartMillis = System.currentTimeMillis();
+        }
+        for (LogDocument doc : docs) {
+            buffer.add(new IndexQueryBuilder().withId(doc.getId()).withObject(doc).build());
+        }
+        bufferAcks.add(ack);
+        bufferBytes += bytes;
+        if (buffer.size() >= properties.getBulkMaxActions() || bufferBytes >= properties.getBulkMaxBytes()) {
+            flushLocked(true);
+        }
+    }
+
+    /**
+     * 按停留时间刷写
+     *
+     * 实现逻辑：
+     * 1. 缓冲区停留超过 flushIntervalMs 时刷写。
+     * 2. 在途 Bulk 已满时跳过，由下一次检查或尺寸阈值触发。
+     */
+    @Scheduled(fixedDelay = 200)
+    public synchronized void flushIfExpired() {
+        if (bufferAcks.isEmpty()) {
+            return;
+        }
+        if (System.currentTimeMillis() - bufferStartMillis >= properties.getFlushIntervalMs()) {
+            flushLocked(false);
+        }
+    }
+
+    /**
+     * 是否需要回退 Offset
+     *
+     * @return true 表示有 Bulk 重试耗尽失败，之后的确认已全部中断
+     */
+    public boolean isRewindRequested() {
+        return rewindRequested;
+    }
+
+    /**
+     * 回退 Offset 前重置写入状态
+     *
+     * 实现逻辑：
+     * 1. 丢弃缓冲区（这些消息会随 Offset 回退重新投递）。
+     * 2. 进入新的 epoch 并重建确认链。
+     */
+    public synchronized void reset() {
+        buffer = new ArrayList<>();
+        bufferAcks = new ArrayList<>();
+        bufferBytes = 0;
+        ackTail = CompletableFuture.completedFuture(null);
+        epoch.incrementAndGet();
+        rewindRequested = false;
+    }
+
+    /**
+     * 关闭前刷写剩余缓冲
+     *
+     * 实现逻辑：
+     * 1. 刷写缓冲区并等待确认链完成（最多10秒），未完成的部分重启后重新消费。
+     */
+    @PreDestroy
+    public void shutdown() {
+        CompletableFuture<Void> tail;
+        synchronized (this) {
+            flushLocked(true);
+            tail = ackTail;
+        }
+        try {
+            tail.get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("关闭时日志Bulk未全部确认|Log_bulk_not_drained_on_shutdown,error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 刷写缓冲区（需持有 this 锁）
+     *
+     * @param block 在途 Bulk 已满时是否阻塞等待
+     */
+    private void flushLocked(boolean block) {
+        if (bufferAcks.isEmpty()) {
+            return;
+        }
+        if (block) {
+            inFlightPermits.acquireUninterruptibly();
+        } else if (!inFlightPermits.tryAcquire()) {
+            return;
+        }
+        List<IndexQuery> queries = buffer;
+        List<Acknowledgment> acks = bufferAcks;
+        buffer = new ArrayList<>(Math.min(queries.size(), properties.getBulkMaxActions()));
+        bufferAcks = new ArrayList<>();
+        bufferBytes = 0;
+
+        long bulkEpoch = epoch.get();
+        metrics.onBulkStart();
+        CompletableFuture<Void> write;
+        try {
+            write = CompletableFuture.runAsync(() -> writeWithRetry(queries), ioTaskExecutor);
+        } catch (RuntimeException e) {
+            write = CompletableFuture.failedFuture(e);
+        }
+        write.whenComplete((ignored, e) -> {
+            inFlightPermits.release();
+            if (e != null && bulkEpoch == epoch.get()) {
+                rewindRequested = true;
+            }
+        });
+        // 前一个 Bulk 确认且本 Bulk 成功后才提交本批 Offset；任一失败则后续确认全部中断
+        ackTail = ackTail.thenCombine(write, (a, b) -> (Void) null)
+                .thenRun(() -> acks.forEach(Acknowledgment::acknowledge));
+    }
+
+    /**
+     * 执行 Bulk 写入（含重试）
+     *
+     * 实现逻辑：
+     * 1. 整体失败时整批重试；部分失败时只重试 429/5xx 文档，其余 4xx 文档计为拒绝并丢弃。
+     * 2. 重试按指数退避，次数耗尽后抛出异常中断确认链。
+     *
+     * @param queries 本次 Bulk 的文档
+     */
+    private void writeWithRetry(List<IndexQuery> queries) {
+        long startTime = System.currentTimeMillis();
+        List<IndexQuery> pending = queries;
+        int rejected = 0;
+        int attempt = 0;
+        while (true) {
+            Exception lastError;
+            try {
+                if (!pending.isEmpty()) {
+                    elasticsearchOperations.bulkIndex(pending, indexCoordinates);
+                }
+                metrics.onBulkDone(queries.size() - rejected, rejected,
+                        System.currentTimeMillis() - startTime, false);
+                return;
+            } catch (BulkFailureException e) {
+                lastError = e;
+                List<IndexQuery> retryable = new ArrayList<>();
+                for (IndexQuery query : pending) {
+                    BulkFailureException.FailureDetails details = e.getFailedDocuments().get(query.getId());
+                    if (details == null) {
+                        continue;
+                    }
+                    if (isRetryable(details.status())) {
+                        retryable.add(query);
+                    } else {
+                        rejected++;
+                    }
+                }
+                if (retryable.size() < e.getFailedDocuments().size()) {
+                    log.warn("日志文档被ES拒绝|Log_docs_rejected_by_es,rejected={},sample={}",
+                            e.getFailedDocuments().size() - retryable.size(), e.getMessage());
+                }
+                pending = retryable;
+                if (pending.isEmpty()) {
+                    continue;
+                }
+            } catch (Exception e) {
+                lastError = e;
+            }
+
+            attempt++;
+            if (attempt > properties.getMaxRetries()) {
+                metrics.onBulkDone(queries.size() - rejected - pending.size(), rejected,
+                        System.currentTimeMillis() - startTime, true);
+                log.error("日志Bulk写入失败|Log_bulk_write_failed,docs={},pending={},attempts={}",
+                        queries.size(), pending.size(), attempt, lastError);
+                throw new IllegalStateException("Log bulk write failed after " + attempt + " attempts", lastError);
+            }
+            metrics.onBulkRetry();
+            try {
+                Thread.sleep(properties.getRetryBackoffMs() << (attempt - 1));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                metrics.onBulkDone(queries.size() - rejected - pending.size(), rejected,
+                        System.currentTimeMillis() - startTime, true);
+                throw new IllegalStateException("Log bulk retry interrupted", ie);
+            }
+        }
+    }
+
+    /**
+     * 判断文档级失败是否可重试
+     *
+     * @param status ES 返回的状态码
+     * @return 429（写队列满）、5xx 或未知状态可重试
+     */
+    private boolean isRetryable(Integer status) {
+        return status == null || status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,165 @@
+package com.quant.data.archive.service;
+
+import com.quant.data.archive.config.LogIngestProperties;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志入库指标
+ *
+ * 设计目的：
+ * 1. 统计日志从 Kafka 到 Elasticsearch 的吞吐与 Bulk 失败情况。
+ * 2. 逐条模式与批量模式共用同一组指标，切换 archive.log-ingest.batch-enabled 即可对比。
+ *
+ * 核心实现思路：
+ * - 累计计数器（AtomicLong）供 {@link #snapshot()} 读取。
+ * - 定时按窗口输出一行汇总日志，替代原先的逐条 INFO 日志，避免日志经 Kafka Appender 回流放大。
+ */
+@Slf4j
+@Component
+public class LogIngestMetrics {
+
+    private final LogIngestProperties properties;
+
+    /** 接收的 Kafka 消息数 */
+    private final AtomicLong received = new AtomicLong();
+    /** 解析失败（跳过）的消息数 */
+    private final AtomicLong parseFailed = new AtomicLong();
+    /** 携带异常堆栈的 ERROR 日志数 */
+    private final AtomicLong errorLogs = new AtomicLong();
+    /** 已被 ES 确认写入的文档数 */
+    private final AtomicLong indexed = new AtomicLong();
+    /** 被 ES 拒绝且不可重试（如 4xx 映射错误）而丢弃的文档数 */
+    private final AtomicLong rejected = new AtomicLong();
+    /** 成功完成的 Bulk 请求数 */
+    private final AtomicLong bulks = new AtomicLong();
+    /** Bulk 重试次数 */
+    private final AtomicLong bulkRetries = new AtomicLong();
+    /** 重试耗尽后仍失败的 Bulk 请求数 */
+    private final AtomicLong bulkFailures = new AtomicLong();
+    /** 因 Bulk 失败回退 Offset 重新消费的次数 */
+    private final AtomicLong rewinds = new AtomicLong();
+    /** Bulk 请求累计耗时（毫秒） */
+    private final AtomicLong bulkCostMs = new AtomicLong();
+    /** 当前在途 Bulk 请求数 */
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private long windowStart = System.currentTimeMillis();
+    private long lastReceived;
+    private long lastIndexed;
+
+    public LogIngestMetrics(LogIngestProperties properties) {
+        this.properties = properties;
+    }
+
+    public void onReceived(int count) {
+        received.addAndGet(count);
+    }
+
+    public void onParseFailed() {
+        parseFailed.incrementAndGet();
+    }
+
+    public void onErrorLog() {
+        errorLogs.incrementAndGet();
+    }
+
+    public void onBulkStart() {
+        inFlight.incrementAndGet();
+    }
+
+    public void onBulkRetry() {
+        bulkRetries.incrementAndGet();
+    }
+
+    public void onBulkDone(int indexedCount, int rejectedCount, long costMs, boolean failed) {
+        inFlight.decrementAndGet();
+        bulkCostMs.addAndGet(costMs);
+        indexed.addAndGet(indexedCount);
+        rejected.addAndGet(rejectedCount);
+        if (failed) {
+            bulkFailures.incrementAndGet();
+        } else {
+            bulks.incrementAndGet();
+        }
+    }
+
+    public void onRewind() {
+        rewinds.incrementAndGet();
+    }
+
+    /**
+     * 读取当前累计指标
+     *
+     * @return 指标快照
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setReceived(received.get());
+        snapshot.setParseFailed(parseFailed.get());
+        snapshot.setErrorLogs(errorLogs.get());
+        snapshot.setIndexed(indexed.get());
+        snapshot.setRejected(rejected.get());
+        snapshot.setBulks(bulks.get());
+        snapshot.setBulkRetries(bulkRetries.get());
+        snapshot.setBulkFailures(bulkFailures.get());
+        snapshot.setRewinds(rewinds.get());
+        snapshot.setBulkCostMs(bulkCostMs.get());
+        snapshot.setInFlight(inFlight.get());
+        return snapshot;
+    }
+
+    /**
+     * 按窗口输出吞吐日志
+     *
+     * 实现逻辑：
+     * 1. 窗口未到期或窗口内无流量时不输出。
+     * 2. 输出窗口内收/写速率与累计失败计数。
+     */
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void report() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - windowStart;
+        if (elapsed < Math.max(1, properties.getMetricsWindowSeconds()) * 1000L) {
+            return;
+        }
+        long receivedNow = received.get();
+        long indexedNow = indexed.get();
+        long receivedDelta = receivedNow - lastReceived;
+        long indexedDelta = indexedNow - lastIndexed;
+        if (receivedDelta > 0 || indexedDelta > 0) {
+            long bulkCount = bulks.get() + bulkFailures.get();
+            log.info("日志入库吞吐|Log_ingest_throughput,receivedPerSec={},indexedPerSec={},bulks={},avgBulkCostMs={},"
+                            + "bulkRetries={},bulkFailures={},rejected={},parseFailed={},errorLogs={},rewinds={},inFlight={}",
+                    receivedDelta * 1000 / elapsed, indexedDelta * 1000 / elapsed, bulkCount,
+                    bulkCount == 0 ? 0 : bulkCostMs.get() / bulkCount,
+                    bulkRetries.get(), bulkFailures.get(), rejected.get(), parseFailed.get(),
+                    errorLogs.get(), rewinds.get(), inFlight.get());
+        }
+        windowStart = now;
+        lastReceived = receivedNow;
+        lastIndexed = indexedNow;
+    }
+
+    /**
+     * 指标快照
+     */
+    @Data
+    public static class Snapshot {
+        private long received;
+        private long parseFailed;
+        private long errorLogs;
+        private long indexed;
+        private long rejected;
+        private long bulks;
+        private long bulkRetries;
+        private long bulkFailures;
+        private long rewinds;
+        private long bulkCostMs;
+        private long inFlight;
+    }
+}
@@ -3,13 +3,13 @@ package com.hao.datacollector.common.utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hao.datacollector.integration.http.PooledHttpClient;
+import com.hao.datacollector.properties.HttpClientProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
@@ -21,6 +21,7 @@ import java.util.Map;
  * 提供GET、POST等HTTP请求的封装方法
  * 支持超时设置、请求头配置、JSON处理等功能
  * 使用Jackson替代FastJSON，提供更好的性能和安全性
+ * 所有请求经由共享的 {@link PooledHttpClient} 发送，复用连接（Keep-Alive），不再每次新建 RestTemplate
  *
  * @author LiHao
  * @version 2.0
@@ -39,6 +40,9 @@ public final class HttpUtil {
     // Jackson对象映射器，线程安全
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    // 共享连接池客户端：Spring 启动时由 HttpClientConfig 注入配置好的实例，否则首次使用时按默认配置创建
+    private static volatile PooledHttpClient sharedClient;
+
     // 私有构造函数，防止实例化
     private HttpUtil() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
@@ -90,9 +94,6 @@ public final class HttpUtil {
         validateTimeouts(connectTimeout, readTimeout);
 
         try {
-            // 创建RestTemplate并配置超时
-            RestTemplate restTemplate = createRestTemplate(connectTimeout, readTimeout);
-
             // 准备请求头
             HttpHeaders requestHeaders = prepareHeaders(headers);
             requestHeaders.setContentType(MediaType.APPLICATION_JSON);
@@ -100,15 +101,12 @@ public final class HttpUtil {
             // 转换请求体为JSON字符串
             String jsonBody = convertToJson(requestBody);
 
-            // 创建请求实体
-            HttpEntity<String> requestEntity = new HttpEntity<>(jsonBody, requestHeaders);
-
             // 发送请求并记录日志
             log.debug("发送POST请求|Send_post_request,url={},bodyLength={}", url,
                     jsonBody != null ? jsonBody.length() : 0);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.POST, requestEntity, String.class);
+            ResponseEntity<String> response = client().postJson(
+                    url, jsonBody, requestHeaders, connectTimeout, readTimeout);
 
             log.debug("收到POST响应|Receive_post_response,status={},bodyLength={}",
                     response.getStatusCode(),
@@ -150,22 +148,15 @@ public final class HttpUtil {
         }
 
         try {
-            // 创建RestTemplate并配置超时
-            RestTemplate restTemplate = createRestTemplate(connectTimeout, readTimeout);
-
             // 准备请求头
             HttpHeaders requestHeaders = prepareHeaders(headers);
             requestHeaders.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
 
-            // 创建请求实体
-            HttpEntity<MultiValueMap<String, String>> requestEntity =
-                    new HttpEntity<>(formData, requestHeaders);
-
             // 发送请求
             log.debug("发送表单POST请求|Send_form_post,url={},formSize={}", url, formData.size());
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.POST, requestEntity, String.class);
+            ResponseEntity<String> response = client().postForm(
+                    url, formData, requestHeaders, connectTimeout, readTimeout);
 
             log.debug("收到表单POST响应|Receive_form_post_response,status={}", response.getStatusCode());
 
@@ -207,20 +198,13 @@ public final class HttpUtil {
         validateTimeouts(connectTimeout, readTimeout);
 
         try {
-            // 创建RestTemplate并配置超时
-            RestTemplate restTemplate = createRestTemplate(connectTimeout, readTimeout);
-
             // 准备请求头
             HttpHeaders requestHeaders = prepareHeaders(headers);
 
-            // 创建请求实体
-            HttpEntity<Void> requestEntity = new HttpEntity<>(requestHeaders);
-
             // 发送请求
             log.debug("发送GET请求|Send_get_request,url={}", url);
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.GET, requestEntity, String.class);
+            ResponseEntity<String> response = client().get(url, requestHeaders, connectTimeout, readTimeout);
 
             log.debug("收到GET响应|Receive_get_response,status={},bodyLength={}",
                     response.getStatusCode(),
@@ -245,20 +229,13 @@ public final class HttpUtil {
      * @return
      */
     public static ResponseEntity<String> sendGetWithParams(String url, MultiValueMap<String, String> queryParams, HttpHeaders httpHeader, int connectTimeOut, int readTimeOut) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(connectTimeOut);
-        //获取数据超时时间
-        requestFactory.setReadTimeout(readTimeOut);
-        RestTemplate client = new RestTemplate(requestFactory);
-        HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(httpHeader);
         // 构建带查询参数的URI
         UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(url);
         if (queryParams != null && !queryParams.isEmpty()) {
             builder.queryParams(queryParams);
         }
         String finalUrl = builder.toUriString();
-        ResponseEntity<String> response = client.exchange(finalUrl, HttpMethod.GET, requestEntity, String.class);
-        return response;
+        return client().get(finalUrl, httpHeader, connectTimeOut, readTimeOut);
     }
 
     // ==================== JSON处理方法 ====================
@@ -339,32 +316,43 @@ public final class HttpUtil {
     // ==================== 工具方法 ====================
 
     /**
-     * 创建配置了超时时间的RestTemplate
+     * 注册共享连接池客户端（由 HttpClientConfig 在启动时调用）
      *
-     * @param connectTimeout 连接超时时间（毫秒）
-     * @param readTimeout    读取超时时间（毫秒）
-     * @return 配置好的RestTemplate实例
+     * @param client 配置好的连接池客户端
      */
-    private static RestTemplate createRestTemplate(int connectTimeout, int readTimeout) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectTimeout);
-        factory.setReadTimeout(readTimeout);
-
-        // 移除已过时的setBufferRequestBody方法调用
-        // factory.setBufferRequestBody(true); // 此方法在Spring 6.1中已过时
+    public static void setSharedClient(PooledHttpClient client) {
+        sharedClient = client;
+    }
 
-        return new RestTemplate(factory);
+    /**
+     * 获取共享连接池客户端，未注册时按默认配置创建
+     *
+     * @return 连接池客户端
+     */
+    public static PooledHttpClient client() {
+        PooledHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (HttpUtil.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = new PooledHttpClient(new HttpClientProperties());
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
     }
 
     /**
      * 准备HTTP请求头
      * 如果传入的headers为null，则创建新的HttpHeaders
      * 并设置默认的User-Agent和Accept头
+     * 直接使用 {@link PooledHttpClient} 的调用方也用它保持与本工具类相同的请求头
      *
      * @param headers 原始请求头，可以为null
      * @return 准备好的请求头
      */
-    private static HttpHeaders prepareHeaders(HttpHeaders headers) {
+    public static HttpHeaders prepareHeaders(HttpHeaders headers) {
         HttpHeaders requestHeaders = headers != null ? new HttpHeaders(headers) : new HttpHeaders();
 
         // 设置默认User-Agent（如果没有设置）
@@ -440,13 +428,7 @@ public final class HttpUtil {
                                                              HttpHeaders httpHeader,
                                                              int connectTimeOut,
                                                              int readTimeOut) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectTimeOut);
-        factory.setReadTimeout(readTimeOut);
-
-        RestTemplate restTemplate = new RestTemplate(factory);
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(bodyContent, httpHeader);
-        return restTemplate.postForEntity(url, entity, String.class);
+        return client().postForm(url, bodyContent, httpHeader, connectTimeOut, readTimeOut);
     }
 
     /**
@@ -0,0 +1,186 @@
+package com.hao.datacollector.core.bar;
+
+import com.hao.datacollector.dto.quotation.DailyBarDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 单个交易日的全市场日线（只读，列式存储）
+ * <p>
+ * 类职责：
+ * 作为 {@link DailyBarStore} 进程内缓存的值，以原始类型数组保存一个交易日所有股票的日线。
+ * <p>
+ * 设计目的：
+ * 每行日线若以 DTO 缓存，连同 Double / LocalDateTime 包装对象约 500 字节；列式存储约 100 字节，
+ * 缓存 120 个交易日的全市场日线只需几十 MB。
+ * <p>
+ * 存储约定：
+ * - 价格缺失为 NaN，时间缺失为 {@link Long#MIN_VALUE}，时间以北京时间 epoch 秒保存。
+ * - 构建后只读，可被多个线程并发访问。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+public final class DailyBarDay {
+
+    private static final ZoneOffset BEIJING_ZONE = ZoneOffset.of("+8");
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final LocalDate tradeDate;
+    private final String[] windCodes;
+    private final Map<String, Integer> indexByCode;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private final double[] averages;
+    private final long[] highTimes;
+    private final long[] lowTimes;
+    private final long[] closeTimes;
+
+    private DailyBarDay(LocalDate tradeDate, int size) {
+        this.tradeDate = tradeDate;
+        this.windCodes = new String[size];
+        this.indexByCode = new HashMap<>(size * 2);
+        this.opens = new double[size];
+        this.highs = new double[size];
+        this.lows = new double[size];
+        this.closes = new double[size];
+        this.volumes = new double[size];
+        this.averages = new double[size];
+        this.highTimes = new long[size];
+        this.lowTimes = new long[size];
+        this.closeTimes = new long[size];
+    }
+
+    /**
+     * 由同一交易日的日线构建
+     *
+     * @param tradeDate 交易日
+     * @param bars      该交易日的日线（每只股票一条）
+     * @param canonical 股票代码规范化函数（跨交易日共享同一个 String 实例）
+     * @return 只读日线
+     */
+    public static DailyBarDay of(LocalDate tradeDate, List<DailyBarDTO> bars, Function<String, String> canonical) {
+        DailyBarDay day = new DailyBarDay(tradeDate, bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            DailyBarDTO bar = bars.get(i);
+            String windCode = canonical.apply(bar.getWindCode());
+            day.windCodes[i] = windCode;
+            day.indexByCode.put(windCode, i);
+            day.opens[i] = toDouble(bar.getOpenPrice());
+            day.highs[i] = toDouble(bar.getHighPrice());
+            day.lows[i] = toDouble(bar.getLowPrice());
+            day.closes[i] = toDouble(bar.getClosePrice());
+            day.volumes[i] = toDouble(bar.getTotalVolume());
+            day.averages[i] = toDouble(bar.getAveragePrice());
+            day.highTimes[i] = toEpochSecond(bar.getHighTime());
+            day.lowTimes[i] = toEpochSecond(bar.getLowTime());
+            day.closeTimes[i] = toEpochSecond(bar.getCloseTime());
+        }
+        return day;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public int size() {
+        return windCodes.length;
+    }
+
+    /**
+     * 该交易日有日线的全部股票代码
+     */
+    public List<String> windCodes() {
+        return Collections.unmodifiableList(Arrays.asList(windCodes));
+    }
+
+    /**
+     * 股票下标
+     *
+     * @param windCode 股票代码
+     * @return 下标，该股票当日无日线返回 -1
+     */
+    public int indexOf(String windCode) {
+        Integer index = indexByCode.get(windCode);
+        return index != null ? index : -1;
+    }
+
+    public String windCode(int index) {
+        return windCodes[index];
+    }
+
+    public double open(int index) {
+        return opens[index];
+    }
+
+    public double high(int index) {
+        return highs[index];
+    }
+
+    public double low(int index) {
+        return lows[index];
+    }
+
+    public double close(int index) {
+        return closes[index];
+    }
+
+    public double volume(int index) {
+        return volumes[index];
+    }
+
+    public double average(int index) {
+        return averages[index];
+    }
+
+    /**
+     * 最高价出现时间，缺失返回 null
+     */
+    public LocalDateTime highTime(int index) {
+        return toDateTime(highTimes[index]);
+    }
+
+    /**
+     * 最低价出现时间，缺失返回 null
+     */
+    public LocalDateTime lowTime(int index) {
+        return toDateTime(lowTimes[index]);
+    }
+
+    /**
+     * 最后一条分时时间，缺失返回 null
+     */
+    public LocalDateTime closeTime(int index) {
+        return toDateTime(closeTimes[index]);
+    }
+
+    /**
+     * 缺失值（NaN）转为 null
+     */
+    public static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(BEIJING_ZONE) : NO_TIME;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond != NO_TIME ? LocalDateTime.ofEpochSecond(epochSecond, 0, BEIJING_ZONE) : null;
+    }
+}
@@ -0,0 +1,286 @@
+package com.hao.datacollector.core.bar;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hao.datacollector.cache.DateCache;
+import com.hao.datacollector.core.query.QuerySegment;
+import com.hao.datacollector.core.query.TableRouter;
+import com.hao.datacollector.dal.dao.DailyBarMapper;
+import com.hao.datacollector.dto.quotation.DailyBarDTO;
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.properties.DailyBarProperties;
+import constants.DateTimeFormatConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import util.DateUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日线物化表存取组件
+ * <p>
+ * 类职责：
+ * 1. 增量汇总：分时数据转档落库后，在内存中把这批分时汇总为日线并合并写入 tb_quotation_daily_bar。
+ * 2. 回填：按交易日由分时表整日重算日线（一次性回填历史 / 收盘后兜底重算），完成后写入该交易日的完整性标记。
+ * 3. 读取：按交易日提供全市场日线，前置进程内 LRU 缓存（每个交易日一份 {@link DailyBarDay}）。
+ * <p>
+ * 设计目的：
+ * 预热与指标计算需要的收盘价、最高最低价、OHLC 原本每次都对分时表做窗口函数 / GROUP BY，
+ * 扫描数百万行分时；改为读每天约 5000 行的日线表，重复读取直接命中内存。
+ * <p>
+ * 缓存一致性：
+ * <pre>
+ * 写入：落库 → writeVersion+1 → 失效相关交易日
+ * 读取：记录 writeVersion → 查库 → 放入缓存 → writeVersion 已变化则失效刚放入的交易日
+ * </pre>
+ * 增量汇总按转档批次写入，某一批失败时当天只覆盖部分股票，因此只有带完整性标记的交易日才会被读取和缓存；
+ * 未标记的交易日（尚未回填）不缓存，由调用方回退到分时表汇总。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Slf4j
+@Component
+public class DailyBarStore {
+
+    private static final DateTimeFormatter PATTERN = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+
+    private final DailyBarMapper dailyBarMapper;
+    private final TableRouter tableRouter;
+    private final DailyBarProperties properties;
+
+    /**
+     * 交易日 → 全市场日线
+     */
+    private final Cache<LocalDate, DailyBarDay> cache;
+
+    /**
+     * 股票代码规范化（各交易日共享同一个 String 实例）
+     */
+    private final Map<String, String> canonicalCodes = new ConcurrentHashMap<>();
+
+    /**
+     * 写入版本号，用于丢弃与写入并发的缓存装载
+     */
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    public DailyBarStore(DailyBarMapper dailyBarMapper, TableRouter tableRouter, DailyBarProperties properties) {
+        this.dailyBarMapper = dailyBarMapper;
+        this.tableRouter = tableRouter;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, properties.getCacheMaxDays()))
+                .recordStats()
+                .build();
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 把一批分时数据汇总为日线（纯内存计算）
+     * <p>
+     * 开盘/收盘取时间最早/最晚的一条，最高/最低价相同时取最早出现的一条；与分时输入顺序无关。
+     *
+     * @param ticks 分时数据（可跨股票、跨交易日）
+     * @return 每只股票每个交易日一条日线
+     */
+    public static List<DailyBarDTO> rollup(Collection<HistoryTrendDTO> ticks) {
+        Map<String, Map<LocalDate, DailyBarDTO>> bars = new HashMap<>();
+        for (HistoryTrendDTO tick : ticks) {
+            if (tick == null || tick.getWindCode() == null || tick.getTradeDate() == null || tick.getLatestPrice() == null) {
+                continue;
+            }
+            LocalDateTime time = tick.getTradeDate();
+            double price = tick.getLatestPrice();
+            DailyBarDTO bar = bars.computeIfAbsent(tick.getWindCode(), k -> new HashMap<>(4))
+                    .get(time.toLocalDate());
+            if (bar == null) {
+                bar = new DailyBarDTO();
+                bar.setWindCode(tick.getWindCode());
+                bar.setTradeDate(time.toLocalDate());
+                bar.setOpenPrice(price);
+                bar.setOpenTime(time);
+                bar.setHighPrice(price);
+                bar.setHighTime(time);
+                bar.setLowPrice(price);
+                bar.setLowTime(time);
+                bar.setClosePrice(price);
+                bar.setCloseTime(time);
+                bar.setTotalVolume(tick.getTotalVolume());
+                bar.setAveragePrice(tick.getAveragePrice());
+                bars.get(tick.getWindCode()).put(time.toLocalDate(), bar);
+                continue;
+            }
+            if (time.isBefore(bar.getOpenTime())) {
+                bar.setOpenPrice(price);
+                bar.setOpenTime(time);
+            }
+            if (price > bar.getHighPrice() || (price == bar.getHighPrice() && time.isBefore(bar.getHighTime()))) {
+                bar.setHighPrice(price);
+                bar.setHighTime(time);
+            }
+            if (price < bar.getLowPrice() || (price == bar.getLowPrice() && time.isBefore(bar.getLowTime()))) {
+                bar.setLowPrice(price);
+                bar.setLowTime(time);
+            }
+            if (!time.isBefore(bar.getCloseTime())) {
+                bar.setClosePrice(price);
+                bar.setCloseTime(time);
+                bar.setTotalVolume(tick.getTotalVolume());
+                bar.setAveragePrice(tick.getAveragePrice());
+            }
+        }
+        List<DailyBarDTO> result = new ArrayList<>();
+        bars.values().forEach(byDate -> result.addAll(byDate.values()));
+        return result;
+    }
+
+    /**
+     * 增量汇总：把刚落库的一批分时合并写入日线表
+     *
+     * @param ticks 本次转档的分时数据
+     * @return 汇总出的日线条数
+     */
+    public int rollupTicks(List<HistoryTrendDTO> ticks) {
+        if (ticks == null || ticks.isEmpty()) {
+            return 0;
+        }
+        List<DailyBarDTO> bars = rollup(ticks);
+        int chunkSize = Math.max(1, properties.getUpsertChunkSize());
+        for (int from = 0; from < bars.size(); from += chunkSize) {
+            dailyBarMapper.upsertDailyBarList(bars.subList(from, Math.min(bars.size(), from + chunkSize)));
+        }
+        Set<LocalDate> dates = new LinkedHashSet<>();
+        bars.forEach(bar -> dates.add(bar.getTradeDate()));
+        afterWrite(dates);
+        log.info("日线增量汇总完成|Daily_bar_rollup_done,ticks={},bars={},dates={}", ticks.size(), bars.size(), dates);
+        return bars.size();
+    }
+
+    /**
+     * 回填：按交易日由分时表整日重算日线并覆盖写入
+     * <p>
+     * 每个交易日单独执行一条 INSERT ... SELECT，单次只扫描一天的分时数据，避免长事务；
+     * 整日重算成功后写入完整性标记，此后该交易日才由日线表提供查询。
+     *
+     * @param tradeDates 交易日列表
+     * @return 写入的日线条数（影响行数）
+     */
+    public int backfill(List<LocalDate> tradeDates) {
+        int total = 0;
+        for (LocalDate tradeDate : tradeDates) {
+            long start = System.currentTimeMillis();
+            String day = tradeDate.format(PATTERN);
+            int rows = 0;
+            for (QuerySegment segment : tableRouter.route(tradeDate, tradeDate)) {
+                rows += dailyBarMapper.rollupFromTrendTable(segment.getTableName(),
+                        DateUtil.appendStartOfDayTime(day), DateUtil.appendEndOfDayTime(day));
+            }
+            dailyBarMapper.markTradeDateComplete(tradeDate);
+            afterWrite(List.of(tradeDate));
+            total += rows;
+            log.info("日线回填|Daily_bar_backfill,tradeDate={},rows={},costMs={}", day, rows, System.currentTimeMillis() - start);
+        }
+        return total;
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 获取指定交易日的全市场日线
+     * <p>
+     * 缓存未命中的交易日合并为一次查询；没有完整性标记的交易日不出现在结果中（尚未回填，可能只汇总了部分股票）。
+     *
+     * @param tradeDates 交易日列表
+     * @return 交易日 → 全市场日线
+     */
+    public Map<LocalDate, DailyBarDay> getDays(Collection<LocalDate> tradeDates) {
+        Map<LocalDate, DailyBarDay> result = new LinkedHashMap<>(tradeDates.size() * 2);
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate tradeDate : tradeDates) {
+            DailyBarDay day = cache.getIfPresent(tradeDate);
+            if (day != null) {
+                result.put(tradeDate, day);
+            } else if (!result.containsKey(tradeDate) && !missing.contains(tradeDate)) {
+                missing.add(tradeDate);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long version = writeVersion.get();
+        List<LocalDate> complete = dailyBarMapper.selectCompleteTradeDateList(missing);
+        if (complete == null || complete.isEmpty()) {
+            log.info("日线交易日未标记完整|Daily_bar_days_incomplete,requestDays={},incompleteDays={}", tradeDates.size(), missing);
+            return result;
+        }
+        List<DailyBarDTO> rows = dailyBarMapper.selectByTradeDateList(complete);
+        Map<LocalDate, List<DailyBarDTO>> byDate = new HashMap<>(missing.size() * 2);
+        for (DailyBarDTO row : rows) {
+            if (row != null && row.getTradeDate() != null && row.getWindCode() != null) {
+                byDate.computeIfAbsent(row.getTradeDate(), k -> new ArrayList<>()).add(row);
+            }
+        }
+        for (LocalDate tradeDate : complete) {
+            List<DailyBarDTO> bars = byDate.get(tradeDate);
+            if (bars == null) {
+                continue;
+            }
+            DailyBarDay day = DailyBarDay.of(tradeDate, bars, this::canonical);
+            result.put(tradeDate, day);
+            cache.put(tradeDate, day);
+            if (writeVersion.get() != version) {
+                // 中文：装载期间发生写入，刚放入的可能是旧数据，交给下次读取重新装载
+                // English: A write raced with this load; drop the possibly stale entry
+                cache.invalidate(tradeDate);
+            }
+        }
+        log.info("日线缓存装载|Daily_bar_cache_load,requestDays={},loadDays={},incompleteDays={},rows={},cachedDays={}",
+                tradeDates.size(), complete.size(), missing.size() - complete.size(), rows.size(), cache.estimatedSize());
+        return result;
+    }
+
+    /**
+     * 区间内的交易日（来自 {@link DateCache#AllTradeDateList}，不含未来日期）
+     *
+     * @param startDate 起始日期（含）
+     * @param endDate   结束日期（含）
+     * @return 交易日升序列表，交易日历未加载或未覆盖起始日期时返回 null
+     */
+    public List<LocalDate> tradeDatesBetween(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> calendar = DateCache.AllTradeDateList;
+        if (calendar == null || calendar.isEmpty() || startDate.isBefore(calendar.getFirst())) {
+            return null;
+        }
+        LocalDate last = endDate.isAfter(LocalDate.now()) ? LocalDate.now() : endDate;
+        List<LocalDate> result = new ArrayList<>();
+        for (LocalDate date : calendar) {
+            if (!date.isBefore(startDate) && !date.isAfter(last)) {
+                result.add(date);
+            }
+        }
+        return result;
+    }
+
+    private void afterWrite(Collection<LocalDate> tradeDates) {
+        writeVersion.incrementAndGet();
+        cache.invalidateAll(tradeDates);
+    }
+
+    private String canonical(String windCode) {
+        return canonicalCodes.computeIfAbsent(windCode, k -> k);
+    }
+}
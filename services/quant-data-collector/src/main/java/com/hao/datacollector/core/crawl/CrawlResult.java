@@ -0,0 +1,50 @@
+package com.hao.datacollector.core.crawl;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次并发抓取的结果
+ *
+ * @param <K> 抓取键类型（如题材 ID）
+ * @param <V> 抓取结果类型
+ * @author hli
+ * @date 2026-02-12
+ */
+@Getter
+@AllArgsConstructor
+public class CrawlResult<K, V> {
+
+    /**
+     * 抓取成功且有数据的结果，按输入键顺序排列
+     */
+    private final Map<K, V> results;
+
+    /**
+     * 重试耗尽或遇到不可重试异常的键，按输入键顺序排列
+     */
+    private final List<K> failedKeys;
+
+    /**
+     * 抓取成功但无数据（抓取函数返回 null）的键数
+     */
+    private final int emptyCount;
+
+    /**
+     * 实际发出的请求次数（含重试）
+     */
+    private final int attempts;
+
+    /**
+     * 重试次数
+     */
+    private final int retries;
+
+    /**
+     * 抓取耗时（毫秒）
+     */
+    private final long costMs;
+}
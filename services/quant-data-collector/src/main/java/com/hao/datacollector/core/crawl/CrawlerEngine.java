@@ -0,0 +1,192 @@
+package com.hao.datacollector.core.crawl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 并发爬虫引擎
+ * <p>
+ * 类职责：
+ * 对一组抓取键（题材 ID、股票代码等）并发执行抓取函数，替代逐个阻塞请求的循环。
+ * <p>
+ * 设计目的：
+ * 1. 有界并发：信号量限制同时进行的请求数，提交方在并发占满时阻塞，不会一次性堆积全部任务
+ * 2. 令牌桶限流：每次请求（含重试）前获取令牌，整体速率不超过数据源的承受能力
+ * 3. 抖动指数退避：瞬时故障（IO 异常、5xx、429）按 base × 2^(n-1) 退避，在 [上限/2, 上限] 间随机，避免重试同时涌向数据源
+ * 4. 结果汇总：成功结果按输入顺序返回，失败键单独列出，便于补抓
+ * <p>
+ * 抓取函数返回 null 表示该键无数据（如题材不存在），不视为失败、不重试；
+ * 抛出不可重试的异常（如 4xx、解析错误）时直接记为失败。
+ * <p>
+ * 线程安全：可被多线程共享，同一引擎上的并发抓取共用限流器，但各自独立计算并发上限。
+ *
+ * @author hli
+ * @date 2026-02-12
+ */
+@Slf4j
+public class CrawlerEngine {
+
+    private final String name;
+    private final int maxConcurrency;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final Executor executor;
+
+    /**
+     * @param name           引擎名称（用于日志）
+     * @param maxConcurrency 最大并发请求数
+     * @param rateLimiter    限流器，为 null 时不限速
+     * @param maxAttempts    单个键最多请求次数（含首次）
+     * @param backoffBaseMs  首次重试的退避基数（毫秒）
+     * @param backoffMaxMs   退避上限（毫秒）
+     * @param executor       执行抓取的线程池
+     */
+    public CrawlerEngine(String name, int maxConcurrency, TokenBucketRateLimiter rateLimiter,
+                         int maxAttempts, long backoffBaseMs, long backoffMaxMs, Executor executor) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.rateLimiter = rateLimiter;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = Math.max(0, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+        this.executor = executor;
+    }
+
+    /**
+     * 并发抓取
+     *
+     * @param keys    抓取键列表
+     * @param fetcher 抓取函数，返回 null 表示无数据
+     * @param <K>     抓取键类型
+     * @param <V>     抓取结果类型
+     * @return 抓取结果；调用线程被中断时未提交的键记为失败
+     */
+    public <K, V> CrawlResult<K, V> crawl(List<K> keys, Function<K, V> fetcher) {
+        long start = System.currentTimeMillis();
+        Map<K, V> fetched = new ConcurrentHashMap<>();
+        Map<K, Boolean> failed = new ConcurrentHashMap<>();
+        AtomicInteger emptyCount = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(keys.size());
+        try {
+            for (K key : keys) {
+                permits.acquire();
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        V value = fetchWithRetry(key, fetcher, attempts, retries);
+                        if (value != null) {
+                            fetched.put(key, value);
+                        } else {
+                            emptyCount.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.put(key, Boolean.TRUE);
+                        log.warn("抓取失败|Crawl_key_failed,crawler={},key={},error={}", name, key, e.toString());
+                    }
+                }, executor).whenComplete((ignored, e) -> permits.release()));
+            }
+        } catch (InterruptedException e) {
+            log.warn("抓取提交被中断|Crawl_submit_interrupted,crawler={},submitted={}", name, futures.size());
+            Thread.currentThread().interrupt();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // 按输入顺序整理结果，未提交（被中断）的键同样记为失败
+        Map<K, V> results = new LinkedHashMap<>();
+        List<K> failedKeys = new ArrayList<>();
+        int submitted = futures.size();
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            V value = fetched.get(key);
+            if (value != null) {
+                results.put(key, value);
+            } else if (i >= submitted || failed.containsKey(key)) {
+                failedKeys.add(key);
+            }
+        }
+        long costMs = System.currentTimeMillis() - start;
+        log.info("抓取完成|Crawl_done,crawler={},keys={},success={},empty={},failed={},attempts={},retries={},costMs={}",
+                name, keys.size(), results.size(), emptyCount.get(), failedKeys.size(), attempts.get(), retries.get(), costMs);
+        return new CrawlResult<>(results, failedKeys, emptyCount.get(), attempts.get(), retries.get(), costMs);
+    }
+
+    /**
+     * 在调用线程上抓取单个键（限流 + 重试），并发由调用方控制
+     * <p>
+     * 供需要跨多组抓取共享并发预算的流水线使用。
+     *
+     * @param key     抓取键
+     * @param fetcher 抓取函数
+     * @return 抓取结果，可能为 null
+     * @throws InterruptedException 等待令牌或退避期间被中断
+     */
+    public <K, V> V fetch(K key, Function<K, V> fetcher) throws InterruptedException {
+        return fetchWithRetry(key, fetcher, new AtomicInteger(), new AtomicInteger());
+    }
+
+    /**
+     * 带重试地执行一次抓取
+     */
+    private <K, V> V fetchWithRetry(K key, Function<K, V> fetcher, AtomicInteger attempts, AtomicInteger retries)
+            throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            attempts.incrementAndGet();
+            try {
+                return fetcher.apply(key);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                long backoffMs = backoffMillis(attempt);
+                log.debug("抓取重试|Crawl_retry,crawler={},key={},attempt={},backoffMs={},error={}",
+                        name, key, attempt, backoffMs, e.toString());
+                retries.incrementAndGet();
+                Thread.sleep(backoffMs);
+            }
+        }
+    }
+
+    /**
+     * 第 attempt 次失败后的退避时间：上限为 min(max, base × 2^(attempt-1))，在 [上限/2, 上限] 间随机
+     */
+    long backoffMillis(int attempt) {
+        long cap = backoffBaseMs << Math.min(attempt - 1, 20);
+        cap = Math.min(backoffMaxMs, cap);
+        if (cap <= 1) {
+            return cap;
+        }
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    /**
+     * 是否为值得重试的瞬时故障：IO 异常（超时、连接重置）、5xx、429
+     */
+    static boolean isTransient(Throwable e) {
+        if (e instanceof ResourceAccessException || e instanceof HttpServerErrorException) {
+            return true;
+        }
+        return e instanceof HttpClientErrorException clientError && clientError.getStatusCode().value() == 429;
+    }
+}
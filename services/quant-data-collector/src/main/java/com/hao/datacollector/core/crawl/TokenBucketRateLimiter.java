@@ -0,0 +1,66 @@
+package com.hao.datacollector.core.crawl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ * <p>
+ * 类职责：
+ * 限制爬虫对单个数据源的请求速率，桶容量决定允许的突发请求数，超出后按 permitsPerSecond 匀速放行。
+ * <p>
+ * 实现说明：
+ * 令牌不足时先预支（令牌数可为负），调用方在锁外睡眠到预支的令牌补齐为止，
+ * 后续调用方据此顺延等待，因此并发调用下整体速率仍不超过 permitsPerSecond。
+ * <p>
+ * 线程安全：可被多线程共享。
+ *
+ * @author hli
+ * @date 2026-02-12
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double nanosPerPermit;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒放行的请求数（必须大于 0）
+     * @param burst            桶容量，即空闲后允许的突发请求数（至少为 1）
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.capacity = Math.max(1, burst);
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     *
+     * @throws InterruptedException 等待期间被中断
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 预支一个令牌
+     *
+     * @return 需要等待的纳秒数，0 表示立即放行
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens * nanosPerPermit);
+    }
+}
@@ -1,26 +1,35 @@
 package com.hao.datacollector.core.query;
 
+import exception.DataException;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.function.BiFunction;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * 并行查询执行器
  * <p>
- * 职责：接收查询计划（QuerySegment 列表），并行执行多表查询，合并结果。
+ * 职责：接收查询计划（QuerySegment 列表），并行执行多表 / 多子区间查询，按指定顺序归并结果。
  * <p>
  * 设计优势：
  * <ul>
  *   <li>通用化：支持任意类型的查询结果</li>
- *   <li>并行化：使用 CompletableFuture 并行执行多表查询</li>
+ *   <li>并行化：使用 CompletableFuture 并行执行，同时执行的分段数不超过 {@link TableRouter#getMaxConcurrency()}</li>
+ *   <li>有序：各分段结果已按 SQL 的 ORDER BY 排序，通过 {@link SortedMerge} k 路归并，不再整体排序</li>
+ *   <li>流式：归并结果可直接交给消费函数，分段结果消费完即释放</li>
+ *   <li>失败可见：任一分段失败时抛出 {@link DataException}，不会把查询错误伪装成“无数据”</li>
  *   <li>解耦：查询逻辑通过 BiFunction 传入，执行器只负责调度</li>
  * </ul>
  *
@@ -34,66 +43,132 @@ public class ParallelQueryExecutor {
     @Resource(name = "ioTaskExecutor")
     private Executor ioTaskExecutor;
 
+    @Autowired
+    private TableRouter tableRouter;
+
     /**
-     * 执行并行查询
+     * 执行并行查询，返回完整结果列表
      * <p>
-     * 根据查询分段列表，并行执行查询动作，合并结果。
+     * 根据查询分段列表，并行执行查询动作，按 order 归并结果。需要聚合或逐条处理的调用方应使用
+     * {@link #executeParallel(List, BiFunction, List, Comparator, Consumer)}，避免额外持有一份结果列表。
      *
      * @param segments    查询分段列表
-     * @param queryAction 具体的查询动作（接收 QuerySegment 和 stockList，返回查询结果）
+     * @param queryAction 具体的查询动作（接收 QuerySegment 和 stockList，返回按 order 排好序的结果）
      * @param stockList   股票代码列表
+     * @param order       各分段结果的排序规则（与 SQL 的 ORDER BY 一致）
      * @param <T>         返回结果类型
-     * @return 合并后的结果列表
+     * @return 归并后的有序结果列表
+     * @throws DataException 任一分段查询失败或等待被中断（不返回残缺数据）
      */
     public <T> List<T> executeParallel(
             List<QuerySegment> segments,
             BiFunction<QuerySegment, List<String>, List<T>> queryAction,
-            List<String> stockList) {
+            List<String> stockList,
+            Comparator<? super T> order) {
+
+        // 单分段查询，直接返回查询结果（无需归并）
+        if (segments != null && segments.size() == 1) {
+            QuerySegment segment = segments.get(0);
+            log.debug("单表查询|Single_table_query,table={},range={}-{}",
+                    segment.getTableName(), segment.getStartDate(), segment.getEndDate());
+            List<T> result = queryAction.apply(segment, stockList);
+            return result != null ? result : Collections.emptyList();
+        }
+        List<T> result = new ArrayList<>();
+        executeParallel(segments, queryAction, stockList, order, result::add);
+        return result;
+    }
+
+    /**
+     * 执行并行查询，归并结果逐条交给消费函数
+     * <p>
+     * 各分段的查询结果在归并过程中消费完即释放，不产生拼接后的结果列表。
+     *
+     * @param segments    查询分段列表
+     * @param queryAction 具体的查询动作（接收 QuerySegment 和 stockList，返回按 order 排好序的结果）
+     * @param stockList   股票代码列表
+     * @param order       各分段结果的排序规则（与 SQL 的 ORDER BY 一致）
+     * @param consumer    按 order 逐条接收结果
+     * @param <T>         返回结果类型
+     * @return 输出的结果条数
+     * @throws DataException 任一分段查询失败或等待被中断，此时消费函数不会收到任何数据
+     */
+    public <T> long executeParallel(
+            List<QuerySegment> segments,
+            BiFunction<QuerySegment, List<String>, List<T>> queryAction,
+            List<String> stockList,
+            Comparator<? super T> order,
+            Consumer<? super T> consumer) {
 
         if (segments == null || segments.isEmpty()) {
-            log.debug("查询分段为空，返回空列表|Empty_segments_return_empty_list");
-            return Collections.emptyList();
+            log.debug("查询分段为空|Empty_segments");
+            return 0;
         }
 
-        // 单表查询，直接执行（无需并行）
+        // 单分段查询，直接执行（无需并行）
         if (segments.size() == 1) {
             QuerySegment segment = segments.get(0);
-            log.info("单表查询|Single_table_query,table={},range={}-{}",
-                    segment.getTableType(), segment.getStartDate(), segment.getEndDate());
-            return queryAction.apply(segment, stockList);
+            log.debug("单表查询|Single_table_query,table={},range={}-{}",
+                    segment.getTableName(), segment.getStartDate(), segment.getEndDate());
+            List<T> result = queryAction.apply(segment, stockList);
+            if (result == null) {
+                return 0;
+            }
+            result.forEach(consumer);
+            return result.size();
         }
 
-        // 多表并行查询
-        log.info("并行查询开始|Parallel_query_start,segmentCount={}", segments.size());
+        long start = System.currentTimeMillis();
+        List<List<T>> results = queryAll(segments, queryAction, stockList);
+        long count = SortedMerge.drainTo(results, order, consumer);
+
+        log.info("并行查询完成|Parallel_query_done,segmentCount={},totalCount={},costMs={}",
+                segments.size(), count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * 并行执行全部分段，信号量限制同时执行的分段数
+     *
+     * @return 按分段顺序排列的各分段结果
+     */
+    private <T> List<List<T>> queryAll(
+            List<QuerySegment> segments,
+            BiFunction<QuerySegment, List<String>, List<T>> queryAction,
+            List<String> stockList) {
+
+        int maxConcurrency = tableRouter.getMaxConcurrency();
+        log.info("并行查询开始|Parallel_query_start,segmentCount={},maxConcurrency={}", segments.size(), maxConcurrency);
 
-        List<CompletableFuture<List<T>>> futures = segments.stream()
-                .map(segment -> CompletableFuture.supplyAsync(
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(segments.size());
+        try {
+            for (QuerySegment segment : segments) {
+                permits.acquire();
+                futures.add(CompletableFuture.supplyAsync(
                         () -> {
-                            log.info("查询分段|Query_segment,table={},range={}-{}",
-                                    segment.getTableType(), segment.getStartDate(), segment.getEndDate());
+                            log.debug("查询分段|Query_segment,table={},range={}-{}",
+                                    segment.getTableName(), segment.getStartDate(), segment.getEndDate());
                             return queryAction.apply(segment, stockList);
                         },
                         ioTaskExecutor
-                ))
-                .collect(Collectors.toList());
-
-        // 等待所有查询完成
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
-        // 合并结果（保持顺序：WARM 在前，HOT 在后）
-        List<T> combinedResult = new ArrayList<>();
-        for (CompletableFuture<List<T>> future : futures) {
-            try {
-                List<T> result = future.get();
-                if (result != null) {
-                    combinedResult.addAll(result);
-                }
-            } catch (Exception e) {
-                log.error("并行查询分段失败|Parallel_query_segment_failed", e);
+                ).whenComplete((result, e) -> permits.release()));
             }
+            // 等待所有查询完成，任一分段失败时抛出
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt(); // 恢复中断状态
+            throw new DataException("并行查询被中断|Parallel_query_interrupted,submitted=" + futures.size(), e);
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new DataException("并行查询分段失败|Parallel_query_segment_failed,segmentCount=" + segments.size(), cause);
         }
 
-        log.info("并行查询完成|Parallel_query_done,totalCount={}", combinedResult.size());
-        return combinedResult;
+        List<List<T>> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<List<T>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
     }
 }
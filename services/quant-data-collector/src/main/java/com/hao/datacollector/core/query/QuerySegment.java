@@ -9,8 +9,8 @@ import java.time.LocalDate;
 /**
  * 查询分段对象
  * <p>
- * 表示一个跨表查询中的单个分段，包含表类型和时间范围。
- * TableRouter 根据查询时间范围生成一个或多个 QuerySegment。
+ * 表示一个跨表查询中的单个分段，包含物理表名和时间范围。
+ * TableRouter 根据查询时间范围生成一个或多个 QuerySegment（按时间升序，互不重叠）。
  *
  * @author hli
  * @date 2026-02-04
@@ -21,9 +21,9 @@ import java.time.LocalDate;
 public class QuerySegment {
 
     /**
-     * 表类型（HOT/WARM）
+     * 物理表名（来自分区配置，如 tb_quotation_history_hot）
      */
-    private TableType tableType;
+    private String tableName;
 
     /**
      * 分段起始日期
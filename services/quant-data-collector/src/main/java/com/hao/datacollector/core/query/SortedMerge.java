@@ -0,0 +1,168 @@
+package com.hao.datacollector.core.query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * 有序结果 k 路归并
+ * <p>
+ * 各分段查询结果已按同一顺序（如 trade_date ASC）排好，归并时只比较各路当前的头元素，不再对合并后的整体排序。
+ * <p>
+ * 推荐使用 {@link #drainTo}：元素直接交给消费函数，不产生拼接后的结果列表，已耗尽的分段立即释放引用；
+ * {@link #mergeToList} 仅供确实需要完整列表的调用方使用，会额外持有一份输出列表。
+ * <p>
+ * 顺序约定：
+ * - 比较结果相同的元素按分段顺序输出（先输出靠前分段的），与单表 ORDER BY 的结果一致。
+ * - 分段首尾已有序衔接（时间上不重叠的分段）时退化为顺序拼接，不建堆。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * 归并为一个列表（不修改传入的分段列表）
+     *
+     * @param sources 各分段结果（每一路内部已按 order 排序，允许为 null）
+     * @param order   排序规则
+     * @param <T>     元素类型
+     * @return 归并后的有序列表
+     */
+    public static <T> List<T> mergeToList(List<? extends List<? extends T>> sources, Comparator<? super T> order) {
+        List<T> result = new ArrayList<>();
+        drainTo(new ArrayList<>(sources), order, result::add);
+        return result;
+    }
+
+    /**
+     * 流式归并到消费函数
+     * <p>
+     * 归并开始后 sources 中的分段依次置为 null：顺序拼接时每一路输出完即释放，
+     * 建堆归并时各路只由其迭代器持有，耗尽后随之释放。调用方不应再持有各分段的引用。
+     *
+     * @param sources  各分段结果（每一路内部已按 order 排序，允许为 null；列表本身必须可修改）
+     * @param order    排序规则
+     * @param consumer 按 order 逐个接收元素
+     * @param <T>      元素类型
+     * @return 输出的元素个数
+     */
+    public static <T> long drainTo(List<? extends List<? extends T>> sources, Comparator<? super T> order,
+                                   Consumer<? super T> consumer) {
+        long count = 0;
+        if (isConcatenated(sources, order)) {
+            for (int i = 0; i < sources.size(); i++) {
+                List<? extends T> source = sources.get(i);
+                sources.set(i, null);
+                if (source == null) {
+                    continue;
+                }
+                for (T value : source) {
+                    consumer.accept(value);
+                }
+                count += source.size();
+            }
+            return count;
+        }
+        Iterator<T> merged = merge(sources, order);
+        for (int i = 0; i < sources.size(); i++) {
+            sources.set(i, null);
+        }
+        while (merged.hasNext()) {
+            consumer.accept(merged.next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 流式归并
+     *
+     * @param sources 各分段结果（每一路内部已按 order 排序，允许为 null）
+     * @param order   排序规则
+     * @param <T>     元素类型
+     * @return 按 order 输出元素的迭代器
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterable<? extends T>> sources, Comparator<? super T> order) {
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+            int cmp = order.compare(a.value, b.value);
+            return cmp != 0 ? cmp : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            Iterable<? extends T> source = sources.get(i);
+            if (source != null) {
+                Head<T> head = new Head<>(i, source.iterator());
+                if (head.advance()) {
+                    heap.add(head);
+                }
+            }
+        }
+        // 耗尽的一路不再入堆，其迭代器（及背后的分段）随即可被回收
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head<T> head = heap.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                T value = head.value;
+                if (head.advance()) {
+                    heap.add(head);
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * 每一路的末元素不晚于下一路的首元素时，顺序拼接即为归并结果
+     */
+    private static <T> boolean isConcatenated(List<? extends List<? extends T>> sources, Comparator<? super T> order) {
+        T previousLast = null;
+        for (List<? extends T> source : sources) {
+            if (source == null || source.isEmpty()) {
+                continue;
+            }
+            if (previousLast != null && order.compare(previousLast, source.getFirst()) > 0) {
+                return false;
+            }
+            previousLast = source.getLast();
+        }
+        return true;
+    }
+
+    /**
+     * 某一路的当前头元素
+     */
+    private static final class Head<T> {
+
+        private final int source;
+        private final Iterator<? extends T> iterator;
+        private T value;
+
+        private Head(int source, Iterator<? extends T> iterator) {
+            this.source = source;
+            this.iterator = iterator;
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            value = iterator.next();
+            return true;
+        }
+    }
+}
@@ -1,23 +1,28 @@
 package com.hao.datacollector.core.query;
 
+import com.hao.datacollector.properties.TableRouterProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
- * 冷热表路由器
+ * 分时表分区路由器
  * <p>
  * 职责：根据时间范围判断需要查询哪些表，返回查询计划（QuerySegment 列表）。
  * <p>
  * 路由规则：
  * <ul>
- *   <li>2024-01-01 及之后的数据 → HOT 表</li>
- *   <li>2024-01-01 之前的数据 → WARM 表</li>
- *   <li>跨越边界的查询 → 返回两个分段</li>
+ *   <li>分区由 {@link TableRouterProperties#getTiers()} 配置（热/温/冷或按年分表），默认 2024-01-01 及之后 → HOT 表，之前 → WARM 表</li>
+ *   <li>查询范围与每个分区求交集，跨越 N 个分区边界 → 返回 N+1 个分段</li>
+ *   <li>{@link #plan} 在此基础上把超过 maxSegmentDays 的分段再拆成多个子区间，供 {@link ParallelQueryExecutor} 并行查询</li>
  * </ul>
+ * 返回的分段按时间升序排列且互不重叠。
  *
  * @author hli
  * @date 2026-02-04
@@ -26,57 +31,122 @@ import java.util.List;
 @Component
 public class TableRouter {
 
+    private final TableRouterProperties properties;
+
+    @Autowired
+    public TableRouter(TableRouterProperties properties) {
+        this.properties = properties;
+    }
+
     /**
-     * 热表起始日期（2024-01-01 及之后的数据存热表）
+     * 使用默认分区（温表 / 热表）
      */
-    private static final LocalDate HOT_DATA_START_DATE = LocalDate.of(2024, 1, 1);
+    public TableRouter() {
+        this(new TableRouterProperties());
+    }
 
     /**
-     * 根据时间范围生成查询计划
-     * <p>
-     * 判断查询时间范围是否跨越冷热表边界，返回对应的查询分段列表。
+     * 根据时间范围生成查询计划（每个分区一个分段）
      *
      * @param startDate 起始日期
      * @param endDate   结束日期
-     * @return 查询计划列表（可能包含 1-2 个分段）
+     * @return 查询计划列表（按时间升序，起始日期晚于结束日期时为空）
      */
     public List<QuerySegment> route(LocalDate startDate, LocalDate endDate) {
-        List<QuerySegment> segments = new ArrayList<>(2);
-
-        // 判断查询范围是否涉及温表和热表
-        boolean queryWarm = startDate.isBefore(HOT_DATA_START_DATE);
-        boolean queryHot = !endDate.isBefore(HOT_DATA_START_DATE);
-
-        // 温表分段
-        if (queryWarm) {
-            LocalDate warmEnd = queryHot
-                    ? HOT_DATA_START_DATE.minusDays(1)
-                    : endDate;
-            segments.add(new QuerySegment(TableType.WARM, startDate, warmEnd));
-            log.debug("路由温表|Route_warm_table,range={}-{}", startDate, warmEnd);
-        }
-
-        // 热表分段
-        if (queryHot) {
-            LocalDate hotStart = queryWarm
-                    ? HOT_DATA_START_DATE
-                    : startDate;
-            segments.add(new QuerySegment(TableType.HOT, hotStart, endDate));
-            log.debug("路由热表|Route_hot_table,range={}-{}", hotStart, endDate);
+        List<TableRouterProperties.Tier> tiers = sortedTiers();
+        List<QuerySegment> segments = new ArrayList<>(tiers.size());
+        for (int i = 0; i < tiers.size(); i++) {
+            TableRouterProperties.Tier tier = tiers.get(i);
+            LocalDate nextStart = i + 1 < tiers.size() ? tiers.get(i + 1).getStartDate() : null;
+            if (i + 1 < tiers.size() && nextStart == null) {
+                // 多个分区未配置起始日期时只取最后一个
+                continue;
+            }
+            // 分区覆盖 [tierStart, 下一个分区起始日期 - 1]
+            LocalDate tierStart = tier.getStartDate();
+            LocalDate tierEnd = nextStart != null ? nextStart.minusDays(1) : null;
+            LocalDate from = tierStart != null && tierStart.isAfter(startDate) ? tierStart : startDate;
+            LocalDate to = tierEnd != null && tierEnd.isBefore(endDate) ? tierEnd : endDate;
+            if (from.isAfter(to)) {
+                continue;
+            }
+            segments.add(new QuerySegment(tier.getTableName(), from, to));
+            log.debug("路由分区|Route_tier,table={},range={}-{}", tier.getTableName(), from, to);
         }
 
-        log.info("表路由完成|Table_route_done,inputRange={}-{},segmentCount={}",
+        log.debug("表路由完成|Table_route_done,inputRange={}-{},segmentCount={}",
                 startDate, endDate, segments.size());
 
         return segments;
     }
 
     /**
-     * 获取热表起始日期
+     * 根据时间范围生成并行查询计划
+     * <p>
+     * 先按分区路由，再把每个分段按 maxSegmentDays 拆成连续子区间（子区间不跨分区，按整日切分）。
      *
-     * @return 热表起始日期
+     * @param startDate 起始日期
+     * @param endDate   结束日期
+     * @return 查询计划列表（按时间升序，互不重叠）
+     */
+    public List<QuerySegment> plan(LocalDate startDate, LocalDate endDate) {
+        List<QuerySegment> routed = route(startDate, endDate);
+        int maxDays = properties.getMaxSegmentDays();
+        if (maxDays <= 0) {
+            return routed;
+        }
+        List<QuerySegment> segments = new ArrayList<>(routed.size());
+        for (QuerySegment segment : routed) {
+            LocalDate cursor = segment.getStartDate();
+            while (!cursor.isAfter(segment.getEndDate())) {
+                LocalDate subEnd = cursor.plusDays(maxDays - 1L);
+                if (subEnd.isAfter(segment.getEndDate())) {
+                    subEnd = segment.getEndDate();
+                }
+                segments.add(new QuerySegment(segment.getTableName(), cursor, subEnd));
+                cursor = subEnd.plusDays(1);
+            }
+        }
+        if (segments.size() > routed.size()) {
+            log.info("查询计划拆分|Query_plan_split,inputRange={}-{},tierCount={},segmentCount={}",
+                    startDate, endDate, routed.size(), segments.size());
+        }
+        return segments;
+    }
+
+    /**
+     * 获取热表（最新分区）起始日期
+     *
+     * @return 最新分区起始日期，只配置了一个不限起始日期的分区时返回 null
      */
     public LocalDate getHotDataStartDate() {
-        return HOT_DATA_START_DATE;
+        List<TableRouterProperties.Tier> tiers = sortedTiers();
+        return tiers.isEmpty() ? null : tiers.getLast().getStartDate();
+    }
+
+    /**
+     * 单次查询同时执行的分段数上限
+     */
+    public int getMaxConcurrency() {
+        return Math.max(1, properties.getMaxConcurrency());
+    }
+
+    /**
+     * 按起始日期升序排列的有效分区（起始日期为空的排最前）
+     * <p>
+     * 每次路由时读取配置，支持 Nacos 动态调整分区。
+     */
+    private List<TableRouterProperties.Tier> sortedTiers() {
+        List<TableRouterProperties.Tier> tiers = new ArrayList<>();
+        if (properties.getTiers() != null) {
+            for (TableRouterProperties.Tier tier : properties.getTiers()) {
+                if (tier != null && StringUtils.hasText(tier.getTableName())) {
+                    tiers.add(tier);
+                }
+            }
+        }
+        tiers.sort(Comparator.comparing(TableRouterProperties.Tier::getStartDate,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        return tiers;
     }
 }
@@ -6,7 +6,8 @@ import lombok.Getter;
 /**
  * 表类型枚举
  * <p>
- * 定义冷热表的类型和对应的物理表名。
+ * 定义冷热表的类型和对应的物理表名，作为 {@link com.hao.datacollector.properties.TableRouterProperties}
+ * 未配置分区时的默认两层分区。
  * <ul>
  *   <li>HOT: 热表，存储 2024-01-01 及之后的数据</li>
  *   <li>WARM: 温表，存储 2024-01-01 之前的数据</li>
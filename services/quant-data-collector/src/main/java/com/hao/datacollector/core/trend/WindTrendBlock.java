@@ -0,0 +1,143 @@
+package com.hao.datacollector.core.trend;
+
+import java.util.Arrays;
+
+/**
+ * Wind 分时数据块（单只股票 × 单个交易日）的可复用原始缓冲
+ * <p>
+ * 类职责：
+ * 按行保存 Wind 返回的整型数组，最后一行为配置行：前 5 个元素为各列对应的指标 ID，后 5 个元素为各列的小数位数（倒序）。
+ * <p>
+ * 设计目的：
+ * 数据以 long 平铺存放，解码下一个数据块时清空复用，整个响应只分配一次，避免为每行创建 List 和装箱 Integer。
+ * <p>
+ * 非线程安全，仅在解码回调内有效，回调返回后内容即被覆盖。
+ *
+ * @author hli
+ * @date 2026-02-14
+ */
+public final class WindTrendBlock {
+
+    /**
+     * 数据行列数（配置行为其两倍）
+     */
+    static final int COLUMNS = 5;
+
+    private static final int ROW_WIDTH = COLUMNS * 2;
+
+    private String windCode;
+    private String date;
+    private long[] values = new long[256 * ROW_WIDTH];
+    private int[] widths = new int[256];
+    private int rows;
+
+    void reset(String windCode, String date) {
+        this.windCode = windCode;
+        this.date = date;
+        this.rows = 0;
+    }
+
+    void startRow() {
+        if (rows == widths.length) {
+            widths = Arrays.copyOf(widths, rows * 2);
+            values = Arrays.copyOf(values, rows * 2 * ROW_WIDTH);
+        }
+        widths[rows++] = 0;
+    }
+
+    void add(long value) {
+        int row = rows - 1;
+        int width = widths[row];
+        // 超出配置行宽度的元素不参与任何计算，直接丢弃
+        if (width < ROW_WIDTH) {
+            values[row * ROW_WIDTH + width] = value;
+        }
+        widths[row] = width + 1;
+    }
+
+    int rowCount() {
+        return rows;
+    }
+
+    /**
+     * @return 股票代码
+     */
+    public String getWindCode() {
+        return windCode;
+    }
+
+    /**
+     * @return 交易日期，格式 yyyyMMdd
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * @return 数据行数（不含配置行）
+     */
+    public int dataRows() {
+        return Math.max(0, rows - 1);
+    }
+
+    /**
+     * 读取数据行的某一列
+     *
+     * @param row    数据行下标
+     * @param column 列下标
+     * @return 原始整数值（价格为增量）
+     */
+    public long value(int row, int column) {
+        if (row < 0 || row >= dataRows() || column < 0 || column >= Math.min(widths[row], ROW_WIDTH)) {
+            throw new IndexOutOfBoundsException("trend value row=" + row + ",column=" + column);
+        }
+        return values[row * ROW_WIDTH + column];
+    }
+
+    /**
+     * 指标 ID 所在的列
+     *
+     * @param indicatorId 指标 ID，如 2 时间、3 最新价、8 总成交量、79 均价
+     * @return 列下标，不存在时返回 -1
+     */
+    public int columnOf(int indicatorId) {
+        int config = rows - 1;
+        int limit = Math.min(COLUMNS, widths[config]);
+        for (int column = 0; column < limit; column++) {
+            if (values[config * ROW_WIDTH + column] == indicatorId) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 列的小数位数（配置行后 5 个元素倒序对应各列）
+     *
+     * @param column 列下标
+     * @return 小数位数
+     */
+    public int decimalShift(int column) {
+        int config = rows - 1;
+        int index = ROW_WIDTH - 1 - column;
+        if (column < 0 || column >= COLUMNS || index >= widths[config]) {
+            throw new IndexOutOfBoundsException("decimal shift column=" + column + ",configWidth=" + widths[config]);
+        }
+        return (int) values[config * ROW_WIDTH + index];
+    }
+
+    /**
+     * 所有行（含配置行）第 2 个元素之和，用于识别异常响应
+     *
+     * @return 累加值
+     */
+    public long secondElementSum() {
+        long sum = 0;
+        for (int row = 0; row < rows; row++) {
+            if (widths[row] > 1) {
+                sum += values[row * ROW_WIDTH + 1];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,187 @@
+package com.hao.datacollector.core.trend;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import constants.DateTimeFormatConstants;
+import exception.DataException;
+import util.FixedPrice;
+import util.MathUtil;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Wind 历史分时响应的流式解码器
+ * <p>
+ * 类职责：
+ * 在 Jackson token 层面遍历“股票 -> 日期 -> 整型数组列表”结构，逐个数据块回调，替代先反序列化为嵌套 Map 再逐行转换。
+ * <p>
+ * 设计目的：
+ * 1. 不构建中间 Map / List / Integer，所有行写入同一个可复用的 {@link WindTrendBlock}
+ * 2. 价格以 long 累加，精度换算使用 {@link FixedPrice}，结果与 {@link MathUtil#formatDecimal(Number, int, boolean)}（不四舍五入）逐位一致，
+ * 不再为每个字段创建 BigDecimal
+ * 3. 解码结果直接交给调用方的消费函数，可以收集为列表，也可以直接送入分批写库
+ * <p>
+ * 与原实现的兼容约定：日期节点为数字或 null（Wind 的错误码）时跳过；第 2 个元素累加超过阈值视为异常响应。
+ *
+ * @author hli
+ * @date 2026-02-14
+ */
+public final class WindTrendDecoder {
+
+    /**
+     * 单个数据块第 2 个元素累加阈值，超过视为异常响应
+     */
+    static final long SECOND_ELEMENT_SUM_LIMIT = 160000;
+
+    private static final int INDICATOR_TIME = 2;
+    private static final int INDICATOR_LATEST_PRICE = 3;
+    private static final int INDICATOR_TOTAL_VOLUME = 8;
+    private static final int INDICATOR_AVERAGE_PRICE = 79;
+
+    /**
+     * A股成交量固定按 1 手 = 100 股换算
+     */
+    private static final int VOLUME_SHIFT = 2;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DateTimeFormatConstants.COMPACT_DATE_FORMAT);
+
+    private WindTrendDecoder() {
+    }
+
+    /**
+     * 逐个数据块解码
+     *
+     * @param json    Wind 响应体
+     * @param handler 数据块回调，块内容仅在回调期间有效
+     * @return 数据块数量
+     * @throws IOException JSON 格式错误
+     */
+    public static int decode(String json, Consumer<WindTrendBlock> handler) throws IOException {
+        if (json == null || json.isEmpty()) {
+            return 0;
+        }
+        WindTrendBlock block = new WindTrendBlock();
+        int blocks = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DataException("分时响应不是JSON对象|Trend_response_not_object,token=" + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String windCode = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String date = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    block.reset(windCode, date);
+                    readRows(parser, block);
+                    if (block.rowCount() > 0) {
+                        handler.accept(block);
+                        blocks++;
+                    }
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * 解码为股票历史分时，价格累加并按配置行精度换算，成交量换算为手
+     *
+     * @param json Wind 响应体
+     * @param sink 分时消费函数
+     * @return 分时条数
+     * @throws IOException JSON 格式错误
+     */
+    public static int decodeHistoryTrend(String json, Consumer<HistoryTrendDTO> sink) throws IOException {
+        int[] count = new int[1];
+        decode(json, block -> count[0] += emitHistoryTrend(block, sink));
+        return count[0];
+    }
+
+    /**
+     * 将一个数据块转换为股票历史分时
+     */
+    private static int emitHistoryTrend(WindTrendBlock block, Consumer<HistoryTrendDTO> sink) {
+        long sum = block.secondElementSum();
+        if (sum > SECOND_ELEMENT_SUM_LIMIT) {
+            throw new DataException("数据异常_sum值超过阈值|Data_error_sum_exceeds_threshold,sum=" + sum);
+        }
+        int rows = block.dataRows();
+        if (rows == 0) {
+            return 0;
+        }
+        int timeColumn = requireColumn(block, INDICATOR_TIME);
+        int latestPriceColumn = requireColumn(block, INDICATOR_LATEST_PRICE);
+        int averagePriceColumn = requireColumn(block, INDICATOR_AVERAGE_PRICE);
+        int totalVolumeColumn = requireColumn(block, INDICATOR_TOTAL_VOLUME);
+        int latestPriceShift = block.decimalShift(latestPriceColumn);
+        int averagePriceShift = block.decimalShift(averagePriceColumn);
+        LocalDate tradeDate = LocalDate.parse(block.getDate(), DATE_FORMATTER);
+        String windCode = block.getWindCode();
+
+        long timeS = 0, latestPrice = 0, averagePrice = 0;
+        for (int row = 0; row < rows; row++) {
+            timeS += block.value(row, timeColumn);
+            latestPrice += block.value(row, latestPriceColumn);
+            averagePrice += block.value(row, averagePriceColumn);
+            // 总成交量不需要累加
+            long totalVolume = block.value(row, totalVolumeColumn);
+            int hhmmss = (int) timeS;
+            HistoryTrendDTO dto = new HistoryTrendDTO();
+            dto.setWindCode(windCode);
+            dto.setTradeDate(LocalDateTime.of(tradeDate, LocalTime.of(hhmmss / 10000, (hhmmss % 10000) / 100, hhmmss % 100)));
+            dto.setLatestPrice(FixedPrice.formatDecimal(latestPrice, latestPriceShift, false));
+            dto.setAveragePrice(FixedPrice.formatDecimal(averagePrice, averagePriceShift, false));
+            dto.setTotalVolume(FixedPrice.formatDecimal(totalVolume, VOLUME_SHIFT, false));
+            sink.accept(dto);
+        }
+        return rows;
+    }
+
+    private static int requireColumn(WindTrendBlock block, int indicatorId) {
+        int column = block.columnOf(indicatorId);
+        if (column < 0) {
+            throw new DataException("分时配置行缺少指标|Trend_config_indicator_missing,windCode=" + block.getWindCode()
+                    + ",date=" + block.getDate() + ",indicatorId=" + indicatorId);
+        }
+        return column;
+    }
+
+    /**
+     * 读取一个日期下的全部行，调用前当前 token 为外层 START_ARRAY，返回时为对应的 END_ARRAY
+     */
+    private static void readRows(JsonParser parser, WindTrendBlock block) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new DataException("分时行不是数组|Trend_row_not_array,windCode=" + block.getWindCode()
+                        + ",date=" + block.getDate() + ",token=" + token);
+            }
+            block.startRow();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    block.add(parser.getLongValue());
+                } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    block.add((long) parser.getDoubleValue());
+                } else {
+                    throw new DataException("分时元素不是数字|Trend_value_not_number,windCode=" + block.getWindCode()
+                            + ",date=" + block.getDate() + ",token=" + token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hao.datacollector.dal.dao;
+
+import com.hao.datacollector.dto.quotation.DailyBarDTO;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 日线物化表 Mapper（tb_quotation_daily_bar）
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+public interface DailyBarMapper {
+
+    /**
+     * 批量合并写入日线
+     * <p>
+     * 主键冲突时按时间合并：open 取更早、close 取更晚、high/low 取极值，同一批分时重复写入结果不变。
+     *
+     * @param barList 日线列表
+     * @return 影响行数
+     */
+    int upsertDailyBarList(@Param("barList") List<DailyBarDTO> barList);
+
+    /**
+     * 由分时表重算指定交易日的日线并覆盖写入（回填使用）
+     *
+     * @param tableName 分时表名（动态拼接，由 TableRouter 给出）
+     * @param startTime 起始时间（yyyy-MM-dd HH:mm:ss，含）
+     * @param endTime   结束时间（yyyy-MM-dd HH:mm:ss，含）
+     * @return 影响行数
+     */
+    int rollupFromTrendTable(@Param("tableName") String tableName,
+                             @Param("startTime") String startTime,
+                             @Param("endTime") String endTime);
+
+    /**
+     * 写入交易日完整性标记（整日回填完成后调用），记录当时的日线条数
+     *
+     * @param tradeDate 交易日
+     * @return 影响行数
+     */
+    int markTradeDateComplete(@Param("tradeDate") LocalDate tradeDate);
+
+    /**
+     * 查询已标记完整且存在日线的交易日
+     *
+     * @param tradeDateList 交易日列表
+     * @return 已完整的交易日
+     */
+    List<LocalDate> selectCompleteTradeDateList(@Param("tradeDateList") List<LocalDate> tradeDateList);
+
+    /**
+     * 查询指定交易日全市场日线
+     *
+     * @param tradeDateList 交易日列表
+     * @return 日线列表
+     */
+    List<DailyBarDTO> selectByTradeDateList(@Param("tradeDateList") List<LocalDate> tradeDateList);
+}
@@ -5,6 +5,7 @@ import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendIndexDTO;
 import com.hao.datacollector.dto.table.quotation.QuotationStockBaseDTO;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -89,6 +90,27 @@ public interface QuotationMapper {
             @Param("windCodeList") List<String> stockList
     );
 
+    /**
+     * 流式查询指定表内的历史分时数据
+     * <p>
+     * 与 {@link #selectByWindCodeListAndDate} 条件、顺序相同，但不组装结果列表：
+     * MySQL 驱动逐行读取（fetchSize = Integer.MIN_VALUE），每行回调 handler 后即可回收。
+     * 回调期间占用数据库连接，handler 内不应执行耗时的同步操作。
+     *
+     * @param tableName 表名（动态拼接）
+     * @param startDate 开始时间
+     * @param endDate   结束时间
+     * @param stockList 股票代码集合（为空时不限制）
+     * @param handler   逐行回调
+     */
+    void streamByWindCodeListAndDate(
+            @Param("tableName") String tableName,
+            @Param("startDate") String startDate,
+            @Param("endDate") String endDate,
+            @Param("windCodeList") List<String> stockList,
+            ResultHandler<HistoryTrendDTO> handler
+    );
+
     /**
      * 查询指定表内的每日收盘价（最后一条分时数据）
      *
@@ -0,0 +1,67 @@
+package com.hao.datacollector.dto.f9;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author hli
+ * @Date 2026-02-13
+ * @description: 简版F9全量转档进度
+ */
+@Data
+@Schema(description = "简版F9全量转档进度")
+public class F9TransferProgressDTO {
+
+    @Schema(description = "是否运行中")
+    private boolean running;
+
+    @Schema(description = "是否因鉴权失败提前终止")
+    private boolean aborted;
+
+    @Schema(description = "多语言")
+    private String lan;
+
+    @Schema(description = "开始时间（毫秒时间戳）")
+    private long startTime;
+
+    @Schema(description = "耗时（毫秒）")
+    private long costMs;
+
+    @Schema(description = "股票总数")
+    private int totalStocks;
+
+    @Schema(description = "已完成全部维度的股票数")
+    private int completedStocks;
+
+    @Schema(description = "已完成的请求任务数（股票 × 维度）")
+    private int completedTasks;
+
+    @Schema(description = "按维度统计，Key 为 F9 接口路径")
+    private Map<String, DimensionProgress> dimensions = new LinkedHashMap<>();
+
+    @Data
+    @Schema(description = "单个维度的转档统计")
+    public static class DimensionProgress {
+
+        @Schema(description = "当天已转档而跳过的股票数")
+        private int skipped;
+
+        @Schema(description = "抓取成功且有数据的股票数")
+        private int success;
+
+        @Schema(description = "抓取成功但无数据的股票数")
+        private int empty;
+
+        @Schema(description = "重试耗尽或不可重试失败的股票数")
+        private int failed;
+
+        @Schema(description = "已写入行数")
+        private long writtenRows;
+
+        @Schema(description = "写库失败行数")
+        private long writeFailedRows;
+    }
+}
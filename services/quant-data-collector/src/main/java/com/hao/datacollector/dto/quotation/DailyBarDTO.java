@@ -0,0 +1,64 @@
+package com.hao.datacollector.dto.quotation;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import constants.DateTimeFormatConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日线数据传输对象（对应 tb_quotation_daily_bar）
+ * <p>
+ * 由当日分时数据汇总：开盘/收盘取第一条/最后一条分时的最新价，最高/最低取最新价极值，
+ * 成交量与均价取最后一条分时的累计值。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Data
+@Schema(description = "日线数据传输对象")
+public class DailyBarDTO {
+
+    @Schema(description = "股票代码", example = "600519.SH")
+    private String windCode;
+
+    @Schema(description = "交易日期", example = "2024-06-03")
+    @JsonFormat(pattern = DateTimeFormatConstants.COMPACT_DATE_FORMAT)
+    private LocalDate tradeDate;
+
+    @Schema(description = "开盘价", example = "1628.00")
+    private Double openPrice;
+
+    @Schema(description = "最高价", example = "1650.00")
+    private Double highPrice;
+
+    @Schema(description = "最低价", example = "1620.00")
+    private Double lowPrice;
+
+    @Schema(description = "收盘价", example = "1635.00")
+    private Double closePrice;
+
+    @Schema(description = "总成交量(手)", example = "1423160")
+    private Double totalVolume;
+
+    @Schema(description = "均价", example = "1636.50")
+    private Double averagePrice;
+
+    @Schema(description = "第一条分时时间", example = "2024-06-03 09:30:00")
+    @JsonFormat(pattern = DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT)
+    private LocalDateTime openTime;
+
+    @Schema(description = "最高价出现时间", example = "2024-06-03 10:15:03")
+    @JsonFormat(pattern = DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT)
+    private LocalDateTime highTime;
+
+    @Schema(description = "最低价出现时间", example = "2024-06-03 14:02:41")
+    @JsonFormat(pattern = DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT)
+    private LocalDateTime lowTime;
+
+    @Schema(description = "最后一条分时时间", example = "2024-06-03 15:00:00")
+    @JsonFormat(pattern = DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT)
+    private LocalDateTime closeTime;
+}
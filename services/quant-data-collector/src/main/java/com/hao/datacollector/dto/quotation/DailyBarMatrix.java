@@ -0,0 +1,147 @@
+package com.hao.datacollector.dto.quotation;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 共享日线矩阵（股票 × 交易日）
+ * <p>
+ * 类职责：
+ * 以原始类型数组保存一批股票在一段交易日窗口内的最高价、最低价、收盘价，供多个策略预热器共享读取。
+ * <p>
+ * 设计目的：
+ * 1. 各预热器所需窗口互相覆盖（九转20天、均线59天、DMI 60+20天），只按最宽窗口查询一次 MySQL。
+ * 2. 不再为每只股票每天构建 DTO，预热器按下标直接截取自己需要的前 N 天。
+ * <p>
+ * 存储约定：
+ * - 交易日下标 0 = 基准交易日的前一个交易日（昨日），与 Redis 预热数据顺序一致。
+ * - 停牌/缺失用 NaN 表示。
+ * - 矩阵在构建后只读，可被多个线程并发访问。
+ *
+ * @author hli
+ * @date 2026-02-06
+ */
+public final class DailyBarMatrix {
+
+    private final LocalDate baseTradeDate;
+    private final List<LocalDate> tradeDates;
+    private final List<String> windCodes;
+    private final int dateCount;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+
+    private DailyBarMatrix(LocalDate baseTradeDate, List<LocalDate> tradeDates, List<String> windCodes) {
+        this.baseTradeDate = baseTradeDate;
+        this.tradeDates = List.copyOf(tradeDates);
+        this.windCodes = List.copyOf(windCodes);
+        this.dateCount = tradeDates.size();
+        int cells = windCodes.size() * dateCount;
+        this.highs = new double[cells];
+        this.lows = new double[cells];
+        this.closes = new double[cells];
+        Arrays.fill(highs, Double.NaN);
+        Arrays.fill(lows, Double.NaN);
+        Arrays.fill(closes, Double.NaN);
+    }
+
+    /**
+     * 由按股票分组的日线 OHLC 构建矩阵
+     *
+     * @param baseTradeDate 基准交易日（预热目标日，不包含在窗口内）
+     * @param tradeDates    交易日窗口（按时间倒序，0=昨日）
+     * @param windCodes     目标股票列表（无数据的股票整行为 NaN）
+     * @param ohlcData      Map&lt;股票代码, List&lt;DailyOhlcDTO&gt;&gt;，顺序不限
+     * @return 只读矩阵
+     */
+    public static DailyBarMatrix of(LocalDate baseTradeDate, List<LocalDate> tradeDates, List<String> windCodes,
+                                    Map<String, List<DailyOhlcDTO>> ohlcData) {
+        DailyBarMatrix matrix = new DailyBarMatrix(baseTradeDate, tradeDates, windCodes);
+        Map<LocalDate, Integer> dateIndex = new HashMap<>(tradeDates.size() * 2);
+        for (int d = 0; d < tradeDates.size(); d++) {
+            dateIndex.put(tradeDates.get(d), d);
+        }
+        for (int s = 0; s < windCodes.size(); s++) {
+            List<DailyOhlcDTO> bars = ohlcData.get(windCodes.get(s));
+            if (bars == null) {
+                continue;
+            }
+            for (DailyOhlcDTO bar : bars) {
+                Integer d = dateIndex.get(bar.getTradeDate());
+                if (d == null || bar.getClosePrice() == null) {
+                    continue;
+                }
+                int cell = s * matrix.dateCount + d;
+                double close = bar.getClosePrice();
+                matrix.closes[cell] = close;
+                matrix.highs[cell] = bar.getHighPrice() != null ? bar.getHighPrice() : close;
+                matrix.lows[cell] = bar.getLowPrice() != null ? bar.getLowPrice() : close;
+            }
+        }
+        return matrix;
+    }
+
+    public LocalDate getBaseTradeDate() {
+        return baseTradeDate;
+    }
+
+    /**
+     * 交易日窗口（按时间倒序，0=昨日）
+     */
+    public List<LocalDate> getTradeDates() {
+        return tradeDates;
+    }
+
+    public List<String> getWindCodes() {
+        return windCodes;
+    }
+
+    public int stockCount() {
+        return windCodes.size();
+    }
+
+    public int dateCount() {
+        return dateCount;
+    }
+
+    /**
+     * 收盘价
+     *
+     * @param stockIndex 股票下标
+     * @param dateIndex  交易日下标（0=昨日）
+     * @return 价格，停牌为 NaN
+     */
+    public double close(int stockIndex, int dateIndex) {
+        return closes[stockIndex * dateCount + dateIndex];
+    }
+
+    public double high(int stockIndex, int dateIndex) {
+        return highs[stockIndex * dateCount + dateIndex];
+    }
+
+    public double low(int stockIndex, int dateIndex) {
+        return lows[stockIndex * dateCount + dateIndex];
+    }
+
+    /**
+     * 复制某只股票最近 days 天的收盘价
+     *
+     * @param stockIndex 股票下标
+     * @param days       天数（不超过 dateCount）
+     * @return 新数组（0=昨日）
+     */
+    public double[] closes(int stockIndex, int days) {
+        int from = stockIndex * dateCount;
+        return Arrays.copyOfRange(closes, from, from + days);
+    }
+
+    /**
+     * 矩阵是否可服务指定基准日与窗口长度的预热
+     */
+    public boolean covers(LocalDate tradeDate, int days) {
+        return baseTradeDate.equals(tradeDate) && dateCount >= days;
+    }
+}
@@ -0,0 +1,287 @@
+package com.hao.datacollector.integration.http;
+
+import com.hao.datacollector.properties.HttpClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池化的 HTTP 客户端 (Pooled HTTP Client)
+ * <p>
+ * 类职责：
+ * 为所有外部数据源爬虫提供共享的 HTTP 连接池，替代每次调用新建 RestTemplate + SimpleClientHttpRequestFactory。
+ * <p>
+ * 设计目的：
+ * 1. 连接复用（Keep-Alive）：同一主机的请求复用已建立的 TCP/TLS 连接，省去每次握手
+ * 2. 按主机限流：默认每主机 defaultMaxPerHost 个连接，可按主机单独收紧，防止爬虫打满单个数据源
+ * 3. 空闲回收：后台线程关闭过期与空闲连接，配合 validateAfterInactivity 避免复用被服务端关闭的连接
+ * 4. 异步 API：返回 CompletableFuture，供需要并发抓取的爬虫使用
+ * <p>
+ * 行为与 RestTemplate 保持一致：4xx/5xx 抛出 HttpClientErrorException / HttpServerErrorException，
+ * IO 异常抛出 ResourceAccessException，URL 按 RestTemplate 默认规则（URI_COMPONENT）编码，调用方已有的处理无需修改。
+ * <p>
+ * 线程安全：可被多线程共享。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+@Slf4j
+public class PooledHttpClient implements Closeable {
+
+    private final HttpClientProperties properties;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ThreadPoolExecutor asyncExecutor;
+
+    /**
+     * 与 RestTemplate 默认相同的 URL 编码规则
+     */
+    private static final DefaultUriBuilderFactory URI_FACTORY = new DefaultUriBuilderFactory();
+
+    static {
+        URI_FACTORY.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.URI_COMPONENT);
+    }
+
+    public PooledHttpClient(HttpClientProperties properties) {
+        this.properties = properties;
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getDefaultMaxPerHost());
+        // 空闲超过 2 秒的连接在复用前先检查是否已被对端关闭
+        connectionManager.setValidateAfterInactivity(2000);
+        for (Map.Entry<String, Integer> entry : properties.getMaxPerHost().entrySet()) {
+            connectionManager.setMaxPerRoute(toRoute(entry.getKey()), entry.getValue());
+        }
+
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(properties.getKeepAliveSeconds());
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? duration : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleEvictSeconds(), TimeUnit.SECONDS)
+                .build();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.asyncExecutor = new ThreadPoolExecutor(
+                properties.getAsyncThreads(), properties.getAsyncThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getAsyncQueueCapacity())),
+                r -> {
+                    Thread thread = new Thread(r, "http-async-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        asyncExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    // ==================== 同步 API ====================
+
+    /**
+     * 发送 GET 请求
+     *
+     * @param url            请求 URL（含查询参数）
+     * @param headers        请求头，可以为 null
+     * @param connectTimeout 连接超时（毫秒），≤0 使用默认值
+     * @param readTimeout    读取超时（毫秒），≤0 使用默认值
+     * @return 响应实体
+     */
+    public ResponseEntity<String> get(String url, HttpHeaders headers, int connectTimeout, int readTimeout) {
+        return execute(new HttpGet(toUri(url)), headers, connectTimeout, readTimeout);
+    }
+
+    /**
+     * 发送表单 POST 请求（application/x-www-form-urlencoded，UTF-8）
+     *
+     * @param url            请求 URL
+     * @param formData       表单数据
+     * @param headers        请求头，可以为 null
+     * @param connectTimeout 连接超时（毫秒），≤0 使用默认值
+     * @param readTimeout    读取超时（毫秒），≤0 使用默认值
+     * @return 响应实体
+     */
+    public ResponseEntity<String> postForm(String url, MultiValueMap<String, String> formData, HttpHeaders headers,
+                                           int connectTimeout, int readTimeout) {
+        HttpPost post = new HttpPost(toUri(url));
+        List<NameValuePair> pairs = new ArrayList<>();
+        if (formData != null) {
+            formData.forEach((name, values) -> {
+                for (String value : values) {
+                    pairs.add(new BasicNameValuePair(name, value));
+                }
+            });
+        }
+        post.setEntity(new UrlEncodedFormEntity(pairs, StandardCharsets.UTF_8));
+        return execute(post, headers, connectTimeout, readTimeout);
+    }
+
+    /**
+     * 发送 JSON POST 请求
+     *
+     * @param url            请求 URL
+     * @param jsonBody       JSON 字符串，可以为 null
+     * @param headers        请求头，可以为 null
+     * @param connectTimeout 连接超时（毫秒），≤0 使用默认值
+     * @param readTimeout    读取超时（毫秒），≤0 使用默认值
+     * @return 响应实体
+     */
+    public ResponseEntity<String> postJson(String url, String jsonBody, HttpHeaders headers,
+                                           int connectTimeout, int readTimeout) {
+        HttpPost post = new HttpPost(toUri(url));
+        if (jsonBody != null) {
+            post.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
+        }
+        return execute(post, headers, connectTimeout, readTimeout);
+    }
+
+    // ==================== 异步 API ====================
+
+    /**
+     * 异步发送 GET 请求
+     *
+     * @return 响应 Future；异常与同步 API 相同（包装在 CompletionException 中）
+     */
+    public CompletableFuture<ResponseEntity<String>> getAsync(String url, HttpHeaders headers,
+                                                              int connectTimeout, int readTimeout) {
+        return CompletableFuture.supplyAsync(() -> get(url, headers, connectTimeout, readTimeout), asyncExecutor);
+    }
+
+    /**
+     * 异步发送表单 POST 请求
+     *
+     * @return 响应 Future；异常与同步 API 相同（包装在 CompletionException 中）
+     */
+    public CompletableFuture<ResponseEntity<String>> postFormAsync(String url, MultiValueMap<String, String> formData,
+                                                                   HttpHeaders headers,
+                                                                   int connectTimeout, int readTimeout) {
+        return CompletableFuture.supplyAsync(
+                () -> postForm(url, formData, headers, connectTimeout, readTimeout), asyncExecutor);
+    }
+
+    // ==================== 监控与关闭 ====================
+
+    /**
+     * @return 连接池整体状态（租用中 / 空闲 / 等待中 / 上限）
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 关闭连接池与异步线程池
+     */
+    @Override
+    public void close() {
+        asyncExecutor.shutdown();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.warn("HTTP连接池关闭失败|Http_pool_close_failed,error={}", e.getMessage());
+        }
+    }
+
+    // ==================== 内部方法 ====================
+
+    /**
+     * 执行请求并读取完整响应体
+     * <p>
+     * 响应体读完后连接自动归还连接池；未声明字符集的响应按 UTF-8 解码。
+     */
+    private ResponseEntity<String> execute(HttpRequestBase request, HttpHeaders headers,
+                                           int connectTimeout, int readTimeout) {
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeout > 0 ? connectTimeout : properties.getConnectTimeoutMs())
+                .setSocketTimeout(readTimeout > 0 ? readTimeout : properties.getReadTimeoutMs())
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeoutMs())
+                .build());
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                // 长度与主机头由客户端根据实体和 URL 生成
+                if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || HttpHeaders.HOST.equalsIgnoreCase(name)) {
+                    return;
+                }
+                for (String value : values) {
+                    request.addHeader(name, value);
+                }
+            });
+        }
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            String body = entity != null ? EntityUtils.toString(entity, StandardCharsets.UTF_8) : null;
+            HttpHeaders responseHeaders = new HttpHeaders();
+            for (Header header : response.getAllHeaders()) {
+                responseHeaders.add(header.getName(), header.getValue());
+            }
+            HttpStatusCode status = HttpStatusCode.valueOf(statusCode);
+            if (status.isError()) {
+                String statusText = response.getStatusLine().getReasonPhrase();
+                byte[] bodyBytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : null;
+                if (status.is4xxClientError()) {
+                    throw HttpClientErrorException.create(status, statusText, responseHeaders, bodyBytes, StandardCharsets.UTF_8);
+                }
+                throw HttpServerErrorException.create(status, statusText, responseHeaders, bodyBytes, StandardCharsets.UTF_8);
+            }
+            return new ResponseEntity<>(body, responseHeaders, status);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on " + request.getMethod() + " request for \""
+                    + request.getURI() + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static URI toUri(String url) {
+        return URI_FACTORY.expand(url);
+    }
+
+    /**
+     * 把 scheme://host[:port] 转换为连接池路由（与 HttpClient 路由规划结果一致：补全默认端口，HTTPS 为安全路由）
+     */
+    private static HttpRoute toRoute(String hostKey) {
+        HttpHost host = HttpHost.create(hostKey);
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        int port = host.getPort() > 0 ? host.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(host.getHostName(), port, host.getSchemeName()), null, secure);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hao.datacollector.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日线物化表配置
+ * <p>
+ * 控制 QuotationService 日线类查询是否由 tb_quotation_daily_bar 提供，以及进程内缓存大小。
+ * <pre>
+ * quotation:
+ *   daily-bar:
+ *     enabled: true
+ *     cache-max-days: 120
+ *     upsert-chunk-size: 1000
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Data
+//配置批量绑定在nacos下，可以无需@RefreshScope注解就能实现自动刷新
+@ConfigurationProperties(prefix = "quotation.daily-bar")
+@Component
+public class DailyBarProperties {
+
+    /**
+     * 是否由日线表提供日线类查询
+     * 默认值：true
+     * 说明：false 时全部回到分时表实时汇总（旧模式）；转档后的增量汇总不受影响
+     */
+    private boolean enabled = true;
+
+    /**
+     * 进程内缓存的交易日数量（每个交易日一份全市场日线，约 5000 条）
+     * 默认值：120
+     * 说明：覆盖最宽的预热窗口（DMI 80 天）并留有余量
+     */
+    private int cacheMaxDays = 120;
+
+    /**
+     * 增量汇总单条 INSERT 语句的最大行数
+     * 默认值：1000
+     */
+    private int upsertChunkSize = 1000;
+}
@@ -0,0 +1,81 @@
+package com.hao.datacollector.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 简版 F9 全量转档配置
+ * <p>
+ * 控制全量转档流水线的全局并发、限流、重试与按维度批量写入。
+ * <pre>
+ * f9:
+ *   transfer:
+ *     max-concurrency: 16
+ *     permits-per-second: 40
+ *     burst: 40
+ *     max-attempts: 3
+ *     backoff-base-ms: 200
+ *     backoff-max-ms: 5000
+ *     batch-rows: 500
+ *     skip-transferred-today: true
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-13
+ */
+@Data
+@ConfigurationProperties(prefix = "f9.transfer")
+@Component
+public class F9TransferProperties {
+
+    /**
+     * 全部维度合计的最大并发请求数
+     * 默认值：16
+     * 说明：不超过 http.client 对 Wind 主机的连接上限
+     */
+    private int maxConcurrency = 16;
+
+    /**
+     * 全部维度合计的每秒请求数上限（含重试）
+     * 默认值：40
+     */
+    private double permitsPerSecond = 40;
+
+    /**
+     * 令牌桶容量（允许的突发请求数）
+     * 默认值：40
+     */
+    private int burst = 40;
+
+    /**
+     * 单个请求最多尝试次数（含首次）
+     * 默认值：3
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 首次重试退避基数（毫秒）
+     * 默认值：200
+     */
+    private long backoffBaseMs = 200;
+
+    /**
+     * 重试退避上限（毫秒）
+     * 默认值：5000
+     */
+    private long backoffMaxMs = 5000;
+
+    /**
+     * 每个维度累计多少行写一次库
+     * 默认值：500
+     */
+    private int batchRows = 500;
+
+    /**
+     * 是否跳过当天已转档的股票
+     * 默认值：true
+     * 说明：按维度查询当天已入库的股票代码，中断后重跑只补抓未完成部分
+     */
+    private boolean skipTransferredToday = true;
+}
@@ -0,0 +1,100 @@
+package com.hao.datacollector.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 外部 HTTP 调用连接池配置
+ * <p>
+ * 所有爬虫（Wind F9、涨停、KPL 题材等）共用一个连接池，按目标主机限制并发连接数。
+ * <pre>
+ * http:
+ *   client:
+ *     max-total: 200
+ *     default-max-per-host: 20
+ *     max-per-host:
+ *       "[https://apphwshhq.longhuvip.com]": 8
+ *     connect-timeout-ms: 5000
+ *     read-timeout-ms: 30000
+ *     connection-request-timeout-ms: 5000
+ *     idle-evict-seconds: 30
+ *     keep-alive-seconds: 30
+ *     async-threads: 16
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+@Data
+@ConfigurationProperties(prefix = "http.client")
+@Component
+public class HttpClientProperties {
+
+    /**
+     * 连接池最大连接数（所有主机合计）
+     * 默认值：200
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 单个主机默认最大连接数
+     * 默认值：20
+     * 说明：同一主机的并发请求超过该值时排队等待连接（最长 connectionRequestTimeoutMs）
+     */
+    private int defaultMaxPerHost = 20;
+
+    /**
+     * 按主机覆盖最大连接数
+     * 说明：Key 为 scheme://host[:port]，用于对限流严格的数据源单独收紧
+     */
+    private Map<String, Integer> maxPerHost = new LinkedHashMap<>();
+
+    /**
+     * 默认连接超时（毫秒）
+     * 默认值：5000
+     */
+    private int connectTimeoutMs = 5000;
+
+    /**
+     * 默认读取超时（毫秒）
+     * 默认值：30000
+     */
+    private int readTimeoutMs = 30000;
+
+    /**
+     * 从连接池获取连接的最长等待时间（毫秒）
+     * 默认值：5000
+     * 说明：超时说明该主机连接已被占满，抛出异常而不是无限排队
+     */
+    private int connectionRequestTimeoutMs = 5000;
+
+    /**
+     * 空闲连接回收时间（秒）
+     * 默认值：30
+     * 说明：后台线程关闭空闲超过该时间的连接，避免复用已被服务端关闭的连接
+     */
+    private int idleEvictSeconds = 30;
+
+    /**
+     * 服务端未返回 Keep-Alive 头时的连接保持时间（秒）
+     * 默认值：30
+     */
+    private int keepAliveSeconds = 30;
+
+    /**
+     * 异步请求线程数
+     * 默认值：16
+     * 说明：异步 API 在独立线程池上执行阻塞请求，队列满时由调用线程执行
+     */
+    private int asyncThreads = 16;
+
+    /**
+     * 异步请求队列容量
+     * 默认值：1000
+     */
+    private int asyncQueueCapacity = 1000;
+}
@@ -0,0 +1,82 @@
+package com.hao.datacollector.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * KPL 题材爬虫配置
+ * <p>
+ * 控制 TopicServiceImpl 转档题材库时的并发、限流、重试与批量写入。
+ * <pre>
+ * kpl:
+ *   topic:
+ *     crawler:
+ *       max-concurrency: 8
+ *       permits-per-second: 10
+ *       burst: 10
+ *       max-attempts: 3
+ *       backoff-base-ms: 200
+ *       backoff-max-ms: 5000
+ *       window-size: 200
+ *       batch-rows: 1000
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-12
+ */
+@Data
+@ConfigurationProperties(prefix = "kpl.topic.crawler")
+@Component
+public class KplCrawlerProperties {
+
+    /**
+     * 最大并发请求数
+     * 默认值：8
+     * 说明：同时不超过 http.client 对 KPL 主机的连接上限，否则多出的请求只会排队等连接
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * 每秒请求数上限（含重试）
+     * 默认值：10
+     */
+    private double permitsPerSecond = 10;
+
+    /**
+     * 令牌桶容量（允许的突发请求数）
+     * 默认值：10
+     */
+    private int burst = 10;
+
+    /**
+     * 单个题材最多请求次数（含首次）
+     * 默认值：3
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 首次重试退避基数（毫秒），之后每次翻倍并加入随机抖动
+     * 默认值：200
+     */
+    private long backoffBaseMs = 200;
+
+    /**
+     * 重试退避上限（毫秒）
+     * 默认值：5000
+     */
+    private long backoffMaxMs = 5000;
+
+    /**
+     * 每轮抓取的题材 ID 数
+     * 默认值：200
+     * 说明：每轮抓取完成后批量写库，控制内存中待写入的题材数量
+     */
+    private int windowSize = 200;
+
+    /**
+     * 单条批量 INSERT 的最大行数
+     * 默认值：1000
+     */
+    private int batchRows = 1000;
+}
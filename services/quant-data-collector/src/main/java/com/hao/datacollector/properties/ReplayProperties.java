@@ -42,8 +42,9 @@ public class ReplayProperties {
     private int speedMultiplier = 1;
 
     /**
-     * 每次预加载的时间片长度（分钟）
+     * 每次预加载的时间片长度（分钟），同时也是缓冲区的最大前瞻时长
      * 建议值：5-10分钟，平衡内存占用与数据库查询次数
+     * 说明：≤0 时每个交易时段一次性加载，不限制前瞻
      */
     private int preloadMinutes = 5;
 
@@ -0,0 +1,82 @@
+package com.hao.datacollector.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 策略预热数据存储配置
+ * <p>
+ * 控制 StrategyPreparationServiceImpl 写入 Redis 的预热数据格式。
+ * <pre>
+ * strategy:
+ *   preheat:
+ *     format: BINARY
+ *     binary-chunk-size: 1000
+ *     float32: false
+ *     json-pipeline-chunk-size: 500
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-05
+ */
+@Data
+//配置批量绑定在nacos下，可以无需@RefreshScope注解就能实现自动刷新
+@ConfigurationProperties(prefix = "strategy.preheat")
+@Component
+public class StrategyPreheatProperties {
+
+    /**
+     * 预热数据格式
+     * 默认值：BINARY
+     * 说明：仍有读取 JSON Hash 的下游时配置为 BOTH，迁移完成后切回 BINARY
+     */
+    private Format format = Format.BINARY;
+
+    /**
+     * 二进制格式下每个 Hash Field 包含的股票数量
+     * 默认值：1000
+     * 说明：按股票代码排序后分块，单个 Field 控制在 1MB 以内，避免 Redis 大 Value
+     */
+    private int binaryChunkSize = 1000;
+
+    /**
+     * 二进制格式是否以 float32 存储价格
+     * 默认值：false
+     * 说明：体积减半，A股价格两位小数在 float32 精度内可还原，但指标计算会引入微小误差
+     */
+    private boolean float32 = false;
+
+    /**
+     * JSON 格式下单条 HMSET 包含的股票数量
+     * 默认值：500
+     * 说明：全部分块在同一个 Pipeline 中发送，单条命令不过大，整体只需一次往返
+     */
+    private int jsonPipelineChunkSize = 500;
+
+    /**
+     * 预热数据格式
+     */
+    public enum Format {
+        /**
+         * 每只股票一个 ClosePriceDTO / DailyOhlcDTO JSON 数组（旧格式）
+         */
+        JSON,
+        /**
+         * 每个策略每天按代码分块的列式二进制块
+         */
+        BINARY,
+        /**
+         * 同时写入两种格式（迁移期使用）
+         */
+        BOTH;
+
+        public boolean writeJson() {
+            return this != BINARY;
+        }
+
+        public boolean writeBinary() {
+            return this != JSON;
+        }
+    }
+}
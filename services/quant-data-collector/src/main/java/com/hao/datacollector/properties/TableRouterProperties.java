@@ -0,0 +1,84 @@
+package com.hao.datacollector.properties;
+
+import com.hao.datacollector.core.query.TableType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分时表分区路由配置
+ * <p>
+ * 描述分时数据按时间分布在哪些物理表中（热/温/冷三层，或按年分表），以及长区间查询的拆分与并发。
+ * <pre>
+ * quotation:
+ *   table-router:
+ *     tiers:
+ *       - table-name: tb_quotation_history_warm
+ *       - table-name: tb_quotation_history_hot
+ *         start-date: 2024-01-01
+ *     max-segment-days: 31
+ *     max-concurrency: 4
+ * </pre>
+ * 不配置 tiers 时沿用温表 / 热表两层（分界 2024-01-01）。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+@Data
+//配置批量绑定在nacos下，可以无需@RefreshScope注解就能实现自动刷新
+@ConfigurationProperties(prefix = "quotation.table-router")
+@Component
+public class TableRouterProperties {
+
+    /**
+     * 默认热表起始日期（2024-01-01 及之后的数据存热表）
+     */
+    public static final LocalDate DEFAULT_HOT_START_DATE = LocalDate.of(2024, 1, 1);
+
+    /**
+     * 分区列表，每个分区覆盖 [startDate, 下一个分区的 startDate)
+     * 说明：顺序无关，路由时按 startDate 升序排列；startDate 为空的分区覆盖最早的数据
+     */
+    private List<Tier> tiers = new ArrayList<>(List.of(
+            new Tier(TableType.WARM.getTableName(), null),
+            new Tier(TableType.HOT.getTableName(), DEFAULT_HOT_START_DATE)));
+
+    /**
+     * 单个查询分段的最大天数（自然日）
+     * 默认值：31
+     * 说明：长区间按此拆成多个子区间并行查询；≤0 时不拆分，每个分区一个分段
+     */
+    private int maxSegmentDays = 31;
+
+    /**
+     * 单次查询同时执行的分段数上限
+     * 默认值：4
+     * 说明：限制一次长区间查询占用的数据库连接与 IO 线程数
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * 分区定义
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+
+        /**
+         * 物理表名
+         */
+        private String tableName;
+
+        /**
+         * 分区起始日期（含），为空表示不限
+         */
+        private LocalDate startDate;
+    }
+}
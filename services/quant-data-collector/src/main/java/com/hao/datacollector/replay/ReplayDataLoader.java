@@ -0,0 +1,280 @@
+package com.hao.datacollector.replay;
+
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.service.QuotationService;
+import constants.DateTimeFormatConstants;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 回放数据流式加载器
+ * <p>
+ * 类职责：
+ * 在后台线程中按时间片查询历史分时数据，填充一个有界的"按秒分桶"缓冲区，供 ReplayScheduler 主循环按虚拟时间取用。
+ * <p>
+ * 设计目的：
+ * 1. 替代回放前一次性加载 [start 09:24, end 15:05] 全部数据到 TreeMap 的方式，多日全市场回放时堆内存不随日期范围增长。
+ * 2. 查询与推送重叠进行，回放无需等待分钟级的预加载即可开始。
+ * <p>
+ * 核心实现思路：
+ * <pre>
+ * 加载线程：for 交易时段 → for 时间片(preloadMinutes)
+ *              背压等待：缓冲区非空且(记录数 ≥ bufferMaxSize 或 已缓冲秒数 ≥ preloadMinutes×60)
+ *              查询股票/指数 → 按秒分桶 → 发布，loadedUntil = 时间片终点
+ * 主循环：  take(virtualTime) —— virtualTime 超过 loadedUntil 时等待加载线程
+ * </pre>
+ * 缓冲区为空时加载线程总能继续，单个时间片超过 bufferMaxSize 也不会死锁；内存上限约为
+ * max(bufferMaxSize, 单个时间片数据量)。
+ * <p>
+ * 线程安全：单生产者（加载线程）单消费者（回放线程），缓冲区由一把锁保护。
+ *
+ * @author hli
+ * @date 2026-02-07
+ */
+@Slf4j
+public final class ReplayDataLoader implements AutoCloseable {
+
+    private static final ZoneOffset BEIJING_ZONE = ZoneOffset.of("+8");
+    private static final DateTimeFormatter FULL_FORMATTER = DateTimeFormatter.ofPattern(DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT);
+    private static final DateTimeFormatter TRACE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final QuotationService quotationService;
+    private final List<String> stockCodes;
+    private final List<String> indexCodes;
+    private final List<long[]> sessions;
+    private final long sliceSeconds;
+    private final int maxBufferedSeconds;
+    private final int maxBufferedRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition loaded = lock.newCondition();
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+    private int bufferedRecords;
+    private long loadedUntil = Long.MIN_VALUE;
+    private boolean finished;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private Thread worker;
+
+    /**
+     * 同一秒的股票与指数行情
+     */
+    public record Bucket(List<HistoryTrendDTO> stocks, List<HistoryTrendDTO> indices) {
+    }
+
+    /**
+     * @param quotationService   行情查询服务
+     * @param stockCodes         股票代码（空列表表示全市场）
+     * @param indexCodes         指数代码
+     * @param sessions           交易时段列表，每项为 {起始秒, 结束秒}（北京时间 epoch 秒，闭区间，按时间升序）
+     * @param preloadMinutes     时间片与前瞻长度（分钟），≤0 表示每个交易时段一次加载且不限制前瞻
+     * @param maxBufferedRecords 缓冲区最大记录数，≤0 表示不限制
+     */
+    public ReplayDataLoader(QuotationService quotationService, List<String> stockCodes, List<String> indexCodes,
+                            List<long[]> sessions, int preloadMinutes, int maxBufferedRecords) {
+        this.quotationService = quotationService;
+        this.stockCodes = stockCodes;
+        this.indexCodes = indexCodes;
+        this.sessions = sessions;
+        this.sliceSeconds = preloadMinutes > 0 ? preloadMinutes * 60L : Long.MAX_VALUE;
+        this.maxBufferedSeconds = preloadMinutes > 0 ? preloadMinutes * 60 : Integer.MAX_VALUE;
+        this.maxBufferedRecords = maxBufferedRecords > 0 ? maxBufferedRecords : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 启动后台加载线程
+     */
+    public void start() {
+        worker = new Thread(this::loadAll, "replay-loader");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 取出指定秒的行情
+     * <p>
+     * 该秒尚未加载时阻塞等待加载线程；返回后该秒的数据从缓冲区移除。
+     *
+     * @param timestamp 北京时间 epoch 秒
+     * @return 该秒的行情，无数据返回 null
+     * @throws InterruptedException  等待被中断
+     * @throws IllegalStateException 加载线程查询失败
+     */
+    public Bucket take(long timestamp) throws InterruptedException {
+        lock.lock();
+        try {
+            while (timestamp > loadedUntil && !finished) {
+                loaded.await(100, TimeUnit.MILLISECONDS);
+            }
+            checkFailure();
+            Bucket bucket = buckets.remove(timestamp);
+            if (bucket != null) {
+                bufferedRecords -= bucket.stocks().size() + bucket.indices().size();
+                notFull.signal();
+            }
+            return bucket;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查找不早于指定秒的下一个有数据的秒（最快速度回放使用）
+     * <p>
+     * 缓冲区中没有满足条件的秒且加载未完成时阻塞等待；加载线程按时间顺序发布时间片，
+     * 因此缓冲区中的 ceilingKey 之前不会再出现更早的数据。
+     *
+     * @param timestamp 起始秒（北京时间 epoch 秒）
+     * @return 下一个有数据的秒，全部数据已取完返回 -1
+     * @throws InterruptedException  等待被中断
+     * @throws IllegalStateException 加载线程查询失败
+     */
+    public long nextTimestamp(long timestamp) throws InterruptedException {
+        lock.lock();
+        try {
+            Long next;
+            while ((next = buckets.ceilingKey(timestamp)) == null && !finished) {
+                loaded.await(100, TimeUnit.MILLISECONDS);
+            }
+            checkFailure();
+            return next != null ? next : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前缓冲的记录数（股票 + 指数）
+     */
+    public int bufferedRecords() {
+        lock.lock();
+        try {
+            return bufferedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        lock.lock();
+        try {
+            buckets.clear();
+            bufferedRecords = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== 加载线程 ====================
+
+    private void loadAll() {
+        long loadedRecords = 0;
+        long start = System.currentTimeMillis();
+        try {
+            for (long[] session : sessions) {
+                for (long from = session[0]; from <= session[1] && !closed; ) {
+                    long to = sliceSeconds == Long.MAX_VALUE ? session[1] : Math.min(session[1], from + sliceSeconds - 1);
+                    awaitCapacity();
+                    if (closed) {
+                        break;
+                    }
+                    loadedRecords += loadSlice(from, to);
+                    from = to + 1;
+                }
+            }
+            log.info("回放数据加载完成|Replay_loader_done,records={},costMs={}", loadedRecords, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            if (!closed) {
+                failure = e;
+                log.error("回放数据加载失败|Replay_loader_failed,records={}", loadedRecords, e);
+            }
+        } finally {
+            lock.lock();
+            try {
+                finished = true;
+                loaded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 背压：缓冲区非空且超过记录数或前瞻秒数上限时等待消费
+     */
+    private void awaitCapacity() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!closed && !buckets.isEmpty()
+                    && (bufferedRecords >= maxBufferedRecords || buckets.size() >= maxBufferedSeconds)) {
+                notFull.await(100, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int loadSlice(long from, long to) {
+        String startStr = LocalDateTime.ofEpochSecond(from, 0, BEIJING_ZONE).format(FULL_FORMATTER);
+        String endStr = LocalDateTime.ofEpochSecond(to, 0, BEIJING_ZONE).format(FULL_FORMATTER);
+
+        TreeMap<Long, Bucket> slice = new TreeMap<>();
+        List<HistoryTrendDTO> stocks = quotationService.getHistoryTrendDataByTimeRange(startStr, endStr, stockCodes);
+        int count = groupByTimestamp(stocks, slice, true);
+        List<HistoryTrendDTO> indices = quotationService.getIndexHistoryTrendDataByTimeRange(startStr, endStr, indexCodes);
+        count += groupByTimestamp(indices, slice, false);
+
+        lock.lock();
+        try {
+            buckets.putAll(slice);
+            bufferedRecords += count;
+            loadedUntil = to;
+            loaded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        log.debug("回放时间片加载完成|Replay_slice_loaded,range={}~{},records={}", startStr, endStr, count);
+        return count;
+    }
+
+    private int groupByTimestamp(List<HistoryTrendDTO> data, TreeMap<Long, Bucket> slice, boolean stock) {
+        if (data == null) {
+            return 0;
+        }
+        int count = 0;
+        for (HistoryTrendDTO dto : data) {
+            if (dto.getTradeDate() != null) {
+                long ts = dto.getTradeDate().toEpochSecond(BEIJING_ZONE);
+                // 设置 traceId 用于全链路追踪（格式: yyyyMMdd_HHmmss）
+                dto.setTraceId(dto.getTradeDate().format(TRACE_FORMATTER));
+                Bucket bucket = slice.computeIfAbsent(ts, k -> new Bucket(new ArrayList<>(), new ArrayList<>()));
+                (stock ? bucket.stocks() : bucket.indices()).add(dto);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new IllegalStateException("回放数据加载失败|Replay_loader_failed", failure);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hao.datacollector.replay;
 
+import com.hao.datacollector.cache.DateCache;
 import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
 import com.hao.datacollector.dto.replay.ReplayParamsDTO;
 import com.hao.datacollector.properties.ReplayProperties;
@@ -25,10 +26,11 @@ import java.util.stream.Collectors;
  * 行情回放调度器（精简版）
  * <p>
  * 核心功能：
- * 1. 查询历史行情数据库
+ * 1. 查询历史行情数据库（{@link ReplayDataLoader} 按时间片流式加载，内存占用与日期范围无关）
  * 2. 按 tradeDate 分组推送到 Kafka
- * 3. 支持倍速控制、暂停/恢复/停止
- * 4. 股票→策略模块(quotation)，指数→风控模块(quotation_index)
+ * 3. 支持倍速控制、暂停/恢复/停止；最快速度（speed≤0）下虚拟时钟直接跳到下一个有数据的秒
+ * 4. 交易时段由交易日历预先计算，午休、隔夜、非交易日不逐秒空转
+ * 5. 股票→策略模块(quotation)，指数→风控模块(quotation_index)
  *
  * @author hli
  * @date 2026-01-20
@@ -43,8 +45,11 @@ public class ReplayScheduler {
     private final StrategyPreheaterManager preheaterManager;
 
     private static final ZoneOffset BEIJING_ZONE = ZoneOffset.of("+8");
+    private static final LocalTime MORNING_OPEN = LocalTime.of(9, 24, 0);
+    private static final LocalTime LUNCH_START = LocalTime.of(11, 30, 0);
+    private static final LocalTime AFTERNOON_OPEN = LocalTime.of(13, 0, 0);
+    private static final LocalTime REPLAY_CLOSE = LocalTime.of(15, 5, 0);
     private static final DateTimeFormatter COMPACT_FORMATTER = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
-    private static final DateTimeFormatter FULL_FORMATTER = DateTimeFormatter.ofPattern(DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT);
 
     // 运行状态
     private volatile ReplayParamsDTO currentParams;
@@ -54,9 +59,8 @@ public class ReplayScheduler {
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicBoolean paused = new AtomicBoolean(false);
 
-    // 内存缓存：按秒分组的行情数据
-    private final TreeMap<Long, List<HistoryTrendDTO>> stockBuffer = new TreeMap<>();
-    private final TreeMap<Long, List<HistoryTrendDTO>> indexBuffer = new TreeMap<>();
+    // 流式加载器：按秒分组的行情数据，有界前瞻缓冲
+    private volatile ReplayDataLoader loader;
 
     public ReplayScheduler(QuotationService quotationService,
                            KafkaProducerService kafkaProducer,
@@ -102,8 +106,10 @@ public class ReplayScheduler {
             } finally {
                 running.set(false);
                 currentParams = null;
-                stockBuffer.clear();
-                indexBuffer.clear();
+                if (loader != null) {
+                    loader.close();
+                    loader = null;
+                }
                 log.info("回放任务结束|Replay_task_ended");
             }
         } else {
@@ -134,14 +140,15 @@ public class ReplayScheduler {
     }
 
     public ReplayStatus getStatus() {
+        ReplayDataLoader activeLoader = loader;
         return new ReplayStatus(running.get(), paused.get(), virtualTime,
-                stockBuffer.values().stream().mapToInt(List::size).sum(),
+                activeLoader != null ? activeLoader.bufferedRecords() : 0,
                 totalSentCount, currentParams);
     }
 
     // ==================== 核心回放逻辑 ====================
 
-    private void doReplay() {
+    private void doReplay() throws InterruptedException {
         log.info("=== 回放服务启动|Replay_start ===");
         log.info("参数|Params,start={},end={},speed={}x",
                 currentParams.getStartDate(), currentParams.getEndDate(), currentParams.getSpeedMultiplier());
@@ -154,41 +161,57 @@ public class ReplayScheduler {
         List<String> stockCodes = parseStockCodes(currentParams.getStockCodes());
         preheaterManager.preheatAll(startDate, stockCodes);
 
-        // [FULL_CHAIN_STEP_03] 加载历史行情数据到内存 (MySQL → TreeMap)
-        loadAllData(startDate, endDate);
+        // [FULL_CHAIN_STEP_03] 流式加载历史行情数据 (MySQL → 有界按秒缓冲)，与推送并行进行
+        List<long[]> sessions = buildSessions(startDate, endDate);
+        startLoader(startDate, endDate, stockCodes, sessions);
 
-        // 3. 主循环：按秒推送
-        LocalDateTime start = LocalDateTime.of(startDate, LocalTime.of(9, 24, 0));
-        LocalDateTime end = LocalDateTime.of(endDate, LocalTime.of(15, 5, 0));
-        virtualTime = start.toEpochSecond(BEIJING_ZONE);
-        long endTimestamp = end.toEpochSecond(BEIJING_ZONE);
+        // 3. 主循环：按秒推送；最快速度下直接跳到下一个有数据的秒
         totalSentCount = 0;
         indexSentCount = 0;
+        int sessionIndex = 0;
+        virtualTime = sessions.isEmpty() ? 0 : sessions.getFirst()[0];
 
-        while (virtualTime <= endTimestamp && running.get()) {
+        while (sessionIndex < sessions.size() && running.get()) {
             // 暂停处理
             while (paused.get() && running.get()) {
                 sleep(100);
             }
 
-            // 跳过午休 11:30-13:00
-            if (isLunchBreak(virtualTime)) {
-                virtualTime++;
+            // 超出当前交易时段：跳到下一时段起点（午休、隔夜、非交易日不再逐秒空转）
+            if (virtualTime > sessions.get(sessionIndex)[1]) {
+                sessionIndex++;
+                if (sessionIndex < sessions.size()) {
+                    virtualTime = Math.max(virtualTime, sessions.get(sessionIndex)[0]);
+                }
                 continue;
             }
 
-            // [FULL_CHAIN_STEP_04] 推送股票行情到 Kafka → 策略引擎消费
-            List<HistoryTrendDTO> stocks = stockBuffer.remove(virtualTime);
-            if (stocks != null && !stocks.isEmpty()) {
-                kafkaProducer.sendBatchHighPerformance(KafkaTopics.QUOTATION.code(), stocks);
-                totalSentCount += stocks.size();
+            if (isMaxSpeed()) {
+                long next = loader.nextTimestamp(virtualTime);
+                if (next < 0) {
+                    break;
+                }
+                virtualTime = next;
+                while (virtualTime > sessions.get(sessionIndex)[1]) {
+                    sessionIndex++;
+                }
             }
 
-            // [FULL_CHAIN_STEP_05] 推送指数行情到 Kafka → 风控模块消费
-            List<HistoryTrendDTO> indices = indexBuffer.remove(virtualTime);
-            if (indices != null && !indices.isEmpty()) {
-                kafkaProducer.sendBatchHighPerformance(KafkaTopics.QUOTATION_INDEX.code(), indices);
-                indexSentCount += indices.size();
+            ReplayDataLoader.Bucket bucket = loader.take(virtualTime);
+            if (bucket != null) {
+                // [FULL_CHAIN_STEP_04] 推送股票行情到 Kafka → 策略引擎消费
+                List<HistoryTrendDTO> stocks = bucket.stocks();
+                if (!stocks.isEmpty()) {
+                    kafkaProducer.sendBatchHighPerformance(KafkaTopics.QUOTATION.code(), stocks);
+                    totalSentCount += stocks.size();
+                }
+
+                // [FULL_CHAIN_STEP_05] 推送指数行情到 Kafka → 风控模块消费
+                List<HistoryTrendDTO> indices = bucket.indices();
+                if (!indices.isEmpty()) {
+                    kafkaProducer.sendBatchHighPerformance(KafkaTopics.QUOTATION_INDEX.code(), indices);
+                    indexSentCount += indices.size();
+                }
             }
 
             // 倍速休眠
@@ -199,47 +222,61 @@ public class ReplayScheduler {
         log.info("=== 回放完成|Replay_done,stockSent={},indexSent={} ===", totalSentCount, indexSentCount);
     }
 
-    private void loadAllData(LocalDate startDate, LocalDate endDate) {
-        log.info("加载数据|Loading_data,start={},end={}", startDate, endDate);
-
-        String startStr = LocalDateTime.of(startDate, LocalTime.of(9, 24, 0)).format(FULL_FORMATTER);
-        String endStr = LocalDateTime.of(endDate, LocalTime.of(15, 5, 0)).format(FULL_FORMATTER);
+    /**
+     * 根据交易日历预先计算回放时段
+     * <p>
+     * 每个交易日拆成上午 [09:24, 11:30) 与下午 [13:00, 15:05] 两个时段（北京时间 epoch 秒，闭区间）。
+     * 非交易日不生成时段；交易日历未初始化时回退为逐个自然日。
+     *
+     * @return 按时间升序的时段列表，每项为 {起始秒, 结束秒}
+     */
+    private List<long[]> buildSessions(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> tradeDates;
+        if (DateCache.AllTradeDateList != null && !DateCache.AllTradeDateList.isEmpty()) {
+            tradeDates = DateCache.AllTradeDateList.stream()
+                    .filter(date -> !date.isBefore(startDate) && !date.isAfter(endDate))
+                    .sorted()
+                    .toList();
+        } else {
+            log.warn("交易日历未初始化_按自然日回放|Trade_calendar_missing_use_natural_days,start={},end={}", startDate, endDate);
+            tradeDates = startDate.datesUntil(endDate.plusDays(1)).toList();
+        }
 
-        // 加载股票数据
-        List<String> stockCodes = parseStockCodes(currentParams.getStockCodes());
-        List<HistoryTrendDTO> stockData = quotationService.getHistoryTrendDataByTimeRange(startStr, endStr, stockCodes);
-        if (stockData != null) {
-            groupByTimestamp(stockData, stockBuffer);
-            log.info("股票数据加载完成|Stock_loaded,count={}", stockData.size());
+        List<long[]> sessions = new ArrayList<>(tradeDates.size() * 2);
+        for (LocalDate date : tradeDates) {
+            sessions.add(new long[]{toEpochSecond(date, MORNING_OPEN), toEpochSecond(date, LUNCH_START) - 1});
+            sessions.add(new long[]{toEpochSecond(date, AFTERNOON_OPEN), toEpochSecond(date, REPLAY_CLOSE)});
         }
+        log.info("回放时段计算完成|Replay_sessions_built,tradeDays={},sessions={}", tradeDates.size(), sessions.size());
+        return sessions;
+    }
 
-        // 加载指数数据
+    /**
+     * 启动流式加载器
+     * <p>
+     * 按 preloadMinutes 切片查询各交易时段，缓冲区受 preloadMinutes（前瞻秒数）与 bufferMaxSize（记录数）双重约束。
+     */
+    private void startLoader(LocalDate startDate, LocalDate endDate, List<String> stockCodes, List<long[]> sessions) {
+        int preloadMinutes = currentParams.getPreloadMinutes() != null ? currentParams.getPreloadMinutes() : config.getPreloadMinutes();
+        int bufferMaxSize = currentParams.getBufferMaxSize() != null ? currentParams.getBufferMaxSize() : config.getBufferMaxSize();
         List<String> indexCodes = Arrays.stream(RiskMarketIndexEnum.values())
                 .map(RiskMarketIndexEnum::getCode).collect(Collectors.toList());
-        List<HistoryTrendDTO> indexData = quotationService.getIndexHistoryTrendDataByTimeRange(startStr, endStr, indexCodes);
-        if (indexData != null) {
-            groupByTimestamp(indexData, indexBuffer);
-            log.info("指数数据加载完成|Index_loaded,count={}", indexData.size());
-        }
+
+        log.info("加载数据|Loading_data,start={},end={},preloadMinutes={},bufferMaxSize={}",
+                startDate, endDate, preloadMinutes, bufferMaxSize);
+        loader = new ReplayDataLoader(quotationService, stockCodes, indexCodes, sessions, preloadMinutes, bufferMaxSize);
+        loader.start();
     }
 
-    private void groupByTimestamp(List<HistoryTrendDTO> data, TreeMap<Long, List<HistoryTrendDTO>> buffer) {
-        for (HistoryTrendDTO dto : data) {
-            if (dto.getTradeDate() != null) {
-                long ts = dto.getTradeDate().toEpochSecond(BEIJING_ZONE);
-                // 设置 traceId 用于全链路追踪（格式: yyyyMMdd_HHmmss）
-                String traceId = dto.getTradeDate().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-                dto.setTraceId(traceId);
-                buffer.computeIfAbsent(ts, k -> new ArrayList<>()).add(dto);
-            }
-        }
+    private long toEpochSecond(LocalDate date, LocalTime time) {
+        return LocalDateTime.of(date, time).toEpochSecond(BEIJING_ZONE);
     }
 
     // ==================== 辅助方法 ====================
 
-    private boolean isLunchBreak(long timestamp) {
-        LocalTime time = LocalDateTime.ofEpochSecond(timestamp, 0, BEIJING_ZONE).toLocalTime();
-        return !time.isBefore(LocalTime.of(11, 30)) && time.isBefore(LocalTime.of(13, 0));
+    private boolean isMaxSpeed() {
+        ReplayParamsDTO params = currentParams;
+        return params != null && params.getSpeedMultiplier() != null && params.getSpeedMultiplier() <= 0;
     }
 
     private void sleepForSpeed() {
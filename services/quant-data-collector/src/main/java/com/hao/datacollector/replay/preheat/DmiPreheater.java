@@ -1,7 +1,9 @@
 package com.hao.datacollector.replay.preheat;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
 import com.hao.datacollector.service.StrategyPreparationService;
 import enums.strategy.StrategyMetaEnum;
+import enums.strategy.StrategyRedisKeyEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -45,4 +47,14 @@ public class DmiPreheater implements StrategyPreheater {
                 tradeDate, stockCodes != null ? stockCodes.size() : "all");
         return preparationService.prepareDmiData(tradeDate, stockCodes);
     }
+
+    @Override
+    public int getRequiredHistoryDays() {
+        return StrategyRedisKeyEnum.DMI_PREHEAT.getHistoryDays() + StrategyPreparationService.DMI_BUFFER_DAYS;
+    }
+
+    @Override
+    public int preheat(DailyBarMatrix bars) {
+        return preparationService.prepareDmiData(bars);
+    }
 }
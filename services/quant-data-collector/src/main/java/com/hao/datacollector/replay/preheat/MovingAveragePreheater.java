@@ -1,7 +1,9 @@
 package com.hao.datacollector.replay.preheat;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
 import com.hao.datacollector.service.StrategyPreparationService;
 import enums.strategy.StrategyMetaEnum;
+import enums.strategy.StrategyRedisKeyEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -39,4 +41,14 @@ public class MovingAveragePreheater implements StrategyPreheater {
         log.info("均线预热开始|MA_preheat_start,tradeDate={}", tradeDate);
         return preparationService.prepareMovingAverageData(tradeDate, stockCodes);
     }
+
+    @Override
+    public int getRequiredHistoryDays() {
+        return StrategyRedisKeyEnum.MA_PREHEAT.getHistoryDays();
+    }
+
+    @Override
+    public int preheat(DailyBarMatrix bars) {
+        return preparationService.prepareMovingAverageData(bars);
+    }
 }
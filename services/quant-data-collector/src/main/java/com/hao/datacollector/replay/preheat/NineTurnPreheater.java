@@ -1,7 +1,9 @@
 package com.hao.datacollector.replay.preheat;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
 import com.hao.datacollector.service.StrategyPreparationService;
 import enums.strategy.StrategyMetaEnum;
+import enums.strategy.StrategyRedisKeyEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -35,4 +37,14 @@ public class NineTurnPreheater implements StrategyPreheater {
         // 调用带 stockCodes 的重载方法，实现按指定股票或全量预热
         return preparationService.prepareNineTurnData(tradeDate, stockCodes);
     }
+
+    @Override
+    public int getRequiredHistoryDays() {
+        return StrategyRedisKeyEnum.NINE_TURN_PREHEAT.getHistoryDays();
+    }
+
+    @Override
+    public int preheat(DailyBarMatrix bars) {
+        return preparationService.prepareNineTurnData(bars);
+    }
 }
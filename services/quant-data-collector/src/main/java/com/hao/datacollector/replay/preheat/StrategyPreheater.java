@@ -1,5 +1,7 @@
 package com.hao.datacollector.replay.preheat;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
+
 import java.time.LocalDate;
 import java.util.List;
 
@@ -13,6 +15,8 @@ import java.util.List;
  * 扩展方式：
  * - 新增策略只需实现此接口并添加 @Component 注解
  * - Spring 会自动注入到 StrategyPreheaterManager
+ * - 基于日线数据的预热器可覆盖 getRequiredHistoryDays 与 preheat(DailyBarMatrix)，
+ *   由管理器统一加载一次共享日线矩阵后并行执行
  *
  * @author hli
  * @date 2026-01-20
@@ -34,4 +38,27 @@ public interface StrategyPreheater {
      * @return 预热成功的股票数量
      */
     int preheat(LocalDate tradeDate, List<String> stockCodes);
+
+    /**
+     * 所需日线窗口长度（交易日数）
+     * <p>
+     * 返回 0 表示不使用共享日线矩阵，管理器将调用 preheat(tradeDate, stockCodes)。
+     *
+     * @return 需要的历史交易日数
+     */
+    default int getRequiredHistoryDays() {
+        return 0;
+    }
+
+    /**
+     * 基于共享日线矩阵预热策略数据
+     * <p>
+     * 矩阵只读，可能被多个预热器并发访问。默认回退到自行查询的 preheat(tradeDate, stockCodes)。
+     *
+     * @param bars 共享日线矩阵（窗口不少于 getRequiredHistoryDays）
+     * @return 预热成功的股票数量
+     */
+    default int preheat(DailyBarMatrix bars) {
+        return preheat(bars.getBaseTradeDate(), bars.getWindCodes());
+    }
 }
@@ -1,10 +1,16 @@
 package com.hao.datacollector.replay.preheat;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
+import com.hao.datacollector.service.StrategyPreparationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 策略预热管理器
@@ -12,10 +18,13 @@ import java.util.List;
  * 设计目的：
  * 1. 统一管理所有策略预热器，在回放启动时批量调用。
  * 2. 支持扩展：新增策略只需实现 StrategyPreheater 接口。
+ * 3. 多个预热器共享一次日线查询并并行写入，预热耗时由"各策略之和"降为"一次查询 + 最慢策略"。
  *
  * 实现思路：
  * - 通过 Spring 自动注入所有 StrategyPreheater 实现
- * - 提供 preheatAll 方法批量执行预热
+ * - 取所有预热器 getRequiredHistoryDays 的最大值，调用 loadDailyBars 加载一次共享日线矩阵
+ * - 各预热器在 ioTaskExecutor 上并行执行，彼此独立，单个失败不影响其他策略
+ * - 共享矩阵加载失败时，回退为各预热器自行查询（旧路径）
  *
  * @author hli
  * @date 2026-01-20
@@ -25,12 +34,18 @@ import java.util.List;
 public class StrategyPreheaterManager {
 
     private final List<StrategyPreheater> preheaters;
+    private final StrategyPreparationService preparationService;
+    private final ThreadPoolTaskExecutor executor;
 
     /**
      * 构造函数，Spring 自动注入所有 StrategyPreheater 实现
      */
-    public StrategyPreheaterManager(List<StrategyPreheater> preheaters) {
+    public StrategyPreheaterManager(List<StrategyPreheater> preheaters,
+                                    StrategyPreparationService preparationService,
+                                    @Qualifier("ioTaskExecutor") ThreadPoolTaskExecutor executor) {
         this.preheaters = preheaters;
+        this.preparationService = preparationService;
+        this.executor = executor;
         log.info("策略预热管理器初始化|StrategyPreheaterManager_init,preheaterCount={}", 
                 preheaters != null ? preheaters.size() : 0);
     }
@@ -49,19 +64,55 @@ public class StrategyPreheaterManager {
 
         log.info("开始预热所有策略数据|Preheat_all_start,date={},strategies={}", 
                 tradeDate, preheaters.stream().map(StrategyPreheater::getStrategyId).toList());
+        long start = System.currentTimeMillis();
 
-        int totalCount = 0;
+        DailyBarMatrix bars = loadSharedBars(tradeDate, stockCodes);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(preheaters.size());
         for (StrategyPreheater preheater : preheaters) {
-            try {
-                log.info("预热策略|Preheat_strategy,id={}", preheater.getStrategyId());
-                int count = preheater.preheat(tradeDate, stockCodes);
-                totalCount += count;
-                log.info("策略预热完成|Preheat_done,id={},count={}", preheater.getStrategyId(), count);
-            } catch (Exception e) {
-                log.error("策略预热失败|Preheat_failed,id={}", preheater.getStrategyId(), e);
-            }
+            futures.add(CompletableFuture.supplyAsync(() -> runPreheater(preheater, tradeDate, stockCodes, bars), executor));
+        }
+        int totalCount = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            totalCount += future.join();
+        }
+
+        log.info("所有策略预热完成|Preheat_all_done,totalCount={},costMs={}", totalCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 按所有预热器中最宽的窗口加载共享日线矩阵
+     *
+     * @return 日线矩阵；无预热器需要或加载失败时返回 null
+     */
+    private DailyBarMatrix loadSharedBars(LocalDate tradeDate, List<String> stockCodes) {
+        int historyDays = preheaters.stream().mapToInt(StrategyPreheater::getRequiredHistoryDays).max().orElse(0);
+        if (historyDays <= 0) {
+            return null;
         }
+        try {
+            return preparationService.loadDailyBars(tradeDate, historyDays, stockCodes);
+        } catch (Exception e) {
+            log.error("共享日线加载失败_回退独立查询|Shared_bars_load_failed_fallback,date={},historyDays={}",
+                    tradeDate, historyDays, e);
+            return null;
+        }
+    }
 
-        log.info("所有策略预热完成|Preheat_all_done,totalCount={}", totalCount);
+    private int runPreheater(StrategyPreheater preheater, LocalDate tradeDate, List<String> stockCodes,
+                             DailyBarMatrix bars) {
+        long start = System.currentTimeMillis();
+        try {
+            log.info("预热策略|Preheat_strategy,id={}", preheater.getStrategyId());
+            boolean shared = bars != null && preheater.getRequiredHistoryDays() > 0
+                    && bars.covers(tradeDate, preheater.getRequiredHistoryDays());
+            int count = shared ? preheater.preheat(bars) : preheater.preheat(tradeDate, stockCodes);
+            log.info("策略预热完成|Preheat_done,id={},count={},sharedBars={},costMs={}",
+                    preheater.getStrategyId(), count, shared, System.currentTimeMillis() - start);
+            return count;
+        } catch (Exception e) {
+            log.error("策略预热失败|Preheat_failed,id={}", preheater.getStrategyId(), e);
+            return 0;
+        }
     }
 }
@@ -7,6 +7,7 @@ import com.hao.datacollector.dto.quotation.HistoryTrendIndexDTO;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author hli
@@ -66,6 +67,20 @@ public interface QuotationService {
      */
     List<HistoryTrendDTO> getHistoryTrendDataByStockList(String startDate, String endDate, List<String> stockList);
 
+    /**
+     * 流式读取指定股票列表的A股历史分时数据
+     * <p>
+     * 按 trade_date 升序逐条回调 consumer，不在内存中保留结果，适用于全市场多日导出、写文件、分批推送 Kafka、
+     * 边读边汇总等场景；内存占用与数据量无关。回调在调用线程内同步执行，期间占用一个数据库连接。
+     *
+     * @param startDate 起始日期 (yyyyMMdd)
+     * @param endDate   结束日期 (yyyyMMdd)
+     * @param stockList 股票列表（为空时不限制股票）
+     * @param consumer  逐条回调，抛出异常时中止读取并释放连接
+     * @return 读取的分时条数
+     */
+    long streamHistoryTrendDataByStockList(String startDate, String endDate, List<String> stockList, Consumer<HistoryTrendDTO> consumer);
+
     /**
      * 根据精确时间区间获取指定股票列表的历史分时数据（回放专用）
      *
@@ -103,6 +118,7 @@ public interface QuotationService {
      * 获取指定时间区间内每只股票每日的收盘价（最后一条分时数据）
      * <p>
      * 专为策略预热优化，仅返回 windCode, tradeDate, latestPrice 字段。
+     * 优先读取日线表 tb_quotation_daily_bar，尚未回填完成的交易日及日线中缺少的股票回退到分时表。
      *
      * @param startDate 起始日期 (yyyyMMdd)
      * @param endDate   结束日期 (yyyyMMdd)
@@ -126,7 +142,9 @@ public interface QuotationService {
     /**
      * 获取指定时间区间内指定股票列表的当日最高价和最低价
      * <p>
-     * 复用 {@link #getHistoryTrendDataByStockList} 获取分时数据，在内存中筛选每只股票的最高价和最低价。
+     * 优先读取日线表 tb_quotation_daily_bar 的日内最高/最低价及其出现时间；
+     * 尚未回填完成的交易日及日线中缺少的股票复用 {@link #streamHistoryTrendDataByStockList} 流式读取分时数据边读边筛选。
+     * 由日线表得出的分时 DTO 只包含 windCode、tradeDate、latestPrice。
      *
      * @param startDate 起始日期 (yyyyMMdd)
      * @param endDate   结束日期 (yyyyMMdd)
@@ -138,7 +156,7 @@ public interface QuotationService {
     /**
      * 获取指定股票列表在指定日期列表中每天的收盘价（当日最后一条分时数据）
      * <p>
-     * 遍历日期列表，对每个日期查询指定股票的最后一条分时数据。
+     * 优先读取日线表 tb_quotation_daily_bar（全部日期一次取出），尚未回填完成的日期及当天缺少日线的股票逐日流式读取分时表取最后一条数据。
      *
      * @param stockList 股票代码列表
      * @param dateList  日期列表（格式 yyyyMMdd）
@@ -149,7 +167,7 @@ public interface QuotationService {
     /**
      * 获取指定时间区间内每只股票每日的最高价、最低价、收盘价（时间序列格式）
      * <p>
-     * 使用 TableRouter + ParallelQueryExecutor 实现跨表查询。
+     * 优先读取日线表 tb_quotation_daily_bar，尚未回填完成的交易日及日线中缺少的股票使用 TableRouter + ParallelQueryExecutor 跨分时表查询。
      * 返回格式适合策略计算，外层按股票分组，内层按日期排序。
      *
      * @param startDate 起始日期 (yyyyMMdd)
@@ -197,4 +197,19 @@ public interface SimpleF9Service {
      * @return 转档结果
      */
     Boolean insertFinancialSummaryDataJob(F9Param f9Param);
+
+    /**
+     * 全量转档全部F9维度（异步执行）
+     * 遍历一次股票池，每只股票的各维度并行抓取、按维度批量写库
+     *
+     * @param lan 多语言
+     */
+    void transferAllDataJob(String lan);
+
+    /**
+     * 获取全量转档进度
+     *
+     * @return 当前（或最近一次）转档进度
+     */
+    F9TransferProgressDTO getTransferProgress();
 }
\ No newline at end of file
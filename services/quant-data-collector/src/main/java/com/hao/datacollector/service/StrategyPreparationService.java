@@ -1,5 +1,7 @@
 package com.hao.datacollector.service;
 
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
+
 import java.time.LocalDate;
 import java.util.List;
 
@@ -23,6 +25,11 @@ import java.util.List;
  */
 public interface StrategyPreparationService {
 
+    /**
+     * DMI 预热额外查询的交易日数，用于以更早的有效收盘价补齐窗口起点的停牌日
+     */
+    int DMI_BUFFER_DAYS = 20;
+
     /**
      * 预热九转序列策略所需的历史数据（全量股票）
      *
@@ -108,4 +115,45 @@ public interface StrategyPreparationService {
      * @return 预热成功返回处理的股票数量
      */
     int prepareDmiData(LocalDate tradeDate, List<String> stockCodes);
+
+    // ==================== 共享日线矩阵 ====================
+
+    /**
+     * 一次性加载多个预热器共享的日线 OHLC 矩阵
+     * <p>
+     * 按调用方给出的最宽窗口查询一次 getDailyOhlcByStockList，各预热器再从矩阵截取自己的前 N 天，
+     * 避免九转、均线、DMI 分别对重叠区间重复查询 MySQL。
+     *
+     * @param tradeDate   当前交易日
+     * @param historyDays 窗口长度（取所有预热器所需天数的最大值）
+     * @param stockCodes  股票代码列表（null或空时使用全量）
+     * @return 日线矩阵（0=昨日）
+     */
+    DailyBarMatrix loadDailyBars(LocalDate tradeDate, int historyDays, List<String> stockCodes);
+
+    /**
+     * 基于共享日线矩阵预热九转序列策略数据
+     *
+     * @param bars 日线矩阵，窗口不少于九转所需天数
+     * @return 预热成功返回处理的股票数量
+     */
+    int prepareNineTurnData(DailyBarMatrix bars);
+
+    /**
+     * 基于共享日线矩阵预热多周期均线策略数据
+     *
+     * @param bars 日线矩阵，窗口不少于均线所需天数
+     * @return 预热成功返回处理的股票数量
+     */
+    int prepareMovingAverageData(DailyBarMatrix bars);
+
+    /**
+     * 基于共享日线矩阵预热 DMI 趋向指标策略数据
+     * <p>
+     * 窗口超出 DMI 所需天数的部分（DMI_BUFFER_DAYS）用于补齐窗口起点的停牌日。
+     *
+     * @param bars 日线矩阵，窗口不少于 DMI 所需天数
+     * @return 预热成功返回处理的股票数量
+     */
+    int prepareDmiData(DailyBarMatrix bars);
 }
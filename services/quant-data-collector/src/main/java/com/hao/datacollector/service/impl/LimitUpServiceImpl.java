@@ -10,6 +10,7 @@ import com.hao.datacollector.dto.table.limitup.LimitUpStockInfoInsertDTO;
 import com.hao.datacollector.dto.table.limitup.LimitUpStockTopicRelationInsertDTO;
 import com.hao.datacollector.dto.table.limitup.LimitUpStockTradeDTO;
 import com.hao.datacollector.dto.table.topic.BaseTopicInsertDTO;
+import com.hao.datacollector.integration.http.PooledHttpClient;
 import com.hao.datacollector.properties.DataCollectorProperties;
 import com.hao.datacollector.service.LimitUpService;
 import com.hao.datacollector.web.vo.limitup.*;
@@ -64,6 +65,9 @@ public class LimitUpServiceImpl implements LimitUpService {
     @Autowired
     private DataCollectorProperties properties;
 
+    @Autowired
+    private PooledHttpClient pooledHttpClient;
+
     /**
      * 获取解析后的涨停选股接口数据
      *
@@ -87,7 +91,8 @@ public class LimitUpServiceImpl implements LimitUpService {
             org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
             headers.set(DataSourceConstants.WIND_SESSION_NAME, properties.getWindSessionId());
             // 调用 Wind 接口获取涨停原始 JSON 字符串
-            String response = HttpUtil.sendGetRequest(DataSourceConstants.WIND_PROD_WGQ + url, headers, 10000, 30000).getBody();
+            String response = pooledHttpClient.get(DataSourceConstants.WIND_PROD_WGQ + url,
+                    HttpUtil.prepareHeaders(headers), 10000, 30000).getBody();
             if (!StringUtils.hasLength(response)) {
                 log.warn("日志记录|Log_message,LimitUpServiceImpl_getLimitUpData:_HTTP_response_body_is_empty_for_tradeTime:_{}", tradeTime);
                 throw new ExternalServiceException("获取涨停数据响应为空|Get_limit_up_data_response_empty,tradeTime=" + tradeTime);
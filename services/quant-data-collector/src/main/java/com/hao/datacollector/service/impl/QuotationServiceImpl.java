@@ -2,12 +2,19 @@ package com.hao.datacollector.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.hao.datacollector.common.utils.HttpUtil;
+import com.hao.datacollector.core.bar.DailyBarDay;
+import com.hao.datacollector.core.bar.DailyBarStore;
+import com.hao.datacollector.core.query.ParallelQueryExecutor;
+import com.hao.datacollector.core.query.QuerySegment;
+import com.hao.datacollector.core.query.TableRouter;
+import com.hao.datacollector.core.trend.WindTrendDecoder;
 import com.hao.datacollector.dal.dao.QuotationMapper;
 import com.hao.datacollector.dto.quotation.DailyHighLowDTO;
 import com.hao.datacollector.dto.quotation.DailyOhlcDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendIndexDTO;
 import com.hao.datacollector.dto.table.quotation.QuotationStockBaseDTO;
+import com.hao.datacollector.properties.DailyBarProperties;
 import com.hao.datacollector.properties.DataCollectorProperties;
 import com.hao.datacollector.service.QuotationService;
 import constants.DataSourceConstants;
@@ -15,7 +22,6 @@ import constants.DateTimeFormatConstants;
 import enums.SpeedIndicatorEnum;
 import exception.DataException;
 import exception.ExternalServiceException;
-import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,17 +30,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import util.DateUtil;
+import util.FixedPrice;
 import util.JsonUtil;
-import util.MathUtil;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * 行情数据同步实现，涵盖基础行情与分时走势的抓取、解析与落库。
@@ -64,8 +70,17 @@ public class QuotationServiceImpl implements QuotationService {
     @Autowired
     private QuotationMapper quotationMapper;
 
-    @Resource(name = "ioTaskExecutor")
-    private Executor ioTaskExecutor; // 注入IO密集型线程池
+    @Autowired
+    private TableRouter tableRouter;
+
+    @Autowired
+    private ParallelQueryExecutor parallelQueryExecutor;
+
+    @Autowired
+    private DailyBarStore dailyBarStore;
+
+    @Autowired
+    private DailyBarProperties dailyBarProperties;
 
     /**
      * 请求成功标识
@@ -73,13 +88,17 @@ public class QuotationServiceImpl implements QuotationService {
     private static final String SUCCESS_FLAG = "200 OK";
 
     /**
-     * 温热数据分界线：2024-01-01
-     * 2024年及以后的数据在热表 (tb_quotation_history_hot)
-     * 2024年以前的数据在温表 (tb_quotation_history_warm)
+     * 分时查询结果顺序（与 SQL 的 ORDER BY trade_date ASC 一致），用于跨分段归并
+     */
+    private static final Comparator<HistoryTrendDTO> TREND_ORDER =
+            Comparator.comparing(HistoryTrendDTO::getTradeDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * OHLC 查询结果顺序（与 SQL 的 ORDER BY trade_date ASC, wind_code ASC 一致）
      */
-    private static final LocalDate HOT_DATA_START_DATE = LocalDate.of(2024, 1, 1);
-    private static final String TABLE_HOT = "tb_quotation_history_hot";
-    private static final String TABLE_WARM = "tb_quotation_history_warm";
+    private static final Comparator<DailyOhlcDTO> OHLC_ORDER =
+            Comparator.comparing(DailyOhlcDTO::getTradeDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(DailyOhlcDTO::getWindCode, Comparator.nullsFirst(Comparator.naturalOrder()));
 
     /**
      * 获取基础行情数据
@@ -113,19 +132,19 @@ public class QuotationServiceImpl implements QuotationService {
             quotationStockBaseDTO.setWindCode(windCode);
             quotationStockBaseDTO.setTradeDate(DateUtil.parseToLocalDate(String.valueOf(quotationData.get(0)), DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
             //元
-            quotationStockBaseDTO.setOpenPrice(MathUtil.shiftDecimal(quotationData.get(1).toString(), 2));
+            quotationStockBaseDTO.setOpenPrice(FixedPrice.shiftDecimal(quotationData.get(1), 2));
             //元
-            quotationStockBaseDTO.setHighPrice(MathUtil.shiftDecimal(quotationData.get(2).toString(), 2));
+            quotationStockBaseDTO.setHighPrice(FixedPrice.shiftDecimal(quotationData.get(2), 2));
             //元
-            quotationStockBaseDTO.setLowPrice(MathUtil.shiftDecimal(quotationData.get(3).toString(), 2));
+            quotationStockBaseDTO.setLowPrice(FixedPrice.shiftDecimal(quotationData.get(3), 2));
             //手
-            quotationStockBaseDTO.setVolume(MathUtil.shiftDecimal(quotationData.get(4).toString(), 2));
+            quotationStockBaseDTO.setVolume(FixedPrice.shiftDecimal(quotationData.get(4), 2));
             //元
-            quotationStockBaseDTO.setAmount(MathUtil.shiftDecimal(quotationData.get(5).toString(), 0));
+            quotationStockBaseDTO.setAmount(FixedPrice.shiftDecimal(quotationData.get(5), 0));
             //元
-            quotationStockBaseDTO.setClosePrice(MathUtil.shiftDecimal(quotationData.get(6).toString(), 2));
+            quotationStockBaseDTO.setClosePrice(FixedPrice.shiftDecimal(quotationData.get(6), 2));
             //%
-            quotationStockBaseDTO.setTurnoverRate(MathUtil.shiftDecimal(quotationData.get(7).toString(), 2));
+            quotationStockBaseDTO.setTurnoverRate(FixedPrice.shiftDecimal(quotationData.get(7), 2));
             quotationStockBaseList.add(quotationStockBaseDTO);
         }
         if (quotationStockBaseList.isEmpty()) {
@@ -154,6 +173,13 @@ public class QuotationServiceImpl implements QuotationService {
         }
         // Mapper 批量写入分时数据，避免重复网络请求
         int insertResult = quotationMapper.insertQuotationHistoryTrendList(quotationHistoryTrendList);
+        // 增量汇总日线：直接使用内存中的这批分时，不再回扫分时表
+        try {
+            dailyBarStore.rollupTicks(quotationHistoryTrendList);
+        } catch (Exception e) {
+            // 汇总失败不影响转档结果，可由 dailyBarBackfillJob 重算该交易日
+            log.error("日线增量汇总失败|Daily_bar_rollup_failed,tradeDate={},windCodes={}", tradeDate, windCodes, e);
+        }
         return insertResult > 0;
     }
 
@@ -210,73 +236,12 @@ public class QuotationServiceImpl implements QuotationService {
                 }
             }
         }
-        // Wind 接口返回按股票->日期分组的嵌套结构，这里展开为 Map
-        Map<String, Map<String, Object>> rawData = JsonUtil.toType(response.getBody(), new TypeReference<Map<String, Map<String, Object>>>() {
-        });
+        // Wind 接口返回按股票->日期分组的嵌套结构，流式解码直接生成分时对象，不再展开为中间 Map
         List<HistoryTrendDTO> allHistoryTrendList = new ArrayList<>();
-        for (Map.Entry<String, Map<String, Object>> stockEntry : rawData.entrySet()) {
-            String stockCode = stockEntry.getKey();
-            Map<String, Object> stockData = stockEntry.getValue();
-            for (Map.Entry<String, Object> dateEntry : stockData.entrySet()) {
-                List<HistoryTrendDTO> historyTrendList = new ArrayList<>();
-                String date = dateEntry.getKey();
-                Object dateData = dateEntry.getValue();
-                if (dateData == null || dateData.getClass().equals(Integer.class)) {
-                    continue;
-                }
-                List<List<Integer>> dataArrays = (List<List<Integer>>) dateData;
-                if (dataArrays.isEmpty()) continue;
-                // 获取配置数组,只获取一次,indicatorIds.对应指标id元素下标数组,decimalShifts.对应关于每个位置元素精度小数位数(倒序)
-                List<Integer> indicatorIds = new ArrayList<>();
-                List<Integer> decimalShifts = new ArrayList<>();
-                List<Integer> configArray = dataArrays.get(dataArrays.size() - 1);
-                for (int i = 0; i < 5; i++) {
-                    indicatorIds.add(configArray.get(i));
-                    decimalShifts.add(configArray.get(i + 5));
-                }
-                Collections.reverse(decimalShifts);
-                int time_s = 0;
-                Double latestPrice = 0.00, averagePrice = 0.00;
-                int sum = dataArrays.stream()
-                        .filter(subList -> subList.size() > 1)
-                        .mapToInt(subList -> subList.get(1))
-                        .sum();
-                if (sum > 160000) {
-                    throw new DataException("数据异常_sum值超过阈值|Data_error_sum_exceeds_threshold,sum=" + sum);
-                }
-                int timeIndex = indicatorIds.indexOf(2);
-                int latestPriceIndex = indicatorIds.indexOf(3);
-                int averagePriceIndex = indicatorIds.indexOf(79);
-                int totalVolumeIndex = indicatorIds.indexOf(8);
-                //剔除最后一行指标数据
-                for (int i = 0; i < dataArrays.size() - 1; i++) {
-                    HistoryTrendDTO historyTrendDTO = new HistoryTrendDTO();
-                    time_s += dataArrays.get(i).get(timeIndex).intValue();
-                    // 转换为LocalDateTime
-                    LocalDate localDateTime = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyyMMdd"));
-                    LocalTime time = LocalTime.of(
-                            time_s / 10000,        // 小时: 13
-                            (time_s % 10000) / 100, // 分钟: 38
-                            time_s % 100           // 秒: 58
-                    );
-                    LocalDateTime dateTime = LocalDateTime.of(localDateTime, time);
-                    historyTrendDTO.setTradeDate(dateTime);
-                    historyTrendDTO.setWindCode(stockCode);
-                    historyTrendDTO.setLatestPrice(latestPrice += dataArrays.get(i).get(latestPriceIndex));
-                    historyTrendDTO.setAveragePrice(averagePrice += dataArrays.get(i).get(averagePriceIndex));
-                    //总成交量不需要累加
-                    historyTrendDTO.setTotalVolume(Double.valueOf(dataArrays.get(i).get(totalVolumeIndex)));
-                    historyTrendList.add(historyTrendDTO);
-                }
-                //精度处理
-                for (HistoryTrendDTO historyTrendDTO : historyTrendList) {
-                    historyTrendDTO.setLatestPrice(MathUtil.formatDecimal(historyTrendDTO.getLatestPrice(), decimalShifts.get(latestPriceIndex), false));
-                    historyTrendDTO.setAveragePrice(MathUtil.formatDecimal(historyTrendDTO.getAveragePrice(), decimalShifts.get(averagePriceIndex), false));
-                    //成交额(买卖都算),由于A股市场都是以100股为单位/1手,故此在此固定/100
-                    historyTrendDTO.setTotalVolume(MathUtil.formatDecimal(historyTrendDTO.getTotalVolume(), 2, false));
-                }
-                allHistoryTrendList.addAll(historyTrendList);
-            }
+        try {
+            WindTrendDecoder.decodeHistoryTrend(response.getBody(), allHistoryTrendList::add);
+        } catch (IOException e) {
+            throw new DataException("分时数据解析失败|Trend_data_parse_failed,tradeDate=" + tradeDate, e);
         }
         log.info("日志记录|Log_message,getQuotationHistoryTrendList_allHistoryTrendList.size={}", allHistoryTrendList.size());
         return allHistoryTrendList;
@@ -515,22 +480,22 @@ public class QuotationServiceImpl implements QuotationService {
             try {
                 // 处理最新价精度
                 if (latestPriceIndex >= 0 && latestPriceIndex < decimalShifts.size()) {
-                    historyTrendDTO.setLatestPrice(MathUtil.formatDecimal(
+                    historyTrendDTO.setLatestPrice(FixedPrice.formatDecimal(
                             historyTrendDTO.getLatestPrice(), decimalShifts.get(latestPriceIndex), false));
                 } else {
-                    historyTrendDTO.setLatestPrice(MathUtil.formatDecimal(
+                    historyTrendDTO.setLatestPrice(FixedPrice.formatDecimal(
                             historyTrendDTO.getLatestPrice(), 2, false));
                 }
                 // 处理成交额精度
                 if (totalAmount >= 0 && totalAmount < decimalShifts.size()) {
-                    historyTrendDTO.setTotalAmount(MathUtil.formatDecimal(
+                    historyTrendDTO.setTotalAmount(FixedPrice.formatDecimal(
                             historyTrendDTO.getTotalAmount(), decimalShifts.get(totalAmount), false));
                 } else {
-                    historyTrendDTO.setTotalAmount(MathUtil.formatDecimal(
+                    historyTrendDTO.setTotalAmount(FixedPrice.formatDecimal(
                             historyTrendDTO.getTotalAmount(), 2, false));
                 }
                 // 处理成交量精度
-                historyTrendDTO.setTotalVolume(MathUtil.formatDecimal(
+                historyTrendDTO.setTotalVolume(FixedPrice.formatDecimal(
                         historyTrendDTO.getTotalVolume(), 2, false));
 
             } catch (Exception e) {
@@ -554,7 +519,7 @@ public class QuotationServiceImpl implements QuotationService {
         if (!StringUtils.hasLength(endDate)) {
             endDate = DateUtil.getCurrentDateTimeByStr(DateTimeFormatConstants.COMPACT_DATE_FORMAT);
         }
-        // 复用冷热表查询逻辑，传入空列表表示不限制股票代码
+        // 复用分区路由查询逻辑，传入空列表表示不限制股票代码
         return getHistoryTrendDataByStockList(startDate, endDate, Collections.emptyList());
     }
 
@@ -571,61 +536,53 @@ public class QuotationServiceImpl implements QuotationService {
         DateTimeFormatter pattern = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
         LocalDate start = LocalDate.parse(startDate, pattern);
         LocalDate end = LocalDate.parse(endDate, pattern);
-        // 判断查询范围
-        boolean queryWarm = start.isBefore(HOT_DATA_START_DATE);
-        boolean queryHot = end.isAfter(HOT_DATA_START_DATE) || end.isEqual(HOT_DATA_START_DATE);
-
-        // 对 endDate 追加当天最后一秒，确保查询覆盖当天所有数据
-        String endDateWithTime = DateUtil.appendEndOfDayTime(endDate);
+        log.info("查询分时数据|Query_history_trend,range={}-{},stocks={}", startDate, endDate, stockList.size());
+        // 按分区路由并拆分子区间，并行查询后按 trade_date 归并
+        return parallelQueryExecutor.executeParallel(
+                tableRouter.plan(start, end),
+                (segment, stocks) -> quotationMapper.selectByWindCodeListAndDate(
+                        segment.getTableName(),
+                        DateUtil.appendStartOfDayTime(segment.getStartDate().format(pattern)),
+                        DateUtil.appendEndOfDayTime(segment.getEndDate().format(pattern)),
+                        stocks),
+                stockList,
+                TREND_ORDER
+        );
+    }
 
-        // 1. 仅查询热表
-        if (queryHot && !queryWarm) {
-            log.info("查询热数据表|Query_hot_table,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            return quotationMapper.selectByWindCodeListAndDate(TABLE_HOT, startDate, endDateWithTime, stockList);
-        }
-        // 2. 仅查询温表
-        if (queryWarm && !queryHot) {
-            log.info("查询温数据表|Query_warm_table,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            return quotationMapper.selectByWindCodeListAndDate(TABLE_WARM, startDate, endDateWithTime, stockList);
-        }
-        // 3. 跨冷热表查询，使用CompletableFuture并行执行
-        if (queryWarm && queryHot) {
-            log.info("并行查询冷热数据表|Parallel_query_hot_warm_tables,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            // 定义温表查询范围（温表的 endDate 也需要追加时间）
-            LocalDate warmEnd = HOT_DATA_START_DATE.minusDays(1);
-            String warmEndDateStr = DateUtil.appendEndOfDayTime(warmEnd.format(pattern));
-            // 定义热表查询范围
-            String hotStartDateStr = HOT_DATA_START_DATE.format(pattern);
-            // 异步查询温表
-            CompletableFuture<List<HistoryTrendDTO>> warmFuture = CompletableFuture.supplyAsync(() -> {
-                log.info("异步查询温表开始|Async_query_warm_start,range={}-{}", startDate, warmEndDateStr);
-                return quotationMapper.selectByWindCodeListAndDate(TABLE_WARM, startDate, warmEndDateStr, stockList);
-            }, ioTaskExecutor);
-            // 异步查询热表（使用追加时间后的 endDate）
-            CompletableFuture<List<HistoryTrendDTO>> hotFuture = CompletableFuture.supplyAsync(() -> {
-                log.info("异步查询热表开始|Async_query_hot_start,range={}-{}", hotStartDateStr, endDateWithTime);
-                return quotationMapper.selectByWindCodeListAndDate(TABLE_HOT, hotStartDateStr, endDateWithTime, stockList);
-            }, ioTaskExecutor);
-            // 等待两个查询都完成
-            CompletableFuture.allOf(warmFuture, hotFuture).join();
-            try {
-                List<HistoryTrendDTO> warmData = warmFuture.get();
-                List<HistoryTrendDTO> hotData = hotFuture.get();
-
-                // 创建一个足够大的列表并按顺序合并结果，保证时间连续性
-                List<HistoryTrendDTO> combinedResult = new ArrayList<>(warmData.size() + hotData.size());
-                combinedResult.addAll(warmData); // 温数据（旧）在前
-                combinedResult.addAll(hotData);  // 热数据（新）在后
-                log.info("冷热数据合并完成|Merge_hot_warm_data_done,warmCount={},hotCount={},totalCount={}", warmData.size(), hotData.size(), combinedResult.size());
-                return combinedResult;
-            } catch (Exception e) {
-                log.error("并行查询冷热数据失败|Parallel_query_failed", e);
-                Thread.currentThread().interrupt(); // 恢复中断状态
-                return Collections.emptyList();
-            }
+    /**
+     * 流式读取指定股票列表的历史分时数据
+     * <p>
+     * 分区按时间升序且互不重叠，逐个分区顺序流式读取即保持 trade_date 升序（不拆子区间、不并行，内存恒定）。
+     *
+     * @param startDate 起始日期 (yyyyMMdd)
+     * @param endDate   结束日期 (yyyyMMdd)
+     * @param stockList 股票列表（为空时不限制股票）
+     * @param consumer  逐条回调
+     * @return 读取的分时条数
+     */
+    @Override
+    public long streamHistoryTrendDataByStockList(String startDate, String endDate, List<String> stockList, Consumer<HistoryTrendDTO> consumer) {
+        DateTimeFormatter pattern = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+        LocalDate start = LocalDate.parse(startDate, pattern);
+        LocalDate end = LocalDate.parse(endDate, pattern);
+        List<String> stocks = stockList == null ? Collections.emptyList() : stockList;
+        AtomicLong rows = new AtomicLong();
+        long begin = System.currentTimeMillis();
+        for (QuerySegment segment : tableRouter.route(start, end)) {
+            quotationMapper.streamByWindCodeListAndDate(
+                    segment.getTableName(),
+                    DateUtil.appendStartOfDayTime(segment.getStartDate().format(pattern)),
+                    DateUtil.appendEndOfDayTime(segment.getEndDate().format(pattern)),
+                    stocks,
+                    context -> {
+                        rows.incrementAndGet();
+                        consumer.accept(context.getResultObject());
+                    });
         }
-        // 默认返回空列表
-        return Collections.emptyList();
+        log.info("流式读取分时数据完成|Stream_history_trend_done,range={}-{},stocks={},rows={},costMs={}",
+                startDate, endDate, stocks.size(), rows.get(), System.currentTimeMillis() - begin);
+        return rows.get();
     }
 
     /**
@@ -638,56 +595,22 @@ public class QuotationServiceImpl implements QuotationService {
      */
     @Override
     public List<HistoryTrendDTO> getHistoryTrendDataByTimeRange(String startTime, String endTime, List<String> stockList) {
-        // 解析时间以确定冷热表路由
+        // 解析时间以确定分区路由
         DateTimeFormatter pattern = DateTimeFormatter.ofPattern(DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT);
         LocalDate start = LocalDateTime.parse(startTime, pattern).toLocalDate();
         LocalDate end = LocalDateTime.parse(endTime, pattern).toLocalDate();
-
-        // 判断查询范围
-        boolean queryWarm = start.isBefore(HOT_DATA_START_DATE);
-        boolean queryHot = end.isAfter(HOT_DATA_START_DATE) || end.isEqual(HOT_DATA_START_DATE);
-
-        // 1. 仅查询热表
-        if (queryHot && !queryWarm) {
-            log.debug("回放查询热表|Replay_query_hot,range={}-{}", startTime, endTime);
-            return quotationMapper.selectByWindCodeListAndDate(TABLE_HOT, startTime, endTime, stockList);
-        }
-        // 2. 仅查询温表
-        if (queryWarm && !queryHot) {
-            log.debug("回放查询温表|Replay_query_warm,range={}-{}", startTime, endTime);
-            return quotationMapper.selectByWindCodeListAndDate(TABLE_WARM, startTime, endTime, stockList);
-        }
-        // 3. 跨冷热表查询（回放场景较少见，但支持）
-        if (queryWarm && queryHot) {
-            // 定义温表查询范围
-            LocalDate warmEnd = HOT_DATA_START_DATE.minusDays(1);
-            String warmEndDateStr = DateUtil.appendEndOfDayTime(warmEnd.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT)));
-            // 定义热表查询范围
-            String hotStartDateStr = HOT_DATA_START_DATE.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
-
-            // 修正跨表边界：如果 startTime 在热表范围内，则温表查询为空；反之亦然。
-            // 简单起见，这里直接并行查，Mapper 会根据时间过滤
-
-            CompletableFuture<List<HistoryTrendDTO>> warmFuture = CompletableFuture.supplyAsync(() ->
-                    quotationMapper.selectByWindCodeListAndDate(TABLE_WARM, startTime, warmEndDateStr, stockList), ioTaskExecutor);
-
-            CompletableFuture<List<HistoryTrendDTO>> hotFuture = CompletableFuture.supplyAsync(() ->
-                    quotationMapper.selectByWindCodeListAndDate(TABLE_HOT, hotStartDateStr, endTime, stockList), ioTaskExecutor);
-
-            CompletableFuture.allOf(warmFuture, hotFuture).join();
-            try {
-                List<HistoryTrendDTO> warmData = warmFuture.get();
-                List<HistoryTrendDTO> hotData = hotFuture.get();
-                List<HistoryTrendDTO> combinedResult = new ArrayList<>(warmData.size() + hotData.size());
-                combinedResult.addAll(warmData);
-                combinedResult.addAll(hotData);
-                return combinedResult;
-            } catch (Exception e) {
-                log.error("回放跨表查询失败|Replay_cross_table_error", e);
-                return Collections.emptyList();
-            }
-        }
-        return Collections.emptyList();
+        log.debug("回放查询分时数据|Replay_query_trend,range={}-{}", startTime, endTime);
+        // 首尾分段使用精确时间，中间分段覆盖整日
+        return parallelQueryExecutor.executeParallel(
+                tableRouter.plan(start, end),
+                (segment, stocks) -> quotationMapper.selectByWindCodeListAndDate(
+                        segment.getTableName(),
+                        segmentStartTime(segment, start, startTime),
+                        segmentEndTime(segment, end, endTime),
+                        stocks),
+                stockList,
+                TREND_ORDER
+        );
     }
 
     /**
@@ -781,6 +704,7 @@ public class QuotationServiceImpl implements QuotationService {
      * 获取指定时间区间内每只股票每日的收盘价（最后一条分时数据）
      * <p>
      * 专为策略预热优化，仅返回 windCode, tradeDate, latestPrice 字段。
+     * 优先读取日线表 tb_quotation_daily_bar，尚未回填完成的交易日及日线中缺少的股票回退到分时表。
      *
      * @param startDate 起始日期 (yyyyMMdd)
      * @param endDate   结束日期 (yyyyMMdd)
@@ -789,64 +713,64 @@ public class QuotationServiceImpl implements QuotationService {
      */
     @Override
     public List<HistoryTrendDTO> getDailyClosePriceByStockList(String startDate, String endDate, List<String> stockList) {
+        DailyBarCoverage coverage = coverDailyBars(startDate, endDate);
+        List<HistoryTrendDTO> result = new ArrayList<>();
+        if (coverage == null) {
+            deriveDailyClosePriceFromTrend(startDate, endDate, stockList, result::add);
+            return result;
+        }
+        if (!coverage.missing().isEmpty()) {
+            // 尚未回填完成的交易日（可能只汇总了部分股票）回退到分时表
+            deriveDailyClosePriceFromTrend(coverage.missingStart(), coverage.missingEnd(), stockList, dto -> {
+                if (dto.getTradeDate() != null && coverage.missing().contains(dto.getTradeDate().toLocalDate())) {
+                    result.add(dto);
+                }
+            });
+        }
+        for (DailyBarDay day : coverage.days().values()) {
+            for (String windCode : barCodes(day, stockList)) {
+                int i = day.indexOf(windCode);
+                if (i >= 0) {
+                    result.add(toCloseTrend(day, i));
+                }
+            }
+        }
+        DailyBarGaps gaps = coverage.gaps(stockList);
+        if (!gaps.isEmpty()) {
+            // 已回填交易日中缺少日线的股票回退到分时表
+            deriveDailyClosePriceFromTrend(gaps.start(), gaps.end(), gaps.windCodes(), dto -> {
+                if (dto.getTradeDate() != null && gaps.contains(dto.getTradeDate().toLocalDate(), dto.getWindCode())) {
+                    result.add(dto);
+                }
+            });
+        }
+        result.sort(Comparator.comparing(HistoryTrendDTO::getTradeDate));
+        log.info("日线表查询收盘价|Daily_bar_close_price,range={}-{},stocks={},barDays={},trendDays={},gapBars={},records={}",
+                startDate, endDate, stockList.size(), coverage.days().size(), coverage.missing().size(), gaps.size(), result.size());
+        return result;
+    }
+
+    /**
+     * 由分时表实时汇总每日收盘价（日线表未覆盖时使用），按 trade_date 升序逐条回调
+     */
+    private void deriveDailyClosePriceFromTrend(String startDate, String endDate, List<String> stockList,
+                                                Consumer<HistoryTrendDTO> consumer) {
         DateTimeFormatter pattern = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
         LocalDate start = LocalDate.parse(startDate, pattern);
         LocalDate end = LocalDate.parse(endDate, pattern);
-        // 判断查询范围
-        boolean queryWarm = start.isBefore(HOT_DATA_START_DATE);
-        boolean queryHot = end.isAfter(HOT_DATA_START_DATE) || end.isEqual(HOT_DATA_START_DATE);
-
-        // 对 endDate 追加当天最后一秒，确保查询覆盖当天所有数据
-        String endDateWithTime = DateUtil.appendEndOfDayTime(endDate);
-
-        // 1. 仅查询热表
-        if (queryHot && !queryWarm) {
-            log.info("查询热数据表(收盘价)|Query_hot_table_close_price,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            return quotationMapper.selectDailyClosePriceByWindCodeListAndDate(TABLE_HOT, startDate, endDateWithTime, stockList);
-        }
-        // 2. 仅查询温表
-        if (queryWarm && !queryHot) {
-            log.info("查询温数据表(收盘价)|Query_warm_table_close_price,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            return quotationMapper.selectDailyClosePriceByWindCodeListAndDate(TABLE_WARM, startDate, endDateWithTime, stockList);
-        }
-        // 3. 跨冷热表查询，使用CompletableFuture并行执行
-        if (queryWarm && queryHot) {
-            log.info("并行查询冷热数据表(收盘价)|Parallel_query_hot_warm_tables_close_price,range={}-{},stocks={}", startDate, endDateWithTime, stockList.size());
-            // 定义温表查询范围（温表的 endDate 也需要追加时间）
-            LocalDate warmEnd = HOT_DATA_START_DATE.minusDays(1);
-            String warmEndDateStr = DateUtil.appendEndOfDayTime(warmEnd.format(pattern));
-            // 定义热表查询范围
-            String hotStartDateStr = HOT_DATA_START_DATE.format(pattern);
-            // 异步查询温表
-            CompletableFuture<List<HistoryTrendDTO>> warmFuture = CompletableFuture.supplyAsync(() -> {
-                log.info("异步查询温表开始(收盘价)|Async_query_warm_start_close_price,range={}-{}", startDate, warmEndDateStr);
-                return quotationMapper.selectDailyClosePriceByWindCodeListAndDate(TABLE_WARM, startDate, warmEndDateStr, stockList);
-            }, ioTaskExecutor);
-            // 异步查询热表（使用追加时间后的 endDate）
-            CompletableFuture<List<HistoryTrendDTO>> hotFuture = CompletableFuture.supplyAsync(() -> {
-                log.info("异步查询热表开始(收盘价)|Async_query_hot_start_close_price,range={}-{}", hotStartDateStr, endDateWithTime);
-                return quotationMapper.selectDailyClosePriceByWindCodeListAndDate(TABLE_HOT, hotStartDateStr, endDateWithTime, stockList);
-            }, ioTaskExecutor);
-            // 等待两个查询都完成
-            CompletableFuture.allOf(warmFuture, hotFuture).join();
-            try {
-                List<HistoryTrendDTO> warmData = warmFuture.get();
-                List<HistoryTrendDTO> hotData = hotFuture.get();
-
-                // 创建一个足够大的列表并按顺序合并结果，保证时间连续性
-                List<HistoryTrendDTO> combinedResult = new ArrayList<>(warmData.size() + hotData.size());
-                combinedResult.addAll(warmData); // 温数据（旧）在前
-                combinedResult.addAll(hotData);  // 热数据（新）在后
-                log.info("冷热数据合并完成(收盘价)|Merge_hot_warm_data_done_close_price,warmCount={},hotCount={},totalCount={}", warmData.size(), hotData.size(), combinedResult.size());
-                return combinedResult;
-            } catch (Exception e) {
-                log.error("并行查询冷热数据失败(收盘价)|Parallel_query_failed_close_price", e);
-                Thread.currentThread().interrupt(); // 恢复中断状态
-                return Collections.emptyList();
-            }
-        }
-        // 默认返回空列表
-        return Collections.emptyList();
+        log.info("查询分时表收盘价|Query_trend_close_price,range={}-{},stocks={}", startDate, endDate, stockList.size());
+        // 子区间按整日切分，每日最后一条分时不会被拆到两个分段
+        parallelQueryExecutor.executeParallel(
+                tableRouter.plan(start, end),
+                (segment, stocks) -> quotationMapper.selectDailyClosePriceByWindCodeListAndDate(
+                        segment.getTableName(),
+                        DateUtil.appendStartOfDayTime(segment.getStartDate().format(pattern)),
+                        DateUtil.appendEndOfDayTime(segment.getEndDate().format(pattern)),
+                        stocks),
+                stockList,
+                TREND_ORDER,
+                consumer
+        );
     }
 
     /**
@@ -889,7 +813,9 @@ public class QuotationServiceImpl implements QuotationService {
     /**
      * 获取指定时间区间内指定股票列表的当日最高价和最低价
      * <p>
-     * 复用 {@link #getHistoryTrendDataByStockList} 获取分时数据，在内存中筛选每只股票的最高价和最低价。
+     * 优先读取日线表 tb_quotation_daily_bar 的日内最高/最低价及其出现时间；
+     * 尚未回填完成的交易日及日线中缺少的股票复用 {@link #getHistoryTrendDataByStockList} 获取分时数据在内存中筛选。
+     * 由日线表得出的分时 DTO 只包含 windCode、tradeDate、latestPrice。
      *
      * @param startDate 起始日期 (yyyyMMdd)
      * @param endDate   结束日期 (yyyyMMdd)
@@ -908,55 +834,86 @@ public class QuotationServiceImpl implements QuotationService {
             return Collections.emptyMap();
         }
 
-        log.info("查询当日最高最低价|Query_daily_high_low,range={}-{},stockCount={}", startDate, endDate, stockList.size());
-
-        // 复用现有方法获取分时数据
-        List<HistoryTrendDTO> trendDataList = getHistoryTrendDataByStockList(startDate, endDate, stockList);
-        if (trendDataList == null || trendDataList.isEmpty()) {
-            log.warn("分时数据为空，无法计算最高最低价|Trend_data_empty_for_high_low");
-            return Collections.emptyMap();
+        DailyBarCoverage coverage = coverDailyBars(startDate, endDate);
+        if (coverage == null) {
+            return deriveDailyHighLowFromTrend(startDate, endDate, stockList);
         }
-
-        // 在内存中按 windCode 分组，筛选最高价和最低价
-        Map<String, DailyHighLowDTO> resultMap = new HashMap<>(stockList.size());
-
-        // 按股票代码分组
-        Map<String, List<HistoryTrendDTO>> groupedByWindCode = trendDataList.stream()
-                .filter(dto -> dto != null && dto.getWindCode() != null && dto.getLatestPrice() != null)
-                .collect(Collectors.groupingBy(HistoryTrendDTO::getWindCode));
-
-        for (Map.Entry<String, List<HistoryTrendDTO>> entry : groupedByWindCode.entrySet()) {
-            String windCode = entry.getKey();
-            List<HistoryTrendDTO> stockTrendList = entry.getValue();
-
-            if (stockTrendList.isEmpty()) {
-                continue;
+        // 尚未回填完成的交易日回退到分时表；回退区间内已覆盖的交易日重复参与比较，不影响极值
+        Map<String, DailyHighLowDTO> resultMap = coverage.missing().isEmpty()
+                ? new HashMap<>(stockList.size())
+                : new HashMap<>(deriveDailyHighLowFromTrend(coverage.missingStart(), coverage.missingEnd(), stockList));
+        // 交易日升序遍历，价格相同时保留最早出现的一条（与分时表逐条比较口径一致）
+        for (DailyBarDay day : coverage.days().values()) {
+            for (String windCode : stockList) {
+                int i = day.indexOf(windCode);
+                if (i < 0 || Double.isNaN(day.high(i)) || Double.isNaN(day.low(i))) {
+                    continue;
+                }
+                DailyHighLowDTO highLow = resultMap.computeIfAbsent(windCode, k -> new DailyHighLowDTO());
+                HistoryTrendDTO high = highLow.getHighPriceData();
+                if (high == null || day.high(i) > high.getLatestPrice()
+                        || (day.high(i) == high.getLatestPrice() && isEarlier(day.highTime(i), high.getTradeDate()))) {
+                    highLow.setHighPriceData(toTrend(windCode, day.highTime(i), day.high(i)));
+                }
+                HistoryTrendDTO low = highLow.getLowPriceData();
+                if (low == null || day.low(i) < low.getLatestPrice()
+                        || (day.low(i) == low.getLatestPrice() && isEarlier(day.lowTime(i), low.getTradeDate()))) {
+                    highLow.setLowPriceData(toTrend(windCode, day.lowTime(i), day.low(i)));
+                }
             }
+        }
+        DailyBarGaps gaps = coverage.gaps(stockList);
+        if (!gaps.isEmpty()) {
+            // 已回填交易日中缺少日线的股票回退到分时表；这些股票在回退区间内其他交易日的日线重复参与比较，不影响极值
+            deriveDailyHighLowFromTrend(gaps.start(), gaps.end(), gaps.windCodes()).forEach((windCode, fallback) -> {
+                DailyHighLowDTO highLow = resultMap.computeIfAbsent(windCode, k -> new DailyHighLowDTO());
+                if (isHigher(fallback.getHighPriceData(), highLow.getHighPriceData())) {
+                    highLow.setHighPriceData(fallback.getHighPriceData());
+                }
+                if (isLower(fallback.getLowPriceData(), highLow.getLowPriceData())) {
+                    highLow.setLowPriceData(fallback.getLowPriceData());
+                }
+            });
+        }
+        log.info("日线表查询最高最低价|Daily_bar_high_low,range={}-{},stockCount={},barDays={},trendDays={},gapBars={},resultCount={}",
+                startDate, endDate, stockList.size(), coverage.days().size(), coverage.missing().size(), gaps.size(), resultMap.size());
+        return resultMap;
+    }
 
-            // 找出最高价和最低价对应的分时数据
-            HistoryTrendDTO highPriceData = stockTrendList.stream()
-                    .max(Comparator.comparingDouble(HistoryTrendDTO::getLatestPrice))
-                    .orElse(null);
-
-            HistoryTrendDTO lowPriceData = stockTrendList.stream()
-                    .min(Comparator.comparingDouble(HistoryTrendDTO::getLatestPrice))
-                    .orElse(null);
-
-            DailyHighLowDTO dailyHighLowDTO = new DailyHighLowDTO();
-            dailyHighLowDTO.setHighPriceData(highPriceData);
-            dailyHighLowDTO.setLowPriceData(lowPriceData);
+    /**
+     * 由分时表拉取分时数据在内存中计算最高最低价（日线表未覆盖时使用）
+     */
+    private Map<String, DailyHighLowDTO> deriveDailyHighLowFromTrend(String startDate, String endDate, List<String> stockList) {
+        log.info("查询当日最高最低价|Query_daily_high_low,range={}-{},stockCount={}", startDate, endDate, stockList.size());
 
-            resultMap.put(windCode, dailyHighLowDTO);
+        // 流式读取分时数据，边读边更新每只股票的最高/最低价，不保留分时明细
+        Map<String, DailyHighLowDTO> resultMap = new HashMap<>(stockList.size() * 2);
+        long rows = streamHistoryTrendDataByStockList(startDate, endDate, stockList, dto -> {
+            if (dto == null || dto.getWindCode() == null || dto.getLatestPrice() == null) {
+                return;
+            }
+            DailyHighLowDTO highLow = resultMap.computeIfAbsent(dto.getWindCode(), k -> new DailyHighLowDTO());
+            // 分时按时间升序到达，只有严格更高/更低才替换，价格相同时保留最早出现的一条
+            if (highLow.getHighPriceData() == null || dto.getLatestPrice() > highLow.getHighPriceData().getLatestPrice()) {
+                highLow.setHighPriceData(dto);
+            }
+            if (highLow.getLowPriceData() == null || dto.getLatestPrice() < highLow.getLowPriceData().getLatestPrice()) {
+                highLow.setLowPriceData(dto);
+            }
+        });
+        if (rows == 0) {
+            log.warn("分时数据为空，无法计算最高最低价|Trend_data_empty_for_high_low");
+            return Collections.emptyMap();
         }
 
-        log.info("当日最高最低价查询完成|Daily_high_low_query_done,resultCount={}", resultMap.size());
+        log.info("当日最高最低价查询完成|Daily_high_low_query_done,rows={},resultCount={}", rows, resultMap.size());
         return resultMap;
     }
 
     /**
      * 获取指定股票列表在指定日期列表中每天的收盘价（当日最后一条分时数据）
      * <p>
-     * 遍历日期列表，对每个日期查询指定股票的最后一条分时数据。
+     * 优先读取日线表 tb_quotation_daily_bar（全部日期一次取出），尚未回填完成的日期及当天缺少日线的股票逐日查询分时表的最后一条数据。
      *
      * @param stockList 股票代码列表
      * @param dateList  日期列表（格式 yyyyMMdd）
@@ -978,35 +935,63 @@ public class QuotationServiceImpl implements QuotationService {
 
         Map<String, Map<String, HistoryTrendDTO>> resultMap = new LinkedHashMap<>(dateList.size());
 
+        // 日线表一次取出全部日期（缓存命中时不访问数据库）
+        Map<LocalDate, DailyBarDay> barDays = Collections.emptyMap();
+        if (dailyBarProperties.isEnabled()) {
+            List<LocalDate> tradeDates = new ArrayList<>(dateList.size());
+            for (String date : dateList) {
+                LocalDate tradeDate = parseCompactDate(date);
+                if (tradeDate != null) {
+                    tradeDates.add(tradeDate);
+                }
+            }
+            barDays = dailyBarStore.getDays(tradeDates);
+        }
+
         // 遍历每个日期，查询当天的收盘价
         for (String date : dateList) {
             if (!StringUtils.hasLength(date)) {
                 continue;
             }
 
-            // 复用现有方法获取当天的分时数据
-            List<HistoryTrendDTO> trendDataList = getHistoryTrendDataByStockList(date, date, stockList);
-            if (trendDataList == null || trendDataList.isEmpty()) {
+            DailyBarDay day = barDays.get(parseCompactDate(date));
+            if (day != null) {
+                Map<String, HistoryTrendDTO> dailyCloseMap = new HashMap<>(stockList.size() * 2);
+                List<String> gapCodes = new ArrayList<>();
+                for (String windCode : stockList) {
+                    int i = day.indexOf(windCode);
+                    if (i >= 0) {
+                        dailyCloseMap.put(windCode, toCloseTrend(day, i));
+                    } else {
+                        gapCodes.add(windCode);
+                    }
+                }
+                if (!gapCodes.isEmpty()) {
+                    // 当天缺少日线的股票回退到分时表，按时间升序覆盖，留下的即当天最后一条
+                    streamHistoryTrendDataByStockList(date, date, gapCodes, dto -> {
+                        if (dto != null && dto.getWindCode() != null && dto.getTradeDate() != null) {
+                            dailyCloseMap.put(dto.getWindCode(), dto);
+                        }
+                    });
+                    log.debug("日期 {} 缺少日线的股票回退分时表|Daily_bar_gap_fallback,gapCodes={}", date, gapCodes.size());
+                }
+                resultMap.put(date, dailyCloseMap);
+                continue;
+            }
+
+            // 流式读取当天的分时数据，按时间升序覆盖，留下的即每只股票当天最后一条
+            Map<String, HistoryTrendDTO> dailyCloseMap = new HashMap<>(stockList.size() * 2);
+            streamHistoryTrendDataByStockList(date, date, stockList, dto -> {
+                if (dto != null && dto.getWindCode() != null && dto.getTradeDate() != null) {
+                    dailyCloseMap.put(dto.getWindCode(), dto);
+                }
+            });
+            if (dailyCloseMap.isEmpty()) {
                 log.debug("日期 {} 无分时数据|No_trend_data_for_date", date);
                 resultMap.put(date, Collections.emptyMap());
                 continue;
             }
 
-            // 按 windCode 分组，取每只股票当天最后一条数据（按 tradeDate 降序取第一条）
-            Map<String, HistoryTrendDTO> dailyCloseMap = trendDataList.stream()
-                    .filter(dto -> dto != null && dto.getWindCode() != null && dto.getTradeDate() != null)
-                    .collect(Collectors.groupingBy(HistoryTrendDTO::getWindCode))
-                    .entrySet().stream()
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            entry -> entry.getValue().stream()
-                                    .max(Comparator.comparing(HistoryTrendDTO::getTradeDate))
-                                    .orElse(null)
-                    ));
-
-            // 移除可能的 null 值
-            dailyCloseMap.values().removeIf(v -> v == null);
-
             resultMap.put(date, dailyCloseMap);
             log.debug("日期 {} 查询到 {} 只股票的收盘价|Date_close_count", date, dailyCloseMap.size());
         }
@@ -1015,20 +1000,10 @@ public class QuotationServiceImpl implements QuotationService {
         return resultMap;
     }
 
-    // ==============================================================================
-    // 跨表查询新接口（使用 TableRouter + ParallelQueryExecutor）
-    // ==============================================================================
-
-    @Autowired
-    private com.hao.datacollector.core.query.TableRouter tableRouter;
-
-    @Autowired
-    private com.hao.datacollector.core.query.ParallelQueryExecutor parallelQueryExecutor;
-
     /**
      * 获取指定时间区间内每只股票每日的最高价、最低价、收盘价（时间序列格式）
      * <p>
-     * 使用 TableRouter + ParallelQueryExecutor 实现跨表查询。
+     * 优先读取日线表 tb_quotation_daily_bar，尚未回填完成的交易日及日线中缺少的股票使用 TableRouter + ParallelQueryExecutor 跨分时表查询。
      * 返回格式适合策略计算，外层按股票分组，内层按日期排序。
      *
      * @param startDate 起始日期 (yyyyMMdd)
@@ -1039,6 +1014,61 @@ public class QuotationServiceImpl implements QuotationService {
     @Override
     public Map<String, List<DailyOhlcDTO>> getDailyOhlcByStockList(
             String startDate, String endDate, List<String> stockList) {
+        DailyBarCoverage coverage = coverDailyBars(startDate, endDate);
+        if (coverage == null) {
+            return deriveDailyOhlcFromTrend(startDate, endDate, stockList);
+        }
+        Map<String, List<DailyOhlcDTO>> resultMap = new LinkedHashMap<>();
+        if (!coverage.missing().isEmpty()) {
+            // 尚未回填完成的交易日（可能只汇总了部分股票）回退到分时表
+            deriveDailyOhlcFromTrend(coverage.missingStart(), coverage.missingEnd(), stockList).forEach((windCode, bars) -> {
+                for (DailyOhlcDTO bar : bars) {
+                    if (coverage.missing().contains(bar.getTradeDate())) {
+                        resultMap.computeIfAbsent(windCode, k -> new ArrayList<>()).add(bar);
+                    }
+                }
+            });
+        }
+        int records = 0;
+        for (DailyBarDay day : coverage.days().values()) {
+            for (String windCode : barCodes(day, stockList)) {
+                int i = day.indexOf(windCode);
+                if (i < 0) {
+                    continue;
+                }
+                DailyOhlcDTO bar = new DailyOhlcDTO();
+                bar.setWindCode(windCode);
+                bar.setTradeDate(day.getTradeDate());
+                bar.setHighPrice(DailyBarDay.boxed(day.high(i)));
+                bar.setLowPrice(DailyBarDay.boxed(day.low(i)));
+                bar.setClosePrice(DailyBarDay.boxed(day.close(i)));
+                resultMap.computeIfAbsent(windCode, k -> new ArrayList<>()).add(bar);
+                records++;
+            }
+        }
+        DailyBarGaps gaps = coverage.gaps(stockList);
+        if (!gaps.isEmpty()) {
+            // 已回填交易日中缺少日线的股票回退到分时表
+            deriveDailyOhlcFromTrend(gaps.start(), gaps.end(), gaps.windCodes()).forEach((windCode, bars) -> {
+                for (DailyOhlcDTO bar : bars) {
+                    if (gaps.contains(bar.getTradeDate(), windCode)) {
+                        resultMap.computeIfAbsent(windCode, k -> new ArrayList<>()).add(bar);
+                    }
+                }
+            });
+        }
+        // 策略计算必须按时间顺序
+        resultMap.values().forEach(list -> list.sort(Comparator.comparing(DailyOhlcDTO::getTradeDate)));
+        log.info("日线表查询OHLC|Daily_bar_ohlc,range={}-{},stockCount={},barDays={},trendDays={},gapBars={},barRecords={}",
+                startDate, endDate, stockList.size(), coverage.days().size(), coverage.missing().size(), gaps.size(), records);
+        return resultMap;
+    }
+
+    /**
+     * 由分时表实时汇总每日 OHLC（日线表未覆盖时使用，TableRouter + ParallelQueryExecutor 跨表查询）
+     */
+    private Map<String, List<DailyOhlcDTO>> deriveDailyOhlcFromTrend(
+            String startDate, String endDate, List<String> stockList) {
 
         DateTimeFormatter pattern = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
         LocalDate start = LocalDate.parse(startDate, pattern);
@@ -1047,10 +1077,11 @@ public class QuotationServiceImpl implements QuotationService {
         log.info("OHLC查询开始|OHLC_query_start,range={}-{},stockCount={}", startDate, endDate, stockList.size());
 
         // 1. 获取查询计划（分段）
-        List<com.hao.datacollector.core.query.QuerySegment> segments = tableRouter.route(start, end);
+        List<QuerySegment> segments = tableRouter.plan(start, end);
 
-        // 2. 执行并行查询
-        List<DailyOhlcDTO> results = parallelQueryExecutor.executeParallel(
+        // 2. 执行并行查询，归并结果直接按股票代码分组（适合策略计算），不保留整体结果列表
+        Map<String, List<DailyOhlcDTO>> resultMap = new LinkedHashMap<>();
+        long records = parallelQueryExecutor.executeParallel(
                 segments,
                 (segment, stocks) -> {
                     String segmentStartDate = DateUtil.appendStartOfDayTime(
@@ -1058,30 +1089,238 @@ public class QuotationServiceImpl implements QuotationService {
                     String segmentEndDate = DateUtil.appendEndOfDayTime(
                             segment.getEndDate().format(pattern));
                     return quotationMapper.selectDailyOhlcByStockListAndDate(
-                            segment.getTableType().getTableName(),
+                            segment.getTableName(),
                             segmentStartDate,
                             segmentEndDate,
                             stocks
                     );
                 },
-                stockList
+                stockList,
+                OHLC_ORDER,
+                dto -> {
+                    if (dto != null && dto.getTradeDate() != null && dto.getWindCode() != null) {
+                        resultMap.computeIfAbsent(dto.getWindCode(), k -> new ArrayList<>()).add(dto);
+                    }
+                }
         );
+        // 归并结果已按 trade_date 升序，分组后每只股票的数据仍按日期升序（策略计算必须按时间顺序）
+        log.info("OHLC查询完成|OHLC_query_done,stockCount={},totalRecords={}", resultMap.size(), records);
+        return resultMap;
+    }
+
+    // ==============================================================================
+    // 日线表（tb_quotation_daily_bar）读取辅助
+    // ==============================================================================
+
+    /**
+     * 日线表覆盖情况
+     *
+     * @param days    已标记完整的交易日（升序）→ 全市场日线
+     * @param missing 区间内尚未回填完成的交易日（升序）
+     */
+    private record DailyBarCoverage(Map<LocalDate, DailyBarDay> days, List<LocalDate> missing) {
 
-        // 3. 按股票代码分组（适合策略计算）
-        Map<String, List<DailyOhlcDTO>> resultMap = results.stream()
-                .filter(dto -> dto != null && dto.getTradeDate() != null && dto.getWindCode() != null)
-                .collect(Collectors.groupingBy(
-                        DailyOhlcDTO::getWindCode,
-                        LinkedHashMap::new,
-                        Collectors.toList()
-                ));
+        String missingStart() {
+            return missing.getFirst().format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        }
 
-        // 4. 对每只股票的数据按日期升序排序（策略计算必须按时间顺序）
-        resultMap.values().forEach(list ->
-                list.sort(Comparator.comparing(DailyOhlcDTO::getTradeDate)));
+        String missingEnd() {
+            return missing.getLast().format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        }
 
-        log.info("OHLC查询完成|OHLC_query_done,stockCount={},totalRecords={}", resultMap.size(), results.size());
-        return resultMap;
+        /**
+         * 已覆盖交易日中缺少日线的请求股票（回填后补转档的股票、停牌股票）
+         * <p>
+         * 股票列表为空（全市场）时以完整性标记为准，不再逐只检查。
+         */
+        DailyBarGaps gaps(List<String> stockList) {
+            Map<LocalDate, Set<String>> byDate = new LinkedHashMap<>();
+            if (stockList != null && !stockList.isEmpty()) {
+                for (DailyBarDay day : days.values()) {
+                    for (String windCode : stockList) {
+                        if (day.indexOf(windCode) < 0) {
+                            byDate.computeIfAbsent(day.getTradeDate(), k -> new LinkedHashSet<>()).add(windCode);
+                        }
+                    }
+                }
+            }
+            return new DailyBarGaps(byDate);
+        }
     }
-}
 
+    /**
+     * 需要回退到分时表的（交易日, 股票）
+     *
+     * @param byDate 交易日（升序）→ 缺少日线的股票代码
+     */
+    private record DailyBarGaps(Map<LocalDate, Set<String>> byDate) {
+
+        boolean isEmpty() {
+            return byDate.isEmpty();
+        }
+
+        boolean contains(LocalDate tradeDate, String windCode) {
+            Set<String> windCodes = byDate.get(tradeDate);
+            return windCodes != null && windCodes.contains(windCode);
+        }
+
+        int size() {
+            int size = 0;
+            for (Set<String> windCodes : byDate.values()) {
+                size += windCodes.size();
+            }
+            return size;
+        }
+
+        /**
+         * @return 涉及的全部股票代码（去重）
+         */
+        List<String> windCodes() {
+            Set<String> windCodes = new LinkedHashSet<>();
+            byDate.values().forEach(windCodes::addAll);
+            return new ArrayList<>(windCodes);
+        }
+
+        String start() {
+            return byDate.keySet().iterator().next().format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        }
+
+        String end() {
+            LocalDate last = null;
+            for (LocalDate tradeDate : byDate.keySet()) {
+                last = tradeDate;
+            }
+            return last.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        }
+    }
+
+    /**
+     * 计算区间内各交易日的日线表覆盖情况
+     *
+     * @param startDate 起始日期 (yyyyMMdd)
+     * @param endDate   结束日期 (yyyyMMdd)
+     * @return 覆盖情况；日线表关闭、日期无法解析或交易日历不可用时返回 null（整体走分时表）
+     */
+    private DailyBarCoverage coverDailyBars(String startDate, String endDate) {
+        if (!dailyBarProperties.isEnabled()) {
+            return null;
+        }
+        LocalDate start = parseCompactDate(startDate);
+        LocalDate end = parseCompactDate(endDate);
+        if (start == null || end == null) {
+            return null;
+        }
+        List<LocalDate> tradeDates = dailyBarStore.tradeDatesBetween(start, end);
+        if (tradeDates == null) {
+            return null;
+        }
+        Map<LocalDate, DailyBarDay> loaded = dailyBarStore.getDays(tradeDates);
+        Map<LocalDate, DailyBarDay> days = new LinkedHashMap<>(tradeDates.size() * 2);
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate tradeDate : tradeDates) {
+            DailyBarDay day = loaded.get(tradeDate);
+            if (day != null) {
+                days.put(tradeDate, day);
+            } else {
+                missing.add(tradeDate);
+            }
+        }
+        return new DailyBarCoverage(days, missing);
+    }
+
+    /**
+     * 股票列表为空时表示全市场（与分时表查询口径一致）
+     */
+    private static List<String> barCodes(DailyBarDay day, List<String> stockList) {
+        return stockList == null || stockList.isEmpty() ? day.windCodes() : stockList;
+    }
+
+    /**
+     * 日线收盘转为分时 DTO（tradeDate 为最后一条分时的时间）
+     */
+    private static HistoryTrendDTO toCloseTrend(DailyBarDay day, int index) {
+        HistoryTrendDTO dto = toTrend(day.windCode(index), day.closeTime(index), DailyBarDay.boxed(day.close(index)));
+        dto.setTotalVolume(DailyBarDay.boxed(day.volume(index)));
+        dto.setAveragePrice(DailyBarDay.boxed(day.average(index)));
+        return dto;
+    }
+
+    private static HistoryTrendDTO toTrend(String windCode, LocalDateTime time, Double price) {
+        HistoryTrendDTO dto = new HistoryTrendDTO();
+        dto.setWindCode(windCode);
+        dto.setTradeDate(time);
+        dto.setLatestPrice(price);
+        return dto;
+    }
+
+    /**
+     * 候选价格更高，价格相同时更早出现
+     */
+    private static boolean isHigher(HistoryTrendDTO candidate, HistoryTrendDTO current) {
+        if (candidate == null || candidate.getLatestPrice() == null) {
+            return false;
+        }
+        if (current == null) {
+            return true;
+        }
+        double price = candidate.getLatestPrice();
+        return price > current.getLatestPrice()
+                || (price == current.getLatestPrice() && isEarlier(candidate.getTradeDate(), current.getTradeDate()));
+    }
+
+    /**
+     * 候选价格更低，价格相同时更早出现
+     */
+    private static boolean isLower(HistoryTrendDTO candidate, HistoryTrendDTO current) {
+        if (candidate == null || candidate.getLatestPrice() == null) {
+            return false;
+        }
+        if (current == null) {
+            return true;
+        }
+        double price = candidate.getLatestPrice();
+        return price < current.getLatestPrice()
+                || (price == current.getLatestPrice() && isEarlier(candidate.getTradeDate(), current.getTradeDate()));
+    }
+
+    private static boolean isEarlier(LocalDateTime time, LocalDateTime other) {
+        return time != null && other != null && time.isBefore(other);
+    }
+
+    private static LocalDate parseCompactDate(String date) {
+        if (!StringUtils.hasLength(date)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date, DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // ==============================================================================
+    // 分段查询时间边界
+    // ==============================================================================
+
+    /**
+     * 分段查询起始时间：首个分段使用调用方的精确起始时间，其余分段从当天 00:00:00 开始
+     */
+    private static String segmentStartTime(QuerySegment segment, LocalDate start, String startTime) {
+        if (segment.getStartDate().equals(start)) {
+            return startTime;
+        }
+        return DateUtil.appendStartOfDayTime(segment.getStartDate()
+                .format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT)));
+    }
+
+    /**
+     * 分段查询结束时间：最后一个分段使用调用方的精确结束时间，其余分段到当天 23:59:59 为止
+     */
+    private static String segmentEndTime(QuerySegment segment, LocalDate end, String endTime) {
+        if (segment.getEndDate().equals(end)) {
+            return endTime;
+        }
+        return DateUtil.appendEndOfDayTime(segment.getEndDate()
+                .format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT)));
+    }
+}
@@ -3,27 +3,35 @@ package com.hao.datacollector.service.impl;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.TypeReference;
+import com.hao.datacollector.cache.StockCache;
 import com.hao.datacollector.common.utils.HttpUtil;
+import com.hao.datacollector.core.crawl.CrawlerEngine;
+import com.hao.datacollector.core.crawl.TokenBucketRateLimiter;
 import com.hao.datacollector.dal.dao.SimpleF9Mapper;
 import com.hao.datacollector.dto.f9.*;
 import com.hao.datacollector.dto.param.f9.F9Param;
 import com.hao.datacollector.dto.table.f9.*;
+import com.hao.datacollector.integration.http.PooledHttpClient;
 import com.hao.datacollector.properties.DataCollectorProperties;
+import com.hao.datacollector.properties.F9TransferProperties;
 import com.hao.datacollector.service.SimpleF9Service;
 import com.hao.datacollector.web.vo.result.ResultVO;
 import constants.DataSourceConstants;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * F9 多接口数据采集实现，封装 Wind F9 的各类子接口并提供落库入口。
@@ -41,6 +49,7 @@ import java.util.List;
  * 1. 统一封装 F9 不同接口的路径常量，并通过 @PostConstruct 初始化基础 URL。
  * 2. 使用通用的 HTTP 请求方法携带 Wind Session 发起调用，获取各类型的 JSON 数据。
  * 3. 依据不同业务场景将响应体转换为对应 DTO，成功时返回数据，失败时记录日志并给出兜底值。
+ * 4. 全量转档由 {@link SimpleF9TransferPipeline} 编排：一次遍历股票池，各维度共享并发与限流预算，按维度批量写库。
  */
 @Slf4j
 @Service
@@ -60,14 +69,68 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
     @Value("${wind_base.f9.base_url}")
     private String baseUrl;
 
+    /**
+     * F9 接口主机，默认 Wind 生产环境，测试时可指向本地桩服务
+     */
+    @Value("${wind_base.f9.host:" + DataSourceConstants.WIND_PROD_WGQ + "}")
+    private String f9Host;
+
     @Autowired
     private DataCollectorProperties properties;
 
     private static String f9BaseUlr = null;
 
+    @Autowired
+    private F9TransferProperties transferProperties;
+
+    @Resource(name = "ioTaskExecutor")
+    private Executor ioTaskExecutor;
+
+    private SimpleF9TransferPipeline transferPipeline;
+
     @PostConstruct
     private void init() {
         f9BaseUlr = baseUrl;
+        initTransferPipeline();
+    }
+
+    /**
+     * 构建全量转档流水线：11 个维度共用一个爬虫（限流 + 重试）与并发预算
+     */
+    void initTransferPipeline() {
+        CrawlerEngine crawler = new CrawlerEngine("f9-transfer",
+                transferProperties.getMaxConcurrency(),
+                new TokenBucketRateLimiter(transferProperties.getPermitsPerSecond(), transferProperties.getBurst()),
+                transferProperties.getMaxAttempts(),
+                transferProperties.getBackoffBaseMs(),
+                transferProperties.getBackoffMaxMs(),
+                ioTaskExecutor);
+        List<SimpleF9TransferPipeline.Dimension<?>> dimensions = List.of(
+                new SimpleF9TransferPipeline.Dimension<>(GET_COMPANY_PROFILE, this::buildCompanyProfileRows,
+                        simpleF9Mapper::batchInsertCompanyProfileDataJob, simpleF9Mapper::getInsertFinancialSummaryData),
+                new SimpleF9TransferPipeline.Dimension<>(GET_INFORMATION, this::buildInformationRows,
+                        simpleF9Mapper::batchInsertInformation, simpleF9Mapper::getInsertedInformationWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_KEY_STATISTICS, this::buildKeyStatisticsRows,
+                        simpleF9Mapper::batchInsertKeyStatistics, simpleF9Mapper::getInsertedKeyStatisticsWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_COMPANY_INFO, this::buildCompanyInfoRows,
+                        simpleF9Mapper::batchInsertCompanyInfo, simpleF9Mapper::getInsertedCompanyInfoWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_NOTICE, this::buildNoticeRows,
+                        simpleF9Mapper::batchInsertNotice, simpleF9Mapper::getInsertedNoticeWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_GREAT_EVENT, this::buildGreatEventRows,
+                        simpleF9Mapper::batchInsertGreatEvent, simpleF9Mapper::getInsertedGreatEventWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_PROFIT_FORECAST, this::buildProfitForecastRows,
+                        simpleF9Mapper::batchInsertProfitForecast, simpleF9Mapper::getInsertedProfitForecastWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_MARKET_PERFORMANCE, this::buildMarketPerformanceRows,
+                        simpleF9Mapper::batchInsertMarketPerformance, simpleF9Mapper::getInsertedMarketPerformanceWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_PE_BAND, this::buildPeBandRows,
+                        simpleF9Mapper::batchInsertPeBand, simpleF9Mapper::getInsertedPeBandWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_SECURITY_MARGIN, this::buildSecurityMarginRows,
+                        simpleF9Mapper::batchInsertValuationIndex, simpleF9Mapper::getInsertedValuationIndexWindCodes),
+                new SimpleF9TransferPipeline.Dimension<>(GET_FINANCIAL_SUMMARY, this::buildFinancialSummaryRows,
+                        simpleF9Mapper::batchInsertFinancialSummary, simpleF9Mapper::getInsertedFinancialSummaryWindCodes));
+        transferPipeline = new SimpleF9TransferPipeline(dimensions, crawler, ioTaskExecutor,
+                transferProperties.getMaxConcurrency(), transferProperties.getBatchRows(),
+                transferProperties.isSkipTransferredToday());
     }
 
     private static final Integer TIME_OUT_NUM = 10000;
@@ -75,13 +138,16 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
     @Autowired
     private SimpleF9Mapper simpleF9Mapper;
 
-    private static ResponseEntity<String> getF9Request(String lan, String windCode, String path, String sessionId) {
-        String url = DataSourceConstants.WIND_PROD_WGQ + String.format(f9BaseUlr, path, lan, windCode);
+    @Autowired
+    private PooledHttpClient pooledHttpClient;
+
+    private ResponseEntity<String> getF9Request(String lan, String windCode, String path, String sessionId) {
+        String url = f9Host + String.format(f9BaseUlr, path, lan, windCode);
         // 统一拼装 Wind 域名与接口路径，便于集中维护
         HttpHeaders headers = new HttpHeaders();
         headers.set(DataSourceConstants.WIND_SESSION_NAME, sessionId);
-        // 所有 F9 请求复用相同的超时配置，确保调用体验一致
-        return HttpUtil.sendGet(url, headers, TIME_OUT_NUM, TIME_OUT_NUM);
+        // 所有 F9 请求复用相同的超时配置，并经由共享连接池复用到 Wind 的连接
+        return pooledHttpClient.get(url, HttpUtil.prepareHeaders(headers), TIME_OUT_NUM, TIME_OUT_NUM);
     }
 
     /**
@@ -384,9 +450,26 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertCompanyProfileDataJob(F9Param f9Param) {
+        List<InsertCompanyProfileDTO> insertList = buildCompanyProfileRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        // Mapper 采用批量接口，尽管当前仅一条也保持统一入口
+        int count = simpleF9Mapper.batchInsertCompanyProfileDataJob(insertList);
+        log.info("日志记录|Log_message,insertCompanyProfileDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建公司简介信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertCompanyProfileDTO> buildCompanyProfileRows(F9Param f9Param) {
         CompanyProfileDTO companyProfileSource = getCompanyProfileSource(f9Param.getLan(), f9Param.getWindCode());
         if (companyProfileSource == null || !StringUtils.hasLength(companyProfileSource.getCpyIntro())) {
-            return false;
+            return List.of();
         }
         InsertCompanyProfileDTO insertCompanyProfileDTO = new InsertCompanyProfileDTO();
         // 通过 BeanUtils 将接口字段快速映射到表结构
@@ -399,10 +482,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
         }
         List<InsertCompanyProfileDTO> insertList = new ArrayList<>();
         insertList.add(insertCompanyProfileDTO);
-        // Mapper 采用批量接口，尽管当前仅一条也保持统一入口
-        int count = simpleF9Mapper.batchInsertCompanyProfileDataJob(insertList);
-        log.info("日志记录|Log_message,insertCompanyProfileDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -413,9 +493,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertInformationDataJob(F9Param f9Param) {
+        List<InsertInformationDTO> insertList = buildInformationRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertInformation(insertList);
+        log.info("日志记录|Log_message,insertInformationDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建资讯信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertInformationDTO> buildInformationRows(F9Param f9Param) {
         List<InformationOceanDTO> informationList = getInformationSource(f9Param.getLan(), f9Param.getWindCode());
         if (informationList == null || informationList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertInformationDTO> insertList = new ArrayList<>(informationList.size());
         for (InformationOceanDTO dto : informationList) {
@@ -428,9 +524,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setTitle(dto.getTitle());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertInformation(insertList);
-        log.info("日志记录|Log_message,insertInformationDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -441,9 +535,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertKeyStatisticsDataJob(F9Param f9Param) {
+        List<InsertKeyStatisticsDTO> insertList = buildKeyStatisticsRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertKeyStatistics(insertList);
+        log.info("日志记录|Log_message,insertKeyStatisticsDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建关键统计信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertKeyStatisticsDTO> buildKeyStatisticsRows(F9Param f9Param) {
         KeyStatisticsDTO source = getKeyStatisticsSource(f9Param.getLan(), f9Param.getWindCode());
         if (source == null) {
-            return false;
+            return List.of();
         }
         InsertKeyStatisticsDTO insertDTO = new InsertKeyStatisticsDTO();
         BeanUtils.copyProperties(source, insertDTO);
@@ -451,9 +561,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
         insertDTO.setLan(f9Param.getLan());
         List<InsertKeyStatisticsDTO> insertList = new ArrayList<>(1);
         insertList.add(insertDTO);
-        int count = simpleF9Mapper.batchInsertKeyStatistics(insertList);
-        log.info("日志记录|Log_message,insertKeyStatisticsDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -464,9 +572,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertCompanyInfoDataJob(F9Param f9Param) {
+        List<InsertCompanyInfoDTO> insertList = buildCompanyInfoRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertCompanyInfo(insertList);
+        log.info("日志记录|Log_message,insertCompanyInfoDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建公司信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertCompanyInfoDTO> buildCompanyInfoRows(F9Param f9Param) {
         CompanyInfo source = getCompanyInfoSource(f9Param.getLan(), f9Param.getWindCode());
         if (source == null) {
-            return false;
+            return List.of();
         }
         InsertCompanyInfoDTO insertDTO = new InsertCompanyInfoDTO();
         BeanUtils.copyProperties(source, insertDTO);
@@ -474,9 +598,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
         insertDTO.setLan(f9Param.getLan());
         List<InsertCompanyInfoDTO> insertList = new ArrayList<>(1);
         insertList.add(insertDTO);
-        int count = simpleF9Mapper.batchInsertCompanyInfo(insertList);
-        log.info("日志记录|Log_message,insertCompanyInfoDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -487,9 +609,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertNoticeDataJob(F9Param f9Param) {
+        List<InsertNoticeDTO> insertList = buildNoticeRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertNotice(insertList);
+        log.info("日志记录|Log_message,insertNoticeDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建公告信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertNoticeDTO> buildNoticeRows(F9Param f9Param) {
         List<NoticeDTO> noticeList = getNoticeSource(f9Param.getLan(), f9Param.getWindCode());
         if (noticeList == null || noticeList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertNoticeDTO> insertList = new ArrayList<>(noticeList.size());
         for (NoticeDTO dto : noticeList) {
@@ -499,9 +637,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setLan(f9Param.getLan());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertNotice(insertList);
-        log.info("日志记录|Log_message,insertNoticeDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -512,9 +648,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertGreatEventDataJob(F9Param f9Param) {
+        List<InsertGreatEventDTO> insertList = buildGreatEventRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertGreatEvent(insertList);
+        log.info("日志记录|Log_message,insertGreatEventDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建大事信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertGreatEventDTO> buildGreatEventRows(F9Param f9Param) {
         List<GreatEventDTO> greatEventList = getGreatEventSource(f9Param.getLan(), f9Param.getWindCode());
         if (greatEventList == null || greatEventList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertGreatEventDTO> insertList = new ArrayList<>(greatEventList.size());
         for (GreatEventDTO dto : greatEventList) {
@@ -524,9 +676,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setLan(f9Param.getLan());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertGreatEvent(insertList);
-        log.info("日志记录|Log_message,insertGreatEventDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -537,9 +687,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertProfitForecastDataJob(F9Param f9Param) {
+        List<InsertProfitForecastDTO> insertList = buildProfitForecastRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertProfitForecast(insertList);
+        log.info("日志记录|Log_message,insertProfitForecastDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建盈利预测信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertProfitForecastDTO> buildProfitForecastRows(F9Param f9Param) {
         ProfitForecastDTO source = getProfitForecastSource(f9Param.getLan(), f9Param.getWindCode());
         if (source == null) {
-            return false;
+            return List.of();
         }
         InsertProfitForecastDTO insertDTO = new InsertProfitForecastDTO();
         BeanUtils.copyProperties(source, insertDTO);
@@ -547,9 +713,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
         insertDTO.setLan(f9Param.getLan());
         List<InsertProfitForecastDTO> insertList = new ArrayList<>(1);
         insertList.add(insertDTO);
-        int count = simpleF9Mapper.batchInsertProfitForecast(insertList);
-        log.info("日志记录|Log_message,insertProfitForecastDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -560,9 +724,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertMarketPerformanceDataJob(F9Param f9Param) {
+        List<InsertMarketPerformanceDTO> insertList = buildMarketPerformanceRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertMarketPerformance(insertList);
+        log.info("日志记录|Log_message,insertMarketPerformanceDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建市场表现信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertMarketPerformanceDTO> buildMarketPerformanceRows(F9Param f9Param) {
         MarketPerformanceDTO source = getMarketPerformanceSource(f9Param.getLan(), f9Param.getWindCode());
         if (source == null || source.getMarketDTO() == null) {
-            return false;
+            return List.of();
         }
         InsertMarketPerformanceDTO insertDTO = new InsertMarketPerformanceDTO();
         BeanUtils.copyProperties(source.getMarketDTO(), insertDTO);
@@ -570,9 +750,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
         insertDTO.setLan(f9Param.getLan());
         List<InsertMarketPerformanceDTO> insertList = new ArrayList<>(1);
         insertList.add(insertDTO);
-        int count = simpleF9Mapper.batchInsertMarketPerformance(insertList);
-        log.info("日志记录|Log_message,insertMarketPerformanceDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -583,9 +761,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertPeBandDataJob(F9Param f9Param) {
+        List<InsertPeBandDTO> insertList = buildPeBandRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertPeBand(insertList);
+        log.info("日志记录|Log_message,insertPeBandDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建PE_BAND信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertPeBandDTO> buildPeBandRows(F9Param f9Param) {
         List<PeBandVO> peBandList = getPeBandSource(f9Param.getLan(), f9Param.getWindCode());
         if (peBandList == null || peBandList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertPeBandDTO> insertList = new ArrayList<>(peBandList.size());
         for (PeBandVO vo : peBandList) {
@@ -595,9 +789,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setLan(f9Param.getLan());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertPeBand(insertList);
-        log.info("日志记录|Log_message,insertPeBandDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -608,9 +800,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertSecurityMarginDataJob(F9Param f9Param) {
+        List<InsertValuationIndexDTO> insertList = buildSecurityMarginRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertValuationIndex(insertList);
+        log.info("日志记录|Log_message,insertSecurityMarginDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建估值指标信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertValuationIndexDTO> buildSecurityMarginRows(F9Param f9Param) {
         List<ValuationIndexDTO> valuationList = getSecurityMarginSource(f9Param.getLan(), f9Param.getWindCode());
         if (valuationList == null || valuationList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertValuationIndexDTO> insertList = new ArrayList<>(valuationList.size());
         for (ValuationIndexDTO dto : valuationList) {
@@ -624,9 +832,7 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setIndustryForward(dto.getIndustry2024E());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertValuationIndex(insertList);
-        log.info("日志记录|Log_message,insertSecurityMarginDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
     }
 
     /**
@@ -637,9 +843,25 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
      */
     @Override
     public Boolean insertFinancialSummaryDataJob(F9Param f9Param) {
+        List<InsertFinancialSummaryDTO> insertList = buildFinancialSummaryRows(f9Param);
+        if (insertList.isEmpty()) {
+            return false;
+        }
+        int count = simpleF9Mapper.batchInsertFinancialSummary(insertList);
+        log.info("日志记录|Log_message,insertFinancialSummaryDataJob.count={}", count);
+        return count >= 0;
+    }
+
+    /**
+     * 抓取并构建成长能力信息插入行
+     *
+     * @param f9Param 简版F9参数
+     * @return 插入行，无数据时返回空列表
+     */
+    private List<InsertFinancialSummaryDTO> buildFinancialSummaryRows(F9Param f9Param) {
         List<QuickViewGrowthDTO> growthList = getFinancialSummarySource(f9Param.getLan(), f9Param.getWindCode());
         if (growthList == null || growthList.isEmpty()) {
-            return false;
+            return List.of();
         }
         List<InsertFinancialSummaryDTO> insertList = new ArrayList<>(growthList.size());
         for (QuickViewGrowthDTO dto : growthList) {
@@ -649,8 +871,28 @@ public class SimpleF9ServiceImpl implements SimpleF9Service {
             insertDTO.setLan(f9Param.getLan());
             insertList.add(insertDTO);
         }
-        int count = simpleF9Mapper.batchInsertFinancialSummary(insertList);
-        log.info("日志记录|Log_message,insertFinancialSummaryDataJob.count={}", count);
-        return count >= 0;
+        return insertList;
+    }
+
+    /**
+     * 全量转档全部F9维度（异步执行）
+     *
+     * @param lan 多语言
+     */
+    @Async("ioTaskExecutor")
+    @Override
+    public void transferAllDataJob(String lan) {
+        List<String> windCodes = new ArrayList<>(StockCache.allWindCode);
+        transferPipeline.run(lan, windCodes);
+    }
+
+    /**
+     * 获取全量转档进度
+     *
+     * @return 当前（或最近一次）转档进度
+     */
+    @Override
+    public F9TransferProgressDTO getTransferProgress() {
+        return transferPipeline.getProgress();
     }
 }
@@ -0,0 +1,313 @@
+package com.hao.datacollector.service.impl;
+
+import com.hao.datacollector.core.crawl.CrawlerEngine;
+import com.hao.datacollector.dto.f9.F9TransferProgressDTO;
+import com.hao.datacollector.dto.param.f9.F9Param;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 简版 F9 全量转档流水线
+ * <p>
+ * 类职责：
+ * 一次遍历股票池，对每只股票并行抓取所有 F9 维度，按维度缓冲后批量写库，替代每个维度各自逐只股票循环、逐条写库。
+ * <p>
+ * 设计目的：
+ * 1. 全局预算：所有维度共用一个并发信号量和 {@link CrawlerEngine} 的令牌桶，总请求速率与维度数无关
+ * 2. 背压：提交方在并发占满时阻塞；缓冲达到 batchRows 的任务在维度锁内同步写库，写库变慢时占用的并发名额随之释放变慢，抓取自动减速，内存中每个维度最多缓冲约 batchRows 行
+ * 3. 可观测：按维度统计跳过 / 成功 / 无数据 / 失败 / 写入行数，运行中可随时查询进度
+ * 4. 鉴权失败（401/403，通常是 Wind Session 过期）时停止提交新任务，避免对全市场重复无效请求
+ * <p>
+ * 同一时刻只允许一次转档运行。
+ *
+ * @author hli
+ * @date 2026-02-13
+ */
+@Slf4j
+public class SimpleF9TransferPipeline {
+
+    private final List<Dimension<?>> dimensions;
+    private final CrawlerEngine crawler;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final int batchRows;
+    private final boolean skipTransferredToday;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+    private final AtomicInteger totalStocks = new AtomicInteger();
+    private final AtomicInteger completedStocks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
+    private volatile List<DimensionRun<?>> currentRuns = Collections.emptyList();
+    private volatile String currentLan;
+    private volatile long startMillis;
+    private volatile long endMillis;
+
+    /**
+     * @param dimensions           参与转档的 F9 维度
+     * @param crawler              执行单次请求的爬虫（限流 + 重试）
+     * @param executor             执行抓取任务的线程池
+     * @param maxConcurrency       全部维度合计的最大并发请求数
+     * @param batchRows            每个维度累计多少行写一次库
+     * @param skipTransferredToday 是否跳过当天已转档的股票
+     */
+    public SimpleF9TransferPipeline(List<Dimension<?>> dimensions, CrawlerEngine crawler, Executor executor,
+                                    int maxConcurrency, int batchRows, boolean skipTransferredToday) {
+        this.dimensions = List.copyOf(dimensions);
+        this.crawler = crawler;
+        this.executor = executor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.batchRows = Math.max(1, batchRows);
+        this.skipTransferredToday = skipTransferredToday;
+    }
+
+    /**
+     * 执行一次全量转档（阻塞直到全部任务完成）
+     *
+     * @param lan       多语言
+     * @param windCodes 股票池
+     * @return 是否执行；已有转档在运行时返回 false
+     */
+    public boolean run(String lan, List<String> windCodes) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("F9转档已在运行|F9_transfer_already_running,lan={}", currentLan);
+            return false;
+        }
+        try {
+            String today = LocalDate.now().toString();
+            List<DimensionRun<?>> runs = new ArrayList<>(dimensions.size());
+            for (Dimension<?> dimension : dimensions) {
+                runs.add(new DimensionRun<>(dimension, skipTransferredToday ? dimension.transferredQuery.apply(today) : null));
+            }
+            currentRuns = runs;
+            currentLan = lan;
+            startMillis = System.currentTimeMillis();
+            endMillis = 0;
+            aborted.set(false);
+            totalStocks.set(windCodes.size());
+            completedStocks.set(0);
+            completedTasks.set(0);
+            log.info("F9转档开始|F9_transfer_start,lan={},stocks={},dimensions={},maxConcurrency={}",
+                    lan, windCodes.size(), runs.size(), maxConcurrency);
+
+            submitAll(lan, windCodes, runs);
+            for (DimensionRun<?> run : runs) {
+                run.flush();
+            }
+            endMillis = System.currentTimeMillis();
+            log.info("F9转档完成|F9_transfer_done,lan={},stocks={},completedStocks={},tasks={},aborted={},costMs={}",
+                    lan, windCodes.size(), completedStocks.get(), completedTasks.get(), aborted.get(), endMillis - startMillis);
+            return true;
+        } finally {
+            if (endMillis == 0) {
+                endMillis = System.currentTimeMillis();
+            }
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return 当前（或最近一次）转档的进度快照
+     */
+    public F9TransferProgressDTO getProgress() {
+        F9TransferProgressDTO progress = new F9TransferProgressDTO();
+        progress.setRunning(running.get());
+        progress.setAborted(aborted.get());
+        progress.setLan(currentLan);
+        progress.setStartTime(startMillis);
+        long end = endMillis > 0 ? endMillis : System.currentTimeMillis();
+        progress.setCostMs(startMillis > 0 ? end - startMillis : 0);
+        progress.setTotalStocks(totalStocks.get());
+        progress.setCompletedStocks(completedStocks.get());
+        progress.setCompletedTasks(completedTasks.get());
+        for (DimensionRun<?> run : currentRuns) {
+            progress.getDimensions().put(run.dimension.name, run.snapshot());
+        }
+        return progress;
+    }
+
+    /**
+     * 遍历股票池，为每只股票的每个未转档维度提交一个抓取任务
+     */
+    private void submitAll(String lan, List<String> windCodes, List<DimensionRun<?>> runs) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try {
+            for (String windCode : windCodes) {
+                if (aborted.get()) {
+                    break;
+                }
+                List<DimensionRun<?>> pending = new ArrayList<>(runs.size());
+                for (DimensionRun<?> run : runs) {
+                    if (run.transferred.contains(windCode)) {
+                        run.skipped.incrementAndGet();
+                    } else {
+                        pending.add(run);
+                    }
+                }
+                if (pending.isEmpty()) {
+                    completedStocks.incrementAndGet();
+                    continue;
+                }
+                F9Param param = new F9Param();
+                param.setWindCode(windCode);
+                param.setLan(lan);
+                AtomicInteger remaining = new AtomicInteger(pending.size());
+                for (DimensionRun<?> run : pending) {
+                    permits.acquire();
+                    Runnable task = () -> {
+                        try {
+                            transfer(run, param);
+                        } finally {
+                            completedTasks.incrementAndGet();
+                            if (remaining.decrementAndGet() == 0) {
+                                completedStocks.incrementAndGet();
+                            }
+                            permits.release();
+                        }
+                    };
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        task.run();
+                    }
+                }
+            }
+            // 取回全部名额即表示所有已提交任务结束
+            permits.acquire(maxConcurrency);
+        } catch (InterruptedException e) {
+            log.warn("F9转档被中断|F9_transfer_interrupted,completedTasks={}", completedTasks.get());
+            aborted.set(true);
+            Thread.currentThread().interrupt();
+            permits.acquireUninterruptibly(maxConcurrency);
+        }
+    }
+
+    /**
+     * 抓取单只股票的单个维度并写入缓冲
+     */
+    private <T> void transfer(DimensionRun<T> run, F9Param param) {
+        if (aborted.get()) {
+            run.failed.incrementAndGet();
+            return;
+        }
+        try {
+            List<T> rows = crawler.fetch(param, run.dimension.rowBuilder);
+            if (rows == null || rows.isEmpty()) {
+                run.empty.incrementAndGet();
+                return;
+            }
+            run.success.incrementAndGet();
+            run.append(rows);
+        } catch (InterruptedException e) {
+            run.failed.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } catch (HttpClientErrorException e) {
+            run.failed.incrementAndGet();
+            int status = e.getStatusCode().value();
+            if ((status == 401 || status == 403) && aborted.compareAndSet(false, true)) {
+                log.error("F9鉴权失败，停止转档|F9_transfer_auth_failed,dimension={},windCode={},status={}",
+                        run.dimension.name, param.getWindCode(), status);
+            }
+        } catch (Exception e) {
+            run.failed.incrementAndGet();
+            log.warn("F9转档失败|F9_transfer_failed,dimension={},windCode={},error={}",
+                    run.dimension.name, param.getWindCode(), e.toString());
+        }
+    }
+
+    /**
+     * F9 维度定义
+     *
+     * @param <T> 插入行类型
+     */
+    public static class Dimension<T> {
+        private final String name;
+        private final Function<F9Param, List<T>> rowBuilder;
+        private final Function<List<T>, Integer> batchWriter;
+        private final Function<String, List<String>> transferredQuery;
+
+        /**
+         * @param name             维度名称（F9 接口路径）
+         * @param rowBuilder       抓取并转换为插入行，无数据时返回空列表
+         * @param batchWriter      批量写库
+         * @param transferredQuery 查询指定日期已转档的股票代码
+         */
+        public Dimension(String name, Function<F9Param, List<T>> rowBuilder,
+                         Function<List<T>, Integer> batchWriter, Function<String, List<String>> transferredQuery) {
+            this.name = name;
+            this.rowBuilder = rowBuilder;
+            this.batchWriter = batchWriter;
+            this.transferredQuery = transferredQuery;
+        }
+    }
+
+    /**
+     * 单次转档中一个维度的缓冲与统计
+     */
+    private class DimensionRun<T> {
+        private final Dimension<T> dimension;
+        private final Set<String> transferred;
+        private final List<T> buffer = new ArrayList<>();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger success = new AtomicInteger();
+        private final AtomicInteger empty = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong writtenRows = new AtomicLong();
+        private final AtomicLong writeFailedRows = new AtomicLong();
+
+        private DimensionRun(Dimension<T> dimension, List<String> transferred) {
+            this.dimension = dimension;
+            this.transferred = transferred == null ? Collections.emptySet() : new HashSet<>(transferred);
+        }
+
+        /**
+         * 追加插入行，达到 batchRows 时在锁内写库（同一维度串行写入）
+         */
+        private synchronized void append(List<T> rows) {
+            buffer.addAll(rows);
+            if (buffer.size() >= batchRows) {
+                flush();
+            }
+        }
+
+        private synchronized void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<T> batch = new ArrayList<>(buffer);
+            buffer.clear();
+            try {
+                dimension.batchWriter.apply(batch);
+                writtenRows.addAndGet(batch.size());
+            } catch (Exception e) {
+                writeFailedRows.addAndGet(batch.size());
+                log.error("F9批量写库失败|F9_transfer_write_failed,dimension={},rows={}", dimension.name, batch.size(), e);
+            }
+        }
+
+        private F9TransferProgressDTO.DimensionProgress snapshot() {
+            F9TransferProgressDTO.DimensionProgress progress = new F9TransferProgressDTO.DimensionProgress();
+            progress.setSkipped(skipped.get());
+            progress.setSuccess(success.get());
+            progress.setEmpty(empty.get());
+            progress.setFailed(failed.get());
+            progress.setWrittenRows(writtenRows.get());
+            progress.setWriteFailedRows(writeFailedRows.get());
+            return progress;
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.hao.datacollector.service.impl;
 
 import com.hao.datacollector.cache.DateCache;
 import com.hao.datacollector.cache.StockCache;
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
+import com.hao.datacollector.dto.quotation.DailyOhlcDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.properties.StrategyPreheatProperties;
 import com.hao.datacollector.service.QuotationService;
 import com.hao.datacollector.service.StrategyPreparationService;
 import constants.DateTimeFormatConstants;
@@ -10,10 +13,13 @@ import dto.ClosePriceDTO;
 import enums.strategy.StrategyRedisKeyEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import util.JsonUtil;
+import util.PreheatColumnarCodec;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -48,6 +54,17 @@ import java.util.stream.Collectors;
  * - 收盘价按时间倒序排列（0=昨日），与策略引擎RingBuffer设计一致。
  * - 使用ClosePriceDTO包含日期信息，便于调试和追踪。
  * - closePrice为null表示停牌/数据异常，策略端应跳过。
+ * <p>
+ * 二进制格式（strategy.preheat.format=BINARY/BOTH）：
+ * - Key: {策略前缀}BIN:{yyyyMMdd}，如 NINE_TURN:PREHEAT:BIN:20260102
+ * - Hash Field: 分块序号（按股票代码排序，每块 binaryChunkSize 只股票）
+ * - Hash Value: {@link PreheatColumnarCodec} 编码的列式二进制块，停牌为 NaN
+ * - 一个策略一天只写少量 Field，并通过 Pipeline 一次往返完成 DEL/HSET/EXPIRE。
+ * <p>
+ * 共享日线矩阵（StrategyPreheaterManager 使用）：
+ * - loadDailyBars 按所有预热器中最宽的窗口查询一次日线 OHLC，构建 {@link DailyBarMatrix}。
+ * - 九转、均线、DMI 的矩阵重载方法各自截取前 N 天并写入 Redis，可在不同线程中并行执行。
+ * - JSON 格式同样按 jsonPipelineChunkSize 分块 HMSET，并在同一个 Pipeline 中完成 EXPIRE。
  *
  * @author hli
  * @date 2026-01-02
@@ -64,6 +81,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
 
     private final QuotationService quotationService;
     private final StringRedisTemplate stringRedisTemplate;
+    private final StrategyPreheatProperties preheatProperties;
 
     /**
      * 预热九转序列策略所需的历史数据
@@ -123,7 +141,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
 
         // 实现思路：
         // Step 5: 存入Redis Hash
-        int savedCount = saveToRedis(tradeDate, stockClosePrices);
+        int savedCount = saveToRedis(tradeDate, stockClosePrices, tradeDates);
 
         log.info("九转预热完成|Nine_turn_preheat_complete,tradeDate={},stockCount={},savedCount={}",
                 tradeDate, stockClosePrices.size(), savedCount);
@@ -323,11 +341,19 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
      *
      * @param tradeDate        交易日
      * @param stockClosePrices 股票收盘价数据（List<ClosePriceDTO>）
+     * @param tradeDates       交易日列表（按时间倒序，与收盘价列表一一对应）
      * @return 保存的股票数量
      */
-    private int saveToRedis(LocalDate tradeDate, Map<String, List<ClosePriceDTO>> stockClosePrices) {
+    private int saveToRedis(LocalDate tradeDate, Map<String, List<ClosePriceDTO>> stockClosePrices,
+                            List<LocalDate> tradeDates) {
         // 使用枚举构建完整的Redis Key
         String dateSuffix = tradeDate.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        if (preheatProperties.getFormat().writeBinary()) {
+            saveBinaryToRedis(NINE_TURN_CONFIG, dateSuffix, toTradeDays(tradeDates), toCloseSeries(stockClosePrices), false);
+        }
+        if (!preheatProperties.getFormat().writeJson()) {
+            return stockClosePrices.size();
+        }
         String redisKey = NINE_TURN_CONFIG.buildKey(dateSuffix);
 
         Map<String, String> hashMap = new HashMap<>();
@@ -339,11 +365,8 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
         }
 
         if (!hashMap.isEmpty()) {
-            // 批量写入Redis Hash
-            stringRedisTemplate.opsForHash().putAll(redisKey, hashMap);
-
-            // 使用枚举配置的TTL
-            stringRedisTemplate.expire(redisKey, NINE_TURN_CONFIG.getTtlHours(), TimeUnit.HOURS);
+            // 分块 HMSET + EXPIRE，使用枚举配置的TTL，一次 Pipeline 往返
+            saveJsonToRedis(NINE_TURN_CONFIG, redisKey, hashMap);
 
             log.info("九转预热_Redis写入完成|Nine_turn_preheat_redis_saved,key={},fieldCount={}",
                     redisKey, hashMap.size());
@@ -420,7 +443,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
                 convertToClosePriceFormat(dailyClosePriceMap, dateList, targetStockCodes);
 
         // Step 6: 存入 Redis
-        int savedCount = saveToRedisForMA(tradeDate, stockClosePrices);
+        int savedCount = saveToRedisForMA(tradeDate, stockClosePrices, dateList);
 
         log.info("MA预热完成|MA_preheat_complete,tradeDate={},stockCount={},savedCount={}",
                 tradeDate, stockClosePrices.size(), savedCount);
@@ -493,10 +516,19 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
      *
      * @param tradeDate        交易日
      * @param stockClosePrices 股票收盘价数据
+     * @param dateList         交易日列表（yyyyMMdd，按时间倒序，与收盘价列表一一对应）
      * @return 保存的股票数量
      */
-    private int saveToRedisForMA(LocalDate tradeDate, Map<String, List<ClosePriceDTO>> stockClosePrices) {
+    private int saveToRedisForMA(LocalDate tradeDate, Map<String, List<ClosePriceDTO>> stockClosePrices,
+                                 List<String> dateList) {
         String dateSuffix = tradeDate.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        if (preheatProperties.getFormat().writeBinary()) {
+            int[] tradeDays = dateList.stream().mapToInt(Integer::parseInt).toArray();
+            saveBinaryToRedis(MA_CONFIG, dateSuffix, tradeDays, toCloseSeries(stockClosePrices), false);
+        }
+        if (!preheatProperties.getFormat().writeJson()) {
+            return stockClosePrices.size();
+        }
         String redisKey = MA_CONFIG.buildKey(dateSuffix);
 
         Map<String, String> hashMap = new HashMap<>(stockClosePrices.size());
@@ -507,8 +539,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
         }
 
         if (!hashMap.isEmpty()) {
-            stringRedisTemplate.opsForHash().putAll(redisKey, hashMap);
-            stringRedisTemplate.expire(redisKey, MA_CONFIG.getTtlHours(), TimeUnit.HOURS);
+            saveJsonToRedis(MA_CONFIG, redisKey, hashMap);
 
             log.info("MA预热_Redis写入完成|MA_preheat_redis_saved,key={},fieldCount={}",
                     redisKey, hashMap.size());
@@ -548,7 +579,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
         validateTradeDate(tradeDate);
 
         int requiredDays = DMI_CONFIG.getHistoryDays();  // 60
-        int bufferDays = 20;  // 额外查询天数，用于补齐停牌日
+        int bufferDays = DMI_BUFFER_DAYS;  // 额外查询天数，用于补齐停牌日
         
         // Step 2: 获取前 N + buffer 个交易日列表
         List<LocalDate> tradeDates = getLastNTradeDates(tradeDate, requiredDays + bufferDays);
@@ -587,7 +618,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
                 fillMissingDates(ohlcData, targetDates);
 
         // Step 7: 存入 Redis Hash
-        int savedCount = saveToRedisForDmi(tradeDate, filledData);
+        int savedCount = saveToRedisForDmi(tradeDate, filledData, targetDates);
 
         log.info("DMI预热完成|DMI_preheat_complete,tradeDate={},stockCount={},savedCount={}",
                 tradeDate, filledData.size(), savedCount);
@@ -672,13 +703,21 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
      * <p>
      * 存储顺序：倒序（0=最新，size-1=最旧），策略模块可直接使用。
      *
-     * @param tradeDate 交易日
-     * @param ohlcData  股票 OHLC 数据（Map<股票代码, List<DailyOhlcDTO>>，升序）
+     * @param tradeDate   交易日
+     * @param ohlcData    股票 OHLC 数据（Map<股票代码, List<DailyOhlcDTO>>，升序）
+     * @param targetDates 交易日列表（按时间倒序，与补齐后的 OHLC 列表一一对应）
      * @return 保存的股票数量
      */
     private int saveToRedisForDmi(LocalDate tradeDate,
-                                   Map<String, List<com.hao.datacollector.dto.quotation.DailyOhlcDTO>> ohlcData) {
+                                   Map<String, List<com.hao.datacollector.dto.quotation.DailyOhlcDTO>> ohlcData,
+                                   List<LocalDate> targetDates) {
         String dateSuffix = tradeDate.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        if (preheatProperties.getFormat().writeBinary()) {
+            saveBinaryToRedis(DMI_CONFIG, dateSuffix, toTradeDays(targetDates), toOhlcSeries(ohlcData), true);
+        }
+        if (!preheatProperties.getFormat().writeJson()) {
+            return ohlcData.size();
+        }
         String redisKey = DMI_CONFIG.buildKey(dateSuffix);
 
         Map<String, String> hashMap = new HashMap<>(ohlcData.size());
@@ -694,8 +733,7 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
         }
 
         if (!hashMap.isEmpty()) {
-            stringRedisTemplate.opsForHash().putAll(redisKey, hashMap);
-            stringRedisTemplate.expire(redisKey, DMI_CONFIG.getTtlHours(), TimeUnit.HOURS);
+            saveJsonToRedis(DMI_CONFIG, redisKey, hashMap);
 
             log.info("DMI预热_Redis写入完成|DMI_preheat_redis_saved,key={},fieldCount={},order=DESC(0=latest)",
                     redisKey, hashMap.size());
@@ -703,5 +741,348 @@ public class StrategyPreparationServiceImpl implements StrategyPreparationServic
 
         return hashMap.size();
     }
-}
 
+    // ==================== 共享日线矩阵 ====================
+
+    @Override
+    public DailyBarMatrix loadDailyBars(LocalDate tradeDate, int historyDays, List<String> stockCodes) {
+        validateTradeDate(tradeDate);
+        List<LocalDate> tradeDates = getLastNTradeDates(tradeDate, historyDays);
+
+        List<String> targetStockCodes = (stockCodes != null && !stockCodes.isEmpty())
+                ? stockCodes
+                : StockCache.allWindCode;
+
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+        // tradeDates 按时间倒序（0=昨日），getLast() 为最早日期
+        String startDate = tradeDates.getLast().format(dateFormatter);
+        String endDate = tradeDates.getFirst().format(dateFormatter);
+
+        long start = System.currentTimeMillis();
+        Map<String, List<DailyOhlcDTO>> ohlcData =
+                quotationService.getDailyOhlcByStockList(startDate, endDate, targetStockCodes);
+        DailyBarMatrix bars = DailyBarMatrix.of(tradeDate, tradeDates, targetStockCodes, ohlcData);
+
+        log.info("共享日线加载完成|Shared_daily_bars_loaded,tradeDate={},startDate={},endDate={},stockCount={},withDataCount={},costMs={}",
+                tradeDate, startDate, endDate, bars.stockCount(), ohlcData.size(), System.currentTimeMillis() - start);
+        return bars;
+    }
+
+    @Override
+    public int prepareNineTurnData(DailyBarMatrix bars) {
+        int historyDays = NINE_TURN_CONFIG.getHistoryDays();
+        List<LocalDate> tradeDates = sliceTradeDates(bars, historyDays);
+
+        Map<String, double[][]> series = new HashMap<>(bars.stockCount());
+        for (int s = 0; s < bars.stockCount(); s++) {
+            double[] closes = bars.closes(s, historyDays);
+            int validCount = 0;
+            for (double close : closes) {
+                if (!Double.isNaN(close)) {
+                    validCount++;
+                }
+            }
+            // 与 extractClosingPrices 一致：只保存有足够有效数据的股票（至少一半有效）
+            if (validCount >= historyDays / 2) {
+                series.put(bars.getWindCodes().get(s), new double[][]{closes, null, null});
+            }
+        }
+
+        int savedCount = saveCloseSeries(NINE_TURN_CONFIG, bars.getBaseTradeDate(), tradeDates, series);
+        log.info("九转预热完成|Nine_turn_preheat_complete,tradeDate={},stockCount={},savedCount={},source=shared_bars",
+                bars.getBaseTradeDate(), bars.stockCount(), savedCount);
+        return savedCount;
+    }
+
+    @Override
+    public int prepareMovingAverageData(DailyBarMatrix bars) {
+        int historyDays = MA_CONFIG.getHistoryDays();
+        List<LocalDate> tradeDates = sliceTradeDates(bars, historyDays);
+
+        Map<String, double[][]> series = new HashMap<>(bars.stockCount());
+        int gapStockCount = 0;
+        for (int s = 0; s < bars.stockCount(); s++) {
+            double[] closes = bars.closes(s, historyDays);
+            for (double close : closes) {
+                if (Double.isNaN(close)) {
+                    gapStockCount++;
+                    break;
+                }
+            }
+            // 与 convertToClosePriceFormat 一致：有缺失的股票仍保存，由策略端过滤 null
+            series.put(bars.getWindCodes().get(s), new double[][]{closes, null, null});
+        }
+        if (gapStockCount > 0) {
+            log.warn("MA预热_存在缺失数据|MA_preheat_null_data,gapStockCount={},totalDays={},策略端将过滤null值",
+                    gapStockCount, historyDays);
+        }
+
+        int savedCount = saveCloseSeries(MA_CONFIG, bars.getBaseTradeDate(), tradeDates, series);
+        log.info("MA预热完成|MA_preheat_complete,tradeDate={},stockCount={},savedCount={},source=shared_bars",
+                bars.getBaseTradeDate(), bars.stockCount(), savedCount);
+        return savedCount;
+    }
+
+    @Override
+    public int prepareDmiData(DailyBarMatrix bars) {
+        int requiredDays = DMI_CONFIG.getHistoryDays();
+        List<LocalDate> targetDates = sliceTradeDates(bars, requiredDays);
+
+        Map<String, double[][]> series = new HashMap<>(bars.stockCount());
+        int filledCount = 0;
+        for (int s = 0; s < bars.stockCount(); s++) {
+            // 以缓冲区内最近的有效收盘价作为补齐起点，窗口起点停牌的股票也能保留
+            double lastClose = Double.NaN;
+            for (int d = requiredDays; d < bars.dateCount() && Double.isNaN(lastClose); d++) {
+                lastClose = bars.close(s, d);
+            }
+            double[] closes = new double[requiredDays];
+            double[] highs = new double[requiredDays];
+            double[] lows = new double[requiredDays];
+            boolean complete = true;
+            // 从最旧到最新遍历，停牌日用上一个有效日的收盘价作为 H/L/C
+            for (int d = requiredDays - 1; d >= 0; d--) {
+                double close = bars.close(s, d);
+                if (!Double.isNaN(close)) {
+                    closes[d] = close;
+                    highs[d] = bars.high(s, d);
+                    lows[d] = bars.low(s, d);
+                    lastClose = close;
+                } else if (!Double.isNaN(lastClose)) {
+                    closes[d] = lastClose;
+                    highs[d] = lastClose;
+                    lows[d] = lastClose;
+                    filledCount++;
+                } else {
+                    complete = false;
+                    break;
+                }
+            }
+            if (complete) {
+                series.put(bars.getWindCodes().get(s), new double[][]{closes, highs, lows});
+            }
+        }
+        if (filledCount > 0) {
+            log.info("DMI预热_停牌日补齐|DMI_preheat_filled_gaps,totalFilledDays={}", filledCount);
+        }
+
+        String dateSuffix = bars.getBaseTradeDate().format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        if (preheatProperties.getFormat().writeBinary()) {
+            saveBinaryToRedis(DMI_CONFIG, dateSuffix, toTradeDays(targetDates), series, true);
+        }
+        if (preheatProperties.getFormat().writeJson() && !series.isEmpty()) {
+            String redisKey = DMI_CONFIG.buildKey(dateSuffix);
+            Map<String, String> hashMap = new HashMap<>(series.size());
+            for (Map.Entry<String, double[][]> entry : series.entrySet()) {
+                double[][] values = entry.getValue();
+                List<DailyOhlcDTO> ohlcList = new ArrayList<>(requiredDays);
+                for (int d = 0; d < requiredDays; d++) {
+                    DailyOhlcDTO dto = new DailyOhlcDTO();
+                    dto.setWindCode(entry.getKey());
+                    dto.setTradeDate(targetDates.get(d));
+                    dto.setClosePrice(values[0][d]);
+                    dto.setHighPrice(values[1][d]);
+                    dto.setLowPrice(values[2][d]);
+                    ohlcList.add(dto);
+                }
+                hashMap.put(entry.getKey(), JsonUtil.toJson(ohlcList));
+            }
+            saveJsonToRedis(DMI_CONFIG, redisKey, hashMap);
+            log.info("DMI预热_Redis写入完成|DMI_preheat_redis_saved,key={},fieldCount={},order=DESC(0=latest)",
+                    redisKey, hashMap.size());
+        }
+
+        log.info("DMI预热完成|DMI_preheat_complete,tradeDate={},stockCount={},savedCount={},source=shared_bars",
+                bars.getBaseTradeDate(), bars.stockCount(), series.size());
+        return series.size();
+    }
+
+    /**
+     * 截取矩阵前 historyDays 个交易日（0=昨日）
+     */
+    private List<LocalDate> sliceTradeDates(DailyBarMatrix bars, int historyDays) {
+        if (bars.dateCount() < historyDays) {
+            throw new IllegalArgumentException(
+                    String.format("共享日线窗口不足|Shared_bars_window_insufficient,tradeDate=%s,required=%d,available=%d",
+                            bars.getBaseTradeDate(), historyDays, bars.dateCount()));
+        }
+        return bars.getTradeDates().subList(0, historyDays);
+    }
+
+    /**
+     * 按配置格式保存收盘价序列（九转、均线共用）
+     *
+     * @param config     策略 Redis 配置
+     * @param tradeDate  交易日
+     * @param tradeDates 交易日列表（按时间倒序，与收盘价数组一一对应）
+     * @param series     Map&lt;股票代码, {收盘价, null, null}&gt;，停牌为 NaN
+     * @return 保存的股票数量
+     */
+    private int saveCloseSeries(StrategyRedisKeyEnum config, LocalDate tradeDate, List<LocalDate> tradeDates,
+                                Map<String, double[][]> series) {
+        String dateSuffix = tradeDate.format(DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT));
+        if (preheatProperties.getFormat().writeBinary()) {
+            saveBinaryToRedis(config, dateSuffix, toTradeDays(tradeDates), series, false);
+        }
+        if (!preheatProperties.getFormat().writeJson() || series.isEmpty()) {
+            return series.size();
+        }
+        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT);
+        List<String> tradeDateTimes = tradeDates.stream()
+                .map(date -> date.atTime(15, 0).format(dateTimeFormatter))
+                .toList();
+        String redisKey = config.buildKey(dateSuffix);
+        Map<String, String> hashMap = new HashMap<>(series.size());
+        for (Map.Entry<String, double[][]> entry : series.entrySet()) {
+            double[] closes = entry.getValue()[0];
+            List<ClosePriceDTO> closePrices = new ArrayList<>(closes.length);
+            for (int d = 0; d < closes.length; d++) {
+                closePrices.add(new ClosePriceDTO(tradeDateTimes.get(d), Double.isNaN(closes[d]) ? null : closes[d]));
+            }
+            hashMap.put(entry.getKey(), JsonUtil.toJson(closePrices));
+        }
+        saveJsonToRedis(config, redisKey, hashMap);
+        log.info("策略预热_Redis写入完成|Strategy_preheat_redis_saved,key={},fieldCount={}", redisKey, hashMap.size());
+        return hashMap.size();
+    }
+
+    /**
+     * 以 JSON 格式分块写入预热 Hash
+     * <p>
+     * 按 jsonPipelineChunkSize 拆成多条 HMSET，与 EXPIRE 一起放入同一个 Pipeline，
+     * 避免单条全市场 HMSET 阻塞 Redis，同时保持一次网络往返。
+     *
+     * @param config   策略 Redis 配置（提供 TTL）
+     * @param redisKey Hash Key
+     * @param hashMap  Map&lt;股票代码, JSON&gt;
+     */
+    private void saveJsonToRedis(StrategyRedisKeyEnum config, String redisKey, Map<String, String> hashMap) {
+        int chunkSize = Math.max(1, preheatProperties.getJsonPipelineChunkSize());
+        List<Map<byte[], byte[]>> chunks = new ArrayList<>((hashMap.size() + chunkSize - 1) / chunkSize);
+        Map<byte[], byte[]> chunk = new LinkedHashMap<>(chunkSize * 2);
+        for (Map.Entry<String, String> entry : hashMap.entrySet()) {
+            chunk.put(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue().getBytes(StandardCharsets.UTF_8));
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new LinkedHashMap<>(chunkSize * 2);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        byte[] keyBytes = redisKey.getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = TimeUnit.HOURS.toSeconds(config.getTtlHours());
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map<byte[], byte[]> fields : chunks) {
+                connection.hashCommands().hMSet(keyBytes, fields);
+            }
+            connection.keyCommands().expire(keyBytes, ttlSeconds);
+            return null;
+        });
+    }
+
+    // ==================== 列式二进制格式 ====================
+
+    /**
+     * 以列式二进制格式保存预热数据
+     * <p>
+     * 实现逻辑：
+     * 1. 股票代码排序后按 binaryChunkSize 分块，每块编码为一个二进制 Field。
+     * 2. 通过 Pipeline 一次往返完成 DEL（清理旧分块）、HSET、EXPIRE。
+     *
+     * @param config      策略 Redis 配置
+     * @param dateSuffix  交易日（yyyyMMdd）
+     * @param tradeDays   交易日索引（yyyyMMdd，0=最新）
+     * @param series      Map<股票代码, {收盘价, 最高价, 最低价}>，与 tradeDays 对齐，停牌为 NaN
+     * @param withHighLow 是否写入最高/最低价列
+     */
+    private void saveBinaryToRedis(StrategyRedisKeyEnum config, String dateSuffix, int[] tradeDays,
+                                   Map<String, double[][]> series, boolean withHighLow) {
+        if (series.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        String redisKey = PreheatColumnarCodec.binaryKey(config.getKeyPrefix(), dateSuffix);
+        int chunkSize = Math.max(1, preheatProperties.getBinaryChunkSize());
+        List<String> codes = new ArrayList<>(series.keySet());
+        Collections.sort(codes);
+
+        List<byte[]> blobs = new ArrayList<>((codes.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < codes.size(); from += chunkSize) {
+            PreheatColumnarCodec.Writer writer =
+                    new PreheatColumnarCodec.Writer(tradeDays, withHighLow, preheatProperties.isFloat32());
+            for (String code : codes.subList(from, Math.min(from + chunkSize, codes.size()))) {
+                double[][] values = series.get(code);
+                writer.add(code, values[0], values[1], values[2]);
+            }
+            blobs.add(writer.toBytes());
+        }
+
+        byte[] keyBytes = redisKey.getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = TimeUnit.HOURS.toSeconds(config.getTtlHours());
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(keyBytes);
+            for (int i = 0; i < blobs.size(); i++) {
+                connection.hashCommands().hSet(keyBytes, Integer.toString(i).getBytes(StandardCharsets.UTF_8), blobs.get(i));
+            }
+            connection.keyCommands().expire(keyBytes, ttlSeconds);
+            return null;
+        });
+
+        long totalBytes = blobs.stream().mapToLong(blob -> blob.length).sum();
+        log.info("策略预热_二进制写入完成|Strategy_preheat_binary_saved,key={},stockCount={},chunkCount={},bytes={},costMs={}",
+                redisKey, codes.size(), blobs.size(), totalBytes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 交易日转换为 yyyyMMdd 整数
+     */
+    private int[] toTradeDays(List<LocalDate> tradeDates) {
+        int[] tradeDays = new int[tradeDates.size()];
+        for (int i = 0; i < tradeDays.length; i++) {
+            LocalDate date = tradeDates.get(i);
+            tradeDays[i] = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        }
+        return tradeDays;
+    }
+
+    /**
+     * 收盘价列表转换为原始类型数组，null（停牌）转为 NaN
+     */
+    private Map<String, double[][]> toCloseSeries(Map<String, List<ClosePriceDTO>> stockClosePrices) {
+        Map<String, double[][]> result = new HashMap<>(stockClosePrices.size());
+        for (Map.Entry<String, List<ClosePriceDTO>> entry : stockClosePrices.entrySet()) {
+            List<ClosePriceDTO> prices = entry.getValue();
+            double[] closes = new double[prices.size()];
+            for (int i = 0; i < closes.length; i++) {
+                Double price = prices.get(i).getClosePrice();
+                closes[i] = price != null ? price : Double.NaN;
+            }
+            result.put(entry.getKey(), new double[][]{closes, null, null});
+        }
+        return result;
+    }
+
+    /**
+     * OHLC 列表转换为原始类型数组（输入为补齐后的倒序列表）
+     */
+    private Map<String, double[][]> toOhlcSeries(
+            Map<String, List<com.hao.datacollector.dto.quotation.DailyOhlcDTO>> ohlcData) {
+        Map<String, double[][]> result = new HashMap<>(ohlcData.size());
+        for (Map.Entry<String, List<com.hao.datacollector.dto.quotation.DailyOhlcDTO>> entry : ohlcData.entrySet()) {
+            List<com.hao.datacollector.dto.quotation.DailyOhlcDTO> bars = entry.getValue();
+            double[] closes = new double[bars.size()];
+            double[] highs = new double[bars.size()];
+            double[] lows = new double[bars.size()];
+            for (int i = 0; i < closes.length; i++) {
+                com.hao.datacollector.dto.quotation.DailyOhlcDTO bar = bars.get(i);
+                closes[i] = bar.getClosePrice() != null ? bar.getClosePrice() : Double.NaN;
+                highs[i] = bar.getHighPrice() != null ? bar.getHighPrice() : closes[i];
+                lows[i] = bar.getLowPrice() != null ? bar.getLowPrice() : closes[i];
+            }
+            result.put(entry.getKey(), new double[][]{closes, highs, lows});
+        }
+        return result;
+    }
+}
@@ -2,8 +2,10 @@ package com.hao.datacollector.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hao.datacollector.cache.StockCache;
+import com.hao.datacollector.core.crawl.CrawlResult;
+import com.hao.datacollector.core.crawl.CrawlerEngine;
+import com.hao.datacollector.core.crawl.TokenBucketRateLimiter;
 import util.DateUtil;
-import com.hao.datacollector.common.utils.HttpUtil;
 import util.PageRuleUtil;
 import com.hao.datacollector.dal.dao.TopicMapper;
 import dto.PageNumDTO;
@@ -18,11 +20,15 @@ import com.hao.datacollector.dto.table.topic.InsertStockCategoryMappingDTO;
 import com.hao.datacollector.dto.table.topic.InsertTopicCategoryDTO;
 import com.hao.datacollector.dto.table.topic.InsertTopicInfoDTO;
 import com.hao.datacollector.dto.table.topic.TopicStockDTO;
+import com.hao.datacollector.integration.http.PooledHttpClient;
+import com.hao.datacollector.properties.KplCrawlerProperties;
 import com.hao.datacollector.service.StockProfileService;
 import com.hao.datacollector.service.TopicService;
 import com.hao.datacollector.web.vo.stockProfile.SearchKeyBoardVO;
 import com.hao.datacollector.web.vo.topic.TopicCategoryAndStockVO;
 import com.hao.datacollector.web.vo.topic.TopicInfoKplVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.BeanUtils;
@@ -37,13 +43,16 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 import exception.ExternalServiceException;
 
 /**
  * 题材库同步的具体实现，负责从 KPL 接口拉取热点题材并拆分入库。
  * <p>
- * 核心流程包括：逐条请求远端主题 → 反序列化为领域模型 → 拆分成多张表的 DTO →
- * 调用 Mapper 批量写入，同时通过日志记录加工链路，便于排查。
+ * 核心流程包括：并发、限流地请求远端主题 → 反序列化为领域模型 → 拆分成多张表的 DTO →
+ * 按轮次汇总后调用 Mapper 批量写入，同时通过日志记录加工链路，便于排查。
  * </p>
  *
  * @author Hao Li
@@ -53,7 +62,7 @@ import exception.ExternalServiceException;
 /**
  * 实现思路：
  * <p>
- * 1. 通过 HTTP 表单请求拉取外部 KPL 题材原始数据并转换为 Java 对象。
+ * 1. 通过 {@link CrawlerEngine} 并发发起 HTTP 表单请求拉取外部 KPL 题材原始数据并转换为 Java 对象。
  * 2. 将题材、类别、股票映射等层次化数据拆解成多种 DTO，分别入库并与 Wind 代码做关联。
  * 3. 提供查询与转换能力（如分页、关键字匹配），支撑题材信息同步和对外服务。
  */
@@ -70,10 +79,37 @@ public class TopicServiceImpl implements TopicService {
     @Autowired
     private StockProfileService stockProfileService;
 
+    @Autowired
+    private PooledHttpClient pooledHttpClient;
+
+    @Autowired
+    private KplCrawlerProperties crawlerProperties;
+
+    @Resource(name = "ioTaskExecutor")
+    private Executor ioTaskExecutor;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * KPL 题材爬虫，多次转档共用同一个限流器
+     */
+    private CrawlerEngine kplCrawler;
+
+    @PostConstruct
+    public void initCrawler() {
+        kplCrawler = new CrawlerEngine("kpl-topic",
+                crawlerProperties.getMaxConcurrency(),
+                new TokenBucketRateLimiter(crawlerProperties.getPermitsPerSecond(), crawlerProperties.getBurst()),
+                crawlerProperties.getMaxAttempts(),
+                crawlerProperties.getBackoffBaseMs(),
+                crawlerProperties.getBackoffMaxMs(),
+                ioTaskExecutor);
+    }
+
     /**
      * 转档题材库
+     * <p>
+     * 题材 ID 按 windowSize 分轮并发抓取，每轮结束后把该轮所有题材的三张表数据合并批量写入。
      *
      * @param startId 遍历题材起始id
      * @param endId   遍历题材结束id
@@ -81,31 +117,65 @@ public class TopicServiceImpl implements TopicService {
      */
     @Override
     public Boolean setKplTopicInfoJob(Integer startId, Integer endId) {
-        for (int id = startId; id <= endId; id++) {
-            // 逐个遍历题材 ID，通过远程接口抓取原始 JSON
-            String kplTopicDataStr = getRequestKplTopicData(id);
-            // 解析JSON为对象
-            HotTopicKpl hotTopic = null;
-            try {
-                // ObjectMapper 用于将原始 JSON 映射成领域对象，便于后续拆分
-                hotTopic = objectMapper.readValue(kplTopicDataStr, HotTopicKpl.class);
-            } catch (Exception e) {
-                log.error("日志记录|Log_message,setKplTopicInfoJob_convertData_error,id={},result={}", id, kplTopicDataStr, e);
-                continue;
-//                throw new RuntimeException("setKplTopicInfoJob_convertData_error!");
-            }
-            if (hotTopic == null || !StringUtils.hasLength(hotTopic.getId())) {
-                log.warn("日志记录|Log_message,setKplTopicInfoJob_getKplTopicData_data_error,id={},result={}", id, kplTopicDataStr);
-                continue;
+        List<Integer> ids = IntStream.rangeClosed(startId, endId).boxed().toList();
+        int windowSize = Math.max(1, crawlerProperties.getWindowSize());
+        int topicCount = 0;
+        List<Integer> failedIds = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += windowSize) {
+            List<Integer> window = ids.subList(from, Math.min(from + windowSize, ids.size()));
+            // 并发抓取并拆分为插入 DTO，无效题材返回 null 直接跳过
+            CrawlResult<Integer, TopicInsertData> result = kplCrawler.crawl(window, this::fetchTopicInsertData);
+            failedIds.addAll(result.getFailedKeys());
+
+            List<InsertTopicInfoDTO> insertTopicInfoList = new ArrayList<>();
+            List<InsertTopicCategoryDTO> insertCategoryList = new ArrayList<>();
+            List<InsertStockCategoryMappingDTO> insertStockCategoryMappingList = new ArrayList<>();
+            for (TopicInsertData data : result.getResults().values()) {
+                insertTopicInfoList.add(data.topicInfo);
+                insertCategoryList.addAll(data.categoryList);
+                insertStockCategoryMappingList.addAll(data.stockCategoryMappingList);
             }
-            //转换插入
-            // 将题材实体拆分为多张表的插入 DTO 并写入数据库
-            Boolean insertResult = insertKplTopicInsertData(hotTopic);
-            log.info("日志记录|Log_message,setKplTopicInfoJob_ID={},result={}", id, insertResult);
+            Boolean insertResult = insertTopicInfo(insertTopicInfoList, insertCategoryList, insertStockCategoryMappingList);
+            topicCount += insertTopicInfoList.size();
+            log.info("日志记录|Log_message,setKplTopicInfoJob_window={}-{},topics={},failed={},result={}",
+                    window.get(0), window.get(window.size() - 1), insertTopicInfoList.size(), result.getFailedKeys().size(), insertResult);
         }
+        if (!failedIds.isEmpty()) {
+            log.warn("日志记录|Log_message,setKplTopicInfoJob_failed_ids={}", failedIds);
+        }
+        log.info("日志记录|Log_message,setKplTopicInfoJob_done,startId={},endId={},topics={},failed={}",
+                startId, endId, topicCount, failedIds.size());
         return true;
     }
 
+    /**
+     * 抓取单个题材并拆分为插入数据
+     * <p>
+     * 网络异常向上抛出由爬虫重试；响应无法解析或题材无效时返回 null，不重试。
+     *
+     * @param id 题材ID
+     * @return 插入数据，题材无效时返回 null
+     */
+    private TopicInsertData fetchTopicInsertData(Integer id) {
+        // 通过远程接口抓取原始 JSON
+        String kplTopicDataStr = getRequestKplTopicData(id);
+        // 解析JSON为对象
+        HotTopicKpl hotTopic;
+        try {
+            // ObjectMapper 用于将原始 JSON 映射成领域对象，便于后续拆分
+            hotTopic = objectMapper.readValue(kplTopicDataStr, HotTopicKpl.class);
+        } catch (Exception e) {
+            log.error("日志记录|Log_message,setKplTopicInfoJob_convertData_error,id={},result={}", id, kplTopicDataStr, e);
+            return null;
+        }
+        if (hotTopic == null || !StringUtils.hasLength(hotTopic.getId())) {
+            log.warn("日志记录|Log_message,setKplTopicInfoJob_getKplTopicData_data_error,id={},result={}", id, kplTopicDataStr);
+            return null;
+        }
+        // 将题材实体拆分为多张表的插入 DTO
+        return buildTopicInsertData(hotTopic);
+    }
+
     /**
      * 获取KPL主题话题数据
      *
@@ -130,7 +200,7 @@ public class TopicServiceImpl implements TopicService {
         body.add("a", "InfoGet");
         body.add("apiv", "w41");
         body.add("c", "Theme");
-        ResponseEntity<String> response = HttpUtil.sendRequestFormPost(
+        ResponseEntity<String> response = pooledHttpClient.postForm(
                 kplTopicUrl,
                 body,
                 headers,
@@ -142,18 +212,18 @@ public class TopicServiceImpl implements TopicService {
             throw new ExternalServiceException("获取KPL主题数据失败|Get_KPL_topic_data_failed,statusCode=" + response.getStatusCode());
         }
         // 记录响应数据大小
-        log.info("日志记录|Log_message,setKplTopicInfoJob_response.size={}", response.getBody().length());
+        log.debug("日志记录|Log_message,setKplTopicInfoJob_response.size={}", response.getBody().length());
         return response.getBody();
     }
 
     /**
-     * 插入题材相关数据
+     * 拆分题材相关数据
      *
      * @param hotTopic 题材对象
-     * @return 插入结果
+     * @return 三张表的插入数据，类别为空时返回 null
      */
-    private Boolean insertKplTopicInsertData(HotTopicKpl hotTopic) {
-        log.info("日志记录|Log_message,insertKplTopicInsertData_start_processing_topic_data,topicId={}", hotTopic.getId());
+    private TopicInsertData buildTopicInsertData(HotTopicKpl hotTopic) {
+        log.debug("日志记录|Log_message,insertKplTopicInsertData_start_processing_topic_data,topicId={}", hotTopic.getId());
         //先转换
         // 统一把外部字段复制到信息表 DTO，降低手工映射出错概率
         InsertTopicInfoDTO insertTopicInfoDTO = new InsertTopicInfoDTO();
@@ -175,9 +245,9 @@ public class TopicServiceImpl implements TopicService {
         List<TopicTable> categoryList = hotTopic.getTable();
         if (categoryList == null || categoryList.isEmpty()) {
             log.warn("日志记录|Log_message,insertKplTopicInsertData_category_list_is_empty,_topicId={}", hotTopic.getId());
-            return false;
+            return null;
         }
-        log.info("日志记录|Log_message,insertKplTopicInsertData_start_processing_categories,topicId={},category_count={}", hotTopic.getId(), categoryList.size());
+        log.debug("日志记录|Log_message,insertKplTopicInsertData_start_processing_categories,topicId={},category_count={}", hotTopic.getId(), categoryList.size());
         for (TopicTable category : categoryList) {
             InsertTopicCategoryDTO insertCategoryLevel1 = new InsertTopicCategoryDTO();
             CategoryLevel level1 = category.getLevel1();
@@ -256,11 +326,9 @@ public class TopicServiceImpl implements TopicService {
                 }
             }
         }
-        log.info("日志记录|Log_message,insertKplTopicInsertData_data_processing_completed,topicId={},_total_categories={},total_stock_mappings={}", hotTopic.getId(), insertCategoryList.size(), insertStockCategoryMappingList.size());
-        List<InsertTopicInfoDTO> insertTopicInfoList = new ArrayList();
-        insertTopicInfoList.add(insertTopicInfoDTO);
-        // 最终调用统一的批量写入方法，确保三张表的操作在同一处维护
-        return insertTopicInfo(insertTopicInfoList, insertCategoryList, insertStockCategoryMappingList);
+        log.debug("日志记录|Log_message,insertKplTopicInsertData_data_processing_completed,topicId={},_total_categories={},total_stock_mappings={}", hotTopic.getId(), insertCategoryList.size(), insertStockCategoryMappingList.size());
+        // 由调用方合并多个题材后统一批量写入，确保三张表的操作在同一处维护
+        return new TopicInsertData(insertTopicInfoDTO, insertCategoryList, insertStockCategoryMappingList);
     }
 
     /**
@@ -273,23 +341,48 @@ public class TopicServiceImpl implements TopicService {
      */
     private Boolean insertTopicInfo
     (List<InsertTopicInfoDTO> insertTopicInfoList, List<InsertTopicCategoryDTO> insertCategoryList, List<InsertStockCategoryMappingDTO> insertStockCategoryMappingList) {
-        int insertTopicNum = 0, insertCategoryNum = 0, insertStockNum = 0;
-        if (!insertTopicInfoList.isEmpty()) {
-            // 题材基础信息，按批量写入减少数据库往返
-            insertTopicNum = topicMapper.insertTopicInfoList(insertTopicInfoList);
-        }
-        if (!insertCategoryList.isEmpty()) {
-            // 分类数据量较大，同样批量写入
-            insertCategoryNum = topicMapper.insertCategoryList(insertCategoryList);
-        }
-        if (!insertStockCategoryMappingList.isEmpty()) {
-            // 股票映射写入后即可被上层服务复用
-            insertStockNum = topicMapper.insertStockCategoryMappingList(insertStockCategoryMappingList);
-        }
+        // 题材基础信息，按批量写入减少数据库往返
+        int insertTopicNum = insertInBatches(insertTopicInfoList, topicMapper::insertTopicInfoList);
+        // 分类数据量较大，同样批量写入
+        int insertCategoryNum = insertInBatches(insertCategoryList, topicMapper::insertCategoryList);
+        // 股票映射写入后即可被上层服务复用
+        int insertStockNum = insertInBatches(insertStockCategoryMappingList, topicMapper::insertStockCategoryMappingList);
         log.info("日志记录|Log_message,insertTopicInfo_insertTopicNum={},insertCategoryNum={},insertStockNum={}", insertTopicNum, insertCategoryNum, insertStockNum);
         return insertTopicNum + insertCategoryNum + insertStockNum > 0;
     }
 
+    /**
+     * 按 batchRows 分批执行批量插入，避免单条 INSERT 过大
+     *
+     * @param list   待插入数据
+     * @param insert 批量插入方法
+     * @return 影响行数合计
+     */
+    private <T> int insertInBatches(List<T> list, Function<List<T>, Integer> insert) {
+        int batchRows = Math.max(1, crawlerProperties.getBatchRows());
+        int affected = 0;
+        for (int from = 0; from < list.size(); from += batchRows) {
+            affected += insert.apply(list.subList(from, Math.min(from + batchRows, list.size())));
+        }
+        return affected;
+    }
+
+    /**
+     * 单个题材拆分后的三张表插入数据
+     */
+    private static class TopicInsertData {
+        private final InsertTopicInfoDTO topicInfo;
+        private final List<InsertTopicCategoryDTO> categoryList;
+        private final List<InsertStockCategoryMappingDTO> stockCategoryMappingList;
+
+        private TopicInsertData(InsertTopicInfoDTO topicInfo, List<InsertTopicCategoryDTO> categoryList,
+                                List<InsertStockCategoryMappingDTO> stockCategoryMappingList) {
+            this.topicInfo = topicInfo;
+            this.categoryList = categoryList;
+            this.stockCategoryMappingList = stockCategoryMappingList;
+        }
+    }
+
     /**
      * 获取映射带有后缀的股票代码
      *
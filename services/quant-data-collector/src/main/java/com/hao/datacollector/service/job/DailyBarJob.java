@@ -0,0 +1,73 @@
+package com.hao.datacollector.service.job;
+
+import com.hao.datacollector.core.bar.DailyBarStore;
+import com.xxl.job.core.biz.model.ReturnT;
+import com.xxl.job.core.context.XxlJobHelper;
+import com.xxl.job.core.handler.annotation.XxlJob;
+import constants.DateTimeFormatConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 日线物化表回填 job
+ * <p>
+ * 由分时表按交易日整日重算 tb_quotation_daily_bar 并覆盖写入，每个交易日完成后写入完整性标记，
+ * 查询只信任已标记的交易日（仅有增量汇总的交易日回退到分时表）。
+ * <ul>
+ *   <li>一次性回填：jobParam 传 "yyyyMMdd,yyyyMMdd"（起止日期，含），逐个交易日执行</li>
+ *   <li>收盘后兜底：jobParam 为空时重算当天，修正增量汇总失败或分批转档遗漏的股票</li>
+ * </ul>
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Slf4j
+@Component
+public class DailyBarJob {
+
+    private static final DateTimeFormatter PATTERN = DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+
+    @Autowired
+    private DailyBarStore dailyBarStore;
+
+    /**
+     * 日线回填job
+     * 每日分时转档完成后0 30 17 * * ?再执行
+     */
+    @XxlJob("dailyBarBackfillJob")
+    public ReturnT<String> dailyBarBackfillJob() {
+        String jobParam = XxlJobHelper.getJobParam();
+        XxlJobHelper.log("dailyBarBackfillJob_start,jobParam={}", jobParam);
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            if (StringUtils.hasText(jobParam)) {
+                String[] range = jobParam.trim().split(",");
+                startDate = LocalDate.parse(range[0].trim(), PATTERN);
+                endDate = range.length > 1 ? LocalDate.parse(range[1].trim(), PATTERN) : startDate;
+            } else {
+                startDate = LocalDate.now();
+                endDate = startDate;
+            }
+        } catch (Exception e) {
+            log.error("日线回填参数错误|Daily_bar_backfill_param_invalid,jobParam={}", jobParam, e);
+            return ReturnT.FAIL;
+        }
+
+        List<LocalDate> tradeDates = dailyBarStore.tradeDatesBetween(startDate, endDate);
+        if (tradeDates == null) {
+            log.error("交易日历未覆盖回填区间|Daily_bar_backfill_calendar_unavailable,range={}-{}", startDate, endDate);
+            return ReturnT.FAIL;
+        }
+        int rows = dailyBarStore.backfill(tradeDates);
+        XxlJobHelper.log("dailyBarBackfillJob_done,tradeDates={},rows={}", tradeDates.size(), rows);
+        log.info("日线回填完成|Daily_bar_backfill_done,range={}-{},tradeDates={},rows={}", startDate, endDate, tradeDates.size(), rows);
+        return ReturnT.SUCCESS;
+    }
+}
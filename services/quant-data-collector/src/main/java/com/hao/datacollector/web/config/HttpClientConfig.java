@@ -0,0 +1,36 @@
+package com.hao.datacollector.web.config;
+
+import com.hao.datacollector.common.utils.HttpUtil;
+import com.hao.datacollector.integration.http.PooledHttpClient;
+import com.hao.datacollector.properties.HttpClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 外部 HTTP 调用配置
+ * <p>
+ * 创建全局共享的连接池客户端，并注册到 {@link HttpUtil}，使静态工具方法与注入客户端的爬虫共用同一个连接池。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+@Slf4j
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * 共享连接池客户端
+     *
+     * @param properties 连接池配置
+     * @return 连接池客户端（容器关闭时释放连接）
+     */
+    @Bean(destroyMethod = "close")
+    public PooledHttpClient pooledHttpClient(HttpClientProperties properties) {
+        PooledHttpClient client = new PooledHttpClient(properties);
+        HttpUtil.setSharedClient(client);
+        log.info("HTTP连接池初始化完成|Http_pool_initialized,maxTotal={},defaultMaxPerHost={},hostOverrides={}",
+                properties.getMaxTotal(), properties.getDefaultMaxPerHost(), properties.getMaxPerHost());
+        return client;
+    }
+}
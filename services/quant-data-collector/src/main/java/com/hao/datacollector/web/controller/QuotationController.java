@@ -5,16 +5,26 @@ import com.hao.datacollector.dto.quotation.DailyOhlcDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
 import com.hao.datacollector.dto.quotation.HistoryTrendIndexDTO;
 import com.hao.datacollector.service.QuotationService;
+import constants.DateTimeFormatConstants;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +39,14 @@ import java.util.Map;
 @RestController
 @RequestMapping("/quotation")
 public class QuotationController {
+
+    /**
+     * 导出写缓冲大小（字节），写满即推送给客户端
+     */
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter EXPORT_TIME_FORMATTER = DateTimeFormatter.ofPattern(DateTimeFormatConstants.DEFAULT_DATETIME_FORMAT);
+
     @Autowired
     private QuotationService quotationService;
 
@@ -88,6 +106,52 @@ public class QuotationController {
         return quotationService.getHistoryTrendDataByStockList(startDate, endDate, stockList);
     }
 
+    @Operation(summary = "流式导出股票历史分时数据（CSV）",
+            description = "按 trade_date 升序边查边写，适合全市场多日批量导出；服务端内存占用与导出数据量无关")
+    @GetMapping("/export_history_trend")
+    public void exportHistoryTrend(
+            @Parameter(description = "起始日期，格式yyyyMMdd", required = true)
+            @RequestParam String startDate,
+            @Parameter(description = "结束日期，格式yyyyMMdd", required = true)
+            @RequestParam String endDate,
+            @Parameter(description = "股票列表（为空时导出全市场）", required = false)
+            @RequestParam(required = false) List<String> stockList,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=history_trend_" + startDate + "_" + endDate + ".csv");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        writer.write("wind_code,trade_date,latest_price,total_volume,average_price\n");
+        StringBuilder line = new StringBuilder(96);
+        IOException[] writeError = new IOException[1];
+        try {
+            long rows = quotationService.streamHistoryTrendDataByStockList(startDate, endDate, stockList, dto -> {
+                line.setLength(0);
+                line.append(dto.getWindCode()).append(',')
+                        .append(dto.getTradeDate() == null ? "" : EXPORT_TIME_FORMATTER.format(dto.getTradeDate())).append(',')
+                        .append(dto.getLatestPrice() == null ? "" : dto.getLatestPrice()).append(',')
+                        .append(dto.getTotalVolume() == null ? "" : dto.getTotalVolume()).append(',')
+                        .append(dto.getAveragePrice() == null ? "" : dto.getAveragePrice()).append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    // 客户端断开时中止读取，释放数据库连接
+                    writeError[0] = e;
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("分时数据导出完成|History_trend_export_done,range={}-{},rows={}", startDate, endDate, rows);
+        } catch (RuntimeException e) {
+            // MyBatis 会包装回调中抛出的异常，以写入失败标记区分客户端断开与查询失败
+            if (writeError[0] == null) {
+                throw e;
+            }
+            log.warn("分时数据导出中断|History_trend_export_aborted,range={}-{},error={}", startDate, endDate, writeError[0].getMessage());
+            return;
+        }
+        writer.flush();
+    }
+
     @Operation(summary = "获取指定指标列表历史分时数据", description = "根据时间区间获取指定指标列表的历史分时数据")
     @GetMapping("/get_index_trend")
     public List<HistoryTrendIndexDTO> getIndexHistoryTrendDataByIndexList(
@@ -243,4 +243,22 @@ public class SimpleF9Controller {
             @RequestBody F9Param f9Param) {
         return simpleF9Service.insertFinancialSummaryDataJob(f9Param);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "全量转档全部F9维度",
+            description = "异步遍历股票池，各维度并行抓取、按维度批量写库；已有转档运行时返回false",
+            method = "POST")
+    @PostMapping("/transfer_all_job")
+    public Boolean transferAllDataJob(@RequestParam(required = false, defaultValue = "cn") String lan) {
+        if (simpleF9Service.getTransferProgress().isRunning()) {
+            return false;
+        }
+        simpleF9Service.transferAllDataJob(lan);
+        return true;
+    }
+
+    @Operation(summary = "查询全量转档进度", description = "返回进度及各维度跳过/成功/无数据/失败/写入行数")
+    @GetMapping("/transfer_progress")
+    public F9TransferProgressDTO getTransferProgress() {
+        return simpleF9Service.getTransferProgress();
+    }
+}
@@ -0,0 +1,46 @@
+-- ============================================================
+-- 日线物化表
+-- 数据库：a_share_quant
+-- ============================================================
+USE `a_share_quant`;
+-- 股票日线表（由分时表汇总）
+-- 写入：transferQuotationHistoryTrend 每批分时落库后增量汇总；DailyBarJob 按日期区间一次性回填
+-- 读取：QuotationService 日线类查询（收盘价 / 最高最低价 / OHLC）
+CREATE TABLE IF NOT EXISTS `tb_quotation_daily_bar` (
+    `wind_code` VARCHAR(20) NOT NULL COMMENT '股票代码，如：600519.SH',
+    `trade_date` DATE NOT NULL COMMENT '交易日',
+    `open_price` DECIMAL(12, 4) DEFAULT NULL COMMENT '开盘价（当日第一条分时最新价）',
+    `high_price` DECIMAL(12, 4) DEFAULT NULL COMMENT '最高价（当日分时最新价最大值）',
+    `low_price` DECIMAL(12, 4) DEFAULT NULL COMMENT '最低价（当日分时最新价最小值）',
+    `close_price` DECIMAL(12, 4) DEFAULT NULL COMMENT '收盘价（当日最后一条分时最新价）',
+    `total_volume` DECIMAL(20, 2) DEFAULT NULL COMMENT '总成交量（手，当日最后一条分时累计值）',
+    `average_price` DECIMAL(12, 4) DEFAULT NULL COMMENT '均价（当日最后一条分时均价）',
+    `open_time` DATETIME NOT NULL COMMENT '第一条分时时间',
+    `high_time` DATETIME DEFAULT NULL COMMENT '最高价出现时间',
+    `low_time` DATETIME DEFAULT NULL COMMENT '最低价出现时间',
+    `close_time` DATETIME NOT NULL COMMENT '最后一条分时时间',
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`wind_code`, `trade_date`),
+    -- 查询索引：按交易日加载全市场日线（进程内缓存按交易日装载）
+    KEY `idx_trade_date` (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='股票日线物化表';
+
+-- 日线完整性标记表（每个交易日一行）
+-- 写入：DailyBarJob 回填（整日由分时表重算）成功后写入；增量汇总不写入
+-- 读取：DailyBarStore 只信任已标记的交易日，未标记的交易日（可能只汇总了部分批次）整体回退到分时表
+CREATE TABLE IF NOT EXISTS `tb_quotation_daily_bar_status` (
+    `trade_date` DATE NOT NULL COMMENT '交易日',
+    `bar_count` INT NOT NULL COMMENT '标记时该交易日的日线条数',
+    `complete_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '标记时间',
+    PRIMARY KEY (`trade_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='股票日线完整性标记表';
+
+-- ============================================================
+-- 设计说明：
+-- 1. 每只股票每天一行，全市场一天约 5000 行，替代每次查询时对分时表的窗口函数 / GROUP BY 扫描
+-- 2. 同一交易日可分多批汇总（转档按股票分批），合并规则：
+--    open 取更早的 open_time，close 取更晚的 close_time，high/low 取极值，重复汇总结果不变
+-- 3. 回填由分时表 INSERT ... SELECT 整日重算，直接覆盖，完成后写入完整性标记
+-- 4. 转档按股票分批增量汇总，某批失败时当天日线只覆盖部分股票；
+--    因此读取只信任有完整性标记的交易日，历史数据上线前需按区间执行一次回填以写入标记
+-- ============================================================
@@ -0,0 +1,202 @@
+package com.hao.datacollector.common.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import util.FixedPrice;
+import util.MathUtil;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FixedPrice 单元测试
+ * <p>
+ * 测试目的：
+ * 1. 性质测试：对随机生成的原始值（覆盖小额、常规价格、大额成交额、正负 0.5 进位边界、long 溢出边界），
+ * 定点实现与 MathUtil 的 BigDecimal 实现结果完全一致，包括回退路径与异常行为。
+ * 2. 定点类型的调整精度、加减、比较与 BigDecimal 语义一致。
+ * 3. 吞吐对比：入库热点路径上两种实现的单次耗时，只输出日志，不参与断言；
+ * 标记为 benchmark，默认构建跳过，通过 mvn test -Pbenchmark 执行。
+ *
+ * @author hli
+ * @date 2026-02-15
+ */
+@Slf4j
+class FixedPriceTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    @DisplayName("shiftDecimal与MathUtil一致")
+    void shiftDecimal_shouldMatchMathUtil() {
+        Random random = new Random(25);
+        for (int i = 0; i < SAMPLES; i++) {
+            long raw = randomRaw(random);
+            int digits = random.nextInt(11) - 4;
+            BigDecimal expected = MathUtil.shiftDecimal(String.valueOf(raw), digits);
+            BigDecimal actual = FixedPrice.shiftDecimal(raw, digits);
+            // equals 同时比较数值与小数位数
+            assertEquals(expected, actual, "raw=" + raw + ",digits=" + digits);
+        }
+        // 放大溢出 long 时回退到 BigDecimal
+        assertEquals(MathUtil.shiftDecimal(String.valueOf(Long.MAX_VALUE), -3), FixedPrice.shiftDecimal(Long.MAX_VALUE, -3));
+        assertEquals(MathUtil.shiftDecimal("-15", 1), FixedPrice.shiftDecimal(-15, 1));
+        assertEquals(MathUtil.shiftDecimal("12345", 25), FixedPrice.shiftDecimal(12345, 25));
+    }
+
+    @Test
+    @DisplayName("formatDecimal(long)与MathUtil一致")
+    void formatDecimalLong_shouldMatchMathUtil() {
+        Random random = new Random(26);
+        for (int i = 0; i < SAMPLES; i++) {
+            long raw = randomRaw(random);
+            int places = random.nextInt(9);
+            boolean roundUp = random.nextBoolean();
+            assertEquals(MathUtil.formatDecimal(raw, places, roundUp), FixedPrice.formatDecimal(raw, places, roundUp),
+                    "raw=" + raw + ",places=" + places + ",roundUp=" + roundUp);
+        }
+        assertThrows(ArithmeticException.class, () -> MathUtil.formatDecimal(100, -1, false));
+        assertThrows(ArithmeticException.class, () -> FixedPrice.formatDecimal(100L, -1, false));
+    }
+
+    @Test
+    @DisplayName("formatDecimal(Double)与MathUtil一致，含非整数回退")
+    void formatDecimalDouble_shouldMatchMathUtil() {
+        Random random = new Random(27);
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = random.nextInt(4) == 0
+                    ? (random.nextDouble() - 0.5) * 1e6
+                    : (double) randomRaw(random);
+            int places = random.nextInt(7);
+            boolean roundUp = random.nextBoolean();
+            assertEquals(MathUtil.formatDecimal(value, places, roundUp), FixedPrice.formatDecimal(value, places, roundUp),
+                    "value=" + value + ",places=" + places + ",roundUp=" + roundUp);
+        }
+        assertEquals(MathUtil.formatDecimal(null, 2, false), FixedPrice.formatDecimal((Double) null, 2, false));
+        assertEquals(MathUtil.formatDecimal(-0.0, 2, false), FixedPrice.formatDecimal(-0.0, 2, false));
+        assertEquals(MathUtil.formatDecimal(1e300, 2, false), FixedPrice.formatDecimal(1e300, 2, false));
+    }
+
+    @Test
+    @DisplayName("定点类型的精度调整与加减比较与BigDecimal一致")
+    void fixedPrice_shouldMatchBigDecimalSemantics() {
+        Random random = new Random(28);
+        for (int i = 0; i < SAMPLES; i++) {
+            // 控制量级，补齐小数位（最多 ×10^4）时不溢出
+            long unscaled = random.nextLong() >> (20 + random.nextInt(30));
+            int scale = random.nextInt(7);
+            FixedPrice price = FixedPrice.of(unscaled, scale);
+            BigDecimal decimal = BigDecimal.valueOf(unscaled, scale);
+            assertEquals(decimal, price.toBigDecimal());
+            assertEquals(decimal.doubleValue(), price.toDouble());
+            assertEquals(decimal.toPlainString(), price.toString());
+
+            int newScale = random.nextInt(5);
+            RoundingMode mode = random.nextBoolean() ? RoundingMode.HALF_UP : RoundingMode.DOWN;
+            assertEquals(decimal.setScale(newScale, mode), price.setScale(newScale, mode).toBigDecimal(),
+                    "unscaled=" + unscaled + ",scale=" + scale + ",newScale=" + newScale + ",mode=" + mode);
+
+            FixedPrice other = FixedPrice.of(random.nextInt(2_000_000) - 1_000_000, random.nextInt(5));
+            assertEquals(decimal.add(other.toBigDecimal()), price.add(other).toBigDecimal());
+            assertEquals(decimal.subtract(other.toBigDecimal()), price.subtract(other).toBigDecimal());
+            assertEquals(Integer.signum(decimal.compareTo(other.toBigDecimal())), Integer.signum(price.compareTo(other)));
+        }
+        assertEquals(FixedPrice.of(142350, 2), FixedPrice.shift(1423500, 3));
+        assertNotEquals(FixedPrice.of(14235, 1), FixedPrice.of(142350, 2));
+        assertThrows(ArithmeticException.class, () -> FixedPrice.of(1, FixedPrice.MAX_SCALE + 1));
+        assertThrows(ArithmeticException.class, () -> FixedPrice.of(Long.MAX_VALUE, 0).setScale(2, RoundingMode.DOWN));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("吞吐对比：日线基础行情与分时精度换算")
+    void throughput_comparedWithMathUtil() {
+        int n = 1_000_000;
+        long[] raws = new long[n];
+        Random random = new Random(29);
+        for (int i = 0; i < n; i++) {
+            raws[i] = 500 + random.nextInt(200_000);
+        }
+        // 预热
+        for (int round = 0; round < 3; round++) {
+            runLegacyShift(raws);
+            runFixedShift(raws);
+            runLegacyFormat(raws);
+            runFixedFormat(raws);
+        }
+
+        long legacyShiftNs = bestOf(() -> runLegacyShift(raws));
+        long fixedShiftNs = bestOf(() -> runFixedShift(raws));
+        long legacyFormatNs = bestOf(() -> runLegacyFormat(raws));
+        long fixedFormatNs = bestOf(() -> runFixedFormat(raws));
+        log.info("定点价格吞吐对比|Fixed_price_throughput,ops={},shiftDecimal_legacyNsPerOp={},shiftDecimal_fixedNsPerOp={},"
+                        + "formatDecimal_legacyNsPerOp={},formatDecimal_fixedNsPerOp={}",
+                n, (double) legacyShiftNs / n, (double) fixedShiftNs / n, (double) legacyFormatNs / n, (double) fixedFormatNs / n);
+        log.info("定点价格加速比|Fixed_price_speedup,shiftDecimal={},formatDecimal={}",
+                (double) legacyShiftNs / fixedShiftNs, (double) legacyFormatNs / fixedFormatNs);
+    }
+
+    private static long bestOf(Runnable body) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static volatile long sink;
+
+    private static void runLegacyShift(long[] raws) {
+        long acc = 0;
+        for (long raw : raws) {
+            acc += MathUtil.shiftDecimal(Long.valueOf(raw).toString(), 2).unscaledValue().longValue();
+        }
+        sink = acc;
+    }
+
+    private static void runFixedShift(long[] raws) {
+        long acc = 0;
+        for (long raw : raws) {
+            acc += FixedPrice.shiftDecimal(raw, 2).unscaledValue().longValue();
+        }
+        sink = acc;
+    }
+
+    private static void runLegacyFormat(long[] raws) {
+        double acc = 0;
+        for (long raw : raws) {
+            acc += MathUtil.formatDecimal((double) raw, 2, false);
+        }
+        sink = (long) acc;
+    }
+
+    private static void runFixedFormat(long[] raws) {
+        double acc = 0;
+        for (long raw : raws) {
+            acc += FixedPrice.formatDecimal(raw, 2, false);
+        }
+        sink = (long) acc;
+    }
+
+    /**
+     * 随机原始值：按比例混合小额、常规价格、大额、0.5 进位边界与接近 long 上限的值
+     */
+    private static long randomRaw(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> random.nextInt(2001) - 1000;
+            case 1 -> 100 + random.nextInt(500_000);
+            case 2 -> random.nextLong() >> (10 + random.nextInt(40));
+            // 形如 ...5、...50、...500，恰好落在四舍五入边界
+            case 3 -> (random.nextInt(200_000) * 10L + 5) * (long) Math.pow(10, random.nextInt(4)) * (random.nextBoolean() ? 1 : -1);
+            case 4 -> (1L << 53) - random.nextInt(1000) + random.nextInt(2000);
+            default -> random.nextLong();
+        };
+    }
+}
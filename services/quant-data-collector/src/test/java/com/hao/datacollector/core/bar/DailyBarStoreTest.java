@@ -0,0 +1,218 @@
+package com.hao.datacollector.core.bar;
+
+import com.hao.datacollector.core.query.TableRouter;
+import com.hao.datacollector.dal.dao.DailyBarMapper;
+import com.hao.datacollector.dto.quotation.DailyBarDTO;
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.properties.DailyBarProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DailyBarStore 单元测试
+ * <p>
+ * 测试目的：
+ * 1. 内存汇总结果与逐条扫描分时的口径一致（开盘/收盘/最高最低价及出现时间），且与输入顺序无关。
+ * 2. 进程内缓存：重复读取不访问数据库，写入后失效，未标记完整的交易日不缓存。
+ * 3. 只汇总了部分转档批次的交易日不被读取，回填写入完整性标记后才由日线表提供。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+class DailyBarStoreTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2026, 2, 9);
+    private static final LocalDate DAY_2 = LocalDate.of(2026, 2, 10);
+
+    @Test
+    @DisplayName("乱序分时汇总结果与按时间扫描一致")
+    void rollup_shouldMatchSequentialScan() {
+        Random random = new Random(13);
+        List<HistoryTrendDTO> ticks = new ArrayList<>();
+        for (LocalDate date : List.of(DAY_1, DAY_2)) {
+            for (int s = 0; s < 20; s++) {
+                LocalDateTime time = date.atTime(9, 30);
+                for (int t = 0; t < 300; t++) {
+                    // 价格取整到 0.05，制造大量相同的最高/最低价
+                    ticks.add(tick(String.format("%06d.SZ", s), time, 10 + random.nextInt(40) * 0.05, t * 100.0));
+                    time = time.plusSeconds(1 + random.nextInt(30));
+                }
+            }
+        }
+        List<HistoryTrendDTO> shuffled = new ArrayList<>(ticks);
+        Collections.shuffle(shuffled, random);
+
+        List<DailyBarDTO> bars = DailyBarStore.rollup(shuffled);
+        assertEquals(40, bars.size());
+
+        Map<String, List<HistoryTrendDTO>> grouped = ticks.stream()
+                .collect(Collectors.groupingBy(t -> t.getWindCode() + "|" + t.getTradeDate().toLocalDate()));
+        for (DailyBarDTO bar : bars) {
+            List<HistoryTrendDTO> series = new ArrayList<>(grouped.get(bar.getWindCode() + "|" + bar.getTradeDate()));
+            series.sort(Comparator.comparing(HistoryTrendDTO::getTradeDate));
+            HistoryTrendDTO first = series.getFirst();
+            HistoryTrendDTO last = series.getLast();
+            HistoryTrendDTO high = series.stream().max(Comparator.comparingDouble(HistoryTrendDTO::getLatestPrice)).orElseThrow();
+            HistoryTrendDTO low = series.stream().min(Comparator.comparingDouble(HistoryTrendDTO::getLatestPrice)).orElseThrow();
+
+            assertEquals(first.getLatestPrice(), bar.getOpenPrice());
+            assertEquals(first.getTradeDate(), bar.getOpenTime());
+            assertEquals(last.getLatestPrice(), bar.getClosePrice());
+            assertEquals(last.getTradeDate(), bar.getCloseTime());
+            assertEquals(last.getTotalVolume(), bar.getTotalVolume());
+            assertEquals(high.getLatestPrice(), bar.getHighPrice());
+            assertEquals(high.getTradeDate(), bar.getHighTime(), "最高价相同时取最早出现的时间");
+            assertEquals(low.getLatestPrice(), bar.getLowPrice());
+            assertEquals(low.getTradeDate(), bar.getLowTime(), "最低价相同时取最早出现的时间");
+        }
+    }
+
+    @Test
+    @DisplayName("重复读取命中缓存，写入后失效，未标记完整的交易日不缓存")
+    void getDays_shouldCacheAndInvalidateOnWrite() {
+        FakeDailyBarMapper mapper = new FakeDailyBarMapper();
+        DailyBarProperties properties = new DailyBarProperties();
+        properties.setUpsertChunkSize(1);
+        DailyBarStore store = new DailyBarStore(mapper, new TableRouter(), properties);
+
+        mapper.upsertDailyBarList(DailyBarStore.rollup(List.of(
+                tick("600519.SH", DAY_1.atTime(9, 30), 1500.0, 100.0),
+                tick("600519.SH", DAY_1.atTime(15, 0), 1510.0, 900.0))));
+        store.backfill(List.of(DAY_1));
+
+        Map<LocalDate, DailyBarDay> first = store.getDays(List.of(DAY_1, DAY_2));
+        assertEquals(1, mapper.statusCalls);
+        assertEquals(1, mapper.selectCalls);
+        assertTrue(first.containsKey(DAY_1));
+        assertFalse(first.containsKey(DAY_2), "未汇总的交易日不应出现在结果中");
+        DailyBarDay day = first.get(DAY_1);
+        int index = day.indexOf("600519.SH");
+        assertEquals(1510.0, day.close(index));
+        assertEquals(DAY_1.atTime(15, 0), day.closeTime(index));
+        assertEquals(-1, day.indexOf("000001.SZ"));
+
+        store.getDays(List.of(DAY_1));
+        assertEquals(1, mapper.statusCalls, "已缓存的交易日不应再查库");
+        store.getDays(List.of(DAY_2));
+        assertEquals(2, mapper.statusCalls, "未标记完整的交易日每次都应重新查库");
+        assertEquals(1, mapper.selectCalls, "未标记完整的交易日不应装载日线");
+
+        // 增量汇总两只股票（chunk=1 拆成两条 INSERT），DAY_1 缓存失效
+        int bars = store.rollupTicks(List.of(
+                tick("600519.SH", DAY_1.atTime(15, 1), 1520.0, 1000.0),
+                tick("000001.SZ", DAY_1.atTime(15, 0), 10.5, 5000.0)));
+        assertEquals(2, bars);
+        assertEquals(3, mapper.upsertCalls);
+
+        DailyBarDay reloaded = store.getDays(List.of(DAY_1)).get(DAY_1);
+        assertEquals(2, mapper.selectCalls, "写入后应重新装载");
+        assertEquals(2, reloaded.size());
+        assertEquals(1520.0, reloaded.close(reloaded.indexOf("600519.SH")));
+    }
+
+    @Test
+    @DisplayName("部分汇总的交易日不被读取，回填标记完整后才读取")
+    void getDays_shouldIgnorePartlyRolledUpDay() {
+        FakeDailyBarMapper mapper = new FakeDailyBarMapper();
+        DailyBarStore store = new DailyBarStore(mapper, new TableRouter(), new DailyBarProperties());
+
+        // 转档第一批汇总成功，第二批（000001.SZ）汇总失败：当天只有部分股票的日线
+        store.rollupTicks(List.of(
+                tick("600519.SH", DAY_2.atTime(9, 30), 1500.0, 100.0),
+                tick("600519.SH", DAY_2.atTime(15, 0), 1510.0, 900.0)));
+        assertTrue(store.getDays(List.of(DAY_2)).isEmpty(), "未回填的交易日即使有日线也不应被信任");
+        assertEquals(0, mapper.selectCalls);
+
+        // 收盘后回填整日重算（由分时表补齐 000001.SZ）并写入完整性标记
+        mapper.backfillBars = DailyBarStore.rollup(List.of(
+                tick("600519.SH", DAY_2.atTime(9, 30), 1500.0, 100.0),
+                tick("600519.SH", DAY_2.atTime(15, 0), 1510.0, 900.0),
+                tick("000001.SZ", DAY_2.atTime(15, 0), 10.5, 5000.0)));
+        store.backfill(List.of(DAY_2));
+
+        DailyBarDay day = store.getDays(List.of(DAY_2)).get(DAY_2);
+        assertNotNull(day);
+        assertEquals(2, day.size());
+        assertEquals(10.5, day.close(day.indexOf("000001.SZ")));
+        assertEquals(2, mapper.completeDays.get(DAY_2));
+
+        // 回填时分时表也为空的交易日不标记为完整
+        store.backfill(List.of(DAY_1));
+        assertTrue(store.getDays(List.of(DAY_1)).isEmpty());
+    }
+
+    private static HistoryTrendDTO tick(String windCode, LocalDateTime time, double price, double volume) {
+        HistoryTrendDTO dto = new HistoryTrendDTO();
+        dto.setWindCode(windCode);
+        dto.setTradeDate(time);
+        dto.setLatestPrice(price);
+        dto.setTotalVolume(volume);
+        dto.setAveragePrice(price);
+        return dto;
+    }
+
+    /**
+     * 内存版日线表与完整性标记：按主键覆盖写入（测试只写入更晚的收盘，不涉及合并规则）
+     */
+    private static class FakeDailyBarMapper implements DailyBarMapper {
+
+        private final Map<String, DailyBarDTO> table = new HashMap<>();
+        private final Map<LocalDate, Integer> completeDays = new HashMap<>();
+        private List<DailyBarDTO> backfillBars = List.of();
+        private int selectCalls;
+        private int statusCalls;
+        private int upsertCalls;
+
+        @Override
+        public int upsertDailyBarList(List<DailyBarDTO> barList) {
+            upsertCalls++;
+            barList.forEach(bar -> table.put(bar.getWindCode() + "|" + bar.getTradeDate(), bar));
+            return barList.size();
+        }
+
+        @Override
+        public int rollupFromTrendTable(String tableName, String startTime, String endTime) {
+            LocalDate day = LocalDate.parse(startTime.substring(0, 10));
+            int rows = 0;
+            for (DailyBarDTO bar : backfillBars) {
+                if (bar.getTradeDate().equals(day)) {
+                    table.put(bar.getWindCode() + "|" + bar.getTradeDate(), bar);
+                    rows++;
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        public int markTradeDateComplete(LocalDate tradeDate) {
+            int count = (int) table.values().stream().filter(bar -> tradeDate.equals(bar.getTradeDate())).count();
+            completeDays.put(tradeDate, count);
+            return 1;
+        }
+
+        @Override
+        public List<LocalDate> selectCompleteTradeDateList(List<LocalDate> tradeDateList) {
+            statusCalls++;
+            return tradeDateList.stream().filter(date -> completeDays.getOrDefault(date, 0) > 0).toList();
+        }
+
+        @Override
+        public List<DailyBarDTO> selectByTradeDateList(List<LocalDate> tradeDateList) {
+            selectCalls++;
+            return table.values().stream().filter(bar -> tradeDateList.contains(bar.getTradeDate())).toList();
+        }
+    }
+}
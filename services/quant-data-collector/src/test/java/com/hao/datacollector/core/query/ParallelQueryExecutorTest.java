@@ -0,0 +1,125 @@
+package com.hao.datacollector.core.query;
+
+import exception.DataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ParallelQueryExecutor 单元测试
+ * <p>
+ * 测试目的：
+ * 1. 多分段结果按 order 归并后逐条交给消费函数，列表接口与消费接口结果一致。
+ * 2. 任一分段失败时抛出 DataException，消费函数收不到残缺数据，不会返回空结果冒充“无数据”。
+ *
+ * @author hli
+ * @date 2026-02-16
+ */
+class ParallelQueryExecutorTest {
+
+    private static final Comparator<int[]> BY_KEY = Comparator.comparingInt(row -> row[0]);
+
+    private ExecutorService pool;
+    private ParallelQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        TableRouter tableRouter = mock(TableRouter.class);
+        when(tableRouter.getMaxConcurrency()).thenReturn(2);
+        executor = new ParallelQueryExecutor();
+        ReflectionTestUtils.setField(executor, "ioTaskExecutor", pool);
+        ReflectionTestUtils.setField(executor, "tableRouter", tableRouter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("多分段结果按顺序归并后逐条消费")
+    void executeParallel_shouldStreamMergedRows() {
+        List<QuerySegment> segments = segments(3);
+        // 分段键相互交错，必须经过归并才能有序；第二列记录分段号
+        BiFunction<QuerySegment, List<String>, List<int[]>> action = (segment, stocks) -> {
+            int s = segments.indexOf(segment);
+            List<int[]> rows = new ArrayList<>();
+            for (int key = s; key < 30; key += 3) {
+                rows.add(new int[]{key, s});
+            }
+            return rows;
+        };
+
+        List<int[]> streamed = new ArrayList<>();
+        long count = executor.executeParallel(segments, action, List.of("600000.SH"), BY_KEY, streamed::add);
+        List<int[]> listed = executor.executeParallel(segments, action, List.of("600000.SH"), BY_KEY);
+
+        assertEquals(30, count);
+        assertEquals(30, streamed.size());
+        assertEquals(30, listed.size());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(i, streamed.get(i)[0]);
+            assertEquals(i % 3, streamed.get(i)[1]);
+            assertEquals(i, listed.get(i)[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("任一分段失败时抛出DataException且不输出残缺数据")
+    void executeParallel_shouldRethrowSegmentFailure() {
+        List<QuerySegment> segments = segments(4);
+        IllegalStateException failure = new IllegalStateException("table missing");
+        BiFunction<QuerySegment, List<String>, List<int[]>> action = (segment, stocks) -> {
+            if (segments.indexOf(segment) == 2) {
+                throw failure;
+            }
+            return List.of(new int[]{segments.indexOf(segment), 0});
+        };
+
+        List<int[]> streamed = new ArrayList<>();
+        DataException e = assertThrows(DataException.class,
+                () -> executor.executeParallel(segments, action, List.of(), BY_KEY, streamed::add));
+        assertSame(failure, e.getCause());
+        assertTrue(streamed.isEmpty());
+        assertThrows(DataException.class, () -> executor.executeParallel(segments, action, List.of(), BY_KEY));
+    }
+
+    @Test
+    @DisplayName("等待被中断时抛出DataException并保留中断状态")
+    void executeParallel_shouldRethrowInterrupt() {
+        List<QuerySegment> segments = segments(3);
+        BiFunction<QuerySegment, List<String>, List<int[]>> action = (segment, stocks) -> List.of();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(DataException.class, () -> executor.executeParallel(segments, action, List.of(), BY_KEY));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static List<QuerySegment> segments(int n) {
+        List<QuerySegment> segments = new ArrayList<>();
+        LocalDate day = LocalDate.of(2026, 1, 5);
+        for (int i = 0; i < n; i++) {
+            segments.add(new QuerySegment("tb_quotation_history_trend_2026", day.plusDays(i * 10L), day.plusDays(i * 10L + 9)));
+        }
+        return segments;
+    }
+}
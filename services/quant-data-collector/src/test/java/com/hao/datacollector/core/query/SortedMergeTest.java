@@ -0,0 +1,85 @@
+package com.hao.datacollector.core.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SortedMerge 单元测试
+ * <p>
+ * 测试目的：k 路归并结果与整体稳定排序一致（相同键按分段顺序输出），不重叠分段直接拼接。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+class SortedMergeTest {
+
+    private static final Comparator<int[]> BY_KEY = Comparator.comparingInt(row -> row[0]);
+
+    @Test
+    @DisplayName("重叠分段归并结果与整体稳定排序一致")
+    void mergeToList_shouldMatchStableSort() {
+        Random random = new Random(14);
+        List<List<int[]>> sources = new ArrayList<>();
+        List<int[]> expected = new ArrayList<>();
+        for (int s = 0; s < 7; s++) {
+            List<int[]> source = new ArrayList<>();
+            int size = s == 3 ? 0 : random.nextInt(200);
+            for (int i = 0; i < size; i++) {
+                // 键取值范围小，制造大量跨分段的相同键；第二列记录分段号与分段内序号
+                source.add(new int[]{random.nextInt(50), s * 1000 + i});
+            }
+            source.sort(BY_KEY);
+            sources.add(source);
+            expected.addAll(source);
+        }
+        sources.add(null);
+        expected.sort(BY_KEY);
+
+        List<int[]> merged = SortedMerge.mergeToList(sources, BY_KEY);
+
+        assertEquals(expected.size(), merged.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i)[1], merged.get(i)[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("首尾衔接的分段按顺序拼接")
+    void mergeToList_shouldConcatenateOrderedSegments() {
+        List<int[]> first = List.of(new int[]{1, 0}, new int[]{2, 1}, new int[]{2, 2});
+        List<int[]> second = List.of(new int[]{2, 3}, new int[]{5, 4});
+        List<int[]> third = List.of(new int[]{9, 5});
+
+        List<int[]> merged = SortedMerge.mergeToList(List.of(first, List.of(), second, third), BY_KEY);
+
+        assertEquals(6, merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            assertEquals(i, merged.get(i)[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("drainTo逐条输出并释放已交出的分段")
+    void drainTo_shouldStreamAndReleaseSources() {
+        List<List<int[]>> sources = new ArrayList<>();
+        sources.add(new ArrayList<>(List.of(new int[]{1, 0}, new int[]{4, 3})));
+        sources.add(new ArrayList<>(List.of(new int[]{2, 1}, new int[]{3, 2})));
+
+        List<int[]> out = new ArrayList<>();
+        long count = SortedMerge.drainTo(sources, BY_KEY, out::add);
+
+        assertEquals(4, count);
+        for (int i = 0; i < out.size(); i++) {
+            assertEquals(i, out.get(i)[1]);
+        }
+        assertNull(sources.get(0));
+        assertNull(sources.get(1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.hao.datacollector.core.query;
 
+import com.hao.datacollector.properties.TableRouterProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -43,7 +44,7 @@ class TableRouterTest {
 
         assertEquals(1, segments.size());
         QuerySegment segment = segments.get(0);
-        assertEquals(TableType.HOT, segment.getTableType());
+        assertEquals(TableType.HOT.getTableName(), segment.getTableName());
         assertEquals(start, segment.getStartDate());
         assertEquals(end, segment.getEndDate());
     }
@@ -58,7 +59,7 @@ class TableRouterTest {
 
         assertEquals(1, segments.size());
         QuerySegment segment = segments.get(0);
-        assertEquals(TableType.WARM, segment.getTableType());
+        assertEquals(TableType.WARM.getTableName(), segment.getTableName());
         assertEquals(start, segment.getStartDate());
         assertEquals(end, segment.getEndDate());
     }
@@ -75,13 +76,13 @@ class TableRouterTest {
 
         // 第一个分段：温表
         QuerySegment warmSegment = segments.get(0);
-        assertEquals(TableType.WARM, warmSegment.getTableType());
+        assertEquals(TableType.WARM.getTableName(), warmSegment.getTableName());
         assertEquals(LocalDate.of(2023, 12, 1), warmSegment.getStartDate());
         assertEquals(LocalDate.of(2023, 12, 31), warmSegment.getEndDate());
 
         // 第二个分段：热表
         QuerySegment hotSegment = segments.get(1);
-        assertEquals(TableType.HOT, hotSegment.getTableType());
+        assertEquals(TableType.HOT.getTableName(), hotSegment.getTableName());
         assertEquals(LocalDate.of(2024, 1, 1), hotSegment.getStartDate());
         assertEquals(LocalDate.of(2024, 1, 31), hotSegment.getEndDate());
     }
@@ -95,7 +96,7 @@ class TableRouterTest {
         List<QuerySegment> segments = tableRouter.route(start, end);
 
         assertEquals(1, segments.size());
-        assertEquals(TableType.HOT, segments.get(0).getTableType());
+        assertEquals(TableType.HOT.getTableName(), segments.get(0).getTableName());
     }
 
     @Test
@@ -107,10 +108,62 @@ class TableRouterTest {
         List<QuerySegment> segments = tableRouter.route(start, end);
 
         assertEquals(2, segments.size());
-        assertEquals(TableType.WARM, segments.get(0).getTableType());
+        assertEquals(TableType.WARM.getTableName(), segments.get(0).getTableName());
         assertEquals(LocalDate.of(2023, 12, 31), segments.get(0).getStartDate());
         assertEquals(LocalDate.of(2023, 12, 31), segments.get(0).getEndDate());
-        assertEquals(TableType.HOT, segments.get(1).getTableType());
+        assertEquals(TableType.HOT.getTableName(), segments.get(1).getTableName());
         assertEquals(LocalDate.of(2024, 1, 1), segments.get(1).getStartDate());
     }
+
+    @Test
+    @DisplayName("三层分区：跨越两个边界返回三个分段，且按时间升序衔接")
+    void route_shouldSplitAcrossThreeTiers() {
+        TableRouterProperties properties = new TableRouterProperties();
+        properties.setTiers(List.of(
+                new TableRouterProperties.Tier("tb_quotation_history_hot", LocalDate.of(2024, 1, 1)),
+                new TableRouterProperties.Tier("tb_quotation_history_cold", null),
+                new TableRouterProperties.Tier("tb_quotation_history_warm", LocalDate.of(2021, 1, 1))));
+        TableRouter router = new TableRouter(properties);
+
+        List<QuerySegment> segments = router.route(LocalDate.of(2020, 12, 1), LocalDate.of(2024, 2, 1));
+
+        assertEquals(3, segments.size());
+        assertEquals("tb_quotation_history_cold", segments.get(0).getTableName());
+        assertEquals(LocalDate.of(2020, 12, 31), segments.get(0).getEndDate());
+        assertEquals("tb_quotation_history_warm", segments.get(1).getTableName());
+        assertEquals(LocalDate.of(2021, 1, 1), segments.get(1).getStartDate());
+        assertEquals(LocalDate.of(2023, 12, 31), segments.get(1).getEndDate());
+        assertEquals("tb_quotation_history_hot", segments.get(2).getTableName());
+        assertEquals(LocalDate.of(2024, 1, 1), segments.get(2).getStartDate());
+        assertEquals(LocalDate.of(2024, 1, 1), router.getHotDataStartDate());
+    }
+
+    @Test
+    @DisplayName("并行查询计划按最大天数拆分，子区间连续且不跨分区")
+    void plan_shouldSplitLongRangeIntoContiguousSubRanges() {
+        LocalDate start = LocalDate.of(2023, 11, 15);
+        LocalDate end = LocalDate.of(2024, 3, 10);
+
+        List<QuerySegment> segments = tableRouter.plan(start, end);
+
+        assertEquals(start, segments.getFirst().getStartDate());
+        assertEquals(end, segments.getLast().getEndDate());
+        for (int i = 0; i < segments.size(); i++) {
+            QuerySegment segment = segments.get(i);
+            assertTrue(segment.getEndDate().toEpochDay() - segment.getStartDate().toEpochDay() < 31);
+            boolean hot = !segment.getStartDate().isBefore(tableRouter.getHotDataStartDate());
+            assertEquals(hot, !segment.getEndDate().isBefore(tableRouter.getHotDataStartDate()), "子区间不应跨越分区边界");
+            if (i > 0) {
+                assertEquals(segments.get(i - 1).getEndDate().plusDays(1), segment.getStartDate());
+            }
+        }
+        // 2023-11-15..2023-12-31 拆为 2 段，2024-01-01..2024-03-10 拆为 3 段
+        assertEquals(5, segments.size());
+    }
+
+    @Test
+    @DisplayName("起始日期晚于结束日期时返回空计划")
+    void route_shouldReturnEmpty_whenRangeIsInverted() {
+        assertTrue(tableRouter.route(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)).isEmpty());
+    }
 }
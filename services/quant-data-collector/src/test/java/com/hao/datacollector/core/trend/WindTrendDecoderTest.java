@@ -0,0 +1,269 @@
+package com.hao.datacollector.core.trend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import exception.DataException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import util.FixedPrice;
+import util.JsonUtil;
+import util.MathUtil;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WindTrendDecoder 单元测试与基准
+ * <p>
+ * 测试目的：
+ * 1. 流式解码结果与原“嵌套 Map + BigDecimal”实现逐字段一致（时间累加、价格累加与精度、成交量换算、跳过错误码日期）。
+ * 2. 异常响应（第 2 个元素累加超阈值）同样被拒绝。
+ * 3. 基准：合成全市场单日分时响应，对比两种实现的解析耗时与当前线程分配字节数，只输出日志；
+ * 标记为 benchmark，默认构建跳过，通过 mvn test -Pbenchmark 执行。
+ *
+ * @author hli
+ * @date 2026-02-14
+ */
+@Slf4j
+class WindTrendDecoderTest {
+
+    private static final String DATE_1 = "20260212";
+    private static final String DATE_2 = "20260213";
+
+    @Test
+    @DisplayName("流式解码与原Map解析逐字段一致")
+    void decode_shouldMatchLegacyParsing() throws Exception {
+        Random random = new Random(24);
+        String json = buildPayload(random, 60, List.of(DATE_1, DATE_2), true);
+
+        List<HistoryTrendDTO> legacy = legacyParse(json);
+        List<HistoryTrendDTO> streamed = new ArrayList<>();
+        int count = WindTrendDecoder.decodeHistoryTrend(json, streamed::add);
+
+        assertFalse(legacy.isEmpty());
+        assertEquals(legacy.size(), count);
+        assertEquals(legacy, streamed);
+    }
+
+    @Test
+    @DisplayName("日期节点为错误码或null时跳过")
+    void decode_shouldSkipErrorCodeDates() throws Exception {
+        String json = "{\"600519.SH\":{\"20260212\":-1,\"20260213\":null,"
+                + "\"20260211\":[[93000,142350,142350,12,0],[100,-20,-5,30,0],[2,3,79,8,9,0,0,2,2,2]]}}";
+
+        List<HistoryTrendDTO> streamed = new ArrayList<>();
+        WindTrendDecoder.decodeHistoryTrend(json, streamed::add);
+
+        assertEquals(legacyParse(json), streamed);
+        assertEquals(2, streamed.size());
+        assertEquals(LocalDateTime.of(2026, 2, 11, 9, 31, 0), streamed.get(1).getTradeDate());
+        assertEquals(1423.30, streamed.get(1).getLatestPrice());
+        assertEquals(1423.45, streamed.get(1).getAveragePrice());
+        assertEquals(0.30, streamed.get(1).getTotalVolume());
+    }
+
+    @Test
+    @DisplayName("第2个元素累加超过阈值时拒绝整包数据")
+    void decode_shouldRejectAbnormalPayload() {
+        String json = "{\"600519.SH\":{\"20260212\":[[93000,160000,160000,12,0],[100,1,0,30,0],[2,3,79,8,9,0,0,2,2,2]]}}";
+
+        assertThrows(DataException.class, () -> legacyParse(json));
+        assertThrows(DataException.class, () -> WindTrendDecoder.decodeHistoryTrend(json, dto -> {
+        }));
+    }
+
+    @Test
+    @DisplayName("精度换算与MathUtil.formatDecimal一致")
+    void precision_shouldMatchFormatDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long raw = random.nextInt(i % 2 == 0 ? 200_000 : Integer.MAX_VALUE) - (i % 3 == 0 ? 100_000 : 0);
+            int shift = random.nextInt(6);
+            assertEquals(MathUtil.formatDecimal(Double.valueOf(raw), shift, false), FixedPrice.formatDecimal(raw, shift, false),
+                    "raw=" + raw + ",shift=" + shift);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("基准：全市场单日分时解析耗时与分配字节数")
+    void benchmark_fullMarketDay() throws Exception {
+        // 5000 只股票 × 242 个分钟点
+        String json = buildPayload(new Random(1), 5000, List.of(DATE_1), false);
+        log.info("合成分时响应|Trend_benchmark_payload,chars={}", json.length());
+
+        for (int i = 0; i < 2; i++) {
+            legacyParse(json);
+            WindTrendDecoder.decodeHistoryTrend(json, new ArrayList<>()::add);
+        }
+
+        long[] legacy = measure(() -> legacyParse(json).size());
+        long[] streamed = measure(() -> {
+            List<HistoryTrendDTO> list = new ArrayList<>();
+            WindTrendDecoder.decodeHistoryTrend(json, list::add);
+            return list.size();
+        });
+        log.info("分时解析基准|Trend_decode_benchmark,rows={},legacyMs={},legacyAllocMb={},streamMs={},streamAllocMb={}",
+                legacy[2], legacy[0], legacy[1] >> 20, streamed[0], streamed[1] >> 20);
+
+        assertEquals(legacy[2], streamed[2]);
+    }
+
+    /**
+     * 返回 {耗时毫秒, 分配字节, 行数}，取 3 轮中耗时最短的一轮
+     */
+    private static long[] measure(ThrowingSupplier body) throws Exception {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] best = null;
+        for (int round = 0; round < 3; round++) {
+            long allocStart = threadBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            int rows = body.get();
+            long costMs = (System.nanoTime() - start) / 1_000_000;
+            long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocStart;
+            if (best == null || costMs < best[0]) {
+                best = new long[]{costMs, allocated, rows};
+            }
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        int get() throws Exception;
+    }
+
+    /**
+     * 合成 Wind 分时响应：9:30-11:30、13:00-15:00 每分钟一行，时间与价格为增量，最后一行为配置行
+     *
+     * @param withErrorDates 是否混入错误码日期与不同的价格精度
+     */
+    private static String buildPayload(Random random, int stocks, List<String> dates, boolean withErrorDates) {
+        List<Integer> minutes = tradingMinutes();
+        StringBuilder json = new StringBuilder(stocks * dates.size() * minutes.size() * 24);
+        json.append('{');
+        for (int s = 0; s < stocks; s++) {
+            if (s > 0) {
+                json.append(',');
+            }
+            json.append('"').append(String.format("%06d.SZ", s)).append("\":{");
+            for (int d = 0; d < dates.size(); d++) {
+                if (d > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(dates.get(d)).append("\":");
+                if (withErrorDates && random.nextInt(10) == 0) {
+                    json.append(-1);
+                    continue;
+                }
+                int priceShift = withErrorDates && random.nextInt(3) == 0 ? 3 : 2;
+                // 最新价增量之和即收盘价，需低于异常阈值
+                int price = (500 + random.nextInt(14000)) * (priceShift == 3 ? 10 : 1);
+                int average = price;
+                int prevTime = 0;
+                int prevPrice = 0;
+                int prevAverage = 0;
+                json.append('[');
+                for (int hhmmss : minutes) {
+                    price = Math.max(1, price + random.nextInt(41) - 20);
+                    average = Math.max(1, average + random.nextInt(11) - 5);
+                    json.append('[').append(hhmmss - prevTime).append(',').append(price - prevPrice).append(',')
+                            .append(average - prevAverage).append(',').append(random.nextInt(2_000_000)).append(",0],");
+                    prevTime = hhmmss;
+                    prevPrice = price;
+                    prevAverage = average;
+                }
+                // 配置行：指标 ID [时间, 最新价, 均价, 总成交量, 其他]，精度倒序
+                json.append("[2,3,79,8,9,0,0,").append(priceShift).append(',').append(priceShift).append(",0]]");
+            }
+            json.append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    private static List<Integer> tradingMinutes() {
+        List<Integer> minutes = new ArrayList<>();
+        for (LocalTime time = LocalTime.of(9, 30); !time.isAfter(LocalTime.of(11, 30)); time = time.plusMinutes(1)) {
+            minutes.add(time.getHour() * 10000 + time.getMinute() * 100);
+        }
+        for (LocalTime time = LocalTime.of(13, 1); !time.isAfter(LocalTime.of(15, 0)); time = time.plusMinutes(1)) {
+            minutes.add(time.getHour() * 10000 + time.getMinute() * 100);
+        }
+        return minutes;
+    }
+
+    /**
+     * 原 QuotationServiceImpl#getQuotationHistoryTrendList 的解析实现，作为等价性与基准的对照
+     */
+    @SuppressWarnings("unchecked")
+    private static List<HistoryTrendDTO> legacyParse(String body) {
+        Map<String, Map<String, Object>> rawData = JsonUtil.toType(body, new TypeReference<Map<String, Map<String, Object>>>() {
+        });
+        List<HistoryTrendDTO> allHistoryTrendList = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> stockEntry : rawData.entrySet()) {
+            String stockCode = stockEntry.getKey();
+            for (Map.Entry<String, Object> dateEntry : stockEntry.getValue().entrySet()) {
+                List<HistoryTrendDTO> historyTrendList = new ArrayList<>();
+                String date = dateEntry.getKey();
+                Object dateData = dateEntry.getValue();
+                if (dateData == null || dateData.getClass().equals(Integer.class)) {
+                    continue;
+                }
+                List<List<Integer>> dataArrays = (List<List<Integer>>) dateData;
+                if (dataArrays.isEmpty()) continue;
+                List<Integer> indicatorIds = new ArrayList<>();
+                List<Integer> decimalShifts = new ArrayList<>();
+                List<Integer> configArray = dataArrays.get(dataArrays.size() - 1);
+                for (int i = 0; i < 5; i++) {
+                    indicatorIds.add(configArray.get(i));
+                    decimalShifts.add(configArray.get(i + 5));
+                }
+                Collections.reverse(decimalShifts);
+                int time_s = 0;
+                Double latestPrice = 0.00, averagePrice = 0.00;
+                int sum = dataArrays.stream()
+                        .filter(subList -> subList.size() > 1)
+                        .mapToInt(subList -> subList.get(1))
+                        .sum();
+                if (sum > 160000) {
+                    throw new DataException("数据异常_sum值超过阈值|Data_error_sum_exceeds_threshold,sum=" + sum);
+                }
+                int timeIndex = indicatorIds.indexOf(2);
+                int latestPriceIndex = indicatorIds.indexOf(3);
+                int averagePriceIndex = indicatorIds.indexOf(79);
+                int totalVolumeIndex = indicatorIds.indexOf(8);
+                for (int i = 0; i < dataArrays.size() - 1; i++) {
+                    HistoryTrendDTO historyTrendDTO = new HistoryTrendDTO();
+                    time_s += dataArrays.get(i).get(timeIndex).intValue();
+                    LocalDate localDateTime = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyyMMdd"));
+                    LocalTime time = LocalTime.of(time_s / 10000, (time_s % 10000) / 100, time_s % 100);
+                    historyTrendDTO.setTradeDate(LocalDateTime.of(localDateTime, time));
+                    historyTrendDTO.setWindCode(stockCode);
+                    historyTrendDTO.setLatestPrice(latestPrice += dataArrays.get(i).get(latestPriceIndex));
+                    historyTrendDTO.setAveragePrice(averagePrice += dataArrays.get(i).get(averagePriceIndex));
+                    historyTrendDTO.setTotalVolume(Double.valueOf(dataArrays.get(i).get(totalVolumeIndex)));
+                    historyTrendList.add(historyTrendDTO);
+                }
+                for (HistoryTrendDTO historyTrendDTO : historyTrendList) {
+                    historyTrendDTO.setLatestPrice(MathUtil.formatDecimal(historyTrendDTO.getLatestPrice(), decimalShifts.get(latestPriceIndex), false));
+                    historyTrendDTO.setAveragePrice(MathUtil.formatDecimal(historyTrendDTO.getAveragePrice(), decimalShifts.get(averagePriceIndex), false));
+                    historyTrendDTO.setTotalVolume(MathUtil.formatDecimal(historyTrendDTO.getTotalVolume(), 2, false));
+                }
+                allHistoryTrendList.addAll(historyTrendList);
+            }
+        }
+        return allHistoryTrendList;
+    }
+}
@@ -0,0 +1,229 @@
+package com.hao.datacollector.integration.http;
+
+import com.hao.datacollector.properties.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PooledHttpClient 测试
+ * <p>
+ * 使用本地内嵌 HTTP 服务，按客户端源端口统计服务端看到的 TCP 连接数，验证连接复用、按主机限流与异常映射，
+ * 并对比旧路径（每次新建 RestTemplate + SimpleClientHttpRequestFactory）的吞吐。
+ *
+ * @author hli
+ * @date 2026-02-11
+ */
+@Slf4j
+class PooledHttpClientTest {
+
+    private static final int TIMEOUT_MS = 3000;
+
+    private final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private String baseUrl;
+
+    private PooledHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            respond(exchange, 200, query == null ? "ok" : query);
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "ok");
+        });
+        server.createContext("/form", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            respond(exchange, 200, body);
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        server.createContext("/broken", exchange -> respond(exchange, 503, "unavailable"));
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("顺序请求复用同一条连接")
+    void get_shouldReuseConnectionForSequentialRequests() {
+        client = new PooledHttpClient(new HttpClientProperties());
+
+        for (int i = 0; i < 50; i++) {
+            ResponseEntity<String> response = client.get(baseUrl + "/echo?i=" + i, null, TIMEOUT_MS, TIMEOUT_MS);
+            assertEquals("i=" + i, response.getBody());
+        }
+
+        assertEquals(1, remotePorts.size(), "50 次顺序请求应只建立一条连接");
+        assertEquals(1, client.getPoolStats().getAvailable());
+    }
+
+    @Test
+    @DisplayName("单主机并发连接数不超过 maxPerHost")
+    void getAsync_shouldRespectPerHostLimit() {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getMaxPerHost().put(baseUrl, 4);
+        client = new PooledHttpClient(properties);
+
+        List<CompletableFuture<ResponseEntity<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            futures.add(client.getAsync(baseUrl + "/slow", null, TIMEOUT_MS, TIMEOUT_MS));
+        }
+        futures.forEach(future -> assertEquals("ok", future.join().getBody()));
+
+        assertTrue(remotePorts.size() <= 4, "连接数超过主机上限: " + remotePorts.size());
+        assertTrue(client.getPoolStats().getAvailable() <= 4);
+    }
+
+    @Test
+    @DisplayName("表单 POST 按 UTF-8 编码，查询参数按 RestTemplate 规则编码")
+    void postForm_shouldEncodeLikeRestTemplate() {
+        client = new PooledHttpClient(new HttpClientProperties());
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("a", "题材");
+        form.add("b", "x y");
+
+        ResponseEntity<String> formResponse = client.postForm(baseUrl + "/form", form, null, TIMEOUT_MS, TIMEOUT_MS);
+        ResponseEntity<String> queryResponse = client.get(baseUrl + "/echo?q=a b", null, TIMEOUT_MS, TIMEOUT_MS);
+
+        assertEquals("a=%E9%A2%98%E6%9D%90&b=x+y", formResponse.getBody());
+        assertEquals("q=a%20b", queryResponse.getBody());
+    }
+
+    @Test
+    @DisplayName("4xx/5xx 与 RestTemplate 抛出相同异常类型，连接仍可复用")
+    void get_shouldMapErrorStatusToRestTemplateExceptions() {
+        client = new PooledHttpClient(new HttpClientProperties());
+
+        HttpClientErrorException notFound = assertThrows(HttpClientErrorException.class,
+                () -> client.get(baseUrl + "/missing", null, TIMEOUT_MS, TIMEOUT_MS));
+        HttpServerErrorException unavailable = assertThrows(HttpServerErrorException.class,
+                () -> client.get(baseUrl + "/broken", null, TIMEOUT_MS, TIMEOUT_MS));
+        client.get(baseUrl + "/echo", null, TIMEOUT_MS, TIMEOUT_MS);
+
+        assertEquals(404, notFound.getStatusCode().value());
+        assertEquals("not found", notFound.getResponseBodyAsString());
+        assertEquals(503, unavailable.getStatusCode().value());
+        assertEquals(1, remotePorts.size());
+    }
+
+    @Test
+    @DisplayName("吞吐对比：连接池 vs 每次新建 RestTemplate")
+    void throughput_pooledVersusPerCallRestTemplate() throws Exception {
+        client = new PooledHttpClient(new HttpClientProperties());
+        int threads = 8;
+        int requestsPerThread = 250;
+        // 预热两条路径
+        runConcurrently(threads, 20, () -> client.get(baseUrl + "/echo", null, TIMEOUT_MS, TIMEOUT_MS));
+        runConcurrently(threads, 20, () -> legacyGet(baseUrl + "/echo"));
+
+        remotePorts.clear();
+        long legacyNanos = runConcurrently(threads, requestsPerThread, () -> legacyGet(baseUrl + "/echo"));
+        int legacyConnections = remotePorts.size();
+
+        remotePorts.clear();
+        long pooledNanos = runConcurrently(threads, requestsPerThread,
+                () -> client.get(baseUrl + "/echo", null, TIMEOUT_MS, TIMEOUT_MS));
+        int pooledConnections = remotePorts.size();
+
+        int total = threads * requestsPerThread;
+        log.info("HTTP吞吐对比|Http_throughput,requests={},legacyQps={},legacyConnections={},pooledQps={},pooledConnections={}",
+                total, qps(total, legacyNanos), legacyConnections, qps(total, pooledNanos), pooledConnections);
+        assertTrue(pooledConnections <= threads, "连接池路径的连接数不应超过并发数: " + pooledConnections);
+    }
+
+    /**
+     * 旧路径：与改造前的 HttpUtil 一致，每次调用新建 RestTemplate
+     */
+    private String legacyGet(String url) {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(TIMEOUT_MS);
+        factory.setReadTimeout(TIMEOUT_MS);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class).getBody();
+    }
+
+    private long runConcurrently(int threads, int requestsPerThread, Runnable request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        request.run();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long qps(int requests, long nanos) {
+        return requests * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        remotePorts.add(exchange.getRemoteAddress().getPort());
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hao.datacollector.replay;
+
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.service.QuotationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReplayDataLoader 单元测试
+ * <p>
+ * 使用 Mock 的 QuotationService 按查询区间逐秒生成行情，校验流式加载的顺序、完整性与缓冲区上限。
+ *
+ * @author hli
+ * @date 2026-02-07
+ */
+class ReplayDataLoaderTest {
+
+    private static final ZoneOffset BEIJING_ZONE = ZoneOffset.of("+8");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int STOCKS_PER_SECOND = 2;
+
+    @Test
+    @DisplayName("按秒顺序取出全部数据且缓冲区有界")
+    void take_shouldReturnAllSecondsWithBoundedBuffer() throws Exception {
+        QuotationService quotationService = mock(QuotationService.class);
+        when(quotationService.getHistoryTrendDataByTimeRange(anyString(), anyString(), anyList()))
+                .thenAnswer(invocation -> generate(invocation.getArgument(0), invocation.getArgument(1)));
+        when(quotationService.getIndexHistoryTrendDataByTimeRange(anyString(), anyString(), anyList()))
+                .thenReturn(Collections.emptyList());
+
+        long start = LocalDateTime.of(2026, 1, 5, 9, 30).toEpochSecond(BEIJING_ZONE);
+        long end = start + 599;
+        int bufferMaxSize = 50;
+        int sliceRecords = 60 * STOCKS_PER_SECOND;
+
+        int peak = 0;
+        int total = 0;
+        try (ReplayDataLoader loader = new ReplayDataLoader(quotationService, List.of(), List.of(),
+                List.<long[]>of(new long[]{start, end}), 1, bufferMaxSize)) {
+            loader.start();
+            for (long ts = start; ts <= end; ts++) {
+                peak = Math.max(peak, loader.bufferedRecords());
+                ReplayDataLoader.Bucket bucket = loader.take(ts);
+                assertNotNull(bucket, "每秒都应有数据: " + ts);
+                assertEquals(STOCKS_PER_SECOND, bucket.stocks().size());
+                assertEquals(ts, bucket.stocks().getFirst().getTradeDate().toEpochSecond(BEIJING_ZONE));
+                assertNotNull(bucket.stocks().getFirst().getTraceId(), "应设置traceId");
+                total += bucket.stocks().size();
+            }
+            assertNull(loader.take(end + 1), "加载完成后超出范围的秒应返回null");
+        }
+
+        assertEquals(600 * STOCKS_PER_SECOND, total);
+        assertTrue(peak < bufferMaxSize + sliceRecords, "缓冲区峰值应受bufferMaxSize约束: " + peak);
+        verify(quotationService, times(10)).getHistoryTrendDataByTimeRange(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("最快速度下跨越空秒与时段间隔")
+    void nextTimestamp_shouldSkipEmptySecondsAcrossSessions() throws Exception {
+        QuotationService quotationService = mock(QuotationService.class);
+        // 每个时段只有首秒和末秒有数据
+        when(quotationService.getHistoryTrendDataByTimeRange(anyString(), anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<HistoryTrendDTO> all = generate(invocation.getArgument(0), invocation.getArgument(1));
+                    return List.of(all.getFirst(), all.getLast());
+                });
+        when(quotationService.getIndexHistoryTrendDataByTimeRange(anyString(), anyString(), anyList()))
+                .thenReturn(Collections.emptyList());
+
+        long morning = LocalDateTime.of(2026, 1, 5, 9, 30).toEpochSecond(BEIJING_ZONE);
+        long afternoon = LocalDateTime.of(2026, 1, 5, 13, 0).toEpochSecond(BEIJING_ZONE);
+        List<long[]> sessions = List.of(new long[]{morning, morning + 99}, new long[]{afternoon, afternoon + 99});
+
+        List<Long> visited = new ArrayList<>();
+        try (ReplayDataLoader loader = new ReplayDataLoader(quotationService, List.of(), List.of(), sessions, 0, 0)) {
+            loader.start();
+            long ts = morning;
+            while ((ts = loader.nextTimestamp(ts)) >= 0) {
+                assertNotNull(loader.take(ts));
+                visited.add(ts);
+                ts++;
+            }
+        }
+
+        assertEquals(List.of(morning, morning + 99, afternoon, afternoon + 99), visited);
+    }
+
+    @Test
+    @DisplayName("查询失败时取数抛出异常")
+    void take_shouldPropagateLoaderFailure() {
+        QuotationService quotationService = mock(QuotationService.class);
+        when(quotationService.getHistoryTrendDataByTimeRange(anyString(), anyString(), anyList()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        long start = LocalDateTime.of(2026, 1, 5, 9, 30).toEpochSecond(BEIJING_ZONE);
+        try (ReplayDataLoader loader = new ReplayDataLoader(quotationService, List.of(), List.of(),
+                List.<long[]>of(new long[]{start, start + 59}), 1, 100)) {
+            loader.start();
+            assertThrows(IllegalStateException.class, () -> loader.take(start));
+        }
+    }
+
+    private static List<HistoryTrendDTO> generate(String startStr, String endStr) {
+        LocalDateTime from = LocalDateTime.parse(startStr, FORMATTER);
+        LocalDateTime to = LocalDateTime.parse(endStr, FORMATTER);
+        List<HistoryTrendDTO> result = new ArrayList<>();
+        for (LocalDateTime time = from; !time.isAfter(to); time = time.plusSeconds(1)) {
+            for (int i = 0; i < STOCKS_PER_SECOND; i++) {
+                HistoryTrendDTO dto = new HistoryTrendDTO();
+                dto.setWindCode(String.format("%06d.SZ", i));
+                dto.setTradeDate(time);
+                dto.setLatestPrice(10.0 + i);
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+}
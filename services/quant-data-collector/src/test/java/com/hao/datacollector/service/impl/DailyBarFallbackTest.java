@@ -0,0 +1,181 @@
+package com.hao.datacollector.service.impl;
+
+import com.hao.datacollector.core.bar.DailyBarDay;
+import com.hao.datacollector.core.bar.DailyBarStore;
+import com.hao.datacollector.core.query.ParallelQueryExecutor;
+import com.hao.datacollector.core.query.TableRouter;
+import com.hao.datacollector.dal.dao.QuotationMapper;
+import com.hao.datacollector.dto.quotation.DailyOhlcDTO;
+import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
+import com.hao.datacollector.properties.DailyBarProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日线表读取回退测试
+ * <p>
+ * 测试场景：区间内 DAY_1 已回填完成，但日线中缺少 000001.SZ（回填后补转档）；DAY_2 只汇总了部分转档批次，没有完整性标记。
+ * <p>
+ * 预期：DAY_2 全部股票回退到分时表；DAY_1 的 600519.SH 取日线，000001.SZ 只针对该股票回退到分时表，不会被静默遗漏。
+ *
+ * @author hli
+ * @date 2026-02-16
+ */
+@ExtendWith(MockitoExtension.class)
+class DailyBarFallbackTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2026, 2, 9);
+    private static final LocalDate DAY_2 = LocalDate.of(2026, 2, 10);
+    private static final String MAOTAI = "600519.SH";
+    private static final String PING_AN = "000001.SZ";
+    private static final List<String> STOCKS = List.of(MAOTAI, PING_AN);
+
+    /**
+     * 日线收盘价与分时收盘价取不同的值，用于区分结果来源
+     */
+    private static final double BAR_CLOSE = 1510.0;
+    private static final double TICK_CLOSE = 20.0;
+
+    @Mock
+    private QuotationMapper quotationMapper;
+
+    @Mock
+    private DailyBarStore dailyBarStore;
+
+    @InjectMocks
+    private QuotationServiceImpl quotationService;
+
+    /**
+     * 每次分时表查询请求的股票列表
+     */
+    private final List<List<String>> trendRequests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TableRouter tableRouter = new TableRouter();
+        ParallelQueryExecutor executor = new ParallelQueryExecutor();
+        ReflectionTestUtils.setField(executor, "ioTaskExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(executor, "tableRouter", tableRouter);
+        ReflectionTestUtils.setField(quotationService, "tableRouter", tableRouter);
+        ReflectionTestUtils.setField(quotationService, "parallelQueryExecutor", executor);
+        ReflectionTestUtils.setField(quotationService, "dailyBarProperties", new DailyBarProperties());
+
+        when(dailyBarStore.tradeDatesBetween(DAY_1, DAY_2)).thenReturn(List.of(DAY_1, DAY_2));
+        DailyBarDay day1 = DailyBarDay.of(DAY_1, DailyBarStore.rollup(List.of(
+                tick(MAOTAI, DAY_1.atTime(9, 30), 1500.0),
+                tick(MAOTAI, DAY_1.atTime(15, 0), BAR_CLOSE))), code -> code);
+        when(dailyBarStore.getDays(List.of(DAY_1, DAY_2))).thenReturn(Map.of(DAY_1, day1));
+    }
+
+    @Test
+    @DisplayName("收盘价：部分汇总的交易日与日线缺少的股票回退到分时表")
+    void getDailyClosePrice_shouldFallBackForPartlyRolledUpDay() {
+        when(quotationMapper.selectDailyClosePriceByWindCodeListAndDate(anyString(), anyString(), anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<String> codes = invocation.getArgument(3);
+                    trendRequests.add(List.copyOf(codes));
+                    List<HistoryTrendDTO> rows = new ArrayList<>();
+                    for (LocalDate date : datesBetween(invocation.getArgument(1), invocation.getArgument(2))) {
+                        for (String code : codes) {
+                            rows.add(tick(code, date.atTime(15, 0), TICK_CLOSE));
+                        }
+                    }
+                    return rows;
+                });
+
+        List<HistoryTrendDTO> result = quotationService.getDailyClosePriceByStockList("20260209", "20260210", STOCKS);
+
+        assertEquals(4, result.size(), "每只股票每个交易日一条收盘价");
+        assertEquals(BAR_CLOSE, closeOf(result, MAOTAI, DAY_1), "已回填的交易日取日线");
+        assertEquals(TICK_CLOSE, closeOf(result, PING_AN, DAY_1), "日线中缺少的股票取分时表");
+        assertEquals(TICK_CLOSE, closeOf(result, MAOTAI, DAY_2), "未标记完整的交易日取分时表");
+        assertEquals(TICK_CLOSE, closeOf(result, PING_AN, DAY_2));
+        assertEquals(List.of(STOCKS, List.of(PING_AN)), trendRequests, "日线缺失的回退只查询缺少的股票");
+        for (int i = 1; i < result.size(); i++) {
+            assertFalse(result.get(i).getTradeDate().isBefore(result.get(i - 1).getTradeDate()));
+        }
+    }
+
+    @Test
+    @DisplayName("OHLC：部分汇总的交易日与日线缺少的股票回退到分时表")
+    void getDailyOhlc_shouldFallBackForPartlyRolledUpDay() {
+        when(quotationMapper.selectDailyOhlcByStockListAndDate(anyString(), anyString(), anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<String> codes = invocation.getArgument(3);
+                    trendRequests.add(List.copyOf(codes));
+                    List<DailyOhlcDTO> rows = new ArrayList<>();
+                    for (LocalDate date : datesBetween(invocation.getArgument(1), invocation.getArgument(2))) {
+                        for (String code : codes.stream().sorted().toList()) {
+                            DailyOhlcDTO bar = new DailyOhlcDTO();
+                            bar.setWindCode(code);
+                            bar.setTradeDate(date);
+                            bar.setHighPrice(TICK_CLOSE + 1);
+                            bar.setLowPrice(TICK_CLOSE - 1);
+                            bar.setClosePrice(TICK_CLOSE);
+                            rows.add(bar);
+                        }
+                    }
+                    return rows;
+                });
+
+        Map<String, List<DailyOhlcDTO>> result = quotationService.getDailyOhlcByStockList("20260209", "20260210", STOCKS);
+
+        List<DailyOhlcDTO> maotai = result.get(MAOTAI);
+        List<DailyOhlcDTO> pingAn = result.get(PING_AN);
+        assertEquals(2, maotai.size());
+        assertEquals(2, pingAn.size(), "日线中缺少的股票不应被遗漏");
+        assertEquals(List.of(DAY_1, DAY_2), maotai.stream().map(DailyOhlcDTO::getTradeDate).toList());
+        assertEquals(List.of(DAY_1, DAY_2), pingAn.stream().map(DailyOhlcDTO::getTradeDate).toList());
+        assertEquals(BAR_CLOSE, maotai.get(0).getClosePrice());
+        assertEquals(TICK_CLOSE, maotai.get(1).getClosePrice());
+        assertEquals(TICK_CLOSE, pingAn.get(0).getClosePrice());
+        assertEquals(List.of(STOCKS, List.of(PING_AN)), trendRequests);
+    }
+
+    private static Double closeOf(List<HistoryTrendDTO> result, String windCode, LocalDate date) {
+        return result.stream()
+                .filter(dto -> dto.getWindCode().equals(windCode) && dto.getTradeDate().toLocalDate().equals(date))
+                .map(HistoryTrendDTO::getLatestPrice)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * 由分段的起止时间（yyyy-MM-dd HH:mm:ss）展开为日期
+     */
+    private static List<LocalDate> datesBetween(String startTime, String endTime) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate end = LocalDate.parse(endTime.substring(0, 10));
+        for (LocalDate date = LocalDate.parse(startTime.substring(0, 10)); !date.isAfter(end); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private static HistoryTrendDTO tick(String windCode, LocalDateTime time, double price) {
+        HistoryTrendDTO dto = new HistoryTrendDTO();
+        dto.setWindCode(windCode);
+        dto.setTradeDate(time);
+        dto.setLatestPrice(price);
+        dto.setTotalVolume(100.0);
+        dto.setAveragePrice(price);
+        return dto;
+    }
+}
@@ -0,0 +1,279 @@
+package com.hao.datacollector.service.impl;
+
+import com.hao.datacollector.dal.dao.SimpleF9Mapper;
+import com.hao.datacollector.dto.f9.F9TransferProgressDTO;
+import com.hao.datacollector.dto.param.f9.F9Param;
+import com.hao.datacollector.integration.http.PooledHttpClient;
+import com.hao.datacollector.properties.DataCollectorProperties;
+import com.hao.datacollector.properties.F9TransferProperties;
+import com.hao.datacollector.properties.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 简版 F9 全量转档流水线测试
+ * <p>
+ * 本地桩服务模拟 11 个 F9 接口（每个请求注入固定延迟）：一只股票的公告接口始终返回 503，
+ * 一只股票的 PE_BAND 首次返回 503，一只股票没有资讯，一只股票的公司信息当天已转档。
+ * 验证各维度统计、按维度批量写库、全局并发上限；与逐维度逐只股票转档的耗时对比只输出日志，不参与断言。
+ *
+ * @author hli
+ * @date 2026-02-13
+ */
+@Slf4j
+class SimpleF9TransferPipelineTest {
+
+    private static final int LATENCY_MS = 10;
+
+    private static final int STOCK_COUNT = 24;
+
+    private static final int MAX_CONCURRENCY = 16;
+
+    private static final String BROKEN_NOTICE_CODE = "000005.SZ";
+
+    private static final String FLAKY_PE_BAND_CODE = "000003.SZ";
+
+    private static final String NO_INFORMATION_CODE = "000007.SZ";
+
+    private static final String TRANSFERRED_COMPANY_INFO_CODE = "000001.SZ";
+
+    private final Map<String, AtomicInteger> requestsByKey = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> rowsByWriter = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> callsByWriter = new ConcurrentHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private ExecutorService taskExecutor;
+
+    private PooledHttpClient httpClient;
+
+    private F9TransferProperties transferProperties;
+
+    private SimpleF9ServiceImpl simpleF9Service;
+
+    private List<String> windCodes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/f9", this::handleF9);
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverExecutor);
+        server.start();
+        taskExecutor = Executors.newCachedThreadPool();
+        httpClient = new PooledHttpClient(new HttpClientProperties());
+
+        SimpleF9Mapper mapper = mock(SimpleF9Mapper.class, invocation -> {
+            String method = invocation.getMethod().getName();
+            if (method.startsWith("batchInsert")) {
+                List<?> rows = invocation.getArgument(0);
+                rowsByWriter.computeIfAbsent(method, key -> new AtomicLong()).addAndGet(rows.size());
+                callsByWriter.computeIfAbsent(method, key -> new AtomicInteger()).incrementAndGet();
+                return rows.size();
+            }
+            if ("getInsertedCompanyInfoWindCodes".equals(method)) {
+                return List.of(TRANSFERRED_COMPANY_INFO_CODE);
+            }
+            return List.of();
+        });
+        DataCollectorProperties dataCollectorProperties = new DataCollectorProperties();
+        dataCollectorProperties.setWindSessionId("test-session");
+
+        transferProperties = new F9TransferProperties();
+        transferProperties.setMaxConcurrency(MAX_CONCURRENCY);
+        transferProperties.setPermitsPerSecond(10_000);
+        transferProperties.setBurst(100);
+        transferProperties.setBackoffBaseMs(10);
+        transferProperties.setBackoffMaxMs(50);
+        transferProperties.setBatchRows(10);
+
+        simpleF9Service = new SimpleF9ServiceImpl();
+        ReflectionTestUtils.setField(simpleF9Service, "baseUrl", "/f9/%s?lan=%s&windCode=%s");
+        ReflectionTestUtils.setField(simpleF9Service, "f9Host", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(simpleF9Service, "properties", dataCollectorProperties);
+        ReflectionTestUtils.setField(simpleF9Service, "simpleF9Mapper", mapper);
+        ReflectionTestUtils.setField(simpleF9Service, "pooledHttpClient", httpClient);
+        ReflectionTestUtils.setField(simpleF9Service, "transferProperties", transferProperties);
+        ReflectionTestUtils.setField(simpleF9Service, "ioTaskExecutor", taskExecutor);
+        ReflectionTestUtils.invokeMethod(simpleF9Service, "init");
+
+        windCodes = new ArrayList<>();
+        for (int i = 1; i <= STOCK_COUNT; i++) {
+            windCodes.add(String.format("%06d.SZ", i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        taskExecutor.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("各维度统计正确，按维度批量写库，并发不超过全局上限")
+    void run_shouldTransferAllDimensionsWithBatchWrites() {
+        SimpleF9TransferPipeline pipeline = pipeline();
+        assertTrue(pipeline.run("cn", windCodes));
+
+        F9TransferProgressDTO progress = pipeline.getProgress();
+        assertFalse(progress.isRunning());
+        assertFalse(progress.isAborted());
+        assertEquals(STOCK_COUNT, progress.getCompletedStocks());
+        assertEquals(STOCK_COUNT * 11 - 1, progress.getCompletedTasks());
+        assertEquals(11, progress.getDimensions().size());
+
+        F9TransferProgressDTO.DimensionProgress notice = progress.getDimensions().get(SimpleF9ServiceImpl.GET_NOTICE);
+        assertEquals(STOCK_COUNT - 1, notice.getSuccess());
+        assertEquals(1, notice.getFailed());
+        assertEquals(transferProperties.getMaxAttempts(), requests(SimpleF9ServiceImpl.GET_NOTICE, BROKEN_NOTICE_CODE));
+
+        F9TransferProgressDTO.DimensionProgress peBand = progress.getDimensions().get(SimpleF9ServiceImpl.GET_PE_BAND);
+        assertEquals(STOCK_COUNT, peBand.getSuccess());
+        assertEquals(2, requests(SimpleF9ServiceImpl.GET_PE_BAND, FLAKY_PE_BAND_CODE));
+        assertEquals(STOCK_COUNT * 2L, peBand.getWrittenRows());
+
+        F9TransferProgressDTO.DimensionProgress information = progress.getDimensions().get(SimpleF9ServiceImpl.GET_INFORMATION);
+        assertEquals(1, information.getEmpty());
+        assertEquals((STOCK_COUNT - 1) * 2L, information.getWrittenRows());
+
+        F9TransferProgressDTO.DimensionProgress companyInfo = progress.getDimensions().get(SimpleF9ServiceImpl.GET_COMPANY_INFO);
+        assertEquals(1, companyInfo.getSkipped());
+        assertEquals(STOCK_COUNT - 1, companyInfo.getSuccess());
+        assertEquals(0, requests(SimpleF9ServiceImpl.GET_COMPANY_INFO, TRANSFERRED_COMPANY_INFO_CODE));
+
+        // 单行维度共 24 行、batchRows=10：按 10/10/4 分三次写库
+        assertEquals(STOCK_COUNT, rowsByWriter.get("batchInsertKeyStatistics").get());
+        assertEquals(3, callsByWriter.get("batchInsertKeyStatistics").get());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, "并发请求数超过上限: " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("对比逐维度逐只股票转档：写库次数更少，耗时记录日志")
+    void run_shouldWriteLessThanSequentialPerDimensionJobs() {
+        List<Function<F9Param, Boolean>> jobs = List.of(
+                simpleF9Service::insertCompanyProfileDataJob, simpleF9Service::insertInformationDataJob,
+                simpleF9Service::insertKeyStatisticsDataJob, simpleF9Service::insertCompanyInfoDataJob,
+                simpleF9Service::insertNoticeDataJob, simpleF9Service::insertGreatEventDataJob,
+                simpleF9Service::insertProfitForecastDataJob, simpleF9Service::insertMarketPerformanceDataJob,
+                simpleF9Service::insertPeBandDataJob, simpleF9Service::insertSecurityMarginDataJob,
+                simpleF9Service::insertFinancialSummaryDataJob);
+        long start = System.currentTimeMillis();
+        for (Function<F9Param, Boolean> job : jobs) {
+            for (String windCode : windCodes) {
+                F9Param param = new F9Param();
+                param.setWindCode(windCode);
+                try {
+                    job.apply(param);
+                } catch (Exception e) {
+                    log.debug("逐只转档失败|Sequential_job_failed,windCode={},error={}", windCode, e.getMessage());
+                }
+            }
+        }
+        long sequentialMs = System.currentTimeMillis() - start;
+        int sequentialWrites = callsByWriter.values().stream().mapToInt(AtomicInteger::get).sum();
+
+        callsByWriter.clear();
+        requestsByKey.clear();
+        SimpleF9TransferPipeline pipeline = pipeline();
+        start = System.currentTimeMillis();
+        pipeline.run("cn", windCodes);
+        long pipelineMs = System.currentTimeMillis() - start;
+        int pipelineWrites = callsByWriter.values().stream().mapToInt(AtomicInteger::get).sum();
+
+        log.info("F9转档耗时对比|F9_transfer_speedup,stocks={},sequentialMs={},sequentialWrites={},pipelineMs={},pipelineWrites={},speedup={}",
+                STOCK_COUNT, sequentialMs, sequentialWrites, pipelineMs, pipelineWrites,
+                String.format("%.1f", (double) sequentialMs / Math.max(1, pipelineMs)));
+        assertTrue(pipelineWrites < sequentialWrites);
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY, "并发请求数超过上限: " + maxInFlight.get());
+    }
+
+    private SimpleF9TransferPipeline pipeline() {
+        return (SimpleF9TransferPipeline) ReflectionTestUtils.getField(simpleF9Service, "transferPipeline");
+    }
+
+    private int requests(String path, String windCode) {
+        AtomicInteger count = requestsByKey.get(path + "|" + windCode);
+        return count == null ? 0 : count.get();
+    }
+
+    private void handleF9(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath().substring("/f9/".length());
+            String windCode = null;
+            for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+                if (pair.startsWith("windCode=")) {
+                    windCode = pair.substring("windCode=".length());
+                }
+            }
+            int attempt = requestsByKey.computeIfAbsent(path + "|" + windCode, key -> new AtomicInteger()).incrementAndGet();
+            Thread.sleep(LATENCY_MS);
+            if (SimpleF9ServiceImpl.GET_NOTICE.equals(path) && BROKEN_NOTICE_CODE.equals(windCode)
+                    || SimpleF9ServiceImpl.GET_PE_BAND.equals(path) && FLAKY_PE_BAND_CODE.equals(windCode) && attempt == 1) {
+                respond(exchange, 503, "busy");
+                return;
+            }
+            respond(exchange, 200, "{\"code\":200,\"data\":" + data(path, windCode) + "}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static String data(String path, String windCode) {
+        return switch (path) {
+            case "get_company_profile" -> "{\"cpyIntro\":\"简介\",\"score\":1.5}";
+            case "get_information" -> NO_INFORMATION_CODE.equals(windCode) ? "[]"
+                    : "[{\"id\":\"1\",\"title\":\"资讯1\"},{\"id\":\"2\",\"title\":\"资讯2\"}]";
+            case "get_market_performance" -> "{\"marketDTO\":{}}";
+            case "get_pe_band" -> "[[\"20240101\",10.5,1.2,1.0,1.0],[\"20240102\",10.6,1.2,1.0,1.0]]";
+            case "get_security_margin" -> "[{\"name\":\"PE\"}]";
+            case "get_notice", "get_great_event", "get_financial_summary" -> "[{}]";
+            default -> "{}";
+        };
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.hao.datacollector.service.impl;
 
 import com.hao.datacollector.cache.DateCache;
+import com.hao.datacollector.dto.quotation.DailyBarMatrix;
 import com.hao.datacollector.dto.quotation.HistoryTrendDTO;
 import com.hao.datacollector.service.QuotationService;
 import com.hao.datacollector.service.StrategyPreparationService;
+import dto.ClosePriceDTO;
 import enums.strategy.StrategyRedisKeyEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import util.DateUtil;
+import util.JsonUtil;
+import util.PreheatColumnarCodec;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,12 +40,13 @@ import static org.junit.jupiter.api.Assertions.*;
  * <p><b>测试策略：</b></p>
  * - 使用 @AfterEach 清理每个测试产生的Redis Key
  * - 测试覆盖：正常流程、边界条件、异常场景
+ * - 使用 BOTH 格式运行，同时校验 JSON Hash 与列式二进制块
  *
  * @author hli
  * @date 2026-01-02
  */
 @Slf4j
-@SpringBootTest
+@SpringBootTest(properties = "strategy.preheat.format=BOTH")
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class StrategyPreparationServiceImplTest {
 
@@ -59,6 +67,11 @@ class StrategyPreparationServiceImplTest {
      */
     private String testRedisKey;
 
+    /**
+     * 测试产生的二进制 Redis Key，用于清理
+     */
+    private String testBinaryRedisKey;
+
     @BeforeEach
     void setUp() {
         // 实现思路：
@@ -77,6 +90,7 @@ class StrategyPreparationServiceImplTest {
         // 构建测试Key
         String dateSuffix = testTradeDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
         testRedisKey = StrategyRedisKeyEnum.NINE_TURN_PREHEAT.buildKey(dateSuffix);
+        testBinaryRedisKey = PreheatColumnarCodec.binaryKey(StrategyRedisKeyEnum.NINE_TURN_PREHEAT.getKeyPrefix(), dateSuffix);
         
         log.info("测试初始化|Test_setup,testTradeDate={},redisKey={}", testTradeDate, testRedisKey);
     }
@@ -90,6 +104,9 @@ class StrategyPreparationServiceImplTest {
             Boolean deleted = stringRedisTemplate.delete(testRedisKey);
             log.info("测试清理|Test_cleanup,redisKey={},deleted={}", testRedisKey, deleted);
         }
+        if (testBinaryRedisKey != null) {
+            stringRedisTemplate.delete(testBinaryRedisKey);
+        }
     }
 
     // ==================== 正常流程测试 ====================
@@ -340,4 +357,90 @@ class StrategyPreparationServiceImplTest {
 
         log.info("测试通过：StrategyRedisKeyEnum 枚举验证成功");
     }
+
+    /**
+     * 测试场景：列式二进制格式与 JSON 内容一致
+     *
+     * 测试思路：
+     * 1. 预热后读取二进制 Key 的所有分块
+     * 2. 股票总数应与 JSON Hash 字段数一致
+     * 3. 抽样比对收盘价（JSON 中 null 对应二进制 NaN）
+     */
+    @Test
+    @Order(7)
+    @DisplayName("集成测试_二进制格式与JSON一致")
+    void testPrepareNineTurnData_BinaryFormat() {
+        int stockCount = strategyPreparationService.prepareNineTurnData(testTradeDate);
+        assertTrue(stockCount > 0, "预热应成功");
+
+        Map<byte[], byte[]> chunks = stringRedisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                connection.hashCommands().hGetAll(testBinaryRedisKey.getBytes(StandardCharsets.UTF_8)));
+        assertNotNull(chunks, "二进制Key应存在");
+        assertFalse(chunks.isEmpty(), "二进制Key应包含分块");
+
+        int binaryStockCount = 0;
+        int checked = 0;
+        for (byte[] blob : chunks.values()) {
+            PreheatColumnarCodec.Reader reader = PreheatColumnarCodec.wrap(blob);
+            assertEquals(StrategyRedisKeyEnum.NINE_TURN_PREHEAT.getHistoryDays(), reader.dateCount(), "交易日数量应与配置一致");
+            binaryStockCount += reader.stockCount();
+            for (int i = 0; i < reader.stockCount() && checked < 5; i++, checked++) {
+                String json = (String) stringRedisTemplate.opsForHash().get(testRedisKey, reader.windCode(i));
+                assertNotNull(json, "JSON中应存在同一股票: " + reader.windCode(i));
+                List<ClosePriceDTO> prices = JsonUtil.toList(json, ClosePriceDTO.class);
+                for (int d = 0; d < reader.dateCount(); d++) {
+                    Double expected = prices.get(d).getClosePrice();
+                    double actual = reader.close(i, d);
+                    if (expected == null) {
+                        assertTrue(Double.isNaN(actual), "停牌日应为NaN");
+                    } else {
+                        assertEquals(expected, actual, 1e-9);
+                    }
+                }
+            }
+        }
+        assertEquals(stockCount, binaryStockCount, "二进制股票数应与JSON一致");
+        log.info("测试通过：二进制格式校验成功，chunkCount={},stockCount={}", chunks.size(), binaryStockCount);
+    }
+
+    /**
+     * 测试场景：共享日线矩阵路径与独立查询路径结果一致
+     *
+     * 测试思路：
+     * 1. 先走独立查询路径预热，抽样保存 JSON 收盘价
+     * 2. 按 DMI 最宽窗口加载共享矩阵，再走矩阵路径预热（覆盖同一 Key）
+     * 3. 抽样股票的收盘价序列应完全一致
+     */
+    @Test
+    @Order(8)
+    @DisplayName("集成测试_共享日线矩阵与独立查询一致")
+    void testPrepareNineTurnData_SharedBars() {
+        int legacyCount = strategyPreparationService.prepareNineTurnData(testTradeDate);
+        assertTrue(legacyCount > 0, "预热应成功");
+        Map<String, List<ClosePriceDTO>> legacyPrices = new HashMap<>();
+        for (Object field : stringRedisTemplate.opsForHash().keys(testRedisKey)) {
+            String json = (String) stringRedisTemplate.opsForHash().get(testRedisKey, field);
+            legacyPrices.put((String) field, JsonUtil.toList(json, ClosePriceDTO.class));
+            if (legacyPrices.size() >= 20) {
+                break;
+            }
+        }
+
+        int historyDays = StrategyRedisKeyEnum.DMI_PREHEAT.getHistoryDays() + StrategyPreparationService.DMI_BUFFER_DAYS;
+        DailyBarMatrix bars = strategyPreparationService.loadDailyBars(testTradeDate, historyDays, List.copyOf(legacyPrices.keySet()));
+        assertEquals(historyDays, bars.dateCount(), "矩阵窗口应为最宽窗口");
+        int sharedCount = strategyPreparationService.prepareNineTurnData(bars);
+        assertEquals(legacyPrices.size(), sharedCount, "抽样股票应全部预热");
+
+        for (Map.Entry<String, List<ClosePriceDTO>> entry : legacyPrices.entrySet()) {
+            String json = (String) stringRedisTemplate.opsForHash().get(testRedisKey, entry.getKey());
+            List<ClosePriceDTO> shared = JsonUtil.toList(json, ClosePriceDTO.class);
+            assertEquals(entry.getValue().size(), shared.size());
+            for (int d = 0; d < shared.size(); d++) {
+                assertEquals(entry.getValue().get(d).getClosePrice(), shared.get(d).getClosePrice(),
+                        "收盘价应一致: " + entry.getKey() + ",day=" + d);
+            }
+        }
+        log.info("测试通过：共享日线矩阵校验成功，sampleCount={}", legacyPrices.size());
+    }
 }
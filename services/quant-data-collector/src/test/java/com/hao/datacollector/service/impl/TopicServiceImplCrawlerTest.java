@@ -0,0 +1,285 @@
+package com.hao.datacollector.service.impl;
+
+import com.hao.datacollector.dal.dao.TopicMapper;
+import com.hao.datacollector.dto.table.topic.InsertStockCategoryMappingDTO;
+import com.hao.datacollector.dto.table.topic.InsertTopicCategoryDTO;
+import com.hao.datacollector.dto.table.topic.InsertTopicInfoDTO;
+import com.hao.datacollector.integration.http.PooledHttpClient;
+import com.hao.datacollector.properties.HttpClientProperties;
+import com.hao.datacollector.properties.KplCrawlerProperties;
+import com.hao.datacollector.service.StockProfileService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TopicServiceImpl 题材转档爬虫测试
+ * <p>
+ * 使用本地桩服务模拟 KPL 接口：每个请求注入固定延迟，部分题材首次请求返回 503、部分题材不存在或返回非法 JSON、
+ * 一个题材始终返回 503。验证并发与逐个转档合并的题材集合一致、重试次数正确，以及按轮批量写库；
+ * 并发相对逐个转档的耗时提升只输出日志，不参与断言。
+ *
+ * @author hli
+ * @date 2026-02-12
+ */
+@Slf4j
+class TopicServiceImplCrawlerTest {
+
+    private static final int LATENCY_MS = 30;
+
+    private static final int START_ID = 1;
+
+    private static final int END_ID = 60;
+
+    /**
+     * 首次请求返回 503 的题材（重试后成功）
+     */
+    private static final int FLAKY_MOD = 7;
+
+    /**
+     * 不存在的题材（返回无 ID 的响应）
+     */
+    private static final int MISSING_ID = 20;
+
+    /**
+     * 返回非法 JSON 的题材
+     */
+    private static final int GARBAGE_ID = 33;
+
+    /**
+     * 始终返回 503 的题材
+     */
+    private static final int BROKEN_ID = 45;
+
+    private final Map<Integer, AtomicInteger> requestsById = new ConcurrentHashMap<>();
+
+    private final List<InsertTopicInfoDTO> insertedTopics = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<InsertTopicCategoryDTO> insertedCategories = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<InsertStockCategoryMappingDTO> insertedMappings = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger topicInsertCalls = new AtomicInteger();
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private ExecutorService crawlExecutor;
+
+    private PooledHttpClient httpClient;
+
+    private KplCrawlerProperties properties;
+
+    private TopicServiceImpl topicService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/theme", this::handleTopic);
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverExecutor);
+        server.start();
+        crawlExecutor = Executors.newCachedThreadPool();
+        httpClient = new PooledHttpClient(new HttpClientProperties());
+
+        TopicMapper topicMapper = mock(TopicMapper.class);
+        when(topicMapper.insertTopicInfoList(any())).thenAnswer(invocation -> {
+            List<InsertTopicInfoDTO> list = invocation.getArgument(0);
+            topicInsertCalls.incrementAndGet();
+            insertedTopics.addAll(list);
+            return list.size();
+        });
+        when(topicMapper.insertCategoryList(any())).thenAnswer(invocation -> {
+            List<InsertTopicCategoryDTO> list = invocation.getArgument(0);
+            insertedCategories.addAll(list);
+            return list.size();
+        });
+        when(topicMapper.insertStockCategoryMappingList(any())).thenAnswer(invocation -> {
+            List<InsertStockCategoryMappingDTO> list = invocation.getArgument(0);
+            insertedMappings.addAll(list);
+            return list.size();
+        });
+        StockProfileService stockProfileService = mock(StockProfileService.class);
+        when(stockProfileService.getSearchKeyBoard(anyString(), anyInt(), anyInt())).thenReturn(Collections.emptyList());
+
+        properties = new KplCrawlerProperties();
+        properties.setPermitsPerSecond(10_000);
+        properties.setBurst(100);
+        properties.setBackoffBaseMs(10);
+        properties.setBackoffMaxMs(50);
+        properties.setWindowSize(25);
+
+        topicService = new TopicServiceImpl();
+        ReflectionTestUtils.setField(topicService, "kplTopicUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/theme");
+        ReflectionTestUtils.setField(topicService, "topicMapper", topicMapper);
+        ReflectionTestUtils.setField(topicService, "stockProfileService", stockProfileService);
+        ReflectionTestUtils.setField(topicService, "pooledHttpClient", httpClient);
+        ReflectionTestUtils.setField(topicService, "crawlerProperties", properties);
+        ReflectionTestUtils.setField(topicService, "ioTaskExecutor", crawlExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        crawlExecutor.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("并发转档：合并的题材集合与逐个转档一致")
+    void setKplTopicInfoJob_concurrentShouldMatchSequential() {
+        properties.setMaxConcurrency(1);
+        long sequentialMs = runJob();
+        Set<Integer> sequentialTopics = insertedTopicIds();
+
+        resetRecords();
+        properties.setMaxConcurrency(8);
+        long concurrentMs = runJob();
+        Set<Integer> concurrentTopics = insertedTopicIds();
+
+        log.info("题材转档耗时对比|Kpl_crawl_speedup,topics={},sequentialMs={},concurrentMs={},speedup={}",
+                END_ID - START_ID + 1, sequentialMs, concurrentMs,
+                String.format("%.1f", (double) sequentialMs / Math.max(1, concurrentMs)));
+        assertEquals(expectedTopicIds(), sequentialTopics);
+        assertEquals(expectedTopicIds(), concurrentTopics);
+        assertEquals(concurrentTopics.size(), insertedTopics.size(), "题材不应重复写入");
+        assertEquals(concurrentTopics.size() * 2, insertedCategories.size());
+        assertEquals(concurrentTopics.size() * 2, insertedMappings.size());
+    }
+
+    @Test
+    @DisplayName("瞬时故障重试后成功，持续故障在重试耗尽后跳过，按轮批量写库")
+    void setKplTopicInfoJob_shouldRetryTransientFailuresAndBatchInserts() {
+        properties.setMaxConcurrency(8);
+        runJob();
+
+        assertEquals(expectedTopicIds(), insertedTopicIds());
+        assertEquals(2, requestsById.get(FLAKY_MOD).get(), "首次 503 的题材应重试一次");
+        assertEquals(properties.getMaxAttempts(), requestsById.get(BROKEN_ID).get());
+        assertEquals(1, requestsById.get(GARBAGE_ID).get(), "解析失败不应重试");
+        int windows = (END_ID - START_ID + properties.getWindowSize()) / properties.getWindowSize();
+        assertEquals(windows, topicInsertCalls.get(), "每轮只应批量写入一次");
+    }
+
+    @Test
+    @DisplayName("令牌桶限制请求速率")
+    void setKplTopicInfoJob_shouldRespectRateLimit() {
+        properties.setMaxConcurrency(8);
+        properties.setPermitsPerSecond(50);
+        properties.setBurst(1);
+        topicService.initCrawler();
+
+        long start = System.currentTimeMillis();
+        topicService.setKplTopicInfoJob(1, 30);
+        long costMs = System.currentTimeMillis() - start;
+
+        int requests = requestsById.values().stream().mapToInt(AtomicInteger::get).sum();
+        // 首个令牌立即放行，其余按 20ms 一个；只校验下限的一半，未限流时远低于该值
+        long minMs = (requests - 1) * 20L;
+        log.info("题材转档限流耗时|Kpl_crawl_rate_limit,requests={},costMs={},minMs={}", requests, costMs, minMs);
+        assertTrue(costMs >= minMs / 2, "请求速率超过上限: requests=" + requests + ",costMs=" + costMs);
+    }
+
+    private long runJob() {
+        requestsById.clear();
+        topicService.initCrawler();
+        long start = System.currentTimeMillis();
+        assertTrue(topicService.setKplTopicInfoJob(START_ID, END_ID));
+        return System.currentTimeMillis() - start;
+    }
+
+    private void resetRecords() {
+        insertedTopics.clear();
+        insertedCategories.clear();
+        insertedMappings.clear();
+        topicInsertCalls.set(0);
+    }
+
+    private Set<Integer> insertedTopicIds() {
+        Set<Integer> ids = new HashSet<>();
+        synchronized (insertedTopics) {
+            insertedTopics.forEach(topic -> ids.add(topic.getTopicId()));
+        }
+        return ids;
+    }
+
+    private static Set<Integer> expectedTopicIds() {
+        Set<Integer> ids = new HashSet<>();
+        for (int id = START_ID; id <= END_ID; id++) {
+            if (id != MISSING_ID && id != GARBAGE_ID && id != BROKEN_ID) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void handleTopic(HttpExchange exchange) throws IOException {
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int id = -1;
+        for (String pair : form.split("&")) {
+            if (pair.startsWith("ID=")) {
+                id = Integer.parseInt(URLDecoder.decode(pair.substring(3), StandardCharsets.UTF_8));
+            }
+        }
+        int attempt = requestsById.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+        try {
+            Thread.sleep(LATENCY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (id == BROKEN_ID || (id % FLAKY_MOD == 0 && attempt == 1)) {
+            respond(exchange, 503, "busy");
+        } else if (id == MISSING_ID) {
+            respond(exchange, 200, "{\"errcode\":\"0\"}");
+        } else if (id == GARBAGE_ID) {
+            respond(exchange, 200, "<html>");
+        } else {
+            respond(exchange, 200, topicJson(id));
+        }
+    }
+
+    private static String topicJson(int id) {
+        return "{\"ID\":\"" + id + "\",\"Name\":\"题材" + id + "\",\"CreateTime\":\"1700000000\",\"UpdateTime\":\"1700000000\","
+                + "\"Table\":[{\"Level1\":{\"ID\":\"" + (id * 10) + "\",\"Name\":\"一级\",\"Stocks\":[{\"StockID\":\"600519\"}]},"
+                + "\"Level2\":[{\"ID\":\"" + (id * 10 + 1) + "\",\"Name\":\"二级\",\"Stocks\":[{\"StockID\":\"000001\"}]}]}]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
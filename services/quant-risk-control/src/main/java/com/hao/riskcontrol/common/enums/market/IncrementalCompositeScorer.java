@@ -0,0 +1,226 @@
+package com.hao.riskcontrol.common.enums.market;
+
+import enums.market.RiskMarketIndexEnum;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 增量综合分数计算器 (Incremental Composite Scorer)
+ *
+ * <p>按固定槽位（{@link RiskMarketIndexEnum} 序号）以原始类型数组保存各指数的基准价与加权贡献，
+ * 每条指数行情只替换该槽位的贡献并更新累计和，综合分数 O(1) 更新。
+ * Keeps per-index weighted contributions in primitive arrays indexed by a fixed slot,
+ * so each index tick updates the composite score in O(1).
+ *
+ * <h3>计算口径 (Scoring Convention):</h3>
+ * <p>与 {@link RiskMarketIndexEnum#calculateCompositeScore} 一致：
+ * <ul>
+ *   <li>单指数涨跌幅 = (最新价 - 基准价) / 基准价 × 100</li>
+ *   <li>综合分数 = round(Σ(涨跌幅 × 权重) / Σ已到达指数权重 × 100)，单位基点</li>
+ *   <li>只统计当日生效的加权指数（{@link RiskMarketIndexEnum#getWeightedIndicesForDate}），缺失指数不参与归一化</li>
+ * </ul>
+ *
+ * <h3>基准价 (Base Price):</h3>
+ * <p>当天第一条行情价格；第一条价格无效（≤0）时使用换日时一次性加载的昨收价，均无效时该指数不参与计算。
+ *
+ * <p>线程安全：方法加锁，单写者（Kafka 监听线程）与读者（定时推送、查询接口）之间无竞争热点。
+ *
+ * @author hli
+ * @date 2026-02-09
+ */
+public final class IncrementalCompositeScorer {
+
+    private static final RiskMarketIndexEnum[] INDICES = RiskMarketIndexEnum.values();
+
+    private static final Map<String, Integer> SLOT_BY_CODE;
+
+    static {
+        Map<String, Integer> slots = new HashMap<>(INDICES.length * 2);
+        for (RiskMarketIndexEnum index : INDICES) {
+            slots.put(index.getCode(), index.ordinal());
+        }
+        SLOT_BY_CODE = Map.copyOf(slots);
+    }
+
+    /**
+     * 当日生效权重（非加权指数为 0）
+     */
+    private final double[] weights = new double[INDICES.length];
+
+    /**
+     * 昨收价（换日时加载，缺失为 NaN）
+     */
+    private final double[] preClosePrices = new double[INDICES.length];
+
+    /**
+     * 当天第一条行情价格（尚未到达为 NaN）
+     */
+    private final double[] firstPrices = new double[INDICES.length];
+
+    /**
+     * 生效基准价（无效为 NaN）
+     */
+    private final double[] basePrices = new double[INDICES.length];
+
+    /**
+     * 最新价（尚未到达为 NaN）
+     */
+    private final double[] latestPrices = new double[INDICES.length];
+
+    /**
+     * 加权贡献：涨跌幅 × 权重（未参与计算为 0）
+     */
+    private final double[] contributions = new double[INDICES.length];
+
+    /**
+     * 是否已计入权重和
+     */
+    private final boolean[] counted = new boolean[INDICES.length];
+
+    private LocalDate tradeDate;
+    private double weightSum;
+    private double weightedChangeSum;
+    private int compositeScore;
+
+    public IncrementalCompositeScorer() {
+        clear();
+    }
+
+    /**
+     * 指数代码对应的槽位
+     *
+     * @param windCode 指数代码
+     * @return 槽位，非风控指数返回 -1
+     */
+    public static int slotOf(String windCode) {
+        Integer slot = windCode == null ? null : SLOT_BY_CODE.get(windCode);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * 切换交易日：清空当日状态，按新交易日设置生效权重并装入昨收价
+     *
+     * @param date           交易日
+     * @param preCloseByCode 指数昨收价（可为空 Map）
+     */
+    public synchronized void resetForTradeDate(LocalDate date, Map<String, Double> preCloseByCode) {
+        clear();
+        this.tradeDate = date;
+        for (RiskMarketIndexEnum index : RiskMarketIndexEnum.getWeightedIndicesForDate(date)) {
+            weights[index.ordinal()] = index.getDefaultWeight();
+        }
+        preCloseByCode.forEach((code, price) -> {
+            int slot = slotOf(code);
+            if (slot >= 0 && price != null && price > 0) {
+                preClosePrices[slot] = price;
+            }
+        });
+    }
+
+    /**
+     * 应用一条指数行情
+     *
+     * @param slot  槽位（{@link #slotOf(String)}）
+     * @param price 最新价
+     * @return true-综合分数发生变化
+     */
+    public synchronized boolean onPrice(int slot, double price) {
+        if (Double.isNaN(firstPrices[slot])) {
+            // 中文：当天第一条行情作为基准价（只取第一条，与全量计算口径一致）
+            // English: First tick of the day is the base price
+            firstPrices[slot] = price;
+            double first = price;
+            double preClose = preClosePrices[slot];
+            basePrices[slot] = first > 0 ? first : (preClose > 0 ? preClose : Double.NaN);
+        }
+        latestPrices[slot] = price;
+
+        double weight = weights[slot];
+        double base = basePrices[slot];
+        if (weight <= 0 || !(base > 0)) {
+            return false;
+        }
+        double contribution = (price - base) / base * 100 * weight;
+        weightedChangeSum += contribution - contributions[slot];
+        contributions[slot] = contribution;
+        if (!counted[slot]) {
+            counted[slot] = true;
+            weightSum += weight;
+        }
+
+        int previous = compositeScore;
+        compositeScore = (int) Math.round(weightedChangeSum / weightSum * 100);
+        return compositeScore != previous;
+    }
+
+    /**
+     * 当前综合分数（整数基点），无数据为 0
+     */
+    public synchronized int getCompositeScore() {
+        return compositeScore;
+    }
+
+    /**
+     * 当前交易日，尚未收到行情为 null
+     */
+    public synchronized LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    /**
+     * 是否已收到任一指数行情
+     */
+    public synchronized boolean hasPrice() {
+        for (double latest : latestPrices) {
+            if (!Double.isNaN(latest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 最新价快照（供调试使用）
+     */
+    public synchronized Map<String, Double> latestPriceSnapshot() {
+        return snapshot(latestPrices);
+    }
+
+    /**
+     * 基准价快照（供调试使用）
+     */
+    public synchronized Map<String, Double> basePriceSnapshot() {
+        return snapshot(basePrices);
+    }
+
+    /**
+     * 清空全部状态
+     */
+    public synchronized void clear() {
+        tradeDate = null;
+        Arrays.fill(weights, 0);
+        Arrays.fill(preClosePrices, Double.NaN);
+        Arrays.fill(firstPrices, Double.NaN);
+        Arrays.fill(basePrices, Double.NaN);
+        Arrays.fill(latestPrices, Double.NaN);
+        Arrays.fill(contributions, 0);
+        Arrays.fill(counted, false);
+        weightSum = 0;
+        weightedChangeSum = 0;
+        compositeScore = 0;
+    }
+
+    private Map<String, Double> snapshot(double[] values) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int slot = 0; slot < values.length; slot++) {
+            if (!Double.isNaN(values[slot])) {
+                result.put(INDICES[slot].getCode(), values[slot]);
+            }
+        }
+        return result;
+    }
+}
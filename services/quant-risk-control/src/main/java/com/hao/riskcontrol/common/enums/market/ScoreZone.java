@@ -188,6 +188,13 @@ public enum ScoreZone {
 
     // ==================== 静态查找方法 ====================
 
+    /**
+     * 按下界降序排列的区间（类加载时排序一次，matchZone 在推送路径上调用）
+     */
+    private static final ScoreZone[] BY_LOWER_BOUND_DESC = Arrays.stream(values())
+            .sorted(Comparator.comparingInt(ScoreZone::getLowerBound).reversed())
+            .toArray(ScoreZone[]::new);
+
     /**
      * 根据综合分数自动匹配对应区间（替代 if-else 链）
      * Match score zone by composite score (replaces if-else chain)
@@ -196,16 +203,18 @@ public enum ScoreZone {
      * @return 匹配的评分区间
      */
     public static ScoreZone matchZone(int compositeScore) {
-        ScoreZone zone = Arrays.stream(values())
-                .sorted(Comparator.comparingInt(ScoreZone::getLowerBound).reversed())
-                .filter(z -> z.contains(compositeScore))
-                .findFirst()
-                .orElse(STRONG_BEARISH);
-        
+        ScoreZone zone = STRONG_BEARISH;
+        for (ScoreZone candidate : BY_LOWER_BOUND_DESC) {
+            if (candidate.contains(compositeScore)) {
+                zone = candidate;
+                break;
+            }
+        }
+
         // [TRACE-13] 区间匹配
-        log.info("[TRACE-13] 区间匹配|Zone_matched,compositeScore={},zone={},hint={}",
+        log.debug("[TRACE-13] 区间匹配|Zone_matched,compositeScore={},zone={},hint={}",
                 compositeScore, zone.getName(), zone.getOperationHint());
-        
+
         return zone;
     }
 
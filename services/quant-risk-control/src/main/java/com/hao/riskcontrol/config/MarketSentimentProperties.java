@@ -0,0 +1,44 @@
+package com.hao.riskcontrol.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 市场情绪分数推送配置属性类
+ *
+ * 设计目的：
+ * 1. 分数随指数行情增量更新后按变化推送，推送频率由防抖间隔控制。
+ * 2. 分数未变化时仍按刷新间隔续期，避免信号中心因 expireTimestamp 过期误判降级。
+ *
+ * 配置示例（application.yml）：
+ * <pre>
+ * risk:
+ *   sentiment:
+ *     publish-debounce-ms: 200
+ *     refresh-interval-ms: 1000
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-09
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "risk.sentiment")
+public class MarketSentimentProperties {
+
+    /**
+     * 推送防抖间隔（毫秒）
+     * 默认值：200
+     * 说明：两次推送的最小间隔，间隔内的多次变化合并为一次推送；0 表示每次变化立即推送
+     */
+    private long publishDebounceMs = 200;
+
+    /**
+     * 分数续期间隔（毫秒）
+     * 默认值：1000
+     * 说明：仍有行情到达但分数未变化时，距上次推送超过该间隔则重新推送以刷新过期时间，
+     * 需小于 MarketSentimentDTO.DEFAULT_TTL_MS
+     */
+    private long refreshIntervalMs = 1000;
+}
@@ -50,7 +50,7 @@ public class IndexQuotationConsumer {
         IndexQuotationDTO dto = null;
         try {
             // [TRACE-01] Kafka 消息接收
-            log.info("[TRACE-01] 收到Kafka消息|Kafka_msg_received,topic={},partition={},offset={},key={}",
+            log.debug("[TRACE-01] 收到Kafka消息|Kafka_msg_received,topic={},partition={},offset={},key={}",
                     record.topic(), record.partition(), record.offset(), record.key());
 
             String message = record.value();
@@ -60,7 +60,7 @@ public class IndexQuotationConsumer {
             dto = objectMapper.readValue(message, IndexQuotationDTO.class);
 
             // [TRACE-02] 消息解析完成
-            log.info("[TRACE-02] 消息解析完成|Msg_parsed,windCode={},latestPrice={},tradeDate={}",
+            log.debug("[TRACE-02] 消息解析完成|Msg_parsed,windCode={},latestPrice={},tradeDate={}",
                     dto.getWindCode(), dto.getLatestPrice(), dto.getTradeDate());
 
             // 更新指数价格（直接传递 DTO 对象）
@@ -68,7 +68,7 @@ public class IndexQuotationConsumer {
 
             // [TRACE-03] 下游调用完成
             long elapsed = System.currentTimeMillis() - startTime;
-            log.info("[TRACE-03] 价格更新完成|UpdateIndexPrice_done,windCode={},elapsedMs={}",
+            log.debug("[TRACE-03] 价格更新完成|UpdateIndexPrice_done,windCode={},elapsedMs={}",
                     dto.getWindCode(), elapsed);
         } catch (Exception e) {
             String windCode = dto != null ? dto.getWindCode() : "unknown";
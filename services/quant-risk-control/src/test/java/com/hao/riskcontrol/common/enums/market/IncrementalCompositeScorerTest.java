@@ -0,0 +1,119 @@
+package com.hao.riskcontrol.common.enums.market;
+
+import enums.market.RiskMarketIndexEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量综合分数计算器测试
+ *
+ * <p>测试目的：
+ * <ol>
+ *   <li>逐条行情增量更新后的分数与 {@link RiskMarketIndexEnum#calculateCompositeScore} 全量计算一致</li>
+ *   <li>第一条价格无效时使用昨收价作为基准价</li>
+ *   <li>换日后状态清空、权重按新交易日生效</li>
+ * </ol>
+ *
+ * @author hli
+ * @date 2026-02-09
+ */
+@Slf4j
+class IncrementalCompositeScorerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 9);
+
+    @Test
+    @DisplayName("随机行情序列下增量分数与全量计算一致")
+    void onPrice_shouldMatchFullRecompute() {
+        List<RiskMarketIndexEnum> indices = RiskMarketIndexEnum.getWeightedIndicesForDate(TODAY);
+        IncrementalCompositeScorer scorer = new IncrementalCompositeScorer();
+        scorer.resetForTradeDate(TODAY, Map.of());
+
+        Random random = new Random(11);
+        Map<String, Double> priceMap = new HashMap<>();
+        Map<String, Double> baseMap = new HashMap<>();
+        Map<String, Double> current = new HashMap<>();
+        for (RiskMarketIndexEnum index : indices) {
+            current.put(index.getCode(), 1000 + random.nextInt(4000) + random.nextDouble());
+        }
+
+        int mismatches = 0;
+        for (int tick = 0; tick < 20_000; tick++) {
+            RiskMarketIndexEnum index = indices.get(random.nextInt(indices.size()));
+            double price = Math.round(current.get(index.getCode()) * (1 + random.nextGaussian() * 0.0005) * 100) / 100.0;
+            current.put(index.getCode(), price);
+
+            scorer.onPrice(IncrementalCompositeScorer.slotOf(index.getCode()), price);
+            baseMap.putIfAbsent(index.getCode(), price);
+            priceMap.put(index.getCode(), price);
+
+            int expected = RiskMarketIndexEnum.calculateCompositeScore(TODAY, priceMap, baseMap);
+            int actual = scorer.getCompositeScore();
+            assertTrue(Math.abs(expected - actual) <= 1, "分数偏差超过1基点: expected=" + expected + ",actual=" + actual);
+            if (expected != actual) {
+                mismatches++;
+            }
+        }
+        log.info("增量与全量分数对比|Incremental_vs_full,ticks=20000,roundingMismatches={}", mismatches);
+        assertTrue(mismatches < 20, "仅允许极少数四舍五入边界上的差异: " + mismatches);
+    }
+
+    @Test
+    @DisplayName("全部上涨1%时综合分数为100且只在变化时返回true")
+    void onPrice_shouldReportChangeOnlyWhenScoreMoves() {
+        IncrementalCompositeScorer scorer = new IncrementalCompositeScorer();
+        scorer.resetForTradeDate(TODAY, Map.of());
+        List<RiskMarketIndexEnum> indices = RiskMarketIndexEnum.getWeightedIndicesForDate(TODAY);
+
+        for (RiskMarketIndexEnum index : indices) {
+            assertFalse(scorer.onPrice(IncrementalCompositeScorer.slotOf(index.getCode()), 1000.0), "基准价行情不改变分数");
+        }
+        boolean changed = false;
+        for (RiskMarketIndexEnum index : indices) {
+            changed |= scorer.onPrice(IncrementalCompositeScorer.slotOf(index.getCode()), 1010.0);
+        }
+        assertTrue(changed);
+        assertEquals(100, scorer.getCompositeScore());
+        assertFalse(scorer.onPrice(IncrementalCompositeScorer.slotOf(indices.getFirst().getCode()), 1010.0), "价格不变时分数不变");
+    }
+
+    @Test
+    @DisplayName("第一条价格无效时使用昨收价作为基准价")
+    void onPrice_shouldFallBackToPreCloseWhenFirstPriceInvalid() {
+        IncrementalCompositeScorer scorer = new IncrementalCompositeScorer();
+        scorer.resetForTradeDate(TODAY, Map.of("000300.SH", 4000.0));
+        int slot = IncrementalCompositeScorer.slotOf("000300.SH");
+
+        scorer.onPrice(slot, 0.0);
+        scorer.onPrice(slot, 4040.0);
+
+        assertEquals(100, scorer.getCompositeScore(), "以昨收价4000为基准上涨1%");
+        assertEquals(4000.0, scorer.basePriceSnapshot().get("000300.SH"));
+    }
+
+    @Test
+    @DisplayName("换日后状态清空")
+    void resetForTradeDate_shouldClearPreviousDay() {
+        IncrementalCompositeScorer scorer = new IncrementalCompositeScorer();
+        scorer.resetForTradeDate(TODAY, Map.of());
+        int slot = IncrementalCompositeScorer.slotOf("000300.SH");
+        scorer.onPrice(slot, 4000.0);
+        scorer.onPrice(slot, 3940.0);
+        assertEquals(-150, scorer.getCompositeScore());
+
+        scorer.resetForTradeDate(TODAY.plusDays(1), Map.of());
+        assertEquals(0, scorer.getCompositeScore());
+        assertFalse(scorer.hasPrice());
+        assertEquals(TODAY.plusDays(1), scorer.getTradeDate());
+        assertEquals(-1, IncrementalCompositeScorer.slotOf("600519.SH"), "非风控指数无槽位");
+    }
+}
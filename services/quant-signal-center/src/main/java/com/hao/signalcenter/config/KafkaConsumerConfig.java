@@ -25,6 +25,10 @@ import java.util.Map;
  * 2. ack-mode=MANUAL_IMMEDIATE：处理完成后立即手动确认
  * 3. max.poll.records=100：每次拉取最多 100 条，避免处理超时
  * <p>
+ * 批量模式（signal.consume.batch-enabled）：
+ * 另提供批量监听器容器工厂，单批条数与凑批等待由 {@link SignalConsumeProperties} 控制，
+ * 整批落库与写缓存完成后才确认 Offset。
+ * <p>
  * 设计目的：
  * 确保 Kafka 消息在 MySQL 落库和 Redis 更新完成后才确认，
  * 避免消息丢失或重复消费导致的数据不一致。
@@ -106,4 +110,54 @@ public class KafkaConsumerConfig {
 
         return factory;
     }
+
+    /**
+     * 批量消费者工厂
+     * <p>
+     * 复用逐条模式的可靠性配置，单批条数与凑批等待由 {@link SignalConsumeProperties} 控制。
+     *
+     * @param properties 信号消费配置
+     * @return ConsumerFactory 实例
+     */
+    @Bean
+    public ConsumerFactory<String, String> batchSignalConsumerFactory(SignalConsumeProperties properties) {
+        Map<String, Object> props = new HashMap<>(16);
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 300000);
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 45000);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        // 单批最大条数
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        // 凑批：Broker 最多等待 batchMaxWaitMs 凑够 batchMinBytes 后返回
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, properties.getBatchMinBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, properties.getBatchMaxWaitMs());
+
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * 批量监听器容器工厂
+     * <p>
+     * 监听方法接收整批消息，整批处理成功后调用一次 ack.acknowledge() 提交；
+     * 失败时 nack 整批，由容器回退 Offset 后重新投递。
+     *
+     * @param properties 信号消费配置
+     * @return ConcurrentKafkaListenerContainerFactory 实例
+     */
+    @Bean(name = KafkaConstants.BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory(
+            SignalConsumeProperties properties) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchSignalConsumerFactory(properties));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConcurrency(1);
+        return factory;
+    }
 }
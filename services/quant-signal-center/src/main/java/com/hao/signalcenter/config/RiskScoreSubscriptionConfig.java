@@ -0,0 +1,52 @@
+package com.hao.signalcenter.config;
+
+import com.hao.signalcenter.service.RiskScoreSnapshot;
+import constants.RedisKeyConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 风控分数订阅配置类 (Risk Score Subscription Configuration)
+ * <p>
+ * 类职责：
+ * 订阅 quant-risk-control 发布的市场情绪分数频道，把每条消息写入 {@link RiskScoreSnapshot}。
+ * <p>
+ * 设计目的：
+ * 信号处理路径不再每条（或每批）信号执行一次 Redis GET + JSON 反序列化，改为读取内存快照；
+ * 订阅中断时快照按 expireTimestamp 过期，查询自动回退到 Redis。
+ * <p>
+ * 开关：signal.consume.risk-score-push-enabled=false 时不创建订阅，每次查询都读 Redis。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "signal.consume", name = "risk-score-push-enabled", havingValue = "true", matchIfMissing = true)
+public class RiskScoreSubscriptionConfig {
+
+    /**
+     * 风控分数订阅容器
+     * <p>
+     * 容器内部维护订阅连接，断线后自动重连并重新订阅。
+     *
+     * @param connectionFactory Redis 连接工厂
+     * @param riskScoreSnapshot 风控分数快照
+     * @return RedisMessageListenerContainer 实例
+     */
+    @Bean
+    public RedisMessageListenerContainer riskScoreListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    RiskScoreSnapshot riskScoreSnapshot) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> riskScoreSnapshot.onPublished(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisKeyConstants.MARKET_SENTIMENT_SCORE_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,80 @@
+package com.hao.signalcenter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 信号消费配置属性类
+ *
+ * 设计目的：
+ * 1. 控制信号中心的消费模式（逐条 / 批量）与批量参数。
+ * 2. 两种模式可通过配置切换，便于对比吞吐。
+ * 3. 控制风控分数的获取方式（订阅推送 / 逐次查询 Redis）。
+ *
+ * 配置示例（application.yml）：
+ * <pre>
+ * signal:
+ *   consume:
+ *     batch-enabled: true
+ *     max-poll-records: 500
+ *     batch-max-wait-ms: 50
+ *     insert-chunk-size: 500
+ *     throughput-window-seconds: 10
+ *     risk-score-push-enabled: true
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-09
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "signal.consume")
+public class SignalConsumeProperties {
+
+    /**
+     * 是否启用批量消费
+     * 默认值：true
+     * 说明：true-整批一次读风控分数、一次事务批量插入、管道写缓存；false-逐条处理（旧模式）
+     */
+    private boolean batchEnabled = true;
+
+    /**
+     * 批量模式单次poll最大拉取条数（max.poll.records）
+     * 默认值：500
+     */
+    private int maxPollRecords = 500;
+
+    /**
+     * 批量拉取最大等待时间（fetch.max.wait.ms）
+     * 默认值：50毫秒
+     * 说明：开盘信号突发时凑批，平时最多增加该延迟
+     */
+    private int batchMaxWaitMs = 50;
+
+    /**
+     * 批量拉取最小字节数（fetch.min.bytes）
+     * 默认值：16384（16KB）
+     */
+    private int batchMinBytes = 16384;
+
+    /**
+     * 单条 INSERT 语句的最大行数
+     * 默认值：500
+     * 说明：超过时在同一事务内拆成多条语句，避免超过 max_allowed_packet
+     */
+    private int insertChunkSize = 500;
+
+    /**
+     * 吞吐统计输出周期（秒）
+     * 默认值：10
+     */
+    private int throughputWindowSeconds = 10;
+
+    /**
+     * 是否订阅风控分数推送
+     * 默认值：true
+     * 说明：true-订阅 Redis 频道维护内存快照，快照过期时回退查询 Redis；false-每次都查询 Redis（旧模式）
+     */
+    private boolean riskScorePushEnabled = true;
+}
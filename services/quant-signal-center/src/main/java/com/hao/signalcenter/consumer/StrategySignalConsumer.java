@@ -1,17 +1,26 @@
 package com.hao.signalcenter.consumer;
 
+import com.hao.signalcenter.config.SignalConsumeProperties;
 import com.hao.signalcenter.model.StockSignal;
 import com.hao.signalcenter.service.RiskControlClient;
+import com.hao.signalcenter.service.RiskScoreSnapshot;
 import com.hao.signalcenter.service.SignalCacheService;
 import com.hao.signalcenter.service.SignalPersistenceService;
 import dto.StrategySignalDTO;
 import integration.kafka.KafkaConstants;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 import util.JsonUtil;
+import util.SignalEnvelopeCodec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 策略信号 Kafka 消费者 (Strategy Signal Consumer)
@@ -19,7 +28,7 @@ import util.JsonUtil;
  * 类职责：
  * 消费策略引擎发送的信号，执行完整的信号处理流程：
  * 1. 反序列化消息
- * 2. 旁路查询风控分数
+ * 2. 读取风控分数（内存快照，过期时回退查询 Redis）
  * 3. 追加落库 MySQL（流水模式）
  * 4. 主动推送 Redis 缓存
  * 5. 手动确认 Offset
@@ -28,6 +37,14 @@ import util.JsonUtil;
  * - 手动确认模式：确保完整处理后才提交 Offset
  * - 异常处理：处理失败时拒绝确认，等待重新投递
  * - 追加模式：同一股票+策略在同一天可多次触发，保留完整流水
+ * <p>
+ * 消费模式（signal.consume.batch-enabled）：
+ * - 批量模式：整批一次读风控分数 → 一个事务内多行 INSERT → 管道 RPUSH/EXPIRE → 提交整批 Offset
+ * - 逐条模式：每条消息各自读风控分数、单行 INSERT、RPUSH+EXPIRE（旧模式）
+ * 两个监听器只会启动其中一个，避免同组内互相争抢分区。
+ * <p>
+ * 消息格式：兼容单条信号与策略引擎微批发送的信号信封（见 {@link SignalEnvelopeCodec}），
+ * 信封内的信号按批量路径处理（一次风控分数、一个事务、一次管道）。
  *
  * @author hli
  * @date 2026-01-30
@@ -37,7 +54,7 @@ import util.JsonUtil;
 public class StrategySignalConsumer {
 
     @Autowired
-    private RiskControlClient riskControlClient;
+    private RiskScoreSnapshot riskScoreSnapshot;
 
     @Autowired
     private SignalPersistenceService signalPersistenceService;
@@ -45,20 +62,45 @@ public class StrategySignalConsumer {
     @Autowired
     private SignalCacheService signalCacheService;
 
+    @Autowired
+    private SignalConsumeProperties consumeProperties;
+
+    /**
+     * 批量处理失败后重新投递前的等待时间
+     */
+    private static final Duration BATCH_RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    private SignalThroughputMeter singleMeter;
+
+    private SignalThroughputMeter batchMeter;
+
+    @PostConstruct
+    public void initMeters() {
+        int window = consumeProperties.getThroughputWindowSeconds();
+        this.singleMeter = new SignalThroughputMeter("SINGLE", window);
+        this.batchMeter = new SignalThroughputMeter("BATCH", window);
+    }
+
     /**
      * 消费策略信号
      * <p>
      * 监听 stock-strategy-signal 主题，处理策略引擎发送的信号。
      *
-     * @param message 消息内容（JSON 格式的 StrategySignalDTO）
+     * @param message 消息内容（JSON 格式的 StrategySignalDTO，或信号信封）
      * @param ack     Kafka Acknowledgment，用于手动确认
      */
     @KafkaListener(
+            id = "signalSingleListener",
             topics = KafkaConstants.TOPIC_STRATEGY_SIGNAL,
             groupId = KafkaConstants.GROUP_SIGNAL_CENTER,
-            containerFactory = KafkaConstants.LISTENER_CONTAINER_FACTORY
+            containerFactory = KafkaConstants.LISTENER_CONTAINER_FACTORY,
+            autoStartup = "#{!${signal.consume.batch-enabled:true}}"
     )
     public void consume(String message, Acknowledgment ack) {
+        if (SignalEnvelopeCodec.isEnvelope(message)) {
+            consumeEnvelope(message, ack);
+            return;
+        }
         long startTime = System.currentTimeMillis();
         StrategySignalDTO signalDTO = null;
 
@@ -75,8 +117,8 @@ public class StrategySignalConsumer {
             log.debug("信号消费开始|Signal_consume_start,code={},strategy={}",
                     signalDTO.getWindCode(), signalDTO.getStrategyId());
 
-            // [FULL_CHAIN_STEP_13] 旁路查询风控分数（Sentinel 保护 + expireTimestamp 检测）
-            RiskControlClient.RiskScoreResult riskResult = riskControlClient.getMarketSentimentScoreWithFallback();
+            // [FULL_CHAIN_STEP_13] 读取风控分数（推送快照 + expireTimestamp 检测，过期回退 Redis）
+            RiskControlClient.RiskScoreResult riskResult = riskScoreSnapshot.current();
             int riskScore = riskResult.getScore();
             boolean isFallback = riskResult.isFallback();
 
@@ -90,6 +132,7 @@ public class StrategySignalConsumer {
             ack.acknowledge();
 
             long costTime = System.currentTimeMillis() - startTime;
+            singleMeter.record(1, costTime);
             log.info("[TRACE:{}] 信号处理完成|Signal_processed,code={},strategy={},status={},costMs={}",
                     signalDTO.getTraceId(), signalDTO.getWindCode(), signalDTO.getStrategyId(),
                     signal.getShowStatus(), costTime);
@@ -103,4 +146,118 @@ public class StrategySignalConsumer {
             // 如果实现了死信队列，可以在这里处理
         }
     }
+
+    /**
+     * 逐条模式下处理一个信号信封
+     * <p>
+     * 实现逻辑：
+     * 1. 解包并过滤无效信号，全部无效时直接确认。
+     * 2. 一次读取风控分数，一个事务内落库，管道写入缓存，完成后确认。
+     * 3. 失败时不确认，整个信封重新投递（事务已回滚，不会产生部分落库）。
+     *
+     * @param message 信封消息体
+     * @param ack     Kafka Acknowledgment，用于手动确认
+     */
+    private void consumeEnvelope(String message, Acknowledgment ack) {
+        long startTime = System.currentTimeMillis();
+        List<StrategySignalDTO> signalDTOs = new ArrayList<>();
+        for (StrategySignalDTO signalDTO : SignalEnvelopeCodec.decode(message)) {
+            if (signalDTO != null && signalDTO.getWindCode() != null) {
+                signalDTOs.add(signalDTO);
+            }
+        }
+        if (signalDTOs.isEmpty()) {
+            log.warn("信号信封无有效信号_跳过|Signal_envelope_empty,message={}", message);
+            ack.acknowledge();
+            return;
+        }
+        try {
+            RiskControlClient.RiskScoreResult riskResult = riskScoreSnapshot.current();
+            List<StockSignal> signals = signalPersistenceService.saveSignals(
+                    signalDTOs, riskResult.getScore(), riskResult.isFallback());
+            int cached = signalCacheService.updateSignalCacheBatch(signals);
+            ack.acknowledge();
+
+            long costTime = System.currentTimeMillis() - startTime;
+            singleMeter.record(signalDTOs.size(), costTime);
+            log.info("信号信封处理完成|Signal_envelope_processed,signals={},cached={},costMs={}",
+                    signalDTOs.size(), cached, costTime);
+        } catch (Exception e) {
+            log.error("信号信封处理失败|Signal_envelope_process_failed,signals={}", signalDTOs.size(), e);
+        }
+    }
+
+    /**
+     * 批量消费策略信号
+     * <p>
+     * 实现逻辑：
+     * 1. 逐条解码（信封展开为多条信号），无效消息跳过（随整批一起确认）
+     * 2. 整批只读取一次风控分数
+     * 3. 一个事务内多行 INSERT 落库
+     * 4. 管道写入 Redis：每个 (strategyId, tradeDate) 一次 RPUSH + 一次 EXPIRE
+     * 5. 事务提交后确认整批 Offset；落库失败时 nack 整批，等待后重新投递
+     *
+     * @param records 本次 poll 拉取的消息
+     * @param ack     Kafka Acknowledgment，用于手动确认
+     */
+    @KafkaListener(
+            id = "signalBatchListener",
+            topics = KafkaConstants.TOPIC_STRATEGY_SIGNAL,
+            groupId = KafkaConstants.GROUP_SIGNAL_CENTER,
+            containerFactory = KafkaConstants.BATCH_LISTENER_CONTAINER_FACTORY,
+            autoStartup = "${signal.consume.batch-enabled:true}"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+
+        // [FULL_CHAIN_STEP_12] 信号中心消费策略信号 - 批量反序列化
+        List<StrategySignalDTO> signalDTOs = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            // 单条格式错误只跳过该条，不影响同批其他信号
+            boolean valid = false;
+            for (StrategySignalDTO signalDTO : SignalEnvelopeCodec.decode(record.value())) {
+                if (signalDTO != null && signalDTO.getWindCode() != null) {
+                    signalDTOs.add(signalDTO);
+                    valid = true;
+                }
+            }
+            if (!valid) {
+                log.warn("信号反序列化失败_跳过|Signal_deserialize_failed,partition={},offset={},message={}",
+                        record.partition(), record.offset(), record.value());
+            }
+        }
+
+        try {
+            int cached = 0;
+            if (!signalDTOs.isEmpty()) {
+                // [FULL_CHAIN_STEP_13] 整批一次读取风控分数
+                RiskControlClient.RiskScoreResult riskResult = riskScoreSnapshot.current();
+
+                // [FULL_CHAIN_STEP_14] 一个事务内批量落库
+                List<StockSignal> signals = signalPersistenceService.saveSignals(
+                        signalDTOs, riskResult.getScore(), riskResult.isFallback());
+
+                // [FULL_CHAIN_STEP_15] 管道推送 Redis 缓存
+                cached = signalCacheService.updateSignalCacheBatch(signals);
+            }
+
+            // 事务已提交，确认整批 Offset
+            ack.acknowledge();
+
+            long costTime = System.currentTimeMillis() - startTime;
+            batchMeter.record(records.size(), costTime);
+            log.info("信号批量处理完成|Signal_batch_processed,records={},valid={},cached={},costMs={}",
+                    records.size(), signalDTOs.size(), cached, costTime);
+        } catch (Exception e) {
+            ConsumerRecord<String, String> first = records.get(0);
+            log.error("信号批量处理失败|Signal_batch_process_failed,records={},partition={},firstOffset={}",
+                    records.size(), first.partition(), first.offset(), e);
+            // 回退到本批起点并在等待后重新投递（事务已回滚，不会产生部分落库）
+            // 批量监听器只支持 nack(index, sleep)，nack(sleep) 会抛 UnsupportedOperationException
+            ack.nack(0, BATCH_RETRY_BACKOFF);
+        }
+    }
 }
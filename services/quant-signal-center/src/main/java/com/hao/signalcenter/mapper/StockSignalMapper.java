@@ -10,7 +10,7 @@ import java.util.List;
  * 股票信号 Mapper (Stock Signal Mapper)
  * <p>
  * 数据库操作接口，提供：
- * 1. 追加插入（Insert Mode，同一天可多次触发）
+ * 1. 追加插入（Insert Mode，同一天可多次触发），支持多行批量插入，批量插入后按唯一键回查主键
  * 2. 按策略和交易日查询通过的信号（全量流水）
  * 3. 按策略和交易日查询最新信号（每只股票取最新一条）
  *
@@ -32,6 +32,26 @@ public interface StockSignalMapper {
      */
     int insert(StockSignal signal);
 
+    /**
+     * 批量插入信号（多行 INSERT，追加模式）
+     * <p>
+     * 与 {@link #insert(StockSignal)} 语义一致，唯一键冲突时更新价格与状态。
+     * 不回填主键：多行 ON DUPLICATE KEY UPDATE 时驱动按首个自增值顺延推算各行 id，
+     * 命中更新的行（如 nack 后重新投递）会导致 id 错位，主键需通过 {@link #selectIdsByUniqueKeys(List)} 回查。
+     *
+     * @param signals 信号实体列表（非空）
+     * @return 影响行数（ON DUPLICATE KEY UPDATE 命中的行按 MySQL 约定计 2）
+     */
+    int insertBatch(@Param("list") List<StockSignal> signals);
+
+    /**
+     * 按唯一键 (wind_code, strategy_id, signal_time) 回查主键
+     *
+     * @param signals 信号实体列表（非空，需包含唯一键字段）
+     * @return 已存在的信号（仅包含 id 与唯一键字段）
+     */
+    List<StockSignal> selectIdsByUniqueKeys(@Param("list") List<StockSignal> signals);
+
     /**
      * 查询指定策略和交易日通过的信号列表（全量流水）
      * <p>
@@ -19,7 +19,8 @@ import org.springframework.stereotype.Service;
  * 从 Redis 读取市场情绪分数，支持降级处理。
  * <p>
  * 使用场景：
- * 信号中心消费 Kafka 信号时，旁路查询风控分数决定展示状态。
+ * 信号中心消费 Kafka 信号时，风控分数优先读取 {@link RiskScoreSnapshot} 的推送快照，
+ * 快照缺失或过期时回退到本类查询 Redis。
  * <p>
  * 双重保护机制：
  * 1. Sentinel 熔断：Redis 调用异常时自动熔断
@@ -50,7 +51,7 @@ public class RiskControlClient {
 
     /**
      * Redis Key：市场情绪分数
-     * 由 quant-risk-control 模块每 1 秒更新
+     * 由 quant-risk-control 模块在分数变化时更新，无变化时每 1 秒续期
      */
     private static final String REDIS_KEY_SENTIMENT_SCORE = RedisKeyConstants.MARKET_SENTIMENT_SCORE;
 
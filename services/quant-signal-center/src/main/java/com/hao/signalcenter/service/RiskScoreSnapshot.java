@@ -0,0 +1,108 @@
+package com.hao.signalcenter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dto.risk.MarketSentimentDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 风控分数内存快照 (Risk Score Snapshot)
+ * <p>
+ * 类职责：
+ * 保存风控模块最近一次推送的市场情绪分数，信号处理时一次 volatile 读取即可得到分数与降级标志。
+ * <p>
+ * 数据来源：
+ * <pre>
+ * quant-risk-control 分数变化/续期 → SET market:sentiment:score + PUBLISH market:sentiment:score:channel
+ *                                                                          ↓
+ * 信号中心订阅（RiskScoreSubscriptionConfig） → {@link #onPublished(String)} → volatile 快照
+ * </pre>
+ * <p>
+ * 读取规则：
+ * 1. 快照存在且未超过 MarketSentimentDTO.expireTimestamp：直接返回，不访问网络
+ * 2. 快照缺失或已过期（推送中断、订阅重连中）：回退到 {@link RiskControlClient} 的 Redis 查询（Sentinel 保护）
+ * <p>
+ * 回退查询结果不写入快照：推送恢复前每次都读 Redis，行为与原有逐次查询一致，不会延长旧分数的有效期。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RiskScoreSnapshot {
+
+    private final RiskControlClient riskControlClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 最近一次推送的分数（未收到推送时为 null）
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 快照：推送时预先构建好查询结果，读取路径不再创建对象
+     *
+     * @param timestamp       风控模块计算时间戳（毫秒），用于丢弃乱序的旧消息
+     * @param expireTimestamp 过期时间戳（毫秒）
+     * @param result          查询结果（非降级）
+     */
+    private record Snapshot(long timestamp, long expireTimestamp, RiskControlClient.RiskScoreResult result) {
+    }
+
+    /**
+     * 获取当前风控分数及降级标志
+     * <p>
+     * 快照有效时只有一次 volatile 读取和一次时钟读取；否则回退到 Redis 查询。
+     *
+     * @return 包含分数和降级标志的结果对象
+     */
+    public RiskControlClient.RiskScoreResult current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() <= current.expireTimestamp()) {
+            return current.result();
+        }
+        return riskControlClient.getMarketSentimentScoreWithFallback();
+    }
+
+    /**
+     * 处理风控模块发布的分数消息
+     * <p>
+     * 消息无效时保留原快照（到期后自然回退到 Redis 查询）。
+     *
+     * @param message MarketSentimentDTO JSON
+     */
+    public void onPublished(String message) {
+        MarketSentimentDTO dto;
+        try {
+            dto = objectMapper.readValue(message, MarketSentimentDTO.class);
+        } catch (Exception e) {
+            log.warn("风控分数推送消息解析失败|Risk_score_push_parse_failed,error={}", e.getMessage());
+            return;
+        }
+        if (dto.getScore() == null || dto.getTimestamp() == null || dto.getExpireTimestamp() == null) {
+            log.warn("风控分数推送消息字段缺失|Risk_score_push_incomplete,dto={}", dto);
+            return;
+        }
+        update(dto);
+    }
+
+    /**
+     * 更新快照（丢弃早于当前快照的消息）
+     *
+     * @param dto 风控分数
+     */
+    synchronized void update(MarketSentimentDTO dto) {
+        Snapshot current = snapshot;
+        if (current != null && dto.getTimestamp() < current.timestamp()) {
+            log.debug("风控分数推送乱序_忽略|Risk_score_push_out_of_order,timestamp={},current={}",
+                    dto.getTimestamp(), current.timestamp());
+            return;
+        }
+        snapshot = new Snapshot(dto.getTimestamp(), dto.getExpireTimestamp(),
+                new RiskControlClient.RiskScoreResult(dto.getScore(), false));
+        log.debug("风控分数快照更新|Risk_score_snapshot_updated,score={},zone={},expireIn={}ms",
+                dto.getScore(), dto.getZoneName(), dto.getExpireTimestamp() - System.currentTimeMillis());
+    }
+}
@@ -5,13 +5,18 @@ import constants.RedisKeyConstants;
 import enums.strategy.SignalStatusEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import util.JsonUtil;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 信号缓存服务 (Signal Cache Service)
@@ -24,6 +29,8 @@ import java.util.List;
  * <p>
  * 设计目的：
  * 实现 Cache-Aside 写入策略，确保缓存数据实时更新。
+ * 每次写入列表后递增对应的版本号 Key，并向变更频道发布 {strategyId}:{tradeDate}，
+ * 股票列表模块订阅后刷新本地缓存，按版本判断本地解析快照是否需要重建。
  *
  * @author hli
  * @date 2026-01-30
@@ -38,6 +45,17 @@ public class SignalCacheService {
      */
     private static final String REDIS_KEY_PREFIX = RedisKeyConstants.STOCK_SIGNAL_LIST_PREFIX;
 
+    /**
+     * Redis Key 前缀：股票信号列表版本号
+     * 格式：stock:signal:version:{strategyId}:{tradeDate}
+     */
+    private static final String VERSION_KEY_PREFIX = RedisKeyConstants.STOCK_SIGNAL_VERSION_PREFIX;
+
+    /**
+     * 信号列表变更发布频道
+     */
+    private static final String CHANGE_CHANNEL = RedisKeyConstants.STOCK_SIGNAL_CHANGE_CHANNEL;
+
     /**
      * 缓存过期时间：24 小时
      */
@@ -68,8 +86,8 @@ public class SignalCacheService {
             return;
         }
 
-        String key = buildRedisKey(signal.getStrategyId(),
-                signal.getTradeDate().format(DATE_FORMATTER));
+        String tradeDate = signal.getTradeDate().format(DATE_FORMATTER);
+        String key = buildRedisKey(signal.getStrategyId(), tradeDate);
         String value = JsonUtil.toJson(signal);
 
         try {
@@ -77,6 +95,7 @@ public class SignalCacheService {
             redisTemplate.opsForList().rightPush(key, value);
             // 设置过期时间
             redisTemplate.expire(key, CACHE_TTL);
+            bumpVersion(signal.getStrategyId(), tradeDate);
 
             log.debug("信号缓存更新|Signal_cache_updated,key={},code={}",
                     key, signal.getWindCode());
@@ -87,6 +106,66 @@ public class SignalCacheService {
         }
     }
 
+    /**
+     * 批量追加信号到缓存（管道）
+     * <p>
+     * 只缓存 PASSED 信号，按 (strategyId, tradeDate) 分组后在一个管道内对每个 Key 执行一次 RPUSH（多值）
+     * 和一次 EXPIRE，递增该 Key 的版本号并发布变更事件，整批只有一次网络往返。同一 Key 内保持入参顺序。
+     *
+     * @param signals 信号实体列表
+     * @return 写入缓存的信号数
+     */
+    public int updateSignalCacheBatch(List<StockSignal> signals) {
+        if (signals == null || signals.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<byte[]>> valuesByKey = new LinkedHashMap<>();
+        Map<String, String> changeByKey = new LinkedHashMap<>();
+        int count = 0;
+        for (StockSignal signal : signals) {
+            Integer showStatus = signal.getShowStatus();
+            if (showStatus == null || SignalStatusEnum.PASSED.getCode() != showStatus) {
+                continue;
+            }
+            String tradeDate = signal.getTradeDate().format(DATE_FORMATTER);
+            String key = buildRedisKey(signal.getStrategyId(), tradeDate);
+            changeByKey.computeIfAbsent(key, k -> signal.getStrategyId() + ":" + tradeDate);
+            valuesByKey.computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(JsonUtil.toJson(signal).getBytes(StandardCharsets.UTF_8));
+            count++;
+        }
+        if (valuesByKey.isEmpty()) {
+            return 0;
+        }
+
+        long ttlSeconds = CACHE_TTL.toSeconds();
+        byte[] channel = CHANGE_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, List<byte[]>> entry : valuesByKey.entrySet()) {
+                    byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    connection.listCommands().rPush(key, entry.getValue().toArray(new byte[0][]));
+                    connection.keyCommands().expire(key, ttlSeconds);
+                    // 列表写入后再递增版本号，读到新版本号的一方一定能读到新数据
+                    String change = changeByKey.get(entry.getKey());
+                    byte[] versionKey = (VERSION_KEY_PREFIX + change).getBytes(StandardCharsets.UTF_8);
+                    connection.stringCommands().incr(versionKey);
+                    connection.keyCommands().expire(versionKey, ttlSeconds);
+                    connection.publish(channel, change.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            log.debug("信号缓存批量更新|Signal_cache_batch_updated,keys={},count={}", valuesByKey.size(), count);
+            return count;
+        } catch (Exception e) {
+            // 缓存更新失败不影响主流程
+            log.warn("信号缓存批量更新失败|Signal_cache_batch_update_failed,keys={},count={},error={}",
+                    valuesByKey.size(), count, e.getMessage());
+            return 0;
+        }
+    }
+
     /**
      * 批量刷新策略信号缓存
      * <p>
@@ -115,11 +194,37 @@ public class SignalCacheService {
                 log.info("信号缓存刷新完成|Signal_cache_refreshed,key={},count={}",
                         key, signals.size());
             }
+            // 清空也是一次变更
+            bumpVersion(strategyId, tradeDate);
         } catch (Exception e) {
             log.error("信号缓存刷新失败|Signal_cache_refresh_failed,key={}", key, e);
         }
     }
 
+    /**
+     * 递增信号列表版本号并发布变更事件
+     *
+     * @param strategyId 策略ID
+     * @param tradeDate  交易日字符串
+     */
+    private void bumpVersion(String strategyId, String tradeDate) {
+        String versionKey = buildVersionKey(strategyId, tradeDate);
+        redisTemplate.opsForValue().increment(versionKey);
+        redisTemplate.expire(versionKey, CACHE_TTL);
+        redisTemplate.convertAndSend(CHANGE_CHANNEL, strategyId + ":" + tradeDate);
+    }
+
+    /**
+     * 构建版本号 Redis Key
+     *
+     * @param strategyId 策略ID
+     * @param tradeDate  交易日字符串
+     * @return 版本号 Redis Key
+     */
+    private String buildVersionKey(String strategyId, String tradeDate) {
+        return VERSION_KEY_PREFIX + strategyId + ":" + tradeDate;
+    }
+
     /**
      * 构建 Redis Key
      *
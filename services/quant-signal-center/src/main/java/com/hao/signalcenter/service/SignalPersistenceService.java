@@ -1,10 +1,12 @@
 package com.hao.signalcenter.service;
 
+import com.hao.signalcenter.config.SignalConsumeProperties;
 import com.hao.signalcenter.mapper.StockSignalMapper;
 import com.hao.signalcenter.model.StockSignal;
 import dto.StrategySignalDTO;
 import enums.strategy.SignalStatusEnum;
 import enums.strategy.StrategyRiskLevelEnum;
+import exception.DataException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 信号持久化服务 (Signal Persistence Service)
@@ -27,6 +34,7 @@ import java.time.format.DateTimeFormatter;
  * 1. 追加模式 (Insert Mode)：同一股票+策略在同一天可多次触发
  * 2. 唯一键 (wind_code, strategy_id, signal_time) 防止同一毫秒内并发重复
  * 3. 保留完整信号流水，支持历史回测和信号稳定性分析
+ * 4. 批量模式下整批信号在一个事务内以多行 INSERT 写入，再按唯一键回查主键（重新投递时命中已有行，不能依赖驱动回填）
  *
  * @author hli
  * @date 2026-01-30
@@ -41,7 +49,7 @@ public class SignalPersistenceService {
     private StockSignalMapper stockSignalMapper;
 
     @Autowired
-    private RiskControlClient riskControlClient;
+    private SignalConsumeProperties consumeProperties;
 
     /**
      * 保存策略信号
@@ -73,6 +81,66 @@ public class SignalPersistenceService {
         return signal;
     }
 
+    /**
+     * 批量保存策略信号
+     * <p>
+     * 整批共用一次风控分数快照，在同一事务内按 insertChunkSize 拆分为多行 INSERT；任一语句失败整批回滚。
+     * 每个分片写入后按唯一键回查主键，重新投递的信号拿到的是已存在行的 id。
+     *
+     * @param signalDTOs 策略信号 DTO 列表
+     * @param riskScore  当前风控分数
+     * @param isFallback 是否处于降级模式
+     * @return 保存的信号实体（与入参顺序一致）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<StockSignal> saveSignals(List<StrategySignalDTO> signalDTOs, int riskScore, boolean isFallback) {
+        List<StockSignal> signals = new ArrayList<>(signalDTOs.size());
+        for (StrategySignalDTO dto : signalDTOs) {
+            SignalStatusEnum status = determineStatus(dto.getRiskLevel(), riskScore, isFallback);
+            signals.add(buildEntity(dto, status, riskScore));
+        }
+        if (signals.isEmpty()) {
+            return signals;
+        }
+
+        int chunkSize = Math.max(1, consumeProperties.getInsertChunkSize());
+        int affected = 0;
+        for (int from = 0; from < signals.size(); from += chunkSize) {
+            List<StockSignal> chunk = signals.subList(from, Math.min(signals.size(), from + chunkSize));
+            affected += stockSignalMapper.insertBatch(chunk);
+            fillIds(chunk);
+        }
+
+        log.info("信号批量落库完成|Signal_batch_persisted,count={},riskScore={},fallback={},affected={}",
+                signals.size(), riskScore, isFallback, affected);
+        return signals;
+    }
+
+    /**
+     * 按唯一键回查主键并写回实体（同一批内唯一键重复的信号对应同一行）
+     *
+     * @param chunk 已写入的信号
+     */
+    private void fillIds(List<StockSignal> chunk) {
+        Map<String, Long> idByKey = new HashMap<>(chunk.size() * 2);
+        for (StockSignal row : stockSignalMapper.selectIdsByUniqueKeys(chunk)) {
+            idByKey.put(uniqueKey(row), row.getId());
+        }
+        for (StockSignal signal : chunk) {
+            Long id = idByKey.get(uniqueKey(signal));
+            if (id == null) {
+                // 刚写入的行在同一事务内必然可见，查不到说明唯一键取值与库中不一致
+                throw new DataException("信号主键回查失败|Signal_id_lookup_failed,code=" + signal.getWindCode()
+                        + ",strategyId=" + signal.getStrategyId() + ",signalTime=" + signal.getSignalTime());
+            }
+            signal.setId(id);
+        }
+    }
+
+    private static String uniqueKey(StockSignal signal) {
+        return signal.getWindCode() + "|" + signal.getStrategyId() + "|" + signal.getSignalTime();
+    }
+
     /**
      * 判断信号展示状态
      *
@@ -116,11 +184,12 @@ public class SignalPersistenceService {
         signal.setSignalType(dto.getSignalType());
         signal.setTriggerPrice(dto.getTriggerPrice());
         
-        // signalTime 必须非空（数据库 NOT NULL 约束）
+        // signalTime 必须非空（数据库 NOT NULL 约束）；截断到毫秒与 DATETIME(3) 一致，按唯一键回查时才能精确匹配
         LocalDateTime signalTime = dto.getSignalTime();
         if (signalTime == null) {
             signalTime = LocalDateTime.now();
         }
+        signalTime = signalTime.truncatedTo(ChronoUnit.MILLIS);
         signal.setSignalTime(signalTime);
 
         // 解析交易日（从 signalTime 衍生）
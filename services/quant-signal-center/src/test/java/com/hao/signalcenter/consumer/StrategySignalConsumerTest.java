@@ -0,0 +1,225 @@
+package com.hao.signalcenter.consumer;
+
+import com.hao.signalcenter.config.SignalConsumeProperties;
+import com.hao.signalcenter.mapper.StockSignalMapper;
+import com.hao.signalcenter.model.StockSignal;
+import com.hao.signalcenter.service.RiskControlClient;
+import com.hao.signalcenter.service.RiskScoreSnapshot;
+import com.hao.signalcenter.service.SignalCacheService;
+import com.hao.signalcenter.service.SignalPersistenceService;
+import dto.StrategySignalDTO;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import util.JsonUtil;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * StrategySignalConsumer 批量消费测试
+ * <p>
+ * 测试目的：
+ * 1. 批量消费：一次落库、一次写缓存、确认整批 Offset，写入缓存的信号带有库中的主键。
+ * 2. 重新投递：已落库的信号再次到达时命中唯一键，推送到缓存的 id 仍是已存在行的 id，新信号拿到新 id，不会错位。
+ * 3. 落库失败：不确认、不写缓存，nack 整批等待重新投递。
+ *
+ * @author hli
+ * @date 2026-02-16
+ */
+class StrategySignalConsumerTest {
+
+    private static final LocalDateTime SIGNAL_TIME = LocalDateTime.of(2026, 2, 16, 10, 30, 0, 123_456_789);
+
+    private FakeStockSignalMapper mapper;
+    private SignalCacheService signalCacheService;
+    private StrategySignalConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new FakeStockSignalMapper();
+        SignalConsumeProperties properties = new SignalConsumeProperties();
+        properties.setInsertChunkSize(2);
+
+        SignalPersistenceService persistenceService = new SignalPersistenceService();
+        ReflectionTestUtils.setField(persistenceService, "stockSignalMapper", mapper);
+        ReflectionTestUtils.setField(persistenceService, "consumeProperties", properties);
+
+        RiskScoreSnapshot riskScoreSnapshot = mock(RiskScoreSnapshot.class);
+        when(riskScoreSnapshot.current()).thenReturn(new RiskControlClient.RiskScoreResult(80, false));
+        signalCacheService = mock(SignalCacheService.class);
+        when(signalCacheService.updateSignalCacheBatch(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        consumer = new StrategySignalConsumer();
+        ReflectionTestUtils.setField(consumer, "riskScoreSnapshot", riskScoreSnapshot);
+        ReflectionTestUtils.setField(consumer, "signalPersistenceService", persistenceService);
+        ReflectionTestUtils.setField(consumer, "signalCacheService", signalCacheService);
+        ReflectionTestUtils.setField(consumer, "consumeProperties", properties);
+        consumer.initMeters();
+    }
+
+    @Test
+    @DisplayName("批量消费与重新投递：缓存中的信号id与库中行一致")
+    void consumeBatch_shouldCacheStoredIdsOnRedelivery() {
+        Acknowledgment firstAck = mock(Acknowledgment.class);
+        consumer.consumeBatch(List.of(
+                record(0, signal("600519.SH", SIGNAL_TIME)),
+                record(1, signal("000001.SZ", SIGNAL_TIME)),
+                record(2, "not a signal")), firstAck);
+
+        verify(firstAck).acknowledge();
+        List<StockSignal> first = cachedSignals(1);
+        assertEquals(2, first.size());
+        assertEquals(2, mapper.rows.size());
+        assertStoredIds(first);
+
+        // 重新投递：已落库的两条排在新信号之前，驱动按首个自增值推算 id 会把新 id 分给已存在的行
+        Acknowledgment secondAck = mock(Acknowledgment.class);
+        consumer.consumeBatch(List.of(
+                record(1, signal("000001.SZ", SIGNAL_TIME)),
+                record(3, signal("300750.SZ", SIGNAL_TIME)),
+                record(0, signal("600519.SH", SIGNAL_TIME))), secondAck);
+
+        verify(secondAck).acknowledge();
+        List<StockSignal> second = cachedSignals(2);
+        assertEquals(3, second.size());
+        assertEquals(3, mapper.rows.size(), "重新投递的信号不应新增行");
+        assertStoredIds(second);
+        assertEquals(first.get(1).getId(), second.get(0).getId());
+        assertEquals(first.get(0).getId(), second.get(2).getId());
+        assertEquals(3L, second.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("落库失败时nack整批且不写缓存")
+    void consumeBatch_shouldNackWhenPersistFails() {
+        mapper.failInsert = true;
+        Acknowledgment ack = mock(Acknowledgment.class);
+        // 与批量监听器的 Acknowledgment 一致：只支持 nack(index, sleep)
+        doThrow(new UnsupportedOperationException("nack(Duration) is not supported by batch listeners"))
+                .when(ack).nack(any(Duration.class));
+
+        consumer.consumeBatch(List.of(record(0, signal("600519.SH", SIGNAL_TIME))), ack);
+
+        verify(ack, never()).acknowledge();
+        verify(ack).nack(eq(0), any(Duration.class));
+        verify(signalCacheService, never()).updateSignalCacheBatch(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockSignal> cachedSignals(int calls) {
+        ArgumentCaptor<List<StockSignal>> captor = ArgumentCaptor.forClass(List.class);
+        verify(signalCacheService, times(calls)).updateSignalCacheBatch(captor.capture());
+        return captor.getAllValues().get(calls - 1);
+    }
+
+    private void assertStoredIds(List<StockSignal> signals) {
+        for (StockSignal signal : signals) {
+            StockSignal row = mapper.rows.get(FakeStockSignalMapper.key(signal));
+            assertNotNull(row);
+            assertEquals(row.getId(), signal.getId(), "缓存中的信号id应为库中行的id," + signal.getWindCode());
+        }
+    }
+
+    private static String signal(String windCode, LocalDateTime signalTime) {
+        StrategySignalDTO dto = new StrategySignalDTO();
+        dto.setWindCode(windCode);
+        dto.setStrategyId("NINE_TURN_RED");
+        dto.setSignalType("BUY");
+        dto.setSignalTime(signalTime);
+        dto.setTriggerPrice(10.0);
+        dto.setRiskLevel("LOW");
+        return JsonUtil.toJson(dto);
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String value) {
+        return new ConsumerRecord<>("stock-strategy-signal", 0, offset, null, value);
+    }
+
+    /**
+     * 内存版信号表：按唯一键 (wind_code, strategy_id, signal_time) 合并写入，自增主键；与 MySQL 一样不保留纳秒
+     */
+    private static class FakeStockSignalMapper implements StockSignalMapper {
+
+        private final Map<String, StockSignal> rows = new LinkedHashMap<>();
+        private long nextId = 1;
+        private boolean failInsert;
+
+        static String key(StockSignal signal) {
+            return signal.getWindCode() + "|" + signal.getStrategyId() + "|" + signal.getSignalTime();
+        }
+
+        @Override
+        public int insert(StockSignal signal) {
+            return insertBatch(List.of(signal));
+        }
+
+        @Override
+        public int insertBatch(List<StockSignal> signals) {
+            if (failInsert) {
+                throw new IllegalStateException("database unavailable");
+            }
+            int affected = 0;
+            for (StockSignal signal : signals) {
+                assertEquals(0, signal.getSignalTime().getNano() % 1_000_000, "signal_time 应截断到毫秒");
+                StockSignal row = rows.get(key(signal));
+                if (row == null) {
+                    row = new StockSignal();
+                    row.setId(nextId++);
+                    row.setWindCode(signal.getWindCode());
+                    row.setStrategyId(signal.getStrategyId());
+                    row.setSignalTime(signal.getSignalTime());
+                    rows.put(key(signal), row);
+                    affected++;
+                } else {
+                    affected += 2;
+                }
+                row.setTriggerPrice(signal.getTriggerPrice());
+                row.setShowStatus(signal.getShowStatus());
+            }
+            return affected;
+        }
+
+        @Override
+        public List<StockSignal> selectIdsByUniqueKeys(List<StockSignal> signals) {
+            List<StockSignal> result = new ArrayList<>();
+            for (StockSignal signal : signals) {
+                StockSignal row = rows.get(key(signal));
+                if (row != null && !result.contains(row)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<StockSignal> selectPassedSignals(String strategyId, LocalDate tradeDate) {
+            return List.of();
+        }
+
+        @Override
+        public List<StockSignal> selectAllPassedSignalsByDate(LocalDate tradeDate) {
+            return List.of();
+        }
+
+        @Override
+        public List<StockSignal> selectLatestSignals(String strategyId, LocalDate tradeDate) {
+            return List.of();
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.hao.quant.stocklist.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 缓存配置类 (Cache Configuration)
@@ -15,9 +18,12 @@ import java.util.concurrent.TimeUnit;
  * 配置本地 Caffeine 缓存（L1），实现极速读取。
  * <p>
  * 设计目的：
- * 1. Caffeine 作为一级缓存（L1），TTL 3 秒，提供极速本地读取
- * 2. 采用 expireAfterWrite，写入后固定时间过期
- * 3. 最大容量 1000 条，使用 W-TinyLFU 淘汰策略
+ * 1. Caffeine 作为一级缓存（L1），提供极速本地读取
+ * 2. 按交易日区分过期时间：当日 10 分钟，历史交易日 30 分钟
+ * 3. refreshAfterWrite 3 秒：过期前的访问在后台刷新，请求线程直接返回旧值；
+ *    刷新时版本号未变则沿用旧快照，信号变更由 Redis Pub/Sub 事件触发即时刷新（见 SignalChangeSubscriptionConfig）
+ * 4. 最大容量 1000 条，使用 W-TinyLFU 淘汰策略
+ * 5. 以 AsyncLoadingCache 构建（见 MultiLevelCacheService），同一 Key 的并发未命中只触发一次加载
  *
  * @author hli
  * @date 2026-01-30
@@ -26,23 +32,94 @@ import java.util.concurrent.TimeUnit;
 public class CacheConfig {
 
     /**
-     * 股票信号本地缓存
+     * 后台刷新间隔：写入后超过该时间的访问触发异步刷新
+     */
+    private static final Duration REFRESH_AFTER_WRITE = Duration.ofSeconds(3);
+
+    /**
+     * 当日信号过期时间（无访问时的驻留上限，数据新鲜度由刷新与变更事件保证）
+     */
+    private static final Duration TODAY_EXPIRE = Duration.ofMinutes(10);
+
+    /**
+     * 历史交易日信号过期时间
+     */
+    private static final Duration HISTORY_EXPIRE = Duration.ofMinutes(30);
+
+    /**
+     * 股票信号本地缓存的构建参数
      * <p>
      * Key: 缓存键（如 stock:signal:list:RED_NINE_TURN:2026-01-30）
-     * Value: 信号列表 JSON 字符串
+     * Value: 信号快照（SignalSnapshot）
      * <p>
      * 配置：
-     * - expireAfterWrite: 3 秒（写入后 3 秒过期）
+     * - expireAfter: 当日 10 分钟、历史交易日 30 分钟（按写入时间计算）
+     * - refreshAfterWrite: 3 秒（后台刷新，不阻塞请求）
      * - maximumSize: 1000 条
+     * - executor: 加载（L2/L3 回源）在独立 IO 线程池执行，不占用 ForkJoin 公共池
+     * <p>
+     * 加载器依赖 Redis / MySQL，由 MultiLevelCacheService 调用 buildAsync 完成构建。
      *
-     * @return Caffeine Cache 实例
+     * @param cacheLoadExecutor 回源加载线程池
+     * @return Caffeine 构建器
      */
-    @Bean("stockSignalCache")
-    public Cache<String, List<String>> stockSignalCache() {
+    @Bean("stockSignalCacheBuilder")
+    public Caffeine<Object, Object> stockSignalCacheBuilder(
+            @Qualifier("cacheLoadExecutor") ThreadPoolTaskExecutor cacheLoadExecutor) {
         return Caffeine.newBuilder()
-                .expireAfterWrite(3, TimeUnit.SECONDS)  // L1 缓存 3 秒过期
+                .expireAfter(new TradeDateExpiry())      // 按交易日区分过期时间
+                .refreshAfterWrite(REFRESH_AFTER_WRITE)  // 3 秒后访问触发后台刷新
                 .maximumSize(1000)                       // 最大 1000 条
-                .recordStats()                           // 开启统计（便于监控）
-                .build();
+                .executor(cacheLoadExecutor)             // 回源加载线程池
+                .recordStats();                          // 开启统计（便于监控）
+    }
+
+    /**
+     * L1 回源加载线程池
+     * <p>
+     * 单飞（single-flight）后每个 Key 同时只有一个加载任务，线程数按活跃 Key 数量估算即可。
+     *
+     * @return 线程池
+     */
+    @Bean("cacheLoadExecutor")
+    public ThreadPoolTaskExecutor cacheLoadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("l1-load-");
+        // 队列满时由调用线程执行，保证加载不丢失
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 按交易日区分的过期策略
+     * <p>
+     * Key 的最后一段为交易日（yyyy-MM-dd），与当天相同视为当日信号；创建与更新（含刷新）都重新计时，读取不影响。
+     */
+    private static final class TradeDateExpiry implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return expireNanos(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireNanos(key);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long expireNanos(Object key) {
+            String cacheKey = key.toString();
+            String tradeDate = cacheKey.substring(cacheKey.lastIndexOf(':') + 1);
+            return (LocalDate.now().toString().equals(tradeDate) ? TODAY_EXPIRE : HISTORY_EXPIRE).toNanos();
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.hao.quant.stocklist.config;
+
+import com.hao.quant.stocklist.service.MultiLevelCacheService;
+import constants.RedisKeyConstants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 信号变更订阅配置类 (Signal Change Subscription Configuration)
+ * <p>
+ * 类职责：
+ * 订阅 quant-signal-center 发布的信号列表变更频道，把每条消息交给 {@link MultiLevelCacheService#onSignalChanged(String)}。
+ * <p>
+ * 设计目的：
+ * L1 不再依赖 3 秒固定过期来感知变更：信号写入后立即刷新对应快照，过期时间可以放长，Redis 读取量随之下降。
+ * Pub/Sub 消息可能丢失（如断线期间），此时由 refreshAfterWrite 的版本校验兜底。
+ * <p>
+ * 开关：stock-list.cache.change-subscribe-enabled=false 时不创建订阅，只依赖后台刷新。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "stock-list.cache", name = "change-subscribe-enabled", havingValue = "true", matchIfMissing = true)
+public class SignalChangeSubscriptionConfig {
+
+    /**
+     * 信号变更订阅容器
+     * <p>
+     * 容器内部维护订阅连接，断线后自动重连并重新订阅。
+     *
+     * @param connectionFactory      Redis 连接工厂
+     * @param multiLevelCacheService 多级缓存服务
+     * @return RedisMessageListenerContainer 实例
+     */
+    @Bean
+    public RedisMessageListenerContainer signalChangeListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       MultiLevelCacheService multiLevelCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> multiLevelCacheService.onSignalChanged(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisKeyConstants.STOCK_SIGNAL_CHANGE_CHANNEL));
+        return container;
+    }
+}
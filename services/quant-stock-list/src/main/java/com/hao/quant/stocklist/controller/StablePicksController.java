@@ -14,34 +14,39 @@ package com.hao.quant.stocklist.controller;
  * English: Provides high-performance stock list query based on multi-level cache.
  */
 
-import com.hao.quant.stocklist.controller.vo.StablePicksVO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hao.quant.stocklist.common.dto.PageResult;
 import com.hao.quant.stocklist.common.dto.Result;
+import com.hao.quant.stocklist.controller.vo.StablePicksVO;
+import com.hao.quant.stocklist.model.SignalSnapshot;
 import com.hao.quant.stocklist.service.MultiLevelCacheService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import util.JsonUtil;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 每日精选股票查询接口。
  * <p>
  * 基于多级缓存架构实现高性能查询：
- * L1 Caffeine（3秒） -> L2 Redis -> L3 MySQL
+ * L1 Caffeine（3秒后台刷新 + 变更事件刷新） -> L2 Redis -> L3 MySQL
  * </p>
  */
 @Slf4j
@@ -56,25 +61,33 @@ public class StablePicksController {
     @Autowired
     private MultiLevelCacheService multiLevelCacheService;
 
+    /**
+     * Spring MVC 使用的 ObjectMapper，保证预渲染的响应体与原先返回对象时的序列化结果一致
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 方法说明 / Method Description:
      * 中文：查询指定交易日的精选股票分页列表。
      * English: Query paged list of stable picks for a given trade date.
      * <p>
      * 查询流程：
-     * 1. 调用 MultiLevelCacheService 查询多级缓存
-     * 2. 解析 JSON 字符串为 VO 对象
-     * 3. 分页处理并返回
+     * 1. 调用 MultiLevelCacheService 获取信号快照（JSON 已在加载时解析为 VO）
+     * 2. 取该页预渲染的响应体（首次请求该页时渲染，之后直接返回同一字节数组）
+     * 3. 快照版本号作为 ETag 返回
      *
      * @param tradeDate    交易日期
      * @param strategyId   策略ID（可选，默认查询所有策略）
      * @param pageNum      页码（默认1）
      * @param pageSize     每页数量（默认20）
-     * @return 分页结果
+     * @return 分页结果（Result&lt;PageResult&lt;StablePicksVO&gt;&gt; 的 JSON）
      */
     @GetMapping("/daily")
     @Operation(summary = "查询每日精选", description = "根据交易日期和策略名称查询股票列表")
-    public Result<PageResult<StablePicksVO>> queryDailyPicks(
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = Result.class)))
+    public ResponseEntity<byte[]> queryDailyPicks(
             @RequestParam @NotNull(message = "交易日期不能为空")
             @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate tradeDate,
             @RequestParam(required = false, defaultValue = "ALL") String strategyId,
@@ -88,66 +101,51 @@ public class StablePicksController {
                 tradeDateStr, strategyId, pageNum, pageSize);
 
         try {
-            // 1. 从多级缓存查询
-            List<String> signalJsonList = multiLevelCacheService.querySignals(strategyId, tradeDateStr);
-
-            if (signalJsonList == null || signalJsonList.isEmpty()) {
-                log.info("查询结果为空|Query_result_empty,tradeDate={},strategy={}",
-                        tradeDateStr, strategyId);
-                return Result.success(PageResult.empty());
-            }
-
-            // 2. 解析 JSON 为 VO
-            List<StablePicksVO> allPicks = signalJsonList.stream()
-                    .map(this::parseToVO)
-                    .filter(java.util.Objects::nonNull)
-                    .collect(Collectors.toList());
-
-            // 3. 手动分页
-            int total = allPicks.size();
-            int startIndex = (pageNum - 1) * pageSize;
-            int endIndex = Math.min(startIndex + pageSize, total);
-
-            List<StablePicksVO> pagedPicks;
-            if (startIndex >= total) {
-                pagedPicks = Collections.emptyList();
-            } else {
-                pagedPicks = allPicks.subList(startIndex, endIndex);
-            }
+            // 1. 从多级缓存获取快照
+            SignalSnapshot snapshot = multiLevelCacheService.querySnapshot(strategyId, tradeDateStr);
 
-            // 使用 builder 构建 PageResult
-            PageResult<StablePicksVO> pageResult = PageResult.<StablePicksVO>builder()
-                    .records(pagedPicks)
-                    .total(total)
-                    .pageNum(pageNum)
-                    .pageSize(pageSize)
-                    .build();
+            // 2. 取预渲染的分页响应体
+            byte[] body = snapshot.page(pageNum, pageSize, this::render);
 
             long costTime = System.currentTimeMillis() - startTime;
-            log.info("查询每日精选完成|Daily_picks_done,tradeDate={},total={},costMs={}",
-                    tradeDateStr, total, costTime);
+            log.info("查询每日精选完成|Daily_picks_done,tradeDate={},total={},version={},costMs={}",
+                    tradeDateStr, snapshot.getPicks().size(), snapshot.getVersion(), costTime);
 
-            return Result.success(pageResult);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            if (snapshot.getVersion() > 0) {
+                response.eTag("\"" + snapshot.getVersion() + "-" + pageNum + "-" + pageSize + "\"");
+            }
+            return response.body(body);
 
         } catch (Exception e) {
             log.error("查询每日精选异常|Daily_picks_error,tradeDate={}", tradeDateStr, e);
-            return Result.failure(500, "查询失败：" + e.getMessage());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(render(Result.failure(500, "查询失败：" + e.getMessage())));
         }
     }
 
     /**
-     * 解析 JSON 字符串为 StablePicksVO
+     * 渲染分页结果为响应体
      *
-     * @param json JSON 字符串
-     * @return VO 对象，解析失败返回 null
+     * @param pageResult 分页结果
+     * @return JSON 字节
      */
-    private StablePicksVO parseToVO(String json) {
+    private byte[] render(PageResult<StablePicksVO> pageResult) {
+        return render(Result.success(pageResult));
+    }
+
+    /**
+     * 序列化响应对象
+     *
+     * @param result 响应对象
+     * @return JSON 字节
+     */
+    private byte[] render(Result<?> result) {
         try {
-            return JsonUtil.toBean(json, StablePicksVO.class);
-        } catch (Exception e) {
-            log.warn("JSON解析失败|Json_parse_failed,json={}", json);
-            return null;
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
-
@@ -0,0 +1,152 @@
+package com.hao.quant.stocklist.model;
+
+import com.hao.quant.stocklist.common.dto.PageResult;
+import com.hao.quant.stocklist.controller.vo.StablePicksVO;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 信号列表快照 (Signal Snapshot)
+ * <p>
+ * 类职责：
+ * L1 缓存中一个 (strategyId, tradeDate) 的不可变视图：原始 JSON、解析后的 VO 列表、以及按页预渲染的响应体。
+ * <p>
+ * 设计目的：
+ * 1. JSON 只在加载时解析一次，请求路径不再逐条 toBean
+ * 2. 每个 (pageNum, pageSize) 的响应体首次请求时渲染并记住，之后请求只是一次哈希查找 + 字节拷贝
+ * 3. version 取自信号中心写入时递增的版本号，用作 ETag，并用于判断快照是否需要重建
+ * <p>
+ * 4. 刷新时若版本号未变，直接沿用旧快照（只更新校验时间），不重新读取与解析列表
+ * <p>
+ * 线程安全：数据部分不可变；页缓存为 ConcurrentHashMap，并发渲染同一页时结果相同，先到者生效；
+ * 校验时间与失效标记为 volatile，只影响刷新时是否需要回源。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+public final class SignalSnapshot {
+
+    /**
+     * 单个快照最多缓存的页数，防止任意 pageSize 组合撑大内存；超出后仍可渲染，只是不缓存
+     */
+    private static final int MAX_CACHED_PAGES = 64;
+
+    private final long version;
+    private final List<String> signals;
+    private final List<StablePicksVO> picks;
+    private final Map<Long, byte[]> pages = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次确认与 Redis 一致的时间（System.nanoTime）
+     */
+    private volatile long verifiedAtNanos = System.nanoTime();
+
+    /**
+     * 是否已收到变更事件（收到后刷新必须回源，不能沿用）
+     */
+    private volatile boolean stale;
+
+    public SignalSnapshot(long version, List<String> signals, List<StablePicksVO> picks) {
+        this.version = version;
+        this.signals = Collections.unmodifiableList(signals);
+        this.picks = Collections.unmodifiableList(picks);
+    }
+
+    /**
+     * @return 版本号（0 表示 Redis 中没有版本号，例如数据由 L3 回填）
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 原始信号 JSON 列表（只读）
+     */
+    public List<String> getSignals() {
+        return signals;
+    }
+
+    /**
+     * @return 解析后的 VO 列表（只读）
+     */
+    public List<StablePicksVO> getPicks() {
+        return picks;
+    }
+
+    /**
+     * @return 最近一次确认与 Redis 一致的时间（System.nanoTime）
+     */
+    public long getVerifiedAtNanos() {
+        return verifiedAtNanos;
+    }
+
+    /**
+     * 刷新时确认版本未变，沿用本快照
+     */
+    public void markVerified() {
+        this.verifiedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * @return 是否已收到变更事件
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * 收到变更事件，下次刷新必须回源
+     */
+    public void markStale() {
+        this.stale = true;
+    }
+
+    /**
+     * 获取某一页的响应体
+     * <p>
+     * 实现逻辑：
+     * 1. 按 (pageNum, pageSize) 查页缓存，命中直接返回。
+     * 2. 未命中时切出该页并交给 renderer 序列化；空列表沿用原接口的 PageResult.empty()。
+     *
+     * @param pageNum  页码（从 1 开始）
+     * @param pageSize 每页数量
+     * @param renderer 分页结果序列化函数
+     * @return 响应体字节（调用方不得修改）
+     */
+    public byte[] page(int pageNum, int pageSize, Function<PageResult<StablePicksVO>, byte[]> renderer) {
+        if (pageNum < 1 || pageSize < 1) {
+            throw new IllegalArgumentException("pageNum and pageSize must be positive");
+        }
+        long pageKey = ((long) pageNum << 32) | pageSize;
+        byte[] body = pages.get(pageKey);
+        if (body != null) {
+            return body;
+        }
+        body = renderer.apply(slice(pageNum, pageSize));
+        if (pages.size() < MAX_CACHED_PAGES) {
+            pages.putIfAbsent(pageKey, body);
+        }
+        return body;
+    }
+
+    private PageResult<StablePicksVO> slice(int pageNum, int pageSize) {
+        if (picks.isEmpty()) {
+            return PageResult.empty();
+        }
+        int total = picks.size();
+        long startIndex = (long) (pageNum - 1) * pageSize;
+        List<StablePicksVO> records = startIndex >= total
+                ? Collections.emptyList()
+                : picks.subList((int) startIndex, (int) Math.min(startIndex + pageSize, total));
+        return PageResult.<StablePicksVO>builder()
+                .records(records)
+                .total(total)
+                .pageNum(pageNum)
+                .pageSize(pageSize)
+                .build();
+    }
+}
@@ -6,8 +6,12 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hao.quant.stocklist.controller.vo.StablePicksVO;
 import com.hao.quant.stocklist.mapper.StockSignalMapper;
+import com.hao.quant.stocklist.model.SignalSnapshot;
 import com.hao.quant.stocklist.model.StockSignal;
 import constants.RedisKeyConstants;
 import constants.SentinelResourceConstants;
@@ -22,9 +26,12 @@ import org.springframework.stereotype.Service;
 import util.JsonUtil;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -32,12 +39,19 @@ import java.util.stream.Collectors;
  * 多级缓存服务 (Multi-Level Cache Service)
  * <p>
  * 三层保护的高并发设计：
- * L1 Caffeine（3s TTL）-> L2 Redis（24h）-> L3 MySQL（兜底）
+ * L1 Caffeine（当日 10min / 历史 30min，3s 后台刷新）-> L2 Redis（24h）-> L3 MySQL（兜底）
  * <p>
  * 保护机制：
- * 1. L1->L2: Redis 分布式锁，本地缓存过期后只有1个线程查 Redis
- * 2. L2->L3: Sentinel 限流（QPS=1），Redis 无数据时只有1个线程查 MySQL
+ * 1. L1->L2: 进程内单飞（AsyncLoadingCache），同一 Key 的并发未命中共享同一个加载 Future，只有1次查 Redis
+ * 2. L2->L3: Redis 分布式锁 + Sentinel 限流（QPS=1），Redis 无数据时全集群只有1个线程查 MySQL
  * 3. 空值保护: EMPTY_MARKER 特殊标记，查无数据时缓存标记，避免重复穿透
+ * <p>
+ * L1 保存的是 {@link SignalSnapshot}：加载时一次性解析 JSON，并按页记住渲染好的响应体。
+ * <p>
+ * 分布式锁只保护 L3 回源：L2 命中（绝大多数未命中场景）不再产生锁的 Redis 往返，也没有抢锁失败后的固定等待。
+ * <p>
+ * L1 刷新：后台刷新先读版本号，未变则沿用旧快照（一次 GET，不读列表）；历史交易日在校验间隔内直接沿用。
+ * 信号中心写入后发布变更事件，{@link #onSignalChanged(String)} 标记快照失效并立即刷新。
  *
  * @author hli
  * @date 2026-01-30
@@ -56,6 +70,11 @@ public class MultiLevelCacheService {
      */
     private static final String LOCK_KEY_PREFIX = RedisKeyConstants.STOCK_SIGNAL_LOCK_PREFIX;
 
+    /**
+     * 信号列表版本号 Key 前缀：由信号中心写入时递增
+     */
+    private static final String VERSION_KEY_PREFIX = RedisKeyConstants.STOCK_SIGNAL_VERSION_PREFIX;
+
     /**
      * 空值标记：使用统一常量
      */
@@ -86,11 +105,25 @@ public class MultiLevelCacheService {
      */
     private static final long EMPTY_CACHE_TTL_MINUTES = 1;
 
-    @Autowired
-    @Qualifier("stockSignalCache")
-    private Cache<String, List<String>> caffeineCache;
+    /**
+     * 历史交易日快照的版本校验间隔：间隔内后台刷新不访问 Redis
+     */
+    private static final long HISTORY_VERIFY_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(10);
 
+    /**
+     * 降级结果（锁等待超时、L3 被限流）对应的空快照，不写入 L1
+     */
+    private static final SignalSnapshot EMPTY_SNAPSHOT =
+            new SignalSnapshot(0, Collections.emptyList(), Collections.emptyList());
 
+    @Autowired
+    @Qualifier("stockSignalCacheBuilder")
+    private Caffeine<Object, Object> stockSignalCacheBuilder;
+
+    /**
+     * L1 本地缓存（异步加载，同一 Key 单飞）
+     */
+    private AsyncLoadingCache<String, SignalSnapshot> caffeineCache;
 
     @Autowired
     private RedissonClient redissonClient;
@@ -98,6 +131,27 @@ public class MultiLevelCacheService {
     @Autowired
     private StockSignalMapper stockSignalMapper;
 
+    /**
+     * 构建 L1 本地缓存
+     * <p>
+     * 加载器即 L2/L3 回源逻辑；返回 null 表示降级结果（锁等待超时、L3 被限流），不写入 L1。
+     * 刷新走 {@link #reloadFromRemote}，尽量沿用旧快照。
+     */
+    @PostConstruct
+    public void initLocalCache() {
+        this.caffeineCache = stockSignalCacheBuilder.buildAsync(new CacheLoader<String, SignalSnapshot>() {
+            @Override
+            public SignalSnapshot load(String cacheKey) {
+                return loadFromRemote(cacheKey);
+            }
+
+            @Override
+            public SignalSnapshot reload(String cacheKey, SignalSnapshot oldSnapshot) {
+                return reloadFromRemote(cacheKey, oldSnapshot);
+            }
+        });
+    }
+
     /**
      * 初始化 Sentinel 限流规则
      */
@@ -118,34 +172,172 @@ public class MultiLevelCacheService {
      * 多级缓存查询股票信号列表
      * <p>
      * 查询顺序：
-     * 1. L1 Caffeine 本地缓存（3 秒 TTL）
-     * 2. L2 Redis 分布式缓存（带分布式锁保护）
-     * 3. L3 MySQL 数据库（带 Sentinel 限流保护）
+     * 1. L1 Caffeine 本地缓存，未命中时同一 Key 的并发请求等待同一个加载 Future
+     * 2. L2 Redis 分布式缓存
+     * 3. L3 MySQL 数据库（带分布式锁与 Sentinel 限流保护）
      *
      * @param strategyId 策略ID
      * @param tradeDate  交易日字符串（yyyy-MM-dd）
      * @return 信号列表（JSON 字符串列表）
      */
     public List<String> querySignals(String strategyId, String tradeDate) {
+        return querySnapshot(strategyId, tradeDate).getSignals();
+    }
+
+    /**
+     * 多级缓存查询信号快照（已解析、可按页取预渲染响应体）
+     *
+     * @param strategyId 策略ID
+     * @param tradeDate  交易日字符串（yyyy-MM-dd）
+     * @return 信号快照；降级时返回空快照（不缓存）
+     */
+    public SignalSnapshot querySnapshot(String strategyId, String tradeDate) {
         String cacheKey = buildCacheKey(strategyId, tradeDate);
+        CompletableFuture<SignalSnapshot> future = caffeineCache.get(cacheKey);
+        try {
+            SignalSnapshot snapshot = future.join();
+            return snapshot != null ? snapshot : EMPTY_SNAPSHOT;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        // 1. L1 Caffeine 查询
-        List<String> signals = caffeineCache.getIfPresent(cacheKey);
-        if (signals != null) {
-            log.debug("L1缓存命中|L1_cache_hit,key={}", cacheKey);
-            return signals;
+    /**
+     * L1 未命中时的回源加载（L2 -> L3）
+     * <p>
+     * 由 Caffeine 保证同一 Key 同一时刻只有一个加载在执行。
+     *
+     * 先读版本号再读列表：信号中心先写列表后递增版本号，因此快照数据不会比其版本号旧。
+     *
+     * @param cacheKey 缓存键
+     * @return 信号快照；null 表示降级结果，不缓存
+     */
+    private SignalSnapshot loadFromRemote(String cacheKey) {
+        String suffix = cacheKey.substring(REDIS_KEY_PREFIX.length());
+        int separator = suffix.lastIndexOf(':');
+        String strategyId = suffix.substring(0, separator);
+        String tradeDate = suffix.substring(separator + 1);
+
+        long version = queryVersion(strategyId, tradeDate);
+        List<String> signals = queryFromRedis(cacheKey);
+        if (signals == null) {
+            signals = queryFromDbWithLock(strategyId, tradeDate, cacheKey);
+        }
+        return signals != null ? buildSnapshot(version, signals) : null;
+    }
+
+    /**
+     * L1 后台刷新（refreshAfterWrite 或变更事件触发）
+     * <p>
+     * 实现逻辑：
+     * 1. 未收到变更事件的历史交易日快照，在校验间隔内直接沿用，不访问 Redis。
+     * 2. 读取版本号，与旧快照一致（且非 0）则沿用旧快照，省去列表读取与 JSON 解析。
+     * 3. 否则完整回源；回源降级时保留旧快照，避免刷新把可用数据替换为空。
+     *
+     * @param cacheKey    缓存键
+     * @param oldSnapshot 当前缓存的快照
+     * @return 新快照或沿用的旧快照
+     */
+    private SignalSnapshot reloadFromRemote(String cacheKey, SignalSnapshot oldSnapshot) {
+        String suffix = cacheKey.substring(REDIS_KEY_PREFIX.length());
+        int separator = suffix.lastIndexOf(':');
+        String strategyId = suffix.substring(0, separator);
+        String tradeDate = suffix.substring(separator + 1);
+
+        if (!oldSnapshot.isStale()) {
+            if (!LocalDate.now().toString().equals(tradeDate)
+                    && System.nanoTime() - oldSnapshot.getVerifiedAtNanos() < HISTORY_VERIFY_INTERVAL_NANOS) {
+                return oldSnapshot;
+            }
+            long version = queryVersion(strategyId, tradeDate);
+            if (version > 0 && version == oldSnapshot.getVersion()) {
+                oldSnapshot.markVerified();
+                return oldSnapshot;
+            }
         }
+        SignalSnapshot snapshot = loadFromRemote(cacheKey);
+        return snapshot != null ? snapshot : oldSnapshot;
+    }
 
-        // 2. L2 Redis 查询（带分布式锁保护）
-        return queryFromRedisWithLock(strategyId, tradeDate, cacheKey);
+    /**
+     * 信号变更事件回调（Redis Pub/Sub）
+     * <p>
+     * 实现逻辑：
+     * 1. 只处理本实例 L1 中已有的 Key，不为其他实例的热点预加载。
+     * 2. 标记快照失效后触发刷新；Key 正在加载时等加载完成再刷新，防止加载读到变更前的数据。
+     *
+     * @param payload 消息体：{strategyId}:{tradeDate}
+     */
+    public void onSignalChanged(String payload) {
+        int separator = payload == null ? -1 : payload.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("信号变更事件格式错误|Signal_change_event_invalid,payload={}", payload);
+            return;
+        }
+        refreshIfCached(REDIS_KEY_PREFIX + payload);
+    }
+
+    private void refreshIfCached(String cacheKey) {
+        // asMap 视图不计入命中率统计
+        CompletableFuture<SignalSnapshot> future = caffeineCache.asMap().get(cacheKey);
+        if (future == null) {
+            return;
+        }
+        if (!future.isDone()) {
+            future.whenComplete((snapshot, e) -> refreshIfCached(cacheKey));
+            return;
+        }
+        SignalSnapshot snapshot = future.isCompletedExceptionally() ? null : future.join();
+        if (snapshot == null) {
+            return;
+        }
+        snapshot.markStale();
+        caffeineCache.synchronous().refresh(cacheKey);
+        log.debug("信号变更触发L1刷新|Signal_change_refresh,key={}", cacheKey);
     }
 
     /**
-     * 从 Redis 查询（带分布式锁保护）
+     * 读取信号列表版本号
+     *
+     * @return 版本号，不存在或读取失败返回 0
+     */
+    private long queryVersion(String strategyId, String tradeDate) {
+        try {
+            return redissonClient.getAtomicLong(VERSION_KEY_PREFIX + strategyId + ":" + tradeDate).get();
+        } catch (Exception e) {
+            log.warn("版本号读取失败|Version_query_failed,strategy={},date={},error={}",
+                    strategyId, tradeDate, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 构建快照：一次性解析 JSON 为 VO，解析失败的条目跳过
+     */
+    private SignalSnapshot buildSnapshot(long version, List<String> signals) {
+        List<StablePicksVO> picks = new ArrayList<>(signals.size());
+        for (String json : signals) {
+            try {
+                StablePicksVO vo = JsonUtil.toBean(json, StablePicksVO.class);
+                if (vo != null) {
+                    picks.add(vo);
+                }
+            } catch (Exception e) {
+                log.warn("JSON解析失败|Json_parse_failed,json={}", json);
+            }
+        }
+        return new SignalSnapshot(version, signals, picks);
+    }
+
+    /**
+     * 从 MySQL 回源（带分布式锁保护）
      * <p>
-     * 本地缓存过期后，只有 1 个线程能进入查 Redis
+     * 多个实例同时 L2 未命中时只有 1 个实例查库；其余实例等待锁释放后从 Redis 读取回填结果。
      */
-    private List<String> queryFromRedisWithLock(String strategyId, String tradeDate, String cacheKey) {
+    private List<String> queryFromDbWithLock(String strategyId, String tradeDate, String cacheKey) {
         String lockKey = LOCK_KEY_PREFIX + "redis:" + strategyId + ":" + tradeDate;
         RLock lock = redissonClient.getLock(lockKey);
 
@@ -154,38 +346,21 @@ public class MultiLevelCacheService {
             locked = lock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.SECONDS);
 
             if (locked) {
-                // 双重检查：再次查询 L1
-                List<String> signals = caffeineCache.getIfPresent(cacheKey);
-                if (signals != null) {
-                    log.debug("获取锁后L1命中|L1_hit_after_lock,key={}", cacheKey);
-                    return signals;
-                }
-
-                // 查询 Redis
-                signals = queryFromRedis(cacheKey);
+                // 双重检查：持锁期间其他实例可能已回填 Redis
+                List<String> signals = queryFromRedis(cacheKey);
                 if (signals != null) {
-                    // 回填 L1
-                    caffeineCache.put(cacheKey, signals);
+                    log.debug("获取锁后L2命中|L2_hit_after_lock,key={}", cacheKey);
                     return signals;
                 }
-
-                // L2 未命中，进入 L3（带 Sentinel 限流）
                 return queryFromDbWithSentinel(strategyId, tradeDate, cacheKey);
-            } else {
-                // 未获取到锁，等待后重试
-                log.debug("获取锁失败_重试|Lock_failed_retry,key={}", cacheKey);
-                Thread.sleep(100);
-                List<String> signals = caffeineCache.getIfPresent(cacheKey);
-                if (signals != null) {
-                    return signals;
-                }
-                signals = queryFromRedis(cacheKey);
-                return signals != null ? signals : Collections.emptyList();
             }
+            // 等锁超时：其他实例仍在回源，读一次 Redis 后降级
+            log.debug("获取锁失败_降级|Lock_failed_fallback,key={}", cacheKey);
+            return queryFromRedis(cacheKey);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.warn("获取锁被中断|Lock_interrupted,key={}", cacheKey);
-            return Collections.emptyList();
+            return null;
         } finally {
             if (locked && lock.isHeldByCurrentThread()) {
                 lock.unlock();
@@ -227,6 +402,8 @@ public class MultiLevelCacheService {
      * 从 MySQL 查询信号列表（带 Sentinel 限流保护）
      * <p>
      * Sentinel 限流 QPS=1，防止大量请求同时穿透到数据库
+     *
+     * @return 信号列表；被限流时返回 null（不缓存）
      */
     private List<String> queryFromDbWithSentinel(String strategyId, String tradeDate, String cacheKey) {
         Entry entry = null;
@@ -251,15 +428,12 @@ public class MultiLevelCacheService {
                 // 回填 Redis
                 cacheToRedis(cacheKey, signals);
             }
-
-            // 回填 L1
-            caffeineCache.put(cacheKey, signals);
             return signals;
 
         } catch (BlockException e) {
-            // 被限流，返回空列表（不穿透到数据库）
+            // 被限流，不穿透到数据库，也不写入 L1
             log.warn("L3被限流|L3_blocked_by_sentinel,strategy={},date={}", strategyId, tradeDate);
-            return Collections.emptyList();
+            return null;
         } finally {
             if (entry != null) {
                 entry.exit();
@@ -309,7 +483,7 @@ public class MultiLevelCacheService {
      */
     public void invalidateLocalCache(String strategyId, String tradeDate) {
         String cacheKey = buildCacheKey(strategyId, tradeDate);
-        caffeineCache.invalidate(cacheKey);
+        caffeineCache.synchronous().invalidate(cacheKey);
         log.info("本地缓存已失效|Local_cache_invalidated,key={}", cacheKey);
     }
 
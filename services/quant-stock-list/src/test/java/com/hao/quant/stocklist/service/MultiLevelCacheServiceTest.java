@@ -1,7 +1,9 @@
 package com.hao.quant.stocklist.service;
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.hao.quant.stocklist.mapper.StockSignalMapper;
+import com.hao.quant.stocklist.model.SignalSnapshot;
 import com.hao.quant.stocklist.model.StockSignal;
 import constants.RedisKeyConstants;
 import org.junit.jupiter.api.*;
@@ -11,9 +13,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.redisson.api.RAtomicLong;
 import org.redisson.api.RList;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -22,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,10 +40,11 @@ import static org.mockito.Mockito.*;
  * 2. L2 Redis 缓存命中
  * 3. L3 MySQL 兜底查询
  * 4. EMPTY_MARKER 空值标记
- * 5. 分布式锁行为
+ * 5. 分布式锁行为（只保护 L3 回源）
  * 6. Sentinel 限流
- * 7. 万级并发测试
- * 8. 异常处理
+ * 7. 万级并发测试（单飞、L1 过期边界热点 Key 风暴 P99）
+ * 8. 后台刷新（版本号沿用快照）与变更事件刷新
+ * 9. 异常处理
  *
  * @author hli
  * @date 2026-02-01
@@ -52,8 +58,10 @@ class MultiLevelCacheServiceTest {
     private static final String TRADE_DATE = "2026-01-15";
     private static final String CACHE_KEY = RedisKeyConstants.STOCK_SIGNAL_LIST_PREFIX + STRATEGY_ID + ":" + TRADE_DATE;
 
-    @Mock
-    private Cache<String, List<String>> caffeineCache;
+    /**
+     * L1 缓存使用的时钟（纳秒），测试中手动推进以模拟 3 秒过期边界
+     */
+    private final AtomicLong tickerNanos = new AtomicLong();
 
     @Mock
     private RedissonClient redissonClient;
@@ -64,6 +72,9 @@ class MultiLevelCacheServiceTest {
     @Mock
     private RLock rLock;
 
+    @Mock
+    private RAtomicLong rVersion;
+
     @Mock
     private StockSignalMapper stockSignalMapper;
 
@@ -77,6 +88,36 @@ class MultiLevelCacheServiceTest {
         when(redissonClient.getLock(anyString())).thenReturn(rLock);
         when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
         when(rLock.isHeldByCurrentThread()).thenReturn(true);
+        when(redissonClient.getAtomicLong(anyString())).thenReturn(rVersion);
+        when(rVersion.get()).thenReturn(7L);
+
+        // L1 使用真实 Caffeine（与生产相同的 3 秒 TTL），时钟可控
+        ReflectionTestUtils.setField(multiLevelCacheService, "stockSignalCacheBuilder",
+                Caffeine.newBuilder()
+                        .expireAfterWrite(3, TimeUnit.SECONDS)
+                        .maximumSize(1000)
+                        .ticker(tickerNanos::get));
+        multiLevelCacheService.initLocalCache();
+    }
+
+    /**
+     * 直接读取 L1 中的值（不触发加载）
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> l1Value(String cacheKey) {
+        AsyncLoadingCache<String, SignalSnapshot> cache =
+                (AsyncLoadingCache<String, SignalSnapshot>) ReflectionTestUtils.getField(multiLevelCacheService, "caffeineCache");
+        SignalSnapshot snapshot = cache.synchronous().getIfPresent(cacheKey);
+        return snapshot != null ? snapshot.getSignals() : null;
+    }
+
+    /**
+     * 预热 L1：经由一次 L2 命中写入 L1
+     */
+    private void warmL1(List<String> data) {
+        when(rList.readAll()).thenReturn(data);
+        multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+        clearInvocations(rList, redissonClient);
     }
 
     // ==================== L1 Caffeine 缓存测试 ====================
@@ -90,14 +131,13 @@ class MultiLevelCacheServiceTest {
         void testL1CacheHit() {
             // Given
             List<String> cachedData = List.of("{\"windCode\":\"000001.SZ\"}");
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(cachedData);
+            warmL1(cachedData);
 
             // When
             List<String> result = multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
 
             // Then
             assertEquals(cachedData, result);
-            verify(caffeineCache, times(1)).getIfPresent(CACHE_KEY);
             verify(redissonClient, never()).getList(anyString());  // 不应查询 Redis
         }
 
@@ -105,7 +145,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L1 缓存未命中 - 继续查 L2")
         void testL1CacheMiss() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> redisData = List.of("{\"windCode\":\"600519.SH\"}");
             when(rList.readAll()).thenReturn(redisData);
 
@@ -114,7 +153,7 @@ class MultiLevelCacheServiceTest {
 
             // Then
             assertEquals(redisData, result);
-            verify(caffeineCache).put(CACHE_KEY, redisData);  // 回填 L1
+            assertEquals(redisData, l1Value(CACHE_KEY));  // 回填 L1
         }
     }
 
@@ -128,7 +167,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L2 缓存命中 - 返回数据并回填 L1")
         void testL2CacheHit() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> redisData = List.of("{\"windCode\":\"000001.SZ\"}", "{\"windCode\":\"600519.SH\"}");
             when(rList.readAll()).thenReturn(redisData);
 
@@ -137,14 +175,14 @@ class MultiLevelCacheServiceTest {
 
             // Then
             assertEquals(2, result.size());
-            verify(caffeineCache).put(CACHE_KEY, redisData);
+            assertEquals(redisData, l1Value(CACHE_KEY));
+            verify(redissonClient, never()).getLock(anyString());  // L2 命中不加分布式锁
         }
 
         @Test
         @DisplayName("L2 空值标记命中 - 返回空列表")
         void testL2EmptyMarkerHit() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> emptyMarker = List.of(RedisKeyConstants.CACHE_EMPTY_MARKER);
             when(rList.readAll()).thenReturn(emptyMarker);
 
@@ -160,7 +198,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L2 缓存为空 - 继续查 L3")
         void testL2CacheMissGoToL3() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenReturn(Collections.emptyList());
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE))
                     .thenReturn(createMockSignals(3));
@@ -177,7 +214,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L2 Redis 异常 - 降级查 L3")
         void testL2RedisException() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenThrow(new RuntimeException("Redis connection failed"));
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE))
                     .thenReturn(createMockSignals(2));
@@ -200,7 +236,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L3 查到数据 - 回填 Redis 和 L1")
         void testL3QuerySuccess() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             List<StockSignal> dbSignals = createMockSignals(5);
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE)).thenReturn(dbSignals);
@@ -211,14 +246,13 @@ class MultiLevelCacheServiceTest {
             // Then
             assertEquals(5, result.size());
             verify(rList).addAll(anyList());  // 回填 Redis
-            verify(caffeineCache).put(eq(CACHE_KEY), anyList());  // 回填 L1
+            assertEquals(5, l1Value(CACHE_KEY).size());  // 回填 L1
         }
 
         @Test
         @DisplayName("L3 查无数据 - 缓存空值标记")
         void testL3QueryEmpty() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE))
                     .thenReturn(Collections.emptyList());
@@ -235,7 +269,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("L3 数据库异常 - 返回空列表")
         void testL3DatabaseException() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE))
                     .thenThrow(new RuntimeException("Database connection failed"));
@@ -251,6 +284,76 @@ class MultiLevelCacheServiceTest {
         }
     }
 
+    // ==================== 信号快照测试 ====================
+
+    @Nested
+    @DisplayName("信号快照测试")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("加载时一次性解析 - 携带版本号，坏数据跳过")
+        void testSnapshotParsedOnLoad() {
+            // Given
+            List<String> redisData = List.of(
+                    "{\"windCode\":\"000001.SZ\",\"strategyId\":\"MA_BULLISH\"}",
+                    "not-json",
+                    "{\"windCode\":\"600519.SH\",\"strategyId\":\"MA_BULLISH\"}");
+            when(rList.readAll()).thenReturn(redisData);
+
+            // When
+            SignalSnapshot snapshot = multiLevelCacheService.querySnapshot(STRATEGY_ID, TRADE_DATE);
+
+            // Then
+            assertEquals(7L, snapshot.getVersion());
+            assertEquals(3, snapshot.getSignals().size());
+            assertEquals(2, snapshot.getPicks().size());
+            assertEquals("600519.SH", snapshot.getPicks().get(1).getWindCode());
+            assertSame(snapshot, multiLevelCacheService.querySnapshot(STRATEGY_ID, TRADE_DATE));  // L1 命中同一快照
+        }
+
+        @Test
+        @DisplayName("分页响应体 - 同一页只渲染一次")
+        void testPageRenderedOnce() {
+            // Given
+            List<String> redisData = new ArrayList<>();
+            for (int i = 0; i < 45; i++) {
+                redisData.add(String.format("{\"windCode\":\"%06d.SZ\"}", i));
+            }
+            when(rList.readAll()).thenReturn(redisData);
+            SignalSnapshot snapshot = multiLevelCacheService.querySnapshot(STRATEGY_ID, TRADE_DATE);
+            AtomicInteger renderCount = new AtomicInteger(0);
+            List<Integer> pageSizes = Collections.synchronizedList(new ArrayList<>());
+
+            // When
+            byte[] first = snapshot.page(3, 20, page -> {
+                renderCount.incrementAndGet();
+                pageSizes.add(page.getRecords().size());
+                assertEquals(45, page.getTotal());
+                return new byte[]{1};
+            });
+            byte[] second = snapshot.page(3, 20, page -> {
+                renderCount.incrementAndGet();
+                return new byte[]{2};
+            });
+
+            // Then
+            assertSame(first, second);
+            assertEquals(1, renderCount.get());
+            assertEquals(List.of(5), pageSizes);  // 第 3 页只剩 5 条
+        }
+
+        @Test
+        @DisplayName("非法页码 - 抛出异常")
+        void testInvalidPage() {
+            // Given
+            when(rList.readAll()).thenReturn(List.of("{\"windCode\":\"000001.SZ\"}"));
+            SignalSnapshot snapshot = multiLevelCacheService.querySnapshot(STRATEGY_ID, TRADE_DATE);
+
+            // When & Then
+            assertThrows(IllegalArgumentException.class, () -> snapshot.page(0, 20, page -> new byte[0]));
+        }
+    }
+
     // ==================== 分布式锁测试 ====================
 
     @Nested
@@ -258,30 +361,43 @@ class MultiLevelCacheServiceTest {
     class DistributedLockTests {
 
         @Test
-        @DisplayName("获取锁成功 - 正常查询")
-        void testLockAcquireSuccess() throws InterruptedException {
+        @DisplayName("L2 命中 - 不加分布式锁")
+        void testNoLockOnL2Hit() {
             // Given
-            when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> redisData = List.of("{\"windCode\":\"000001.SZ\"}");
             when(rList.readAll()).thenReturn(redisData);
 
             // When
             List<String> result = multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
 
+            // Then
+            assertEquals(1, result.size());
+            verify(redissonClient, never()).getLock(anyString());
+        }
+
+        @Test
+        @DisplayName("L2 未命中获取锁成功 - 查库后释放锁")
+        void testLockAcquireSuccess() throws InterruptedException {
+            // Given
+            when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+            when(rList.readAll()).thenReturn(null);
+            when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE)).thenReturn(createMockSignals(1));
+
+            // When
+            List<String> result = multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+
             // Then
             assertEquals(1, result.size());
             verify(rLock).unlock();
         }
 
         @Test
-        @DisplayName("获取锁失败 - 等待后重试")
+        @DisplayName("获取锁失败 - 读取其他实例回填的 Redis")
         void testLockAcquireFailed() throws InterruptedException {
             // Given
             when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(false);
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> redisData = List.of("{\"windCode\":\"000001.SZ\"}");
-            when(rList.readAll()).thenReturn(redisData);
+            when(rList.readAll()).thenReturn(null).thenReturn(redisData);
 
             // When
             List<String> result = multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
@@ -289,15 +405,31 @@ class MultiLevelCacheServiceTest {
             // Then
             assertEquals(1, result.size());
             verify(rLock, never()).unlock();  // 未获取锁，不需要释放
+            verify(stockSignalMapper, never()).selectPassedSignals(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("获取锁失败且 Redis 仍无数据 - 返回空列表且不写入 L1")
+        void testLockAcquireFailedNotCached() throws InterruptedException {
+            // Given
+            when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(false);
+            when(rList.readAll()).thenReturn(null);
+
+            // When
+            List<String> result = multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+
+            // Then
+            assertTrue(result.isEmpty());
+            assertNull(l1Value(CACHE_KEY));  // 降级结果不缓存，下次请求重新加载
         }
 
         @Test
-        @DisplayName("双重检查 - 获取锁后再次检查 L1")
+        @DisplayName("双重检查 - 获取锁后再次检查 L2")
         void testDoubleCheckAfterLock() throws InterruptedException {
             // Given
             when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
-            // 第一次返回 null，第二次（获取锁后）返回数据
-            when(caffeineCache.getIfPresent(CACHE_KEY))
+            // 第一次返回 null，第二次（获取锁后）返回其他实例回填的数据
+            when(rList.readAll())
                     .thenReturn(null)
                     .thenReturn(List.of("{\"windCode\":\"000001.SZ\"}"));
 
@@ -306,7 +438,7 @@ class MultiLevelCacheServiceTest {
 
             // Then
             assertEquals(1, result.size());
-            verify(rList, never()).readAll();  // 不查 Redis
+            verify(stockSignalMapper, never()).selectPassedSignals(anyString(), anyString());  // 不查库
         }
     }
 
@@ -321,7 +453,6 @@ class MultiLevelCacheServiceTest {
         void testEmptyStrategyId() {
             // Given
             String emptyStrategy = "";
-            when(caffeineCache.getIfPresent(anyString())).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             when(stockSignalMapper.selectPassedSignals(emptyStrategy, TRADE_DATE))
                     .thenReturn(Collections.emptyList());
@@ -338,7 +469,6 @@ class MultiLevelCacheServiceTest {
         void testWeekendDate() {
             // Given
             String weekendDate = "2026-02-07";  // 假设是周六
-            when(caffeineCache.getIfPresent(anyString())).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, weekendDate))
                     .thenReturn(Collections.emptyList());
@@ -354,7 +484,6 @@ class MultiLevelCacheServiceTest {
         @DisplayName("大量数据 - 1000 条信号")
         void testLargeDataSet() {
             // Given
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             when(rList.readAll()).thenReturn(null);
             List<StockSignal> largeSignals = createMockSignals(1000);
             when(stockSignalMapper.selectPassedSignals(STRATEGY_ID, TRADE_DATE)).thenReturn(largeSignals);
@@ -374,24 +503,21 @@ class MultiLevelCacheServiceTest {
     class ConcurrencyTests {
 
         @Test
-        @DisplayName("100 并发请求 - 只有 1 个请求查 Redis")
-        void testConcurrentRequestsWithLock() throws InterruptedException {
+        @DisplayName("100 并发未命中 - 单飞只查 1 次 Redis")
+        void testConcurrentMissSingleFlight() throws InterruptedException {
             // Given
             int threadCount = 100;
             CountDownLatch startLatch = new CountDownLatch(1);
             CountDownLatch endLatch = new CountDownLatch(threadCount);
             AtomicInteger redisQueryCount = new AtomicInteger(0);
+            AtomicInteger okCount = new AtomicInteger(0);
 
-            // 模拟只有第一个请求能获取锁
-            when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class)))
-                    .thenAnswer(invocation -> {
-                        // 第一个请求获取锁成功，其他失败
-                        return redisQueryCount.incrementAndGet() <= 1;
-                    });
-
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(null);
             List<String> cachedData = List.of("{\"windCode\":\"000001.SZ\"}");
-            when(rList.readAll()).thenReturn(cachedData);
+            when(rList.readAll()).thenAnswer(invocation -> {
+                redisQueryCount.incrementAndGet();
+                Thread.sleep(50);  // 模拟 Redis 往返，保证请求在加载期间到达
+                return cachedData;
+            });
 
             ExecutorService executor = Executors.newFixedThreadPool(threadCount);
 
@@ -400,7 +526,9 @@ class MultiLevelCacheServiceTest {
                 executor.submit(() -> {
                     try {
                         startLatch.await();
-                        multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+                        if (multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE).size() == 1) {
+                            okCount.incrementAndGet();
+                        }
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     } finally {
@@ -410,12 +538,13 @@ class MultiLevelCacheServiceTest {
             }
 
             startLatch.countDown();  // 同时启动所有线程
-            endLatch.await(10, TimeUnit.SECONDS);
+            assertTrue(endLatch.await(10, TimeUnit.SECONDS));
             executor.shutdown();
 
             // Then
-            // 分布式锁确保大部分请求被阻止
-            assertTrue(redisQueryCount.get() >= 1);
+            assertEquals(1, redisQueryCount.get());  // 并发未命中共享同一个加载
+            assertEquals(threadCount, okCount.get());
+            verify(redissonClient, never()).getLock(anyString());  // 进程内单飞，无分布式锁往返
         }
 
         @Test
@@ -424,7 +553,7 @@ class MultiLevelCacheServiceTest {
             // Given
             int threadCount = 1000;
             List<String> cachedData = List.of("{\"windCode\":\"000001.SZ\"}");
-            when(caffeineCache.getIfPresent(CACHE_KEY)).thenReturn(cachedData);
+            warmL1(cachedData);
 
             ExecutorService executor = Executors.newFixedThreadPool(100);
             List<Future<List<String>>> futures = new ArrayList<>();
@@ -443,6 +572,194 @@ class MultiLevelCacheServiceTest {
             executor.shutdown();
             verify(redissonClient, never()).getList(anyString());  // 从不查 Redis
         }
+
+        @Test
+        @DisplayName("L1 过期边界热点 Key 风暴 - P99 延迟与回源次数")
+        void testHotKeyStormAtExpiryBoundary() throws InterruptedException {
+            // Given
+            int threadCount = 200;
+            int requestsPerThread = 20;
+            long redisLatencyMs = 20;
+            AtomicInteger redisQueryCount = new AtomicInteger(0);
+            List<String> cachedData = List.of("{\"windCode\":\"000001.SZ\"}");
+            when(rList.readAll()).thenAnswer(invocation -> {
+                redisQueryCount.incrementAndGet();
+                Thread.sleep(redisLatencyMs);
+                return cachedData;
+            });
+            multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+            redisQueryCount.set(0);
+
+            // 推进时钟越过 3 秒 TTL，风暴第一批请求全部落在过期边界上
+            tickerNanos.addAndGet(TimeUnit.SECONDS.toNanos(3) + 1);
+
+            CountDownLatch startLatch = new CountDownLatch(1);
+            CountDownLatch endLatch = new CountDownLatch(threadCount);
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+            // When
+            for (int i = 0; i < threadCount; i++) {
+                executor.submit(() -> {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < requestsPerThread; j++) {
+                            long start = System.nanoTime();
+                            multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+                            latencies.add(System.nanoTime() - start);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        endLatch.countDown();
+                    }
+                });
+            }
+            startLatch.countDown();
+            assertTrue(endLatch.await(30, TimeUnit.SECONDS));
+            executor.shutdown();
+
+            // Then
+            List<Long> sorted = new ArrayList<>(latencies);
+            sorted.sort(Long::compareTo);
+            int total = sorted.size();
+            long p50 = TimeUnit.NANOSECONDS.toMicros(sorted.get((int) (total * 0.50)));
+            long p99 = TimeUnit.NANOSECONDS.toMicros(sorted.get((int) (total * 0.99)));
+            long max = TimeUnit.NANOSECONDS.toMicros(sorted.get(total - 1));
+            System.out.println("过期边界热点风暴: requests=" + total + ", redisReads=" + redisQueryCount.get()
+                    + ", P50=" + p50 + "us, P99=" + p99 + "us, max=" + max + "us");
+
+            assertEquals(threadCount * requestsPerThread, total);
+            assertEquals(1, redisQueryCount.get(), "过期边界只应回源一次");
+            // 旧实现抢锁失败的请求固定等待 100ms；单飞后最坏只等一次 Redis 往返
+            assertTrue(p99 < TimeUnit.MILLISECONDS.toMicros(100), "P99 应低于旧实现的 100ms 等待");
+            verify(redissonClient, never()).getLock(anyString());
+        }
+    }
+
+    // ==================== 后台刷新与变更事件测试 ====================
+
+    @Nested
+    @DisplayName("后台刷新与变更事件测试")
+    class RefreshTests {
+
+        private final String today = LocalDate.now().toString();
+        private final String todayKey = RedisKeyConstants.STOCK_SIGNAL_LIST_PREFIX + STRATEGY_ID + ":" + today;
+
+        @BeforeEach
+        void setUpRefreshingCache() {
+            // 与生产相同的 refreshAfterWrite；刷新在调用线程同步执行，便于断言
+            ReflectionTestUtils.setField(multiLevelCacheService, "stockSignalCacheBuilder",
+                    Caffeine.newBuilder()
+                            .expireAfterWrite(10, TimeUnit.MINUTES)
+                            .refreshAfterWrite(3, TimeUnit.SECONDS)
+                            .maximumSize(1000)
+                            .executor(Runnable::run)
+                            .ticker(tickerNanos::get));
+            multiLevelCacheService.initLocalCache();
+        }
+
+        @Test
+        @DisplayName("版本号未变 - 刷新沿用旧快照，不读列表")
+        void testRefreshReusesSnapshotWhenVersionUnchanged() {
+            // Given
+            when(rList.readAll()).thenReturn(List.of("{\"windCode\":\"000001.SZ\"}"));
+            SignalSnapshot before = multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+            clearInvocations(rList, redissonClient);
+            tickerNanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+            // When
+            multiLevelCacheService.querySnapshot(STRATEGY_ID, today);  // 触发后台刷新
+            SignalSnapshot after = multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+
+            // Then
+            assertSame(before, after);
+            verify(redissonClient).getAtomicLong(anyString());
+            verify(rList, never()).readAll();
+        }
+
+        @Test
+        @DisplayName("版本号变化 - 刷新重建快照")
+        void testRefreshRebuildsSnapshotWhenVersionChanged() {
+            // Given
+            when(rList.readAll()).thenReturn(List.of("{\"windCode\":\"000001.SZ\"}"));
+            multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+            List<String> newData = List.of("{\"windCode\":\"000001.SZ\"}", "{\"windCode\":\"600519.SH\"}");
+            when(rList.readAll()).thenReturn(newData);
+            when(rVersion.get()).thenReturn(8L);
+            tickerNanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+            // When
+            multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+            SignalSnapshot after = multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+
+            // Then
+            assertEquals(8L, after.getVersion());
+            assertEquals(newData, after.getSignals());
+        }
+
+        @Test
+        @DisplayName("历史交易日 - 校验间隔内刷新不访问 Redis")
+        void testHistoryRefreshSkipsRedis() {
+            // Given
+            warmL1(List.of("{\"windCode\":\"000001.SZ\"}"));
+            tickerNanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+            // When
+            multiLevelCacheService.querySignals(STRATEGY_ID, TRADE_DATE);
+
+            // Then
+            verify(redissonClient, never()).getAtomicLong(anyString());
+            verify(redissonClient, never()).getList(anyString());
+        }
+
+        @Test
+        @DisplayName("刷新时回源降级 - 保留旧快照")
+        void testRefreshKeepsOldSnapshotOnFallback() {
+            // Given
+            List<String> cachedData = List.of("{\"windCode\":\"000001.SZ\"}");
+            when(rList.readAll()).thenReturn(cachedData);
+            multiLevelCacheService.querySnapshot(STRATEGY_ID, today);
+            when(rVersion.get()).thenReturn(8L);
+            when(rList.readAll()).thenReturn(null);
+            when(stockSignalMapper.selectPassedSignals(anyString(), anyString()))
+                    .thenThrow(new RuntimeException("Database error"));
+            tickerNanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+
+            // When
+            multiLevelCacheService.querySignals(STRATEGY_ID, today);
+
+            // Then
+            assertEquals(cachedData, l1Value(todayKey));
+        }
+
+        @Test
+        @DisplayName("变更事件 - 历史交易日也立即回源刷新")
+        void testChangeEventRefreshesCachedKey() {
+            // Given
+            warmL1(List.of("{\"windCode\":\"000001.SZ\"}"));
+            List<String> newData = List.of("{\"windCode\":\"600519.SH\"}");
+            when(rList.readAll()).thenReturn(newData);
+            when(rVersion.get()).thenReturn(8L);
+
+            // When
+            multiLevelCacheService.onSignalChanged(STRATEGY_ID + ":" + TRADE_DATE);
+
+            // Then
+            assertEquals(newData, l1Value(CACHE_KEY));
+        }
+
+        @Test
+        @DisplayName("变更事件 - 未缓存的 Key 不预加载")
+        void testChangeEventIgnoresUncachedKey() {
+            // When
+            multiLevelCacheService.onSignalChanged(STRATEGY_ID + ":" + TRADE_DATE);
+            multiLevelCacheService.onSignalChanged("malformed");
+
+            // Then
+            verify(redissonClient, never()).getList(anyString());
+            assertNull(l1Value(CACHE_KEY));
+        }
     }
 
     // ==================== 辅助方法 ====================
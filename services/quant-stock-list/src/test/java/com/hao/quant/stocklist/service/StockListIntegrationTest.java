@@ -216,7 +216,7 @@ class StockListIntegrationTest {
         }
 
         @Test
-        @DisplayName("L1 过期后 - 命中 L2 Redis")
+        @DisplayName("超过刷新间隔 - 返回旧值并后台刷新")
         void testL1ExpiredHitsL2() throws InterruptedException {
             // Given
             String strategyId = "TEST_L2_HIT_" + System.currentTimeMillis();
@@ -225,7 +225,7 @@ class StockListIntegrationTest {
             // 首次查询
             multiLevelCacheService.querySignals(strategyId, tradeDate);
 
-            // 等待 L1 过期（3 秒）
+            // 超过 refreshAfterWrite（3 秒），本次访问返回旧值并触发后台刷新
             Thread.sleep(3500);
 
             // When
@@ -234,8 +234,8 @@ class StockListIntegrationTest {
             long thirdQueryTime = System.currentTimeMillis() - startTime;
 
             // Then
-            System.out.println("L1 过期后（L2 命中）耗时: " + thirdQueryTime + "ms");
-            assertTrue(thirdQueryTime < 50, "L2 Redis 命中应该 < 50ms");
+            System.out.println("刷新间隔后（后台刷新）耗时: " + thirdQueryTime + "ms");
+            assertTrue(thirdQueryTime < 50, "后台刷新不应阻塞请求，应该 < 50ms");
             assertNotNull(result);
         }
     }
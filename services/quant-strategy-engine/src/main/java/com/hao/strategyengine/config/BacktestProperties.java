@@ -0,0 +1,65 @@
+package com.hao.strategyengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内回测配置属性类
+ *
+ * 设计目的：
+ * 1. 集中管理 BacktestEngine 的并行度与历史行情拉取参数。
+ * 2. 回测与实盘共用策略 Bean，但不经过 Kafka，配置独立于 stream.compute。
+ *
+ * 配置示例（application.yml）：
+ * <pre>
+ * backtest:
+ *   collector-base-url: http://127.0.0.1:8801/data-collector
+ *   parallelism: 8
+ *   request-batch-size: 200
+ *   request-timeout-seconds: 120
+ *   warmup-from-preheat: true
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "backtest")
+public class BacktestProperties {
+
+    /**
+     * data-collector 服务根地址
+     * 默认值：http://127.0.0.1:8801/data-collector
+     * 说明：历史分时通过 /quotation/get_date_trend 读取，由 data-collector 按冷热表路由
+     */
+    private String collectorBaseUrl = "http://127.0.0.1:8801/data-collector";
+
+    /**
+     * 回测分区数（并行线程数）
+     * 默认值：CPU核心数
+     * 说明：股票按 windCode 哈希分区，同一股票只在一个分区内顺序回放
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 单次历史行情请求的股票数量
+     * 默认值：200
+     * 说明：每个分区按交易日、按该批次拉取并流式解析，控制单次响应体大小
+     */
+    private int requestBatchSize = 200;
+
+    /**
+     * 单次历史行情请求超时（秒）
+     * 默认值：120
+     */
+    private int requestTimeoutSeconds = 120;
+
+    /**
+     * 是否使用首个交易日的 Redis 预热数据初始化指标
+     * 默认值：true
+     * 说明：false 时所有股票从空状态开始滚动，指标需要一段时间才完整
+     */
+    private boolean warmupFromPreheat = true;
+}
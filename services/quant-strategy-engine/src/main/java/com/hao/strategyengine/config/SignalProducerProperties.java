@@ -0,0 +1,76 @@
+package com.hao.strategyengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 策略信号发送配置属性类
+ *
+ * 设计目的：
+ * 1. 控制策略信号的发送模式（逐条 / 信封微批）与微批参数。
+ * 2. 控制信号投递日志的采样率，避免同一 tick 数百条信号逐条输出 INFO 日志。
+ *
+ * 配置示例（application.yml）：
+ * <pre>
+ * signal:
+ *   producer:
+ *     batch-enabled: true
+ *     linger-ms: 5
+ *     max-batch-signals: 200
+ *     max-batch-bytes: 262144
+ *     shard-count: 16
+ *     log-sample-rate: 100
+ * </pre>
+ *
+ * 上线顺序：先发布能解析信封的信号中心，再打开 batch-enabled。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "signal.producer")
+public class SignalProducerProperties {
+
+    /**
+     * 是否启用信封微批发送
+     * 默认值：false
+     * 说明：true-按 windCode 分片缓冲，一条记录携带多条信号；false-每条信号一条记录（旧模式）
+     */
+    private boolean batchEnabled = false;
+
+    /**
+     * 信封最长停留时间（毫秒）
+     * 默认值：5
+     * 说明：分片缓冲的第一条信号等待超过该时间即发送，决定微批带来的最大额外延迟
+     */
+    private int lingerMs = 5;
+
+    /**
+     * 单个信封最多携带的信号数
+     * 默认值：200
+     */
+    private int maxBatchSignals = 200;
+
+    /**
+     * 单个信封最大长度（按 JSON 字符数估算字节）
+     * 默认值：262144（256KB）
+     * 说明：需小于生产者 max.request.size（默认 1MB）
+     */
+    private int maxBatchBytes = 262144;
+
+    /**
+     * windCode 分片数
+     * 默认值：16
+     * 说明：同一股票固定落在同一分片（同一分区），保持信号顺序；建议不小于主题分区数
+     */
+    private int shardCount = 16;
+
+    /**
+     * 投递日志采样率
+     * 默认值：100
+     * 说明：每 N 条信号输出一条 INFO 日志，1 表示逐条输出
+     */
+    private int logSampleRate = 100;
+}
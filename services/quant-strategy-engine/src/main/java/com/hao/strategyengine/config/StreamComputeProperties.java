@@ -20,6 +20,12 @@ import org.springframework.stereotype.Component;
  *     history-size: 250
  *     redis-key-prefix: STRATEGY
  *     redis-ttl-hours: 48
+ *     dispatch-mode: SHARDED
+ *     shard-queue-capacity: 4096
+ *     batch-consume-enabled: true
+ *     max-poll-records: 1000
+ *     batch-max-wait-ms: 20
+ *     batch-min-bytes: 16384
  * </pre>
  *
  * 使用场景：
@@ -73,7 +79,63 @@ public class StreamComputeProperties {
     /**
      * Context预热批量大小
      * 默认值：100
-     * 说明：启动时批量加载历史数据的股票数量
+     * 说明：启动时批量加载历史数据的股票数量（StockContextStore 按该值分批 HSCAN 预热 Hash）
      */
     private int warmupBatchSize = 100;
+
+    /**
+     * 策略分发模式
+     * 默认值：SHARDED
+     * 说明：SHARDED-按股票分片到固定Lane顺序执行；POOL-每个(策略,行情)提交到共享线程池
+     */
+    private DispatchMode dispatchMode = DispatchMode.SHARDED;
+
+    /**
+     * 分片模式下每个Lane的队列容量
+     * 默认值：4096
+     * 说明：队列满时阻塞Kafka监听线程形成背压，Lane数量由workerThreads决定
+     */
+    private int shardQueueCapacity = 4096;
+
+    /**
+     * 是否启用批量消费行情
+     * 默认值：true
+     * 说明：true-按poll批量解析、批量分发、每批提交一次offset；false-逐条消费（旧模式）
+     */
+    private boolean batchConsumeEnabled = true;
+
+    /**
+     * 单次poll最大拉取条数（max.poll.records）
+     * 默认值：1000
+     * 说明：批量模式下决定单批大小上限，过大会拉长单批处理时间
+     */
+    private int maxPollRecords = 1000;
+
+    /**
+     * 批量拉取最大等待时间（fetch.max.wait.ms）
+     * 默认值：20毫秒
+     * 说明：批次延迟目标，Broker最多等待该时间凑够batchMinBytes后返回
+     */
+    private int batchMaxWaitMs = 20;
+
+    /**
+     * 批量拉取最小字节数（fetch.min.bytes）
+     * 默认值：16384（16KB）
+     * 说明：与batchMaxWaitMs共同决定批次大小与延迟的权衡
+     */
+    private int batchMinBytes = 16384;
+
+    /**
+     * 策略分发模式
+     */
+    public enum DispatchMode {
+        /**
+         * 按 windCode 分片，单线程顺序执行该股票的所有策略
+         */
+        SHARDED,
+        /**
+         * 共享线程池，每个策略一个任务（旧模式）
+         */
+        POOL
+    }
 }
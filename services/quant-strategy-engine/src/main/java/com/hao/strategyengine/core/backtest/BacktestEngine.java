@@ -0,0 +1,244 @@
+package com.hao.strategyengine.core.backtest;
+
+import com.hao.strategyengine.cache.TradeDateCache;
+import com.hao.strategyengine.config.BacktestProperties;
+import com.hao.strategyengine.core.stream.domain.StockContextStore;
+import com.hao.strategyengine.core.stream.domain.StockDomainContext;
+import com.hao.strategyengine.core.stream.strategy.BaseStrategy;
+import dto.HistoryTrendDTO;
+import dto.StrategySignalDTO;
+import dto.TickView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内回测引擎 (Backtest Engine)
+ * <p>
+ * 类职责：
+ * 将历史分时直接喂给 BaseStrategy 实现，信号收集到内存，不经过 Kafka 行情/信号主题。
+ * <p>
+ * 设计目的：
+ * 1. 回放全链路（ReplayScheduler → Kafka → 策略 → Kafka → 信号中心）两次 JSON 序列化且受 Broker 延迟约束，
+ *    不适合多日全市场的策略评估。
+ * 2. 复用实盘的策略 Bean 与 StockDomainContext 增量指标，回测与实盘判定逻辑一致。
+ * <p>
+ * 核心实现思路：
+ * <pre>
+ * 股票按 floorMod(windCode.hashCode, parallelism) 分区，每个分区一个线程：
+ *   StockContextStore.runIsolated(分区预热快照) {
+ *     for 交易日 → for 股票批次 → BacktestTickSource.forEachTick
+ *       Context.onTick → 各策略 isMatch → 命中则 toSignal 写入分区 Sink
+ *   }
+ * 全部分区结束后合并 Sink，输出吞吐与按策略的命中统计
+ * </pre>
+ * 同一股票只在一个分区内按时间顺序处理，与分片模式的单写者约定一致，Context 与 Sink 均无需加锁。
+ * <p>
+ * 约束：策略的 isMatch 必须只依赖入参与 getContext()，不得在回测中读写实盘的外部状态。
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BacktestEngine {
+
+    private final List<BaseStrategy> strategies;
+
+    private final StockContextStore stockContextStore;
+
+    private final BacktestTickSource tickSource;
+
+    private final BacktestProperties properties;
+
+    private final TradeDateCache tradeDateCache;
+
+    /**
+     * 执行回测（阻塞至全部分区完成）
+     *
+     * @param request 回测请求
+     * @return 回测结果
+     * @throws IllegalArgumentException 区间内无交易日、无可回测股票或策略ID不存在
+     * @throws IllegalStateException    历史行情读取失败
+     */
+    public BacktestReport run(BacktestRequest request) {
+        long start = System.currentTimeMillis();
+        List<LocalDate> tradeDays = resolveTradeDays(request.startDate(), request.endDate());
+        List<BaseStrategy> selected = selectStrategies(request.strategyIds());
+
+        Map<String, StockDomainContext> snapshot = properties.isWarmupFromPreheat()
+                ? stockContextStore.loadSnapshot(toTradeDay(tradeDays.getFirst()))
+                : Map.of();
+        List<String> windCodes = resolveWindCodes(request.windCodes(), snapshot);
+
+        int partitions = Math.max(1, Math.min(properties.getParallelism(), windCodes.size()));
+        List<List<String>> codesByPartition = new ArrayList<>(partitions);
+        List<Map<String, StockDomainContext>> contextsByPartition = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            codesByPartition.add(new ArrayList<>());
+            contextsByPartition.add(new HashMap<>());
+        }
+        for (String windCode : windCodes) {
+            int p = Math.floorMod(windCode.hashCode(), partitions);
+            codesByPartition.get(p).add(windCode);
+            StockDomainContext context = snapshot.get(windCode);
+            if (context != null) {
+                contextsByPartition.get(p).put(windCode, context);
+            }
+        }
+
+        log.info("回测开始|Backtest_start,range={}~{},tradeDays={},stocks={},strategies={},partitions={},preheated={}",
+                tradeDays.getFirst(), tradeDays.getLast(), tradeDays.size(), windCodes.size(),
+                selected.size(), partitions, snapshot.size());
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions, r -> {
+            Thread thread = new Thread(r, "backtest-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BacktestSignalSink total = new BacktestSignalSink();
+        try {
+            List<CompletableFuture<BacktestSignalSink>> futures = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                List<String> codes = codesByPartition.get(p);
+                Map<String, StockDomainContext> contexts = contextsByPartition.get(p);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> runPartition(tradeDays, codes, contexts, selected), executor));
+            }
+            for (CompletableFuture<BacktestSignalSink> future : futures) {
+                total.merge(future.join());
+            }
+        } catch (CompletionException e) {
+            throw new IllegalStateException("回测执行失败|Backtest_failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<StrategySignalDTO> signals = total.signals();
+        signals.sort(Comparator.comparing(StrategySignalDTO::getSignalTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+        BacktestReport report = new BacktestReport(tradeDays.size(), windCodes.size(), partitions,
+                total.tickCount(), signals.size(), elapsedMs,
+                total.tickCount() * 1000.0 / elapsedMs, signals.size() * 1000.0 / elapsedMs,
+                total.stats(), signals);
+        log.info("回测完成|Backtest_done,tradeDays={},stocks={},ticks={},signals={},costMs={},ticksPerSec={},signalsPerSec={}",
+                report.tradeDays(), report.stockCount(), report.tickCount(), report.signalCount(), elapsedMs,
+                (long) report.ticksPerSecond(), (long) report.signalsPerSecond());
+        return report;
+    }
+
+    /**
+     * 在分区线程内顺序回放本分区股票
+     */
+    private BacktestSignalSink runPartition(List<LocalDate> tradeDays, List<String> codes,
+                                            Map<String, StockDomainContext> contexts, List<BaseStrategy> selected) {
+        BacktestSignalSink sink = new BacktestSignalSink();
+        if (codes.isEmpty()) {
+            return sink;
+        }
+        int batchSize = Math.max(1, properties.getRequestBatchSize());
+        stockContextStore.runIsolated(contexts, () -> {
+            for (LocalDate tradeDay : tradeDays) {
+                for (int from = 0; from < codes.size(); from += batchSize) {
+                    List<String> batch = codes.subList(from, Math.min(codes.size(), from + batchSize));
+                    tickSource.forEachTick(tradeDay, batch, tick -> evaluate(tick, selected, sink));
+                }
+            }
+        });
+        return sink;
+    }
+
+    /**
+     * 更新 Context 后依次执行策略，与 StrategyDispatcher 分片模式的执行顺序一致
+     */
+    private void evaluate(TickView tick, List<BaseStrategy> selected, BacktestSignalSink sink) {
+        if (tick.getWindCode() == null) {
+            return;
+        }
+        sink.onTick();
+        stockContextStore.onTick(tick);
+        HistoryTrendDTO dto = null;
+        for (int i = 0, size = selected.size(); i < size; i++) {
+            BaseStrategy strategy = selected.get(i);
+            sink.onEvaluated(strategy.getId());
+            try {
+                boolean matched;
+                if (strategy.isTickViewMatch()) {
+                    matched = strategy.isMatch(tick);
+                } else {
+                    if (dto == null) {
+                        dto = tick.toHistoryTrendDTO();
+                    }
+                    matched = strategy.isMatch(dto);
+                }
+                if (matched) {
+                    sink.add(dto != null ? strategy.toSignal(dto) : strategy.toSignal(tick));
+                }
+            } catch (Exception e) {
+                log.error("回测策略执行异常|Backtest_strategy_error,strategy={},code={},error={}",
+                        strategy.getId(), tick.getWindCode(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<LocalDate> resolveTradeDays(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("回测日期区间无效|Backtest_invalid_range");
+        }
+        List<LocalDate> tradeDays = tradeDateCache.getAllTradeDates().stream()
+                .filter(date -> !date.isBefore(startDate) && !date.isAfter(endDate))
+                .sorted()
+                .toList();
+        if (tradeDays.isEmpty()) {
+            throw new IllegalArgumentException("回测区间内无交易日|Backtest_no_trade_day");
+        }
+        return tradeDays;
+    }
+
+    private List<BaseStrategy> selectStrategies(List<String> strategyIds) {
+        if (strategyIds == null || strategyIds.isEmpty()) {
+            return strategies;
+        }
+        List<BaseStrategy> selected = strategies.stream()
+                .filter(strategy -> strategyIds.contains(strategy.getId()))
+                .toList();
+        if (selected.size() != new LinkedHashSet<>(strategyIds).size()) {
+            throw new IllegalArgumentException("回测策略ID不存在|Backtest_unknown_strategy,strategyIds=" + strategyIds);
+        }
+        return selected;
+    }
+
+    private static List<String> resolveWindCodes(List<String> requested, Map<String, StockDomainContext> snapshot) {
+        Set<String> codes = new LinkedHashSet<>();
+        if (requested != null && !requested.isEmpty()) {
+            codes.addAll(requested);
+        } else {
+            codes.addAll(snapshot.keySet());
+        }
+        if (codes.isEmpty()) {
+            throw new IllegalArgumentException("未指定回测股票且无预热数据|Backtest_no_stock");
+        }
+        return new ArrayList<>(codes);
+    }
+
+    private static int toTradeDay(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
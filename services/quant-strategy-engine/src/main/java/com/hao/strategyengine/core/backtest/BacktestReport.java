@@ -0,0 +1,45 @@
+package com.hao.strategyengine.core.backtest;
+
+import dto.StrategySignalDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回测结果
+ *
+ * @param tradeDays        回测交易日数
+ * @param stockCount       回测股票数
+ * @param partitions       并行分区数
+ * @param tickCount        处理的行情条数
+ * @param signalCount      产生的信号数
+ * @param elapsedMs        总耗时（毫秒）
+ * @param ticksPerSecond   行情吞吐（条/秒）
+ * @param signalsPerSecond 信号产出速率（条/秒）
+ * @param strategyStats    按策略ID统计的命中情况
+ * @param signals          全部信号（按信号时间升序）
+ * @author hli
+ * @date 2026-02-08
+ */
+public record BacktestReport(int tradeDays,
+                             int stockCount,
+                             int partitions,
+                             long tickCount,
+                             long signalCount,
+                             long elapsedMs,
+                             double ticksPerSecond,
+                             double signalsPerSecond,
+                             Map<String, StrategyStats> strategyStats,
+                             List<StrategySignalDTO> signals) {
+
+    /**
+     * 单个策略的命中统计
+     *
+     * @param evaluations 判定次数
+     * @param hits        命中次数
+     * @param stocks      命中过的股票数
+     * @param hitRate     命中率（hits / evaluations）
+     */
+    public record StrategyStats(long evaluations, long hits, int stocks, double hitRate) {
+    }
+}
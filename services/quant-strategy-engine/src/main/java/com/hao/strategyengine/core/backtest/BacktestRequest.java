@@ -0,0 +1,17 @@
+package com.hao.strategyengine.core.backtest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 回测请求
+ *
+ * @param startDate   起始日期（含）
+ * @param endDate     结束日期（含）
+ * @param windCodes   股票代码，为空时使用起始交易日预热数据中的全部股票
+ * @param strategyIds 策略ID，为空时运行全部策略
+ * @author hli
+ * @date 2026-02-08
+ */
+public record BacktestRequest(LocalDate startDate, LocalDate endDate, List<String> windCodes, List<String> strategyIds) {
+}
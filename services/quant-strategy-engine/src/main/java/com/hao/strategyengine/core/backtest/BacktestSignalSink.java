@@ -0,0 +1,77 @@
+package com.hao.strategyengine.core.backtest;
+
+import dto.StrategySignalDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 回测信号收集器（内存）
+ * <p>
+ * 每个分区线程独占一个实例，无锁累加；全部分区结束后通过 {@link #merge(BacktestSignalSink)} 汇总。
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+final class BacktestSignalSink {
+
+    private final List<StrategySignalDTO> signals = new ArrayList<>();
+    private final Map<String, Counter> counters = new HashMap<>();
+    private long tickCount;
+
+    void onTick() {
+        tickCount++;
+    }
+
+    void onEvaluated(String strategyId) {
+        counter(strategyId).evaluations++;
+    }
+
+    void add(StrategySignalDTO signal) {
+        signals.add(signal);
+        Counter counter = counter(signal.getStrategyId());
+        counter.hits++;
+        counter.stocks.add(signal.getWindCode());
+    }
+
+    void merge(BacktestSignalSink other) {
+        signals.addAll(other.signals);
+        tickCount += other.tickCount;
+        other.counters.forEach((id, counter) -> {
+            Counter target = counter(id);
+            target.evaluations += counter.evaluations;
+            target.hits += counter.hits;
+            target.stocks.addAll(counter.stocks);
+        });
+    }
+
+    List<StrategySignalDTO> signals() {
+        return signals;
+    }
+
+    long tickCount() {
+        return tickCount;
+    }
+
+    Map<String, BacktestReport.StrategyStats> stats() {
+        Map<String, BacktestReport.StrategyStats> stats = new HashMap<>(counters.size() * 2);
+        counters.forEach((id, counter) -> stats.put(id, new BacktestReport.StrategyStats(counter.evaluations,
+                counter.hits, counter.stocks.size(),
+                counter.evaluations == 0 ? 0 : (double) counter.hits / counter.evaluations)));
+        return stats;
+    }
+
+    private Counter counter(String strategyId) {
+        return counters.computeIfAbsent(strategyId, k -> new Counter());
+    }
+
+    private static final class Counter {
+        private long evaluations;
+        private long hits;
+        private final Set<String> stocks = new HashSet<>();
+    }
+}
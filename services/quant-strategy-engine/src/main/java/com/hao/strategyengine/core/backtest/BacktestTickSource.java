@@ -0,0 +1,30 @@
+package com.hao.strategyengine.core.backtest;
+
+import dto.TickView;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 回测历史行情源
+ * <p>
+ * 按交易日、按股票批次流式提供历史分时，调用方在回调内同步处理。
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+public interface BacktestTickSource {
+
+    /**
+     * 遍历指定交易日、指定股票的全部历史分时
+     * <p>
+     * 同一股票的行情按时间升序回调；回调入参可能为复用对象，返回后不得继续持有。
+     *
+     * @param tradeDate 交易日
+     * @param windCodes 股票代码
+     * @param consumer  行情回调
+     * @return 回调的行情条数
+     */
+    long forEachTick(LocalDate tradeDate, List<String> windCodes, Consumer<TickView> consumer);
+}
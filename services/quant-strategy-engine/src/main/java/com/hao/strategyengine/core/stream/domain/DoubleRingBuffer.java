@@ -0,0 +1,81 @@
+package com.hao.strategyengine.core.stream.domain;
+
+import java.util.Arrays;
+
+/**
+ * 原始类型环形缓冲区 (Double Ring Buffer)
+ * <p>
+ * 类职责：
+ * 以固定容量的 double[] 保存最近 N 个交易日的数值，写满后自动覆盖最旧数据。
+ * <p>
+ * 设计目的：
+ * 1. 避免 List&lt;Double&gt; 的装箱与扩容，单只股票内存占用固定。
+ * 2. 按"几天前"下标 O(1) 回溯，0 表示最新写入的数据。
+ * <p>
+ * 线程安全：非线程安全，由所属 {@link StockDomainContext} 的 Lane 线程独占写入。
+ *
+ * @author hli
+ * @date 2026-02-04
+ */
+public final class DoubleRingBuffer {
+
+    private final double[] values;
+
+    /**
+     * 下一次写入位置
+     */
+    private int cursor;
+
+    /**
+     * 已写入的有效元素数（不超过容量）
+     */
+    private int size;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    /**
+     * 追加最新数据，写满后覆盖最旧数据
+     *
+     * @param value 数值
+     */
+    public void add(double value) {
+        values[cursor] = value;
+        cursor = cursor + 1 == values.length ? 0 : cursor + 1;
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    /**
+     * 按回溯距离读取
+     *
+     * @param ago 回溯距离（0=最新）
+     * @return 数值，超出已写入范围返回 NaN
+     */
+    public double get(int ago) {
+        if (ago < 0 || ago >= size) {
+            return Double.NaN;
+        }
+        int index = cursor - 1 - ago;
+        return values[index < 0 ? index + values.length : index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0D);
+        cursor = 0;
+        size = 0;
+    }
+}
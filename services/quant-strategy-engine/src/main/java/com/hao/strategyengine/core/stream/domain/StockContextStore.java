@@ -0,0 +1,345 @@
+package com.hao.strategyengine.core.stream.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hao.strategyengine.config.StreamComputeProperties;
+import com.hao.strategyengine.integration.redis.RedisStrategyRepository;
+import constants.DateTimeFormatConstants;
+import constants.RedisKeyConstants;
+import dto.TickView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import util.PreheatColumnarCodec;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 股票内存状态仓库 (Stock Context Store)
+ * <p>
+ * 类职责：
+ * 按 windCode 管理 {@link StockDomainContext}，负责启动预热与逐 tick 更新。
+ * <p>
+ * 设计目的：
+ * 1. 所有策略共享同一份增量指标，新增策略不增加逐 tick 的 Redis 访问。
+ * 2. 启动时从 data-collector 写入的预热 Hash 批量加载历史日线，之后完全依赖行情滚动。
+ * <p>
+ * 预热数据来源（按优先级）：
+ * <pre>
+ * DMI:PREHEAT:{yyyyMMdd}        → 60 日 高/低/收（优先，指标最完整）
+ * MA:PREHEAT:{yyyyMMdd}         → 59 日收盘价（高/低按收盘价补齐）
+ * NINE_TURN:PREHEAT:{yyyyMMdd}  → 20 日收盘价（兜底）
+ * </pre>
+ * 预热数据约定按时间倒序（0=昨日）存储，加载时按首尾 tradeDate 校验顺序；closePrice 为 null 表示停牌，加载时跳过。
+ * 每个策略优先读取列式二进制块（{前缀}BIN:{yyyyMMdd}），不存在时回退到逐股票 JSON Hash。
+ * <p>
+ * 预热时机：
+ * - 应用启动后尝试加载当天的预热数据。
+ * - 首条行情的交易日早于已预热交易日（如回放历史日期）时，按行情交易日重新加载。
+ * 重新加载时构建新的 Map 后整体替换，正在处理的 Lane 不受影响。
+ * <p>
+ * 线程安全：
+ * 分片模式下同一股票只由一个 Lane 线程调用 {@link #onTick(TickView)}，Context 内部无锁；
+ * Map 使用 ConcurrentHashMap，不同 Lane 可并发创建各自股票的 Context。
+ * <p>
+ * 隔离作用域（回测）：
+ * {@link #runIsolated(Map, Runnable)} 在当前线程绑定一份独立的 Context 集合，作用域内 onTick / getContext
+ * 只读写该集合，不触发 Redis 预热，也不影响实盘 Context。回测按股票分区，每个分区线程独占自己的集合。
+ *
+ * @author hli
+ * @date 2026-02-04
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockContextStore {
+
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+
+    private final StreamComputeProperties properties;
+
+    private final RedisStrategyRepository redisStrategyRepository;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 当前生效的 Context 集合（预热后整体替换）
+     */
+    private volatile Map<String, StockDomainContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * 已预热的交易日（yyyyMMdd），0 表示尚未预热
+     */
+    private volatile int warmedTradeDay = 0;
+
+    /**
+     * 当前线程绑定的隔离 Context 集合（回测使用），未绑定为 null
+     */
+    private static final ThreadLocal<Map<String, StockDomainContext>> ISOLATED = new ThreadLocal<>();
+
+    /**
+     * 应用启动后预热当天数据
+     * <p>
+     * 当天无预热数据（非交易日或回放历史日期）时不标记为已预热，由首条行情按其交易日触发。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmupOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int today = Integer.parseInt(LocalDate.now().format(DATE_FORMATTER));
+        synchronized (this) {
+            if (warmedTradeDay != 0) {
+                return;
+            }
+            Map<String, StockDomainContext> loaded = load(today);
+            if (!loaded.isEmpty()) {
+                contexts = loaded;
+                warmedTradeDay = today;
+            }
+        }
+    }
+
+    /**
+     * 应用一条行情并返回该股票的 Context
+     * <p>
+     * 由 Lane 线程在执行策略前调用，策略随后读取到的即为包含本条行情的最新指标。
+     *
+     * @param tick 行情视图
+     * @return 股票 Context
+     */
+    public StockDomainContext onTick(TickView tick) {
+        Map<String, StockDomainContext> isolated = ISOLATED.get();
+        if (isolated != null) {
+            StockDomainContext context = isolated.computeIfAbsent(tick.getWindCode(),
+                    code -> new StockDomainContext(code, properties.getHistorySize()));
+            context.onTick(tick);
+            return context;
+        }
+        ensureWarmed(tick.getTradeDay());
+        Map<String, StockDomainContext> current = contexts;
+        String windCode = tick.getWindCode();
+        StockDomainContext context = current.get(windCode);
+        if (context == null) {
+            // 中文：无预热数据的股票（新股/预热缺失），从空状态开始滚动
+            // English: No preheat data for this stock, start from an empty state
+            context = new StockDomainContext(windCode, properties.getHistorySize());
+            StockDomainContext existing = current.putIfAbsent(windCode, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        context.onTick(tick);
+        return context;
+    }
+
+    /**
+     * 获取股票 Context（只读使用）
+     *
+     * @param windCode 股票代码
+     * @return Context，不存在返回 null
+     */
+    public StockDomainContext getContext(String windCode) {
+        if (windCode == null) {
+            return null;
+        }
+        Map<String, StockDomainContext> isolated = ISOLATED.get();
+        return isolated != null ? isolated.get(windCode) : contexts.get(windCode);
+    }
+
+    /**
+     * 在隔离作用域内执行任务
+     * <p>
+     * 任务执行期间，当前线程的 onTick / getContext 使用以 initial 为初始内容的独立集合（单线程访问，HashMap 即可）。
+     * 作用域结束后恢复外层状态，initial 中的 Context 会被任务原地更新。
+     *
+     * @param initial 初始 Context（如 {@link #loadSnapshot(int)} 结果中属于本分区的部分）
+     * @param task    任务
+     */
+    public void runIsolated(Map<String, StockDomainContext> initial, Runnable task) {
+        Map<String, StockDomainContext> previous = ISOLATED.get();
+        ISOLATED.set(new HashMap<>(initial));
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                ISOLATED.remove();
+            } else {
+                ISOLATED.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 加载指定交易日的预热快照，不替换实盘 Context
+     *
+     * @param tradeDay 交易日（yyyyMMdd）
+     * @return 新构建的 Context 集合，可由调用方按股票拆分后用于隔离作用域
+     */
+    public Map<String, StockDomainContext> loadSnapshot(int tradeDay) {
+        return load(tradeDay);
+    }
+
+    /**
+     * 当前管理的股票数量
+     */
+    public int size() {
+        return contexts.size();
+    }
+
+    /**
+     * 已预热的交易日（yyyyMMdd），0 表示尚未预热
+     */
+    public int getWarmedTradeDay() {
+        return warmedTradeDay;
+    }
+
+    /**
+     * 确保已按行情交易日预热
+     * <p>
+     * 快速路径只读一次 volatile；需要加载时加锁，其余 Lane 等待加载完成后继续。
+     */
+    private void ensureWarmed(int tradeDay) {
+        int warmed = warmedTradeDay;
+        if (tradeDay <= 0 || (warmed != 0 && tradeDay >= warmed)) {
+            return;
+        }
+        synchronized (this) {
+            warmed = warmedTradeDay;
+            if (warmed != 0 && tradeDay >= warmed) {
+                return;
+            }
+            contexts = load(tradeDay);
+            warmedTradeDay = tradeDay;
+        }
+    }
+
+    /**
+     * 从 Redis 预热 Hash 加载指定交易日的历史日线
+     *
+     * @param tradeDay 交易日（yyyyMMdd）
+     * @return 新构建的 Context 集合
+     */
+    private Map<String, StockDomainContext> load(int tradeDay) {
+        long start = System.currentTimeMillis();
+        String dateSuffix = Integer.toString(tradeDay);
+        int historySize = properties.getHistorySize();
+        Map<String, StockDomainContext> loaded = new ConcurrentHashMap<>();
+
+        int dmiCount = loadPreheat(loaded, RedisKeyConstants.DMI_PREHEAT_PREFIX, dateSuffix, tradeDay, historySize, true);
+        int maCount = loadPreheat(loaded, RedisKeyConstants.MA_PREHEAT_PREFIX, dateSuffix, tradeDay, historySize, false);
+        int nineTurnCount = loadPreheat(loaded, RedisKeyConstants.NINE_TURN_PREHEAT_PREFIX, dateSuffix, tradeDay, historySize, false);
+
+        log.info("股票Context预热完成|Stock_context_warmup_done,tradeDay={},contextCount={},dmiFields={},maFields={},nineTurnFields={},costMs={}",
+                tradeDay, loaded.size(), dmiCount, maCount, nineTurnCount, System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * 加载单个策略的预热数据，优先二进制格式
+     *
+     * @return 读取到的股票数量
+     */
+    private int loadPreheat(Map<String, StockDomainContext> loaded, String keyPrefix, String dateSuffix,
+                            int tradeDay, int historySize, boolean withHighLow) {
+        int binaryCount = redisStrategyRepository.loadPreheatBinary(keyPrefix, dateSuffix,
+                reader -> warmup(loaded, reader, tradeDay, historySize));
+        if (binaryCount > 0) {
+            return binaryCount;
+        }
+        return redisStrategyRepository.scanPreheatHash(keyPrefix + dateSuffix, properties.getWarmupBatchSize(),
+                (windCode, json) -> warmup(loaded, windCode, json, tradeDay, historySize, withHighLow));
+    }
+
+    /**
+     * 从列式二进制块初始化 Context
+     * <p>
+     * 价格直接从 Reader 底层字节数组按偏移读取，按时间升序写入复用的临时数组。
+     */
+    private void warmup(Map<String, StockDomainContext> loaded, PreheatColumnarCodec.Reader reader,
+                        int tradeDay, int historySize) {
+        int dateCount = reader.dateCount();
+        double[] highs = new double[dateCount];
+        double[] lows = new double[dateCount];
+        double[] closes = new double[dateCount];
+        for (int stock = 0; stock < reader.stockCount(); stock++) {
+            int count = 0;
+            for (int d = dateCount - 1; d >= 0; d--) {
+                double close = reader.close(stock, d);
+                if (!(close > 0)) {
+                    continue;
+                }
+                closes[count] = close;
+                highs[count] = reader.high(stock, d);
+                lows[count] = reader.low(stock, d);
+                count++;
+            }
+            install(loaded, reader.windCode(stock), highs, lows, closes, count, tradeDay, historySize);
+        }
+    }
+
+    /**
+     * 解析单只股票的 JSON 预热数据并初始化 Context
+     *
+     * @param withHighLow true-DailyOhlcDTO 数组；false-ClosePriceDTO 数组（高/低按收盘价补齐）
+     */
+    private void warmup(Map<String, StockDomainContext> loaded, String windCode, String json,
+                        int tradeDay, int historySize, boolean withHighLow) {
+        try {
+            JsonNode array = objectMapper.readTree(json);
+            if (array == null || !array.isArray()) {
+                return;
+            }
+            int size = array.size();
+            StockDomainContext existing = loaded.get(windCode);
+            if (existing != null && existing.getHistoryBars() >= size) {
+                return;
+            }
+            double[] highs = new double[size];
+            double[] lows = new double[size];
+            double[] closes = new double[size];
+            int count = 0;
+            // 中文：约定按时间倒序（0=昨日），以首尾日期判断实际顺序，统一转为升序并跳过停牌日
+            // English: Convention is newest first; check the end dates and iterate oldest to newest, skipping suspended days
+            boolean newestFirst = size < 2 || array.get(0).path("tradeDate").asText("")
+                    .compareTo(array.get(size - 1).path("tradeDate").asText("")) >= 0;
+            for (int n = 0; n < size; n++) {
+                JsonNode bar = array.get(newestFirst ? size - 1 - n : n);
+                double close = bar.path("closePrice").asDouble(Double.NaN);
+                if (!(close > 0)) {
+                    continue;
+                }
+                closes[count] = close;
+                highs[count] = withHighLow ? bar.path("highPrice").asDouble(close) : close;
+                lows[count] = withHighLow ? bar.path("lowPrice").asDouble(close) : close;
+                count++;
+            }
+            install(loaded, windCode, highs, lows, closes, count, tradeDay, historySize);
+        } catch (Exception e) {
+            log.warn("股票Context预热解析失败|Stock_context_warmup_parse_failed,code={},error={}", windCode, e.getMessage());
+        }
+    }
+
+    /**
+     * 创建并登记 Context
+     * <p>
+     * 同一股票出现在多个预热数据中时，保留历史日线最多的一份。
+     */
+    private void install(Map<String, StockDomainContext> loaded, String windCode, double[] highs, double[] lows,
+                         double[] closes, int count, int tradeDay, int historySize) {
+        StockDomainContext existing = loaded.get(windCode);
+        if (count == 0 || (existing != null && existing.getHistoryBars() >= count)) {
+            return;
+        }
+        StockDomainContext context = new StockDomainContext(windCode, historySize);
+        context.warmup(highs, lows, closes, count, tradeDay);
+        loaded.put(windCode, context);
+    }
+}
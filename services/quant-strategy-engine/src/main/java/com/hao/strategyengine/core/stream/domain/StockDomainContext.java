@@ -0,0 +1,502 @@
+package com.hao.strategyengine.core.stream.domain;
+
+import dto.TickView;
+
+import java.util.Arrays;
+
+/**
+ * 单只股票的内存状态 (Stock Domain Context)
+ * <p>
+ * 类职责：
+ * 保存单只股票最近 historySize 个交易日的日线（收/高/低/量），并随行情增量维护常用指标。
+ * <p>
+ * 设计目的：
+ * 1. 所有策略共享同一份状态，新增策略不再逐 tick 读 Redis 或从头重算。
+ * 2. 日线保存在原始类型环形缓冲区中，按"几天前"O(1) 回溯。
+ * 3. 指标拆分为"截至昨日的已提交状态"+"今日实时 bar"，每条 tick 只做常数次运算。
+ * <p>
+ * 数据模型：
+ * <pre>
+ * ┌──────────────────────── 已提交日线（RingBuffer） ────────────────────────┐ ┌ 今日实时 bar ┐
+ * │  ... close[3]  close[2]  close[1]  close[0](昨日)                          │ │  live close  │
+ * └────────────────────────────────────────────────────────────────────────────┘ └──────────────┘
+ * getClose(0)=今日最新价，getClose(1)=昨日收盘，getClose(n)=n 个交易日前的收盘
+ * </pre>
+ * <p>
+ * 维护的指标：
+ * - MA5/10/20/60：保存最近 (N-1) 日收盘价之和，实时值 = (和 + 最新价) / N
+ * - EMA12/26：保存昨日 EMA，实时值 = α·最新价 + (1-α)·昨日EMA
+ * - DMI/ADX(14)：Wilder 平滑的 TR/+DM/-DM 与 ADX，今日 bar 基于昨日状态试算
+ * - 九转计数：收盘价与 4 个交易日前比较的连续上涨/下跌次数
+ * <p>
+ * 换日处理：
+ * 收到新交易日的第一条 tick 时，把上一交易日的实时 bar 提交到环形缓冲区并滚动已提交状态。
+ * 日内最高/最低取自 tick 最新价，收盘取当日最后一条 tick，与预热侧"当日最后一条记录"口径一致。
+ * <p>
+ * 线程安全：
+ * 分片模式下同一股票固定由一个 Lane 线程写入（单写者），策略在同一线程内读取，无需加锁。
+ * 写方法均为包级可见，策略侧只能通过公开的只读方法访问。
+ *
+ * @author hli
+ * @date 2026-02-04
+ */
+public final class StockDomainContext {
+
+    /**
+     * 均线周期
+     */
+    private static final int[] MA_PERIODS = {5, 10, 20, 60};
+
+    /**
+     * EMA 周期
+     */
+    private static final int[] EMA_PERIODS = {12, 26};
+
+    /**
+     * DMI 平滑周期（Wilder）
+     */
+    static final int DMI_PERIOD = 14;
+
+    /**
+     * 九转比较的回溯距离
+     */
+    static final int NINE_TURN_LOOKBACK = 4;
+
+    private final String windCode;
+
+    private final DoubleRingBuffer closes;
+    private final DoubleRingBuffer highs;
+    private final DoubleRingBuffer lows;
+    private final DoubleRingBuffer volumes;
+
+    // ==================== 已提交状态（截至上一交易日） ====================
+
+    /**
+     * 各均线周期最近 (N-1) 个已提交收盘价之和
+     */
+    private final double[] maPrevSums = new double[MA_PERIODS.length];
+
+    /**
+     * 各 EMA 周期截至上一交易日的值（未完成初始化时为 NaN）
+     */
+    private final double[] emaPrev = new double[EMA_PERIODS.length];
+
+    /**
+     * EMA 初始化阶段的收盘价累计（前 N 日用 SMA 作为种子）
+     */
+    private final double[] emaSeedSums = new double[EMA_PERIODS.length];
+
+    /**
+     * 已提交的日线数量（不受环形缓冲区容量限制）
+     */
+    private long committedBars;
+
+    /**
+     * 已计算 TR/DM 的日线数量
+     */
+    private int dmiBars;
+    private double smoothedTr;
+    private double smoothedPlusDm;
+    private double smoothedMinusDm;
+
+    /**
+     * 已计算 DX 的日线数量，以及 ADX 初始化阶段的 DX 累计
+     */
+    private int dxCount;
+    private double dxSeedSum;
+    private double adxPrev = Double.NaN;
+
+    private int upSetupPrev;
+    private int downSetupPrev;
+
+    /**
+     * 预热对应的交易日（yyyyMMdd），早于该日的行情不再进入状态
+     */
+    private int baseTradeDay;
+
+    // ==================== 今日实时 bar ====================
+
+    private boolean hasLive;
+    private int liveDay;
+    private long liveEpochSecond;
+    private double liveClose = Double.NaN;
+    private double liveHigh = Double.NaN;
+    private double liveLow = Double.NaN;
+    private double liveVolume = Double.NaN;
+
+    // ==================== 实时指标（每条 tick 刷新） ====================
+
+    private final double[] maLive = new double[MA_PERIODS.length];
+    private final double[] emaLive = new double[EMA_PERIODS.length];
+    private double plusDiLive = Double.NaN;
+    private double minusDiLive = Double.NaN;
+    private double adxLive = Double.NaN;
+    private int upSetupLive;
+    private int downSetupLive;
+
+    StockDomainContext(String windCode, int historySize) {
+        this.windCode = windCode;
+        int capacity = Math.max(historySize, MA_PERIODS[MA_PERIODS.length - 1]);
+        this.closes = new DoubleRingBuffer(capacity);
+        this.highs = new DoubleRingBuffer(capacity);
+        this.lows = new DoubleRingBuffer(capacity);
+        this.volumes = new DoubleRingBuffer(capacity);
+        reset();
+    }
+
+    // ==================== 写入（包级可见，仅由 StockContextStore 调用） ====================
+
+    /**
+     * 用历史日线初始化状态
+     * <p>
+     * 逐日调用与换日相同的提交逻辑，因此预热后的指标与实时滚动的结果完全一致。
+     *
+     * @param highs        最高价（按时间升序，最后一个为上一交易日）
+     * @param lows         最低价（同上）
+     * @param closes       收盘价（同上）
+     * @param count        有效数据条数
+     * @param baseTradeDay 预热对应的交易日（yyyyMMdd）
+     */
+    void warmup(double[] highs, double[] lows, double[] closes, int count, int baseTradeDay) {
+        reset();
+        this.baseTradeDay = baseTradeDay;
+        for (int i = 0; i < count; i++) {
+            commitBar(highs[i], lows[i], closes[i], Double.NaN);
+        }
+    }
+
+    /**
+     * 应用一条行情
+     *
+     * @param tick 行情视图
+     * @return true-已更新状态；false-价格无效或行情早于当前状态，被忽略
+     */
+    boolean onTick(TickView tick) {
+        double price = tick.getLatestPrice();
+        int day = tick.getTradeDay();
+        if (!(price > 0) || day < baseTradeDay || (hasLive && day < liveDay)) {
+            return false;
+        }
+        if (hasLive && day > liveDay) {
+            // 中文：换日，将上一交易日的实时 bar 提交为日线
+            // English: Day rolled over, commit yesterday's live bar
+            commitBar(liveHigh, liveLow, liveClose, liveVolume);
+            hasLive = false;
+        }
+        if (!hasLive) {
+            hasLive = true;
+            liveDay = day;
+            liveHigh = price;
+            liveLow = price;
+        } else {
+            if (price > liveHigh) {
+                liveHigh = price;
+            }
+            if (price < liveLow) {
+                liveLow = price;
+            }
+        }
+        liveClose = price;
+        liveVolume = tick.getTotalVolume();
+        liveEpochSecond = tick.getEpochSecond();
+        refreshLive();
+        return true;
+    }
+
+    /**
+     * 提交一根日线并滚动已提交状态
+     * <p>
+     * 必须在写入环形缓冲区之前计算，此时 get(0) 仍是上一根日线。
+     */
+    private void commitBar(double high, double low, double close, double volume) {
+        // 中文：九转计数，与 4 个交易日前收盘价比较
+        // English: Nine-turn setup count against the close 4 bars back
+        double lookback = closes.get(NINE_TURN_LOOKBACK - 1);
+        if (!Double.isNaN(lookback)) {
+            upSetupPrev = close > lookback ? upSetupPrev + 1 : 0;
+            downSetupPrev = close < lookback ? downSetupPrev + 1 : 0;
+        }
+
+        // 中文：均线窗口和，加入新收盘价、移出离开窗口的收盘价
+        // English: Rolling window sums, add the new close and drop the one leaving the window
+        int size = closes.size();
+        for (int k = 0; k < MA_PERIODS.length; k++) {
+            int window = MA_PERIODS[k] - 1;
+            maPrevSums[k] += close - (size >= window ? closes.get(window - 1) : 0D);
+        }
+
+        // 中文：EMA，前 N 日以 SMA 作为种子
+        // English: EMA seeded with the SMA of the first N closes
+        committedBars++;
+        for (int k = 0; k < EMA_PERIODS.length; k++) {
+            int period = EMA_PERIODS[k];
+            if (committedBars < period) {
+                emaSeedSums[k] += close;
+            } else if (committedBars == period) {
+                emaPrev[k] = (emaSeedSums[k] + close) / period;
+            } else {
+                emaPrev[k] = emaOf(period, close, emaPrev[k]);
+            }
+        }
+
+        // 中文：DMI，需要上一根日线
+        // English: DMI requires the previous bar
+        double prevClose = closes.get(0);
+        if (!Double.isNaN(prevClose)) {
+            double tr = trueRange(high, low, prevClose);
+            double plusDm = plusDm(high, low, highs.get(0), lows.get(0));
+            double minusDm = minusDm(high, low, highs.get(0), lows.get(0));
+            dmiBars++;
+            if (dmiBars <= DMI_PERIOD) {
+                smoothedTr += tr;
+                smoothedPlusDm += plusDm;
+                smoothedMinusDm += minusDm;
+            } else {
+                smoothedTr = wilder(smoothedTr, tr);
+                smoothedPlusDm = wilder(smoothedPlusDm, plusDm);
+                smoothedMinusDm = wilder(smoothedMinusDm, minusDm);
+            }
+            if (dmiBars >= DMI_PERIOD) {
+                double dx = dx(smoothedTr, smoothedPlusDm, smoothedMinusDm);
+                dxCount++;
+                if (dxCount < DMI_PERIOD) {
+                    dxSeedSum += dx;
+                } else if (dxCount == DMI_PERIOD) {
+                    adxPrev = (dxSeedSum + dx) / DMI_PERIOD;
+                } else {
+                    adxPrev = (adxPrev * (DMI_PERIOD - 1) + dx) / DMI_PERIOD;
+                }
+            }
+        }
+
+        closes.add(close);
+        highs.add(high);
+        lows.add(low);
+        volumes.add(volume);
+    }
+
+    /**
+     * 基于已提交状态与今日实时 bar 刷新实时指标（常数次运算，不修改已提交状态）
+     */
+    private void refreshLive() {
+        int size = closes.size();
+        for (int k = 0; k < MA_PERIODS.length; k++) {
+            int period = MA_PERIODS[k];
+            maLive[k] = size >= period - 1 ? (maPrevSums[k] + liveClose) / period : Double.NaN;
+        }
+        for (int k = 0; k < EMA_PERIODS.length; k++) {
+            emaLive[k] = committedBars >= EMA_PERIODS[k]
+                    ? emaOf(EMA_PERIODS[k], liveClose, emaPrev[k]) : Double.NaN;
+        }
+
+        double prevClose = closes.get(0);
+        if (dmiBars >= DMI_PERIOD && !Double.isNaN(prevClose)) {
+            double tr = wilder(smoothedTr, trueRange(liveHigh, liveLow, prevClose));
+            double plusDm = wilder(smoothedPlusDm, plusDm(liveHigh, liveLow, highs.get(0), lows.get(0)));
+            double minusDm = wilder(smoothedMinusDm, minusDm(liveHigh, liveLow, highs.get(0), lows.get(0)));
+            plusDiLive = tr > 0 ? 100D * plusDm / tr : 0D;
+            minusDiLive = tr > 0 ? 100D * minusDm / tr : 0D;
+            double dx = dx(tr, plusDm, minusDm);
+            if (dxCount >= DMI_PERIOD) {
+                adxLive = (adxPrev * (DMI_PERIOD - 1) + dx) / DMI_PERIOD;
+            } else if (dxCount == DMI_PERIOD - 1) {
+                adxLive = (dxSeedSum + dx) / DMI_PERIOD;
+            } else {
+                adxLive = Double.NaN;
+            }
+        } else {
+            plusDiLive = Double.NaN;
+            minusDiLive = Double.NaN;
+            adxLive = Double.NaN;
+        }
+
+        double lookback = closes.get(NINE_TURN_LOOKBACK - 1);
+        if (Double.isNaN(lookback)) {
+            upSetupLive = 0;
+            downSetupLive = 0;
+        } else {
+            upSetupLive = liveClose > lookback ? upSetupPrev + 1 : 0;
+            downSetupLive = liveClose < lookback ? downSetupPrev + 1 : 0;
+        }
+    }
+
+    private void reset() {
+        closes.clear();
+        highs.clear();
+        lows.clear();
+        volumes.clear();
+        Arrays.fill(maPrevSums, 0D);
+        Arrays.fill(emaPrev, Double.NaN);
+        Arrays.fill(emaSeedSums, 0D);
+        Arrays.fill(maLive, Double.NaN);
+        Arrays.fill(emaLive, Double.NaN);
+        committedBars = 0;
+        dmiBars = 0;
+        smoothedTr = 0D;
+        smoothedPlusDm = 0D;
+        smoothedMinusDm = 0D;
+        dxCount = 0;
+        dxSeedSum = 0D;
+        adxPrev = Double.NaN;
+        upSetupPrev = 0;
+        downSetupPrev = 0;
+        baseTradeDay = 0;
+        hasLive = false;
+        liveDay = 0;
+        liveEpochSecond = 0L;
+        liveClose = Double.NaN;
+        liveHigh = Double.NaN;
+        liveLow = Double.NaN;
+        liveVolume = Double.NaN;
+        plusDiLive = Double.NaN;
+        minusDiLive = Double.NaN;
+        adxLive = Double.NaN;
+        upSetupLive = 0;
+        downSetupLive = 0;
+    }
+
+    // ==================== 指标公式 ====================
+
+    private static double emaOf(int period, double value, double previous) {
+        double alpha = 2D / (period + 1);
+        return alpha * value + (1 - alpha) * previous;
+    }
+
+    private static double wilder(double smoothed, double value) {
+        return smoothed - smoothed / DMI_PERIOD + value;
+    }
+
+    private static double trueRange(double high, double low, double prevClose) {
+        return Math.max(high - low, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+    }
+
+    private static double plusDm(double high, double low, double prevHigh, double prevLow) {
+        double up = high - prevHigh;
+        double down = prevLow - low;
+        return up > down && up > 0 ? up : 0D;
+    }
+
+    private static double minusDm(double high, double low, double prevHigh, double prevLow) {
+        double up = high - prevHigh;
+        double down = prevLow - low;
+        return down > up && down > 0 ? down : 0D;
+    }
+
+    private static double dx(double tr, double plusDm, double minusDm) {
+        if (tr <= 0) {
+            return 0D;
+        }
+        double plusDi = 100D * plusDm / tr;
+        double minusDi = 100D * minusDm / tr;
+        double sum = plusDi + minusDi;
+        return sum > 0 ? 100D * Math.abs(plusDi - minusDi) / sum : 0D;
+    }
+
+    // ==================== 只读访问 ====================
+
+    public String getWindCode() {
+        return windCode;
+    }
+
+    /**
+     * 收盘价回溯
+     *
+     * @param daysAgo 0=今日最新价，1=昨日收盘，n=n 个交易日前
+     * @return 价格，无数据返回 NaN
+     */
+    public double getClose(int daysAgo) {
+        return daysAgo == 0 ? liveClose : closes.get(daysAgo - 1);
+    }
+
+    /**
+     * 最高价回溯（今日为截至当前 tick 的最高价）
+     */
+    public double getHigh(int daysAgo) {
+        return daysAgo == 0 ? liveHigh : highs.get(daysAgo - 1);
+    }
+
+    /**
+     * 最低价回溯（今日为截至当前 tick 的最低价）
+     */
+    public double getLow(int daysAgo) {
+        return daysAgo == 0 ? liveLow : lows.get(daysAgo - 1);
+    }
+
+    /**
+     * 成交量回溯（预热数据不含成交量，对应日期返回 NaN）
+     */
+    public double getVolume(int daysAgo) {
+        return daysAgo == 0 ? liveVolume : volumes.get(daysAgo - 1);
+    }
+
+    /**
+     * 环形缓冲区中的历史日线数量（不含今日）
+     */
+    public int getHistoryBars() {
+        return closes.size();
+    }
+
+    /**
+     * 当前实时 bar 的交易日（yyyyMMdd），尚未收到行情时为 0
+     */
+    public int getTradeDay() {
+        return liveDay;
+    }
+
+    /**
+     * 最近一次更新的行情时间（epoch 秒）
+     */
+    public long getLastEpochSecond() {
+        return liveEpochSecond;
+    }
+
+    public double getMa5() {
+        return maLive[0];
+    }
+
+    public double getMa10() {
+        return maLive[1];
+    }
+
+    public double getMa20() {
+        return maLive[2];
+    }
+
+    public double getMa60() {
+        return maLive[3];
+    }
+
+    public double getEma12() {
+        return emaLive[0];
+    }
+
+    public double getEma26() {
+        return emaLive[1];
+    }
+
+    public double getPlusDi() {
+        return plusDiLive;
+    }
+
+    public double getMinusDi() {
+        return minusDiLive;
+    }
+
+    public double getAdx() {
+        return adxLive;
+    }
+
+    /**
+     * 九转上涨计数（今日收盘价连续高于 4 个交易日前收盘价的天数，含今日）
+     */
+    public int getUpSetupCount() {
+        return upSetupLive;
+    }
+
+    /**
+     * 九转下跌计数（今日收盘价连续低于 4 个交易日前收盘价的天数，含今日）
+     */
+    public int getDownSetupCount() {
+        return downSetupLive;
+    }
+}
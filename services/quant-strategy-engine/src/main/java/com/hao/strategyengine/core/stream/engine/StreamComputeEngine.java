@@ -0,0 +1,322 @@
+package com.hao.strategyengine.core.stream.engine;
+
+import com.hao.strategyengine.config.StreamComputeProperties;
+import dto.HistoryTrendDTO;
+import dto.MutableTick;
+import dto.TickView;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 流式计算引擎（按股票分片的单写者执行器）
+ * <p>
+ * 设计目的：
+ * 1. 同一 windCode 的行情固定路由到同一个 Lane（工作线程），保证单股票的处理顺序。
+ * 2. 每个 Lane 由一个线程独占执行所有策略，策略状态天然线程封闭，无需加锁。
+ * 3. 队列中直接存放行情对象，不再为每个 (策略, tick) 创建 Runnable，消除逐条 lambda 分配。
+ * 4. 每个 Lane 预分配固定数量的 {@link MutableTick}，提交时复制到空闲对象，处理完归还，稳态下无逐条垃圾。
+ * <p>
+ * 背压机制：
+ * - 每个 Lane 拥有独立的有界对象池，池空（即队列积压已满）时阻塞 Kafka 监听线程，
+ *   而不是像 CallerRunsPolicy 那样把策略计算推回监听线程执行。
+ * - 记录背压次数与阻塞耗时，便于观察开盘高峰期的积压情况。
+ * <p>
+ * 路由规则：
+ * <pre>
+ * lane = (windCode.hashCode() & 0x7fffffff) % laneCount
+ * </pre>
+ *
+ * @author hli
+ * @date 2026-02-02
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamComputeEngine {
+
+    /**
+     * 背压告警日志最小间隔（毫秒），避免高峰期日志刷屏
+     */
+    private static final long BACKPRESSURE_WARN_INTERVAL_MS = 1000L;
+
+    private final StreamComputeProperties properties;
+
+    /**
+     * 所有 Lane（启动后不可变）
+     */
+    private volatile Lane[] lanes;
+
+    /**
+     * 上次背压告警时间
+     */
+    private volatile long lastBackpressureWarnTime = 0L;
+
+    /**
+     * 启动所有 Lane
+     * <p>
+     * 由 StrategyDispatcher 在分片模式下调用，传入单条行情的处理逻辑。
+     * 重复调用直接忽略。
+     *
+     * @param handler 行情处理逻辑（在 Lane 线程中执行，入参在返回后会被复用）
+     */
+    public synchronized void start(Consumer<TickView> handler) {
+        if (lanes != null) {
+            return;
+        }
+        int laneCount = Math.max(1, properties.getWorkerThreads());
+        int capacity = Math.max(1, properties.getShardQueueCapacity());
+        Lane[] created = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            created[i] = new Lane(i, capacity, handler);
+            created[i].thread.start();
+        }
+        this.lanes = created;
+        log.info("流式计算引擎启动完成|Stream_compute_engine_started,laneCount={},queueCapacity={}",
+                laneCount, capacity);
+    }
+
+    /**
+     * 提交行情 DTO 到对应 Lane（兼容逐条解析路径）
+     *
+     * @param dto 行情数据
+     */
+    public void submit(HistoryTrendDTO dto) {
+        Lane lane = laneFor(dto.getWindCode());
+        MutableTick tick = acquire(lane, dto.getWindCode());
+        if (tick == null) {
+            return;
+        }
+        tick.fillFrom(dto);
+        lane.queue.offer(tick);
+    }
+
+    /**
+     * 提交行情视图到对应 Lane
+     * <p>
+     * 视图内容会被复制到 Lane 的池化对象中，调用方返回后可立即复用自己的对象。
+     *
+     * @param view 行情视图
+     */
+    public void submit(TickView view) {
+        Lane lane = laneFor(view.getWindCode());
+        MutableTick tick = acquire(lane, view.getWindCode());
+        if (tick == null) {
+            return;
+        }
+        tick.copyFrom(view);
+        lane.queue.offer(tick);
+    }
+
+    private Lane laneFor(String windCode) {
+        Lane[] current = lanes;
+        if (current == null) {
+            throw new IllegalStateException("StreamComputeEngine not started");
+        }
+        return current[laneOf(windCode, current.length)];
+    }
+
+    /**
+     * 从 Lane 对象池获取空闲行情对象
+     * <p>
+     * 先尝试非阻塞获取；池已空说明 Lane 积压已满，记录背压并阻塞等待 Lane 归还对象。
+     * 队列容量与池大小一致，因此拿到对象后入队一定成功。
+     *
+     * @return 空闲对象，等待被中断时返回 null
+     */
+    private MutableTick acquire(Lane lane, String windCode) {
+        lane.submitted.incrementAndGet();
+        MutableTick tick = lane.pool.poll();
+        if (tick != null) {
+            return tick;
+        }
+        // 中文：对象池耗尽，进入背压阻塞
+        // English: Pool exhausted, apply backpressure on the caller
+        lane.backpressureCount.incrementAndGet();
+        warnBackpressure(lane);
+        long begin = System.nanoTime();
+        try {
+            return lane.pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lane.dropped.incrementAndGet();
+            log.warn("行情入队被中断|Submit_interrupted,lane={},code={}", lane.index, windCode);
+            return null;
+        } finally {
+            lane.blockedNanos.addAndGet(System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * 计算股票所属 Lane
+     *
+     * @param windCode  股票代码
+     * @param laneCount Lane 数量
+     * @return Lane 下标
+     */
+    static int laneOf(String windCode, int laneCount) {
+        if (windCode == null) {
+            return 0;
+        }
+        return (windCode.hashCode() & 0x7fffffff) % laneCount;
+    }
+
+    /**
+     * 是否已启动
+     *
+     * @return true-已启动
+     */
+    public boolean isStarted() {
+        return lanes != null;
+    }
+
+    /**
+     * 获取各 Lane 运行指标快照
+     *
+     * @return 指标列表，未启动时返回空列表
+     */
+    public List<LaneStats> getLaneStats() {
+        Lane[] current = lanes;
+        if (current == null) {
+            return List.of();
+        }
+        List<LaneStats> stats = new ArrayList<>(current.length);
+        for (Lane lane : current) {
+            stats.add(new LaneStats(lane.index,
+                    lane.queue.size(),
+                    lane.submitted.get(),
+                    lane.processed.get(),
+                    lane.backpressureCount.get(),
+                    TimeUnit.NANOSECONDS.toMillis(lane.blockedNanos.get()),
+                    lane.dropped.get()));
+        }
+        return stats;
+    }
+
+    /**
+     * 背压告警（限频）
+     */
+    private void warnBackpressure(Lane lane) {
+        long now = System.currentTimeMillis();
+        if (now - lastBackpressureWarnTime >= BACKPRESSURE_WARN_INTERVAL_MS) {
+            lastBackpressureWarnTime = now;
+            log.warn("策略Lane队列已满_触发背压|Lane_backpressure,lane={},queueSize={},backpressureCount={}",
+                    lane.index, lane.queue.size(), lane.backpressureCount.get());
+        }
+    }
+
+    /**
+     * 应用关闭时停止所有 Lane
+     * <p>
+     * 先通知 Lane 停止，再等待其处理完队列中剩余的行情。
+     */
+    @PreDestroy
+    public void shutdown() {
+        Lane[] current = lanes;
+        if (current == null) {
+            return;
+        }
+        log.info("开始关闭流式计算引擎|Shutdown_stream_compute_engine");
+        for (Lane lane : current) {
+            lane.running = false;
+        }
+        for (Lane lane : current) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+                if (lane.thread.isAlive()) {
+                    log.warn("Lane关闭超时_强制中断|Lane_shutdown_timeout,lane={},remaining={}",
+                            lane.index, lane.queue.size());
+                    lane.thread.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("流式计算引擎已关闭|Stream_compute_engine_shutdown_success");
+    }
+
+    /**
+     * Lane 运行指标
+     *
+     * @param lane              Lane 下标
+     * @param queueSize         当前队列积压
+     * @param submitted         累计提交数
+     * @param processed         累计处理数
+     * @param backpressureCount 累计背压次数
+     * @param blockedMillis     累计背压阻塞耗时（毫秒）
+     * @param dropped           因中断丢弃的行情数
+     */
+    public record LaneStats(int lane, int queueSize, long submitted, long processed,
+                            long backpressureCount, long blockedMillis, long dropped) {
+    }
+
+    /**
+     * 单个执行通道：一个有界队列 + 一个同容量的行情对象池 + 一个独占线程
+     */
+    private static final class Lane implements Runnable {
+
+        private final int index;
+        private final ArrayBlockingQueue<MutableTick> queue;
+        private final ArrayBlockingQueue<MutableTick> pool;
+        private final Consumer<TickView> handler;
+        private final Thread thread;
+
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong backpressureCount = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private volatile boolean running = true;
+
+        private Lane(int index, int capacity, Consumer<TickView> handler) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.pool = new ArrayBlockingQueue<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                pool.offer(new MutableTick());
+            }
+            this.handler = handler;
+            this.thread = new Thread(this, "strategy-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            // 中文：停止后继续排空队列，保证已接收的行情被处理
+            // English: Keep draining after stop so accepted ticks are not lost
+            while (running || !queue.isEmpty()) {
+                MutableTick tick;
+                try {
+                    tick = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (tick == null) {
+                    continue;
+                }
+                try {
+                    handler.accept(tick);
+                } catch (Throwable t) {
+                    log.error("Lane处理异常|Lane_handle_error,lane={},code={}", index, tick.getWindCode(), t);
+                } finally {
+                    // 中文：处理完成后归还对象池
+                    // English: Return the tick to the pool once handled
+                    tick.reset();
+                    pool.offer(tick);
+                }
+                processed.lazySet(processed.get() + 1);
+            }
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.hao.strategyengine.core.stream.strategy;
 
 import com.hao.strategyengine.cache.TradeDateCache;
+import com.hao.strategyengine.core.stream.domain.StockContextStore;
+import com.hao.strategyengine.core.stream.domain.StockDomainContext;
 import com.hao.strategyengine.integration.kafka.StrategySignalProducer;
 import dto.HistoryTrendDTO;
 import dto.StrategySignalDTO;
+import dto.TickView;
 import enums.strategy.SignalTypeEnum;
 import enums.strategy.StrategyRiskLevelEnum;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
+import java.lang.reflect.Method;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -27,7 +33,9 @@ import java.util.List;
  * - 交易日历自动加载（@PostConstruct）
  * - 交易日校验方法
  * - 统一的策略匹配接口 isMatch()
+ * - 原始类型行情视图入口 isMatch(TickView)，覆盖后可实现逐 tick 零分配；未覆盖的策略共享每条行情只转换一次的 DTO
  * - 信号触发后自动发送 Kafka 消息
+ * - 共享的股票内存状态 getContext()：历史日线与 MA/EMA/DMI/九转等增量指标，无需逐 tick 读 Redis
  *
  * @author hli
  * @date 2026-01-21
@@ -41,6 +49,9 @@ public abstract class BaseStrategy {
     @Autowired
     protected StrategySignalProducer strategySignalProducer;
 
+    @Autowired
+    private StockContextStore stockContextStore;
+
     /**
      * 交易日历列表（从缓存自动加载）
      */
@@ -51,6 +62,16 @@ public abstract class BaseStrategy {
      */
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    /**
+     * 子类是否覆盖了 isMatch(TickView)（构造时确定）
+     */
+    private final boolean tickViewMatch = overridesTickView("isMatch");
+
+    /**
+     * 子类是否覆盖了 onSignalTriggered(TickView)（构造时确定）
+     */
+    private final boolean tickViewSignal = overridesTickView("onSignalTriggered");
+
     /**
      * 获取策略唯一标识
      *
@@ -90,6 +111,33 @@ public abstract class BaseStrategy {
      */
     public abstract boolean isMatch(HistoryTrendDTO dto);
 
+    /**
+     * 判断是否触发策略信号（原始类型行情视图）
+     * <p>
+     * 分片模式下 StrategyDispatcher 对覆盖了此方法的策略调用此方法，入参为池化复用对象，方法返回后不得继续持有。
+     * 未覆盖的策略由 StrategyDispatcher 每条行情只转换一次 HistoryTrendDTO，直接调用 {@link #isMatch(HistoryTrendDTO)}，
+     * 同一条行情的 DTO 在多个策略间共享，策略不得修改。
+     * 默认实现仅供其他调用方使用，每次调用都会产生对象分配；对性能敏感的策略应覆盖此方法，直接读取 double/long 字段。
+     *
+     * @param tick 行情视图
+     * @return true-触发信号，false-未触发
+     */
+    public boolean isMatch(TickView tick) {
+        return isMatch(tick.toHistoryTrendDTO());
+    }
+
+    /**
+     * 信号触发后的回调（原始类型行情视图）
+     * <p>
+     * 信号属于低频路径，默认转换为 HistoryTrendDTO 后走 {@link #onSignalTriggered(HistoryTrendDTO)}；
+     * 未覆盖时 StrategyDispatcher 直接复用本条行情已转换的 DTO。
+     *
+     * @param tick 触发信号的行情视图
+     */
+    public void onSignalTriggered(TickView tick) {
+        onSignalTriggered(tick.toHistoryTrendDTO());
+    }
+
     /**
      * 信号触发后的回调
      * <p>
@@ -114,6 +162,49 @@ public abstract class BaseStrategy {
         strategySignalProducer.sendSignal(signal);
     }
 
+    /**
+     * 将触发信号的行情转换为信号 DTO，不发送
+     * <p>
+     * 供回测等需要收集信号而不经过 Kafka 的场景使用。
+     *
+     * @param tick 触发信号的行情视图
+     * @return 策略信号 DTO
+     */
+    public StrategySignalDTO toSignal(TickView tick) {
+        return buildSignalDTO(tick.toHistoryTrendDTO());
+    }
+
+    /**
+     * 将触发信号的行情转换为信号 DTO，不发送
+     *
+     * @param dto 触发信号的行情数据
+     * @return 策略信号 DTO
+     */
+    public StrategySignalDTO toSignal(HistoryTrendDTO dto) {
+        return buildSignalDTO(dto);
+    }
+
+    /**
+     * 是否直接处理行情视图
+     * <p>
+     * 为 false 时调用方应复用本条行情已转换的 HistoryTrendDTO 调用 {@link #isMatch(HistoryTrendDTO)}，
+     * 避免每个策略各自转换一次。
+     *
+     * @return true-覆盖了 isMatch(TickView)
+     */
+    public boolean isTickViewMatch() {
+        return tickViewMatch;
+    }
+
+    /**
+     * 是否直接处理行情视图的信号回调
+     *
+     * @return true-覆盖了 onSignalTriggered(TickView)
+     */
+    public boolean isTickViewSignal() {
+        return tickViewSignal;
+    }
+
     /**
      * 构建策略信号 DTO
      * <p>
@@ -165,6 +256,27 @@ public abstract class BaseStrategy {
         return tradeDateList;
     }
 
+    /**
+     * 获取股票的内存状态（只读）
+     * <p>
+     * 分片模式下 Context 已在策略执行前应用了当前行情，isMatch 内读取到的指标即为最新值。
+     * 返回对象由 Lane 线程持续更新，仅可在 isMatch / onSignalTriggered 调用期间读取，不得缓存。
+     *
+     * @param windCode 股票代码
+     * @return 股票 Context，无预热数据且尚未收到行情时返回 null
+     */
+    protected StockDomainContext getContext(String windCode) {
+        return stockContextStore.getContext(windCode);
+    }
+
+    /**
+     * 判断子类是否覆盖了以 TickView 为参数的方法（按用户类判断，忽略 CGLIB 代理）
+     */
+    private boolean overridesTickView(String methodName) {
+        Method method = ReflectionUtils.findMethod(ClassUtils.getUserClass(getClass()), methodName, TickView.class);
+        return method != null && method.getDeclaringClass() != BaseStrategy.class;
+    }
+
     /**
      * 判断指定日期是否为交易日
      *
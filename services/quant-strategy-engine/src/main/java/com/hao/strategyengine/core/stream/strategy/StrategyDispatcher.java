@@ -1,6 +1,11 @@
 package com.hao.strategyengine.core.stream.strategy;
 
+import com.hao.strategyengine.config.StreamComputeProperties;
+import com.hao.strategyengine.core.stream.domain.StockContextStore;
+import com.hao.strategyengine.core.stream.engine.StreamComputeEngine;
 import dto.HistoryTrendDTO;
+import dto.TickView;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -17,6 +22,13 @@ import java.util.List;
  * 2. 使用线程池异步执行各策略判断，避免阻塞 Kafka 消费线程。
  * 3. 策略自动发现：Spring 会将所有 BaseStrategy 实现自动注入。
  * <p>
+ * 分发模式（stream.compute.dispatch-mode）：
+ * - SHARDED：按 windCode 分片到固定 Lane，Lane 线程顺序执行所有策略，保证单股票有序
+ * - POOL：每个 (策略, 行情) 提交一个任务到共享线程池（旧模式）
+ * <p>
+ * StockDomainContext 只在 SHARDED 模式下随行情增量更新（单写者）；POOL 模式下多个任务并发执行，
+ * 无法保证单股票的更新顺序，Context 仅保留预热时的历史状态。
+ * <p>
  * 架构优势：
  * - 职责分离：KafkaConsumerService 只负责接收消息，本类负责策略调度
  * - 易扩展：新增策略只需实现 BaseStrategy 接口
@@ -41,11 +53,46 @@ public class StrategyDispatcher {
     @Qualifier("strategyExecutor")
     private final ThreadPoolTaskExecutor strategyExecutor;
 
+    /**
+     * 按股票分片的流式计算引擎
+     */
+    private final StreamComputeEngine streamComputeEngine;
+
+    /**
+     * 流式计算配置
+     */
+    private final StreamComputeProperties properties;
+
+    /**
+     * 股票内存状态仓库（分片模式下由 Lane 线程逐 tick 更新）
+     */
+    private final StockContextStore stockContextStore;
+
+    /**
+     * 是否使用分片模式（启动时确定）
+     */
+    private boolean sharded;
+
+    /**
+     * 初始化分发模式
+     * <p>
+     * 分片模式下启动 StreamComputeEngine，并将 {@link #executeAll(TickView)} 作为 Lane 的处理逻辑。
+     */
+    @PostConstruct
+    public void init() {
+        this.sharded = properties.getDispatchMode() == StreamComputeProperties.DispatchMode.SHARDED;
+        if (sharded) {
+            streamComputeEngine.start(this::executeAll);
+        }
+        log.info("策略调度器初始化完成|Strategy_dispatcher_init,mode={},strategyCount={}",
+                properties.getDispatchMode(), strategies.size());
+    }
+
     /**
      * 分发行情数据到所有策略
      * <p>
-     * 遍历所有注册的策略，使用线程池异步执行判断。
-     * 每个策略的 isMatch() 方法会被并行调用。
+     * 分片模式：整条行情提交到所属 Lane，由 Lane 线程顺序执行所有策略。
+     * 线程池模式：遍历所有注册的策略，每个策略的 isMatch() 在线程池中并行调用。
      *
      * @param dto 分时行情数据
      */
@@ -55,11 +102,118 @@ public class StrategyDispatcher {
             return;
         }
 
+        if (sharded) {
+            streamComputeEngine.submit(dto);
+            return;
+        }
+
         for (BaseStrategy strategy : strategies) {
             strategyExecutor.execute(() -> executeStrategy(strategy, dto));
         }
     }
 
+    /**
+     * 分发原始类型行情视图到所有策略
+     * <p>
+     * 分片模式：视图被复制到所属 Lane 的池化对象，调用方可立即复用传入对象。
+     * 线程池模式：异步任务无法安全持有复用对象，转换为 HistoryTrendDTO 后走 {@link #dispatch(HistoryTrendDTO)}。
+     *
+     * @param tick 行情视图
+     */
+    public void dispatchTick(TickView tick) {
+        if (tick == null || tick.getWindCode() == null) {
+            log.debug("忽略空数据|Ignore_null_tick");
+            return;
+        }
+
+        if (sharded) {
+            streamComputeEngine.submit(tick);
+            return;
+        }
+        dispatch(tick.toHistoryTrendDTO());
+    }
+
+    /**
+     * 批量分发行情数据到所有策略
+     * <p>
+     * 分片模式：逐条提交到所属 Lane，同一股票在批内的先后顺序保持不变。
+     * 线程池模式：每个策略只提交一个任务，顺序处理整批行情，任务数从 批大小×策略数 降为 策略数。
+     *
+     * @param batch 一次 poll 解析出的行情列表
+     */
+    public void dispatchBatch(List<HistoryTrendDTO> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        if (sharded) {
+            for (int i = 0, size = batch.size(); i < size; i++) {
+                HistoryTrendDTO dto = batch.get(i);
+                if (dto != null) {
+                    streamComputeEngine.submit(dto);
+                }
+            }
+            return;
+        }
+
+        for (BaseStrategy strategy : strategies) {
+            strategyExecutor.execute(() -> {
+                for (int i = 0, size = batch.size(); i < size; i++) {
+                    HistoryTrendDTO dto = batch.get(i);
+                    if (dto != null) {
+                        executeStrategy(strategy, dto);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 在当前线程顺序执行所有策略
+     * <p>
+     * 分片模式下由 Lane 线程调用，同一股票的行情始终在同一线程内按到达顺序处理。
+     * 先更新该股票的 StockDomainContext，再执行策略，策略读取到的指标已包含本条行情。
+     * 未覆盖 TickView 入口的策略共享同一个 HistoryTrendDTO，每条行情最多转换一次。
+     *
+     * @param tick 行情视图（Lane 池化对象）
+     */
+    private void executeAll(TickView tick) {
+        try {
+            stockContextStore.onTick(tick);
+        } catch (Exception e) {
+            log.error("股票Context更新异常|Stock_context_update_error,code={},error={}",
+                    tick.getWindCode(), e.getMessage(), e);
+        }
+        HistoryTrendDTO dto = null;
+        for (int i = 0, size = strategies.size(); i < size; i++) {
+            BaseStrategy strategy = strategies.get(i);
+            try {
+                boolean matched;
+                if (strategy.isTickViewMatch()) {
+                    matched = strategy.isMatch(tick);
+                } else {
+                    if (dto == null) {
+                        dto = tick.toHistoryTrendDTO();
+                    }
+                    matched = strategy.isMatch(dto);
+                }
+                if (matched) {
+                    if (strategy.isTickViewSignal()) {
+                        strategy.onSignalTriggered(tick);
+                    } else {
+                        if (dto == null) {
+                            dto = tick.toHistoryTrendDTO();
+                        }
+                        strategy.onSignalTriggered(dto);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("策略执行异常|Strategy_execution_error,strategy={},code={},error={}",
+                        strategy.getId(), tick.getWindCode(), e.getMessage(), e);
+            }
+        }
+    }
+
     /**
      * 执行单个策略
      * <p>
@@ -80,6 +234,15 @@ public class StrategyDispatcher {
         }
     }
 
+    /**
+     * 是否为分片模式
+     *
+     * @return true-分片模式
+     */
+    public boolean isSharded() {
+        return sharded;
+    }
+
     /**
      * 获取已注册的策略数量
      *
@@ -0,0 +1,98 @@
+package com.hao.strategyengine.integration.http;
+
+import com.hao.strategyengine.config.BacktestProperties;
+import com.hao.strategyengine.core.backtest.BacktestTickSource;
+import constants.DateTimeFormatConstants;
+import dto.MutableTick;
+import dto.TickView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import util.TickJsonDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 基于 data-collector 的回测历史行情源
+ * <p>
+ * 类职责：
+ * 调用 data-collector 的 /quotation/get_date_trend 读取指定交易日、指定股票的历史分时，流式解析后逐条回调。
+ * <p>
+ * 设计目的：
+ * 1. 策略引擎按设计不连接 MySQL，历史分时仍由 data-collector 的 QuotationMapper 按冷热表路由读取。
+ * 2. 响应体以 InputStream 交给 {@link TickJsonDecoder#decodeArray}，不构建 List&lt;HistoryTrendDTO&gt;，
+ *    单个请求的内存占用与响应大小无关。
+ * <p>
+ * 线程安全：HttpClient 与 TickJsonDecoder 可共享；每次调用使用独立的 MutableTick。
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+@Slf4j
+@Component
+public class CollectorBacktestTickSource implements BacktestTickSource {
+
+    private static final String TREND_PATH = "/quotation/get_date_trend";
+
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+
+    private final BacktestProperties properties;
+
+    private final HttpClient httpClient;
+
+    private final TickJsonDecoder decoder = new TickJsonDecoder();
+
+    public CollectorBacktestTickSource(BacktestProperties properties) {
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public long forEachTick(LocalDate tradeDate, List<String> windCodes, Consumer<TickView> consumer) {
+        if (windCodes.isEmpty()) {
+            return 0;
+        }
+        String day = tradeDate.format(DATE_FORMATTER);
+        URI uri = URI.create(properties.getCollectorBaseUrl() + TREND_PATH
+                + "?startDate=" + day + "&endDate=" + day
+                + "&stockList=" + URLEncoder.encode(String.join(",", windCodes), StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(properties.getRequestTimeoutSeconds()))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("历史分时请求失败|Backtest_trend_request_failed,status="
+                            + response.statusCode() + ",date=" + day);
+                }
+                long count = decoder.decodeArray(body, new MutableTick(), consumer);
+                log.debug("回测历史分时读取完成|Backtest_trend_loaded,date={},stocks={},ticks={}",
+                        day, windCodes.size(), count);
+                return count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("历史分时读取失败|Backtest_trend_read_failed,date=" + day, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("历史分时读取被中断|Backtest_trend_interrupted,date=" + day, e);
+        }
+    }
+}
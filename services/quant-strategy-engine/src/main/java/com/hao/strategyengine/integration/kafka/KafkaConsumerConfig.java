@@ -1,5 +1,6 @@
 package com.hao.strategyengine.integration.kafka;
 
+import com.hao.strategyengine.config.StreamComputeProperties;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,6 +29,7 @@ import java.util.Map;
  * - 关闭自动提交(enable.auto.commit=false)。
  * - 使用MANUAL_IMMEDIATE模式，由业务代码控制提交时机。
  * - 消费组ID使用strategy-service-group标识策略服务。
+ * - 额外提供批量监听容器工厂，按poll整批消费并每批提交一次偏移量。
  *
  * @author quant-team
  * @since 2025-10-22
@@ -79,4 +81,52 @@ public class KafkaConsumerConfig {
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
     }
+
+    /**
+     * 创建批量消费者工厂
+     *
+     * <p>实现逻辑：
+     * 1. 复用基础消费者配置。
+     * 2. 通过max.poll.records控制单批条数上限。
+     * 3. 通过fetch.min.bytes与fetch.max.wait.ms控制批次大小与延迟的权衡。
+     *
+     * @param properties 流式计算配置
+     * @return 批量消费者工厂实例
+     */
+    @Bean
+    public ConsumerFactory<String, String> batchConsumerFactory(StreamComputeProperties properties) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "strategy-service-group");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // 单批最大条数
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        // 批次延迟目标：Broker 最多等待 batchMaxWaitMs 凑够 batchMinBytes
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, properties.getBatchMinBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, properties.getBatchMaxWaitMs());
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * 创建批量监听器容器工厂
+     *
+     * <p>实现逻辑：
+     * 1. 开启批量监听，监听方法接收List&lt;ConsumerRecord&gt;。
+     * 2. 手动立即提交模式：整批处理完成后调用一次ack.acknowledge()提交整批偏移量。
+     *
+     * @param properties 流式计算配置
+     * @return 批量监听器容器工厂实例
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory(
+            StreamComputeProperties properties) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory(properties));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
+    }
 }
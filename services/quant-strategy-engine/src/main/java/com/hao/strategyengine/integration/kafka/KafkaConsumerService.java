@@ -1,8 +1,10 @@
 package com.hao.strategyengine.integration.kafka;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.hao.strategyengine.core.stream.strategy.StrategyDispatcher;
 import dto.HistoryTrendDTO;
+import dto.MutableTick;
 import integration.kafka.KafkaConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +12,10 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
+import util.TickJsonDecoder;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -20,6 +25,15 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 1. 消费Kafka行情消息，解析为通用 DTO。
  * 2. 调用 StrategyDispatcher 异步分发给所有策略。
  * 3. 职责单一：只负责消息接收和解析，策略执行由 StrategyDispatcher 负责。
+ * <p>
+ * 消费模式（stream.compute.batch-consume-enabled）：
+ * - 批量模式：整批 poll 一次解析、批量分发，每批只提交一次 offset
+ * - 逐条模式：每条消息单独解析、分发并提交 offset（旧模式）
+ * 两个监听器只会启动其中一个，避免同组内互相争抢分区。
+ * <p>
+ * 解析方式：
+ * - 分片分发模式：TickJsonDecoder 流式解析到线程内复用的 MutableTick，不创建 HistoryTrendDTO
+ * - 线程池分发模式：ObjectMapper 解析为 HistoryTrendDTO（异步任务需要独立对象）
  *
  * @author hli
  * @date 2026-01-20
@@ -49,6 +63,21 @@ public class KafkaConsumerService {
      */
     private final StrategyDispatcher strategyDispatcher;
 
+    /**
+     * 预构建的 DTO 读取器（线程安全，避免每条消息查找反序列化器）
+     */
+    private ObjectReader trendReader;
+
+    /**
+     * 行情流式解码器（无状态，线程安全）
+     */
+    private final TickJsonDecoder tickDecoder = new TickJsonDecoder();
+
+    /**
+     * 监听线程内复用的解码目标对象
+     */
+    private final ThreadLocal<MutableTick> scratchTick = ThreadLocal.withInitial(MutableTick::new);
+
     /**
      * 消费行情消息
      * <p>
@@ -61,30 +90,32 @@ public class KafkaConsumerService {
      * @param ack    手动提交句柄
      */
     @KafkaListener(
+            id = "quotationSingleListener",
             topics = KafkaConstants.TOPIC_QUOTATION,
             groupId = "strategy-service-group",
-            containerFactory = "kafkaListenerContainerFactory"
+            containerFactory = "kafkaListenerContainerFactory",
+            autoStartup = "#{!${stream.compute.batch-consume-enabled:true}}"
     )
     public void consume(ConsumerRecord<String, String> record, Acknowledgment ack) {
         String message = null;
         HistoryTrendDTO dto = null;
         try {
             message = record.value();
-            long now = System.currentTimeMillis();
-
-            // 增加计数
-            int count = counter.incrementAndGet();
 
             // 每秒输出一次吞吐量统计
-            if (now - windowStart >= 1000) {
-                log.debug("策略引擎吞吐量|Strategy_throughput,count={}", count);
-                counter.set(0);
-                windowStart = now;
-            }
+            recordThroughput(1);
 
             // [FULL_CHAIN_STEP_06] 策略引擎消费股票行情 - 解析 Kafka 消息
             // @see docs/architecture/FullChainDataFlow.md
-            dto = objectMapper.readValue(message, HistoryTrendDTO.class);
+            if (strategyDispatcher.isSharded()) {
+                MutableTick tick = scratchTick.get();
+                if (tickDecoder.decode(message, tick)) {
+                    // [FULL_CHAIN_STEP_07] 策略调度器分发到所属 Lane
+                    strategyDispatcher.dispatchTick(tick);
+                }
+                return;
+            }
+            dto = getTrendReader().readValue(message);
 
             // [FULL_CHAIN_STEP_07] 策略调度器并行分发给所有策略
             strategyDispatcher.dispatch(dto);
@@ -99,4 +130,111 @@ public class KafkaConsumerService {
             ack.acknowledge();
         }
     }
+
+    /**
+     * 批量消费行情消息
+     * <p>
+     * 实现逻辑：
+     * 1. 一次遍历整批消息，使用预构建的 ObjectReader 解析为 HistoryTrendDTO
+     * 2. 单条解析失败只跳过该条，不影响同批其他消息
+     * 3. 调用 StrategyDispatcher 批量分发
+     * 4. 整批处理完成后提交一次 offset（无论成功失败）
+     *
+     * @param records 本次 poll 拉取的消息
+     * @param ack     手动提交句柄
+     */
+    @KafkaListener(
+            id = "quotationBatchListener",
+            topics = KafkaConstants.TOPIC_QUOTATION,
+            groupId = "strategy-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${stream.compute.batch-consume-enabled:true}"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        try {
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            recordThroughput(records.size());
+
+            // [FULL_CHAIN_STEP_06] 策略引擎消费股票行情 - 批量解析 Kafka 消息
+            // @see docs/architecture/FullChainDataFlow.md
+            if (strategyDispatcher.isSharded()) {
+                decodeAndDispatchTicks(records);
+                return;
+            }
+            ObjectReader reader = getTrendReader();
+            List<HistoryTrendDTO> batch = new ArrayList<>(records.size());
+            for (int i = 0, size = records.size(); i < size; i++) {
+                ConsumerRecord<String, String> record = records.get(i);
+                try {
+                    batch.add(reader.readValue(record.value()));
+                } catch (Exception e) {
+                    log.error("消息解析异常|Message_parse_error,offset={},partition={},error={}",
+                            record.offset(), record.partition(), e.getMessage());
+                }
+            }
+
+            // [FULL_CHAIN_STEP_07] 策略调度器批量分发给所有策略
+            strategyDispatcher.dispatchBatch(batch);
+        } catch (Exception e) {
+            ConsumerRecord<String, String> first = records.get(0);
+            log.error("批量消息处理异常|Batch_processing_error,size={},firstOffset={},partition={},error={}",
+                    records.size(), first.offset(), first.partition(), e.getMessage(), e);
+        } finally {
+            // 整批只提交一次 offset
+            ack.acknowledge();
+        }
+    }
+
+    /**
+     * 流式解析整批消息并逐条分发到 Lane（分片模式）
+     * <p>
+     * 整批复用同一个 MutableTick，分发时内容被复制到 Lane 的池化对象，解析阶段无逐条对象分配。
+     *
+     * @param records 本次 poll 拉取的消息
+     */
+    private void decodeAndDispatchTicks(List<ConsumerRecord<String, String>> records) {
+        MutableTick tick = scratchTick.get();
+        for (int i = 0, size = records.size(); i < size; i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            try {
+                if (tickDecoder.decode(record.value(), tick)) {
+                    strategyDispatcher.dispatchTick(tick);
+                }
+            } catch (Exception e) {
+                log.error("消息解析异常|Message_parse_error,offset={},partition={},error={}",
+                        record.offset(), record.partition(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 累加吞吐量计数，每秒输出一次
+     *
+     * @param delta 本次处理条数
+     */
+    private void recordThroughput(int delta) {
+        long now = System.currentTimeMillis();
+        int count = counter.addAndGet(delta);
+        if (now - windowStart >= 1000) {
+            log.debug("策略引擎吞吐量|Strategy_throughput,count={}", count);
+            counter.set(0);
+            windowStart = now;
+        }
+    }
+
+    /**
+     * 获取 DTO 读取器（懒加载）
+     *
+     * @return ObjectReader 实例
+     */
+    private ObjectReader getTrendReader() {
+        ObjectReader reader = trendReader;
+        if (reader == null) {
+            reader = objectMapper.readerFor(HistoryTrendDTO.class);
+            trendReader = reader;
+        }
+        return reader;
+    }
 }
@@ -1,15 +1,25 @@
 package com.hao.strategyengine.integration.kafka;
 
+import com.hao.strategyengine.config.SignalProducerProperties;
 import dto.StrategySignalDTO;
 import integration.kafka.KafkaConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import util.JsonUtil;
+import util.SignalEnvelopeCodec;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 策略信号 Kafka 生产者服务 (Strategy Signal Producer)
@@ -25,6 +35,12 @@ import java.util.concurrent.CompletableFuture;
  * 1. 解耦策略计算与信号处理，策略模块只管计算，不关心后续存储
  * 2. 使用 windCode 作为 partition key，保证同一股票的信号顺序
  * 3. 异步发送提高吞吐量，回调处理发送结果
+ * <p>
+ * 信封微批（signal.producer.batch-enabled=true）：
+ * - 信号按 windCode 哈希到固定分片，每个分片缓冲已序列化的 JSON，达到条数/长度上限或停留超过 lingerMs 时
+ *   编码为一个信封（JSON 数组，见 {@link SignalEnvelopeCodec}）发送，Key 为分片号
+ * - 同一股票始终落在同一分片、同一分区，且分片内按追加顺序发送，信号顺序与逐条模式一致
+ * - 投递日志按 logSampleRate 采样输出，发送失败仍逐次记录
  *
  * @author hli
  * @date 2026-01-30
@@ -33,9 +49,75 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class StrategySignalProducer {
 
+    /**
+     * 信封记录的 Key 前缀（Key = 前缀 + 分片号）
+     */
+    private static final String ENVELOPE_KEY_PREFIX = "signal-shard-";
+
     @Autowired
     private KafkaTemplate<String, String> signalKafkaTemplate;
 
+    @Autowired
+    private SignalProducerProperties producerProperties;
+
+    /**
+     * 累计投递信号数（用于日志采样）
+     */
+    private final AtomicLong submittedCount = new AtomicLong();
+
+    /**
+     * 信封分片缓冲；逐条模式下为 null
+     */
+    private volatile EnvelopeShard[] shards;
+
+    private ScheduledExecutorService lingerScheduler;
+
+    /**
+     * 初始化信封分片与停留时间检查任务（仅微批模式）
+     */
+    @PostConstruct
+    public void init() {
+        if (!producerProperties.isBatchEnabled()) {
+            return;
+        }
+        EnvelopeShard[] created = new EnvelopeShard[Math.max(1, producerProperties.getShardCount())];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = new EnvelopeShard(i);
+        }
+        long lingerMs = Math.max(1, producerProperties.getLingerMs());
+        lingerScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "signal-envelope-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lingerScheduler.scheduleWithFixedDelay(this::flushExpired, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+        shards = created;
+        log.info("信号信封微批已启用|Signal_envelope_enabled,shards={},lingerMs={},maxSignals={},maxBytes={}",
+                created.length, lingerMs, producerProperties.getMaxBatchSignals(), producerProperties.getMaxBatchBytes());
+    }
+
+    /**
+     * 应用关闭时发送所有分片中剩余的信号
+     * <p>
+     * 之后的 sendSignal 退回逐条发送。
+     */
+    @PreDestroy
+    public void shutdown() {
+        EnvelopeShard[] current = shards;
+        if (current == null) {
+            return;
+        }
+        shards = null;
+        lingerScheduler.shutdown();
+        for (EnvelopeShard shard : current) {
+            synchronized (shard) {
+                sendEnvelopeLocked(shard);
+                shard.closed = true;
+            }
+        }
+        signalKafkaTemplate.flush();
+    }
+
     /**
      * 发送策略信号到 Kafka
      * <p>
@@ -45,6 +127,8 @@ public class StrategySignalProducer {
      * 异步发送，通过回调处理发送结果：
      * - 成功：记录 DEBUG 日志
      * - 失败：记录 ERROR 日志（Kafka 配置了无限重试，失败情况极少）
+     * <p>
+     * 微批模式下追加到所属分片的信封，由分片上限或停留时间触发发送。
      *
      * @param signal 策略信号 DTO
      */
@@ -55,6 +139,12 @@ public class StrategySignalProducer {
         }
 
         String json = JsonUtil.toJson(signal);
+        EnvelopeShard[] current = shards;
+        if (current != null && appendToEnvelope(current, signal.getWindCode(), json)) {
+            logSubmitted(signal);
+            return;
+        }
+
         String topic = KafkaConstants.TOPIC_STRATEGY_SIGNAL;
         String key = signal.getWindCode();  // 使用股票代码作为 partition key
 
@@ -81,10 +171,98 @@ public class StrategySignalProducer {
             }
         });
 
-        // 记录发送日志（无论成功失败都记录，便于追踪）
-        log.info("信号已投递|Signal_submitted,code={},strategy={},type={},price={}",
-                signal.getWindCode(), signal.getStrategyId(),
-                signal.getSignalType(), signal.getTriggerPrice());
+        logSubmitted(signal);
+    }
+
+    /**
+     * 追加信号到所属分片的信封
+     * <p>
+     * 实现逻辑：
+     * 1. 追加后超过长度上限时，先发送已有内容，本条进入新信封。
+     * 2. 达到条数上限立即发送。
+     * 发送在分片锁内进行（KafkaTemplate.send 只是放入生产者缓冲区），保证同一分片的信封按顺序进入分区。
+     *
+     * @return false 表示分片已关闭，由调用方逐条发送
+     */
+    private boolean appendToEnvelope(EnvelopeShard[] current, String windCode, String json) {
+        EnvelopeShard shard = current[Math.floorMod(windCode.hashCode(), current.length)];
+        synchronized (shard) {
+            if (shard.closed) {
+                return false;
+            }
+            if (!shard.jsons.isEmpty() && shard.chars + json.length() + 1 > producerProperties.getMaxBatchBytes()) {
+                sendEnvelopeLocked(shard);
+            }
+            if (shard.jsons.isEmpty()) {
+                shard.firstAppendNanos = System.nanoTime();
+            }
+            shard.jsons.add(json);
+            shard.chars += json.length();
+            if (shard.jsons.size() >= producerProperties.getMaxBatchSignals()) {
+                sendEnvelopeLocked(shard);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 发送停留超过 lingerMs 的信封（调度线程调用）
+     */
+    private void flushExpired() {
+        EnvelopeShard[] current = shards;
+        if (current == null) {
+            return;
+        }
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(producerProperties.getLingerMs());
+        long now = System.nanoTime();
+        for (EnvelopeShard shard : current) {
+            synchronized (shard) {
+                if (!shard.jsons.isEmpty() && now - shard.firstAppendNanos >= lingerNanos) {
+                    sendEnvelopeLocked(shard);
+                }
+            }
+        }
+    }
+
+    /**
+     * 编码并发送分片中的信号（需持有分片锁）
+     */
+    private void sendEnvelopeLocked(EnvelopeShard shard) {
+        if (shard.jsons.isEmpty()) {
+            return;
+        }
+        int count = shard.jsons.size();
+        String payload = SignalEnvelopeCodec.encode(shard.jsons, shard.chars);
+        shard.jsons = new ArrayList<>(Math.min(count, producerProperties.getMaxBatchSignals()));
+        shard.chars = 0;
+        try {
+            signalKafkaTemplate.send(KafkaConstants.TOPIC_STRATEGY_SIGNAL, shard.key, payload)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("信号信封发送失败|Signal_envelope_send_failed,shard={},signals={},error={}",
+                                    shard.key, count, ex.getMessage());
+                        } else if (log.isDebugEnabled()) {
+                            log.debug("信号信封发送成功|Signal_envelope_sent,shard={},signals={},partition={},offset={}",
+                                    shard.key, count, result.getRecordMetadata().partition(),
+                                    result.getRecordMetadata().offset());
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("信号信封发送失败|Signal_envelope_send_failed,shard={},signals={}", shard.key, count, e);
+        }
+    }
+
+    /**
+     * 按采样率输出投递日志
+     */
+    private void logSubmitted(StrategySignalDTO signal) {
+        long submitted = submittedCount.incrementAndGet();
+        int sampleRate = producerProperties.getLogSampleRate();
+        if (sampleRate <= 1 || submitted % sampleRate == 1) {
+            log.info("信号已投递|Signal_submitted,total={},code={},strategy={},type={},price={}",
+                    submitted, signal.getWindCode(), signal.getStrategyId(),
+                    signal.getSignalType(), signal.getTriggerPrice());
+        }
     }
 
     /**
@@ -92,6 +270,7 @@ public class StrategySignalProducer {
      * <p>
      * 适用于需要确认发送结果的场景，如测试验证。
      * 生产环境建议使用异步发送 {@link #sendSignal(StrategySignalDTO)}。
+     * 始终逐条发送，不经过信封。
      *
      * @param signal 策略信号 DTO
      * @return 发送结果，失败返回 null
@@ -118,4 +297,19 @@ public class StrategySignalProducer {
             return null;
         }
     }
+
+    /**
+     * 信封分片缓冲（字段由分片自身的锁保护）
+     */
+    private static final class EnvelopeShard {
+        private final String key;
+        private List<String> jsons = new ArrayList<>();
+        private int chars;
+        private long firstAppendNanos;
+        private boolean closed;
+
+        private EnvelopeShard(int index) {
+            this.key = ENVELOPE_KEY_PREFIX + index;
+        }
+    }
 }
@@ -3,12 +3,20 @@ package com.hao.strategyengine.integration.redis;
 import com.hao.strategyengine.config.StreamComputeProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
+import util.PreheatColumnarCodec;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * 策略结果Redis存储仓库
@@ -137,6 +145,63 @@ public class RedisStrategyRepository {
         return size != null ? size : 0L;
     }
 
+    /**
+     * 分批遍历预热数据 Hash
+     * <p>
+     * 使用 HSCAN 按批读取，避免对全市场几千个 Field 执行 HGETALL 造成单次大响应阻塞 Redis。
+     *
+     * @param redisKey  预热数据 Key，如 DMI:PREHEAT:20260105
+     * @param batchSize 每批扫描数量（HSCAN COUNT）
+     * @param consumer  回调（windCode, value）
+     * @return 遍历的 Field 数量，Key 不存在时返回 0
+     */
+    public int scanPreheatHash(String redisKey, int batchSize, BiConsumer<String, String> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(Math.max(1, batchSize)).build();
+        int count = 0;
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(redisKey, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                consumer.accept((String) entry.getKey(), (String) entry.getValue());
+                count++;
+            }
+        } catch (Exception e) {
+            log.error("预热数据扫描失败|Preheat_hash_scan_failed,key={},scanned={}", redisKey, count, e);
+        }
+        return count;
+    }
+
+    /**
+     * 读取列式二进制预热数据
+     * <p>
+     * 一次 HGETALL 取回该策略当天的所有分块（通常个位数个 Field），
+     * 每个分块直接在 Redis 返回的 byte[] 上创建 {@link PreheatColumnarCodec.Reader}，不做数据复制与 JSON 解析。
+     *
+     * @param keyPrefix  策略预热 Key 前缀，如 DMI:PREHEAT:
+     * @param dateSuffix 交易日（yyyyMMdd）
+     * @param consumer   分块回调（Reader 仅在回调期间有效）
+     * @return 读取到的股票数量，Key 不存在或读取失败返回 0
+     */
+    public int loadPreheatBinary(String keyPrefix, String dateSuffix, Consumer<PreheatColumnarCodec.Reader> consumer) {
+        String redisKey = PreheatColumnarCodec.binaryKey(keyPrefix, dateSuffix);
+        try {
+            Map<byte[], byte[]> chunks = stringRedisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                    connection.hashCommands().hGetAll(redisKey.getBytes(StandardCharsets.UTF_8)));
+            if (chunks == null || chunks.isEmpty()) {
+                return 0;
+            }
+            int stockCount = 0;
+            for (byte[] blob : chunks.values()) {
+                PreheatColumnarCodec.Reader reader = PreheatColumnarCodec.wrap(blob);
+                consumer.accept(reader);
+                stockCount += reader.stockCount();
+            }
+            return stockCount;
+        } catch (Exception e) {
+            log.error("二进制预热数据读取失败|Preheat_binary_load_failed,key={}", redisKey, e);
+            return 0;
+        }
+    }
+
     /**
      * 构建Redis Key
      *
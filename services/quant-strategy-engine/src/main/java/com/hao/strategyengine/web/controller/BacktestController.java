@@ -0,0 +1,64 @@
+package com.hao.strategyengine.web.controller;
+
+import com.hao.strategyengine.core.backtest.BacktestEngine;
+import com.hao.strategyengine.core.backtest.BacktestReport;
+import com.hao.strategyengine.core.backtest.BacktestRequest;
+import constants.DateTimeFormatConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 进程内回测控制器
+ * <p>
+ * 同步执行回测并返回吞吐与按策略的命中统计，信号明细默认不返回。
+ *
+ * @author hli
+ * @date 2026-02-08
+ * @see BacktestEngine
+ */
+@Slf4j
+@RestController
+@RequestMapping("/backtest")
+@RequiredArgsConstructor
+public class BacktestController {
+
+    private static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(DateTimeFormatConstants.EIGHT_DIGIT_DATE_FORMAT);
+
+    private final BacktestEngine backtestEngine;
+
+    /**
+     * 执行回测
+     *
+     * @param startDate      起始日期 (yyyyMMdd)
+     * @param endDate        结束日期 (yyyyMMdd)
+     * @param stockCodes     股票代码列表（逗号分隔），为空时使用起始交易日预热数据中的全部股票
+     * @param strategyIds    策略ID列表（逗号分隔），为空时运行全部策略
+     * @param includeSignals 是否返回信号明细
+     * @return 回测结果
+     */
+    @PostMapping("/run")
+    public BacktestReport run(@RequestParam String startDate,
+                              @RequestParam String endDate,
+                              @RequestParam(required = false) List<String> stockCodes,
+                              @RequestParam(required = false) List<String> strategyIds,
+                              @RequestParam(defaultValue = "false") boolean includeSignals) {
+        BacktestReport report = backtestEngine.run(new BacktestRequest(
+                LocalDate.parse(startDate, DATE_FORMATTER), LocalDate.parse(endDate, DATE_FORMATTER),
+                stockCodes, strategyIds));
+        if (includeSignals) {
+            return report;
+        }
+        return new BacktestReport(report.tradeDays(), report.stockCount(), report.partitions(),
+                report.tickCount(), report.signalCount(), report.elapsedMs(),
+                report.ticksPerSecond(), report.signalsPerSecond(), report.strategyStats(), List.of());
+    }
+}
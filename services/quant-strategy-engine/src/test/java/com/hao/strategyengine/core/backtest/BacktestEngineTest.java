@@ -0,0 +1,235 @@
+package com.hao.strategyengine.core.backtest;
+
+import com.hao.strategyengine.cache.TradeDateCache;
+import com.hao.strategyengine.config.BacktestProperties;
+import com.hao.strategyengine.config.StreamComputeProperties;
+import com.hao.strategyengine.core.stream.domain.StockContextStore;
+import com.hao.strategyengine.core.stream.domain.StockDomainContext;
+import com.hao.strategyengine.core.stream.strategy.BaseStrategy;
+import dto.HistoryTrendDTO;
+import dto.MutableTick;
+import dto.TickView;
+import enums.strategy.SignalTypeEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.WindCodeRegistry;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BacktestEngine 单元测试
+ * <p>
+ * 使用内存行情源与测试策略，校验分区回放的完整性、单股票线程封闭、隔离 Context 与命中统计。
+ *
+ * @author hli
+ * @date 2026-02-08
+ */
+class BacktestEngineTest {
+
+    private static final List<String> CODES = List.of(
+            "000001.SZ", "000002.SZ", "600000.SH", "600519.SH", "300750.SZ", "601318.SH");
+    private static final int TICKS_PER_DAY = 10;
+
+    private StockContextStore stockContextStore;
+    private BacktestProperties properties;
+    private TradeDateCache tradeDateCache;
+
+    @BeforeEach
+    void setUp() {
+        stockContextStore = new StockContextStore(new StreamComputeProperties(), null, null);
+        properties = new BacktestProperties();
+        properties.setParallelism(3);
+        properties.setRequestBatchSize(4);
+        properties.setWarmupFromPreheat(false);
+        tradeDateCache = new TradeDateCache(null) {
+            @Override
+            public List<LocalDate> getAllTradeDates() {
+                return List.of(LocalDate.of(2026, 1, 2), LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 6));
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("多日多股票分区回放并统计命中")
+    void run_shouldReplayAllTicksAndCountHits() {
+        Map<String, String> threadByCode = new ConcurrentHashMap<>();
+        Map<String, Boolean> threadSwitched = new ConcurrentHashMap<>();
+        BacktestTickSource source = (tradeDate, windCodes, consumer) -> {
+            for (String code : windCodes) {
+                String previous = threadByCode.putIfAbsent(code, Thread.currentThread().getName());
+                if (previous != null && !previous.equals(Thread.currentThread().getName())) {
+                    threadSwitched.put(code, true);
+                }
+            }
+            return generate(tradeDate, windCodes, consumer);
+        };
+        PriceAboveStrategy strategy = new PriceAboveStrategy(stockContextStore, 11.0);
+        BacktestEngine engine = new BacktestEngine(List.of(strategy), stockContextStore, source, properties, tradeDateCache);
+
+        BacktestReport report = engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 6), CODES, null));
+
+        assertEquals(2, report.tradeDays(), "区间内应有2个交易日");
+        assertEquals(CODES.size(), report.stockCount());
+        assertEquals(3, report.partitions());
+        assertEquals(2L * CODES.size() * TICKS_PER_DAY, report.tickCount());
+        // 每日价格 10.0, 10.2, ... 11.8，≥11 的有 5 条
+        assertEquals(2L * CODES.size() * 5, report.signalCount());
+        assertEquals(report.signalCount(), report.signals().size());
+
+        BacktestReport.StrategyStats stats = report.strategyStats().get(strategy.getId());
+        assertEquals(report.tickCount(), stats.evaluations());
+        assertEquals(report.signalCount(), stats.hits());
+        assertEquals(CODES.size(), stats.stocks());
+        assertEquals(0.5, stats.hitRate(), 1e-9);
+
+        assertTrue(threadSwitched.isEmpty(), "同一股票应始终在同一分区线程内回放: " + threadSwitched.keySet());
+        assertFalse(strategy.contextMissing, "策略执行时应能读取到隔离作用域内的Context");
+        assertEquals(0, stockContextStore.size(), "回测不应修改实盘Context");
+        for (int i = 1; i < report.signals().size(); i++) {
+            assertFalse(report.signals().get(i).getSignalTime().isBefore(report.signals().get(i - 1).getSignalTime()),
+                    "信号应按时间升序");
+        }
+    }
+
+    @Test
+    @DisplayName("未覆盖TickView入口的策略共享每条行情只转换一次的DTO")
+    void run_shouldConvertTickOnceForDtoStrategies() {
+        DtoOnlyStrategy first = new DtoOnlyStrategy("DTO_FIRST");
+        DtoOnlyStrategy second = new DtoOnlyStrategy("DTO_SECOND");
+        BacktestEngine engine = new BacktestEngine(List.of(first, second), stockContextStore,
+                BacktestEngineTest::generate, properties, tradeDateCache);
+
+        BacktestReport report = engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 5), CODES, null));
+
+        assertFalse(first.isTickViewMatch());
+        assertTrue(new PriceAboveStrategy(stockContextStore, 11.0).isTickViewMatch());
+        assertEquals(report.tickCount(), first.seen.size(), "每条行情只转换一次");
+        assertEquals(first.seen, second.seen, "同一条行情的DTO应在策略间共享");
+        assertEquals(2L * CODES.size() * 5, report.signalCount());
+    }
+
+    @Test
+    @DisplayName("行情源失败时回测整体失败")
+    void run_shouldFailWhenSourceFails() {
+        BacktestTickSource source = (tradeDate, windCodes, consumer) -> {
+            throw new IllegalStateException("collector down");
+        };
+        BacktestEngine engine = new BacktestEngine(List.of(new PriceAboveStrategy(stockContextStore, 11.0)),
+                stockContextStore, source, properties, tradeDateCache);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 5), CODES, null)));
+        assertEquals("collector down", e.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("请求参数校验")
+    void run_shouldRejectInvalidRequest() {
+        BacktestEngine engine = new BacktestEngine(List.of(new PriceAboveStrategy(stockContextStore, 11.0)),
+                stockContextStore, (tradeDate, windCodes, consumer) -> 0, properties, tradeDateCache);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 4), CODES, null)), "区间内无交易日");
+        assertThrows(IllegalArgumentException.class, () -> engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 5), CODES, List.of("UNKNOWN"))), "未知策略");
+        assertThrows(IllegalArgumentException.class, () -> engine.run(new BacktestRequest(
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 1, 5), List.of(), null)), "无股票且无预热数据");
+    }
+
+    private static long generate(LocalDate tradeDate, List<String> windCodes, Consumer<TickView> consumer) {
+        MutableTick tick = new MutableTick();
+        long count = 0;
+        for (int i = 0; i < TICKS_PER_DAY; i++) {
+            for (String code : windCodes) {
+                tick.reset();
+                tick.setCode(WindCodeRegistry.idOf(code));
+                tick.setTradeTime(tradeDate.getYear(), tradeDate.getMonthValue(), tradeDate.getDayOfMonth(), 9, 30, i);
+                tick.setLatestPrice(10.0 + i * 0.2);
+                tick.setTotalVolume(1000.0 * (i + 1));
+                consumer.accept(tick);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 价格不低于阈值即命中的测试策略
+     */
+    private static final class PriceAboveStrategy extends BaseStrategy {
+
+        private final StockContextStore store;
+        private final double threshold;
+        private volatile boolean contextMissing;
+
+        private PriceAboveStrategy(StockContextStore store, double threshold) {
+            this.store = store;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public String getId() {
+            return "PRICE_ABOVE";
+        }
+
+        @Override
+        public SignalTypeEnum getSignalType() {
+            return SignalTypeEnum.values()[0];
+        }
+
+        @Override
+        public boolean isMatch(HistoryTrendDTO dto) {
+            return dto.getLatestPrice() != null && dto.getLatestPrice() >= threshold;
+        }
+
+        @Override
+        public boolean isMatch(TickView tick) {
+            StockDomainContext context = store.getContext(tick.getWindCode());
+            if (context == null || context.getLastEpochSecond() != tick.getEpochSecond()) {
+                contextMissing = true;
+            }
+            return tick.getLatestPrice() >= threshold - 1e-9;
+        }
+    }
+
+    /**
+     * 只实现 HistoryTrendDTO 入口的测试策略，记录收到的 DTO 实例
+     */
+    private static final class DtoOnlyStrategy extends BaseStrategy {
+
+        private final String id;
+        private final Set<HistoryTrendDTO> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+        private DtoOnlyStrategy(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public SignalTypeEnum getSignalType() {
+            return SignalTypeEnum.values()[0];
+        }
+
+        @Override
+        public boolean isMatch(HistoryTrendDTO dto) {
+            seen.add(dto);
+            return dto.getLatestPrice() != null && dto.getLatestPrice() >= 11.0 - 1e-9;
+        }
+    }
+}
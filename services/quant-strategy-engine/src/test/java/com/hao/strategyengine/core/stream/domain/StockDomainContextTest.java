@@ -0,0 +1,203 @@
+package com.hao.strategyengine.core.stream.domain;
+
+import dto.MutableTick;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.WindCodeRegistry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StockDomainContext 单元测试
+ * <p>
+ * 以"全量历史 + 今日实时 bar"从头重算的结果为基准，校验增量指标在预热、日内更新与换日后保持一致。
+ *
+ * @author hli
+ * @date 2026-02-04
+ */
+class StockDomainContextTest {
+
+    private static final String WIND_CODE = "600519.SH";
+    private static final double EPS = 1e-6;
+
+    @Test
+    @DisplayName("增量指标与全量重算结果一致")
+    void onTick_shouldMatchFullRecalculation() {
+        Random random = new Random(42);
+        int warmupDays = 60;
+        int liveDays = 40;
+        int ticksPerDay = 5;
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+
+        List<double[]> bars = new ArrayList<>();
+        double price = 100;
+        for (int i = 0; i < warmupDays; i++) {
+            price = Math.max(1, price + random.nextGaussian() * 2);
+            double high = price + random.nextDouble() * 2;
+            double low = price - random.nextDouble() * 2;
+            bars.add(new double[]{high, low, price});
+        }
+
+        double[] highs = new double[warmupDays];
+        double[] lows = new double[warmupDays];
+        double[] closes = new double[warmupDays];
+        for (int i = 0; i < warmupDays; i++) {
+            highs[i] = bars.get(i)[0];
+            lows[i] = bars.get(i)[1];
+            closes[i] = bars.get(i)[2];
+        }
+        LocalDate baseDay = firstDay.plusDays(warmupDays);
+        StockDomainContext context = new StockDomainContext(WIND_CODE, 250);
+        context.warmup(highs, lows, closes, warmupDays, toDay(baseDay));
+        assertEquals(warmupDays, context.getHistoryBars());
+
+        MutableTick tick = new MutableTick();
+        for (int d = 0; d < liveDays; d++) {
+            LocalDate day = baseDay.plusDays(d);
+            double open = Math.max(1, price + random.nextGaussian());
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            for (int t = 0; t < ticksPerDay; t++) {
+                price = Math.max(1, open + random.nextGaussian() * 2);
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+                tick.reset();
+                tick.setCode(WindCodeRegistry.idOf(WIND_CODE));
+                tick.setTradeTime(day.getYear(), day.getMonthValue(), day.getDayOfMonth(), 10, 0, t);
+                tick.setLatestPrice(price);
+                tick.setTotalVolume(1000 * (t + 1));
+                assertTrue(context.onTick(tick));
+
+                List<double[]> series = new ArrayList<>(bars);
+                series.add(new double[]{high, low, price});
+                assertIndicators(series, context);
+            }
+            bars.add(new double[]{high, low, price});
+        }
+
+        assertEquals(warmupDays + liveDays - 1, context.getHistoryBars());
+        assertEquals(bars.get(bars.size() - 2)[2], context.getClose(1), EPS);
+        assertEquals(1000 * ticksPerDay, context.getVolume(1), EPS);
+        assertTrue(Double.isNaN(context.getVolume(liveDays + 1)), "预热日线不含成交量");
+    }
+
+    @Test
+    @DisplayName("早于当前交易日的行情被忽略")
+    void onTick_shouldIgnoreStaleTick() {
+        StockDomainContext context = new StockDomainContext(WIND_CODE, 250);
+        context.warmup(new double[]{10, 11}, new double[]{9, 10}, new double[]{9.5, 10.5}, 2, 20250105);
+
+        MutableTick tick = new MutableTick();
+        tick.setCode(WindCodeRegistry.idOf(WIND_CODE));
+        tick.setTradeTime(2025, 1, 4, 10, 0, 0);
+        tick.setLatestPrice(12);
+        assertFalse(context.onTick(tick));
+
+        tick.setTradeTime(2025, 1, 5, 10, 0, 0);
+        assertTrue(context.onTick(tick));
+        assertEquals(12, context.getClose(0), EPS);
+        assertEquals(10.5, context.getClose(1), EPS);
+        assertEquals(9.5, context.getClose(2), EPS);
+        assertTrue(Double.isNaN(context.getClose(3)));
+        assertTrue(Double.isNaN(context.getMa5()), "历史不足时均线为NaN");
+    }
+
+    private static void assertIndicators(List<double[]> series, StockDomainContext context) {
+        int last = series.size() - 1;
+        assertEquals(sma(series, 5), context.getMa5(), EPS);
+        assertEquals(sma(series, 10), context.getMa10(), EPS);
+        assertEquals(sma(series, 20), context.getMa20(), EPS);
+        assertEquals(sma(series, 60), context.getMa60(), EPS);
+        assertEquals(ema(series, 12), context.getEma12(), EPS);
+        assertEquals(ema(series, 26), context.getEma26(), EPS);
+        double[] dmi = dmi(series);
+        assertEquals(dmi[0], context.getPlusDi(), EPS);
+        assertEquals(dmi[1], context.getMinusDi(), EPS);
+        assertEquals(dmi[2], context.getAdx(), EPS);
+        assertEquals(setupCount(series, true), context.getUpSetupCount());
+        assertEquals(setupCount(series, false), context.getDownSetupCount());
+        assertEquals(series.get(last)[2], context.getClose(0), EPS);
+        assertEquals(series.get(last - 4)[2], context.getClose(4), EPS);
+    }
+
+    private static double sma(List<double[]> series, int period) {
+        double sum = 0;
+        for (int i = series.size() - period; i < series.size(); i++) {
+            sum += series.get(i)[2];
+        }
+        return sum / period;
+    }
+
+    private static double ema(List<double[]> series, int period) {
+        double value = 0;
+        for (int i = 0; i < period; i++) {
+            value += series.get(i)[2];
+        }
+        value /= period;
+        double alpha = 2D / (period + 1);
+        for (int i = period; i < series.size(); i++) {
+            value = alpha * series.get(i)[2] + (1 - alpha) * value;
+        }
+        return value;
+    }
+
+    /**
+     * Wilder DMI 全量计算
+     *
+     * @return {+DI, -DI, ADX}
+     */
+    private static double[] dmi(List<double[]> series) {
+        int period = StockDomainContext.DMI_PERIOD;
+        double tr = 0, plus = 0, minus = 0, adx = 0, plusDi = 0, minusDi = 0;
+        int dxCount = 0;
+        for (int i = 1; i < series.size(); i++) {
+            double[] cur = series.get(i);
+            double[] prev = series.get(i - 1);
+            double curTr = Math.max(cur[0] - cur[1], Math.max(Math.abs(cur[0] - prev[2]), Math.abs(cur[1] - prev[2])));
+            double up = cur[0] - prev[0];
+            double down = prev[1] - cur[1];
+            double curPlus = up > down && up > 0 ? up : 0;
+            double curMinus = down > up && down > 0 ? down : 0;
+            if (i <= period) {
+                tr += curTr;
+                plus += curPlus;
+                minus += curMinus;
+            } else {
+                tr = tr - tr / period + curTr;
+                plus = plus - plus / period + curPlus;
+                minus = minus - minus / period + curMinus;
+            }
+            if (i >= period) {
+                plusDi = 100 * plus / tr;
+                minusDi = 100 * minus / tr;
+                double dx = 100 * Math.abs(plusDi - minusDi) / (plusDi + minusDi);
+                dxCount++;
+                adx = dxCount <= period ? adx + dx / period : (adx * (period - 1) + dx) / period;
+            }
+        }
+        return new double[]{plusDi, minusDi, adx};
+    }
+
+    private static int setupCount(List<double[]> series, boolean up) {
+        int count = 0;
+        for (int i = series.size() - 1; i >= StockDomainContext.NINE_TURN_LOOKBACK; i--) {
+            double close = series.get(i)[2];
+            double lookback = series.get(i - StockDomainContext.NINE_TURN_LOOKBACK)[2];
+            if (up ? close > lookback : close < lookback) {
+                count++;
+            } else {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static int toDay(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
@@ -0,0 +1,159 @@
+package com.hao.strategyengine.core.stream.engine;
+
+import com.hao.strategyengine.config.StreamComputeProperties;
+import dto.HistoryTrendDTO;
+import dto.MutableTick;
+import dto.TickView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.WindCodeRegistry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StreamComputeEngine 单元测试
+ * <p>
+ * 验证按股票分片后的顺序性、线程封闭与背压指标。
+ *
+ * @author hli
+ * @date 2026-02-02
+ */
+class StreamComputeEngineTest {
+
+    private StreamComputeProperties properties;
+
+    private StreamComputeEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StreamComputeProperties();
+        properties.setWorkerThreads(4);
+        properties.setShardQueueCapacity(8);
+        engine = new StreamComputeEngine(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    @DisplayName("同一股票的行情在同一线程内按提交顺序处理")
+    void submit_shouldKeepPerStockOrderOnSingleThread() throws InterruptedException {
+        String[] codes = {"000001.SZ", "600519.SH", "300750.SZ", "601318.SH", "000858.SZ"};
+        int ticksPerCode = 2000;
+        CountDownLatch latch = new CountDownLatch(codes.length * ticksPerCode);
+        Map<String, List<Integer>> seqByCode = new ConcurrentHashMap<>();
+        Map<String, String> threadByCode = new ConcurrentHashMap<>();
+        Map<String, Boolean> threadSwitched = new ConcurrentHashMap<>();
+
+        engine.start(tick -> {
+            String code = tick.getWindCode();
+            seqByCode.computeIfAbsent(code, k -> new ArrayList<>()).add(tick.getSecondOfDay());
+            String previous = threadByCode.putIfAbsent(code, Thread.currentThread().getName());
+            if (previous != null && !previous.equals(Thread.currentThread().getName())) {
+                threadSwitched.put(code, true);
+            }
+            latch.countDown();
+        });
+
+        LocalDateTime base = LocalDateTime.of(2026, 1, 5, 0, 0, 0);
+        for (int i = 0; i < ticksPerCode; i++) {
+            for (String code : codes) {
+                HistoryTrendDTO dto = new HistoryTrendDTO();
+                dto.setWindCode(code);
+                dto.setTradeDate(base.plusSeconds(i));
+                engine.submit(dto);
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(threadSwitched.isEmpty(), "同一股票不应跨线程处理");
+        for (String code : codes) {
+            List<Integer> seq = seqByCode.get(code);
+            assertEquals(ticksPerCode, seq.size());
+            for (int i = 1; i < seq.size(); i++) {
+                assertTrue(seq.get(i) > seq.get(i - 1), "行情处理顺序错乱: " + code);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("队列满时阻塞提交方并记录背压指标")
+    void submit_shouldRecordBackpressure_whenLaneQueueIsFull() throws InterruptedException {
+        properties.setWorkerThreads(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int total = 50;
+        CountDownLatch done = new CountDownLatch(total);
+        engine.start(tick -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                HistoryTrendDTO dto = new HistoryTrendDTO();
+                dto.setWindCode("000001.SZ");
+                engine.submit(dto);
+            }
+        });
+        producer.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        producer.join(5000);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        StreamComputeEngine.LaneStats stats = engine.getLaneStats().get(0);
+        assertEquals(total, stats.submitted());
+        assertTrue(stats.backpressureCount() > 0);
+        assertEquals(0, stats.dropped());
+    }
+
+    @Test
+    @DisplayName("池化行情对象在处理完成后归还复用")
+    void submit_shouldReusePooledTicks() throws InterruptedException {
+        properties.setWorkerThreads(1);
+        properties.setShardQueueCapacity(4);
+        int total = 100;
+        CountDownLatch done = new CountDownLatch(total);
+        Map<TickView, Boolean> instances = new ConcurrentHashMap<>();
+        engine.start(tick -> {
+            instances.put(tick, true);
+            done.countDown();
+        });
+
+        MutableTick scratch = new MutableTick();
+        for (int i = 0; i < total; i++) {
+            scratch.setCode(WindCodeRegistry.idOf("600519.SH"));
+            scratch.setLatestPrice(1800 + i);
+            engine.submit(scratch);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(instances.size() <= 4, "实际使用的行情对象数不应超过池大小");
+    }
+
+    @Test
+    @DisplayName("Lane路由对负哈希值同样有效")
+    void laneOf_shouldAlwaysReturnValidIndex() {
+        for (int i = 0; i < 10_000; i++) {
+            int lane = StreamComputeEngine.laneOf("code-" + i, 7);
+            assertTrue(lane >= 0 && lane < 7);
+        }
+        assertEquals(0, StreamComputeEngine.laneOf(null, 7));
+    }
+}
@@ -0,0 +1,170 @@
+package com.hao.strategyengine.integration.kafka;
+
+import com.hao.strategyengine.config.SignalProducerProperties;
+import dto.StrategySignalDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import util.SignalEnvelopeCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * StrategySignalProducer 信封微批测试
+ * <p>
+ * 验证信封按条数/停留时间发送、同一股票的信号顺序，以及信号中心侧的解码兼容。
+ *
+ * @author hli
+ * @date 2026-02-10
+ */
+class StrategySignalProducerTest {
+
+    private final List<String[]> sent = Collections.synchronizedList(new ArrayList<>());
+
+    private SignalProducerProperties properties;
+
+    private StrategySignalProducer producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        KafkaTemplate<String, String> template = mock(KafkaTemplate.class);
+        when(template.send(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            sent.add(new String[]{invocation.getArgument(1), invocation.getArgument(2)});
+            return new CompletableFuture<>();
+        });
+        properties = new SignalProducerProperties();
+        properties.setBatchEnabled(true);
+        properties.setShardCount(4);
+        properties.setMaxBatchSignals(50);
+        properties.setLingerMs(5);
+
+        producer = new StrategySignalProducer();
+        ReflectionTestUtils.setField(producer, "signalKafkaTemplate", template);
+        ReflectionTestUtils.setField(producer, "producerProperties", properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.shutdown();
+    }
+
+    @Test
+    @DisplayName("逐条模式 - 每条信号一条记录，Key 为股票代码")
+    void sendSignal_shouldSendSingleRecordWhenBatchDisabled() {
+        properties.setBatchEnabled(false);
+        producer.init();
+
+        producer.sendSignal(signal("600519.SH", 1));
+
+        assertEquals(1, sent.size());
+        assertEquals("600519.SH", sent.get(0)[0]);
+        assertFalse(SignalEnvelopeCodec.isEnvelope(sent.get(0)[1]));
+    }
+
+    @Test
+    @DisplayName("达到条数上限立即发送信封，解码后内容与顺序一致")
+    void sendSignal_shouldFlushEnvelopeAtMaxSignals() {
+        properties.setLingerMs(60_000);
+        producer.init();
+
+        for (int i = 0; i < 50; i++) {
+            producer.sendSignal(signal("000001.SZ", i));
+        }
+
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0)[0].startsWith("signal-shard-"));
+        List<StrategySignalDTO> decoded = SignalEnvelopeCodec.decode(sent.get(0)[1]);
+        assertEquals(50, decoded.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("000001.SZ", decoded.get(i).getWindCode());
+            assertEquals("S" + i, decoded.get(i).getTraceId());
+        }
+    }
+
+    @Test
+    @DisplayName("未达上限时按停留时间发送")
+    void sendSignal_shouldFlushEnvelopeAfterLinger() throws InterruptedException {
+        producer.init();
+
+        producer.sendSignal(signal("000001.SZ", 0));
+        producer.sendSignal(signal("000001.SZ", 1));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (sent.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, sent.size());
+        assertEquals(2, SignalEnvelopeCodec.decode(sent.get(0)[1]).size());
+    }
+
+    @Test
+    @DisplayName("同一股票始终进入同一分片，跨信封保持顺序")
+    void sendSignal_shouldKeepPerStockOrderAcrossEnvelopes() {
+        properties.setLingerMs(60_000);
+        properties.setMaxBatchSignals(7);
+        producer.init();
+        String[] codes = {"000001.SZ", "600519.SH", "300750.SZ", "601318.SH", "000858.SZ"};
+
+        for (int i = 0; i < 200; i++) {
+            for (String code : codes) {
+                producer.sendSignal(signal(code, i));
+            }
+        }
+        producer.shutdown();
+
+        Map<String, String> keyByCode = new HashMap<>();
+        Map<String, Integer> nextSeqByCode = new HashMap<>();
+        int total = 0;
+        for (String[] record : sent) {
+            for (StrategySignalDTO dto : SignalEnvelopeCodec.decode(record[1])) {
+                String previousKey = keyByCode.putIfAbsent(dto.getWindCode(), record[0]);
+                assertTrue(previousKey == null || previousKey.equals(record[0]), "同一股票应固定在同一分片");
+                int expected = nextSeqByCode.getOrDefault(dto.getWindCode(), 0);
+                assertEquals("S" + expected, dto.getTraceId());
+                nextSeqByCode.put(dto.getWindCode(), expected + 1);
+                total++;
+            }
+        }
+        assertEquals(codes.length * 200, total);
+    }
+
+    @Test
+    @DisplayName("信号中心解码兼容单条信号与非法消息")
+    void decode_shouldAcceptSingleSignalAndRejectGarbage() {
+        properties.setBatchEnabled(false);
+        producer.init();
+        producer.sendSignal(signal("600519.SH", 3));
+
+        List<StrategySignalDTO> decoded = SignalEnvelopeCodec.decode(sent.get(0)[1]);
+        assertEquals(1, decoded.size());
+        assertEquals("S3", decoded.get(0).getTraceId());
+        assertTrue(SignalEnvelopeCodec.decode("[not json").isEmpty());
+        assertTrue(SignalEnvelopeCodec.decode(null).isEmpty());
+    }
+
+    private StrategySignalDTO signal(String windCode, int seq) {
+        StrategySignalDTO dto = new StrategySignalDTO();
+        dto.setWindCode(windCode);
+        dto.setStrategyId("MA_BULLISH");
+        dto.setSignalType("BUY");
+        dto.setTriggerPrice(10.0 + seq);
+        dto.setTradeDate("2026-02-10");
+        dto.setTraceId("S" + seq);
+        return dto;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hao.strategyengine.integration.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dto.HistoryTrendDTO;
+import dto.MutableTick;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.TickJsonDecoder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行情解码性能对比测试
+ * <p>
+ * 测试目的：
+ * 1. 对比 ObjectMapper.readValue(HistoryTrendDTO) 与 TickJsonDecoder 流式解码的耗时与分配量。
+ * 2. 校验两种方式解析结果一致。
+ * <p>
+ * 设计思路：
+ * - 先预热让 JIT 编译稳定，再多轮测量取平均值。
+ * - 分配量通过 com.sun.management.ThreadMXBean#getThreadAllocatedBytes 统计当前线程。
+ *
+ * @author hli
+ * @date 2026-02-03
+ */
+@Slf4j
+class TickDecodeBenchmarkTest {
+
+    private static final int MESSAGE_COUNT = 5_000;
+    private static final int WARMUP_CYCLES = 20;
+    private static final int TEST_CYCLES = 20;
+
+    @Test
+    @DisplayName("流式解码与readValue结果一致")
+    void decode_shouldMatchReadValue() throws Exception {
+        ObjectReader reader = newObjectMapper().readerFor(HistoryTrendDTO.class);
+        TickJsonDecoder decoder = new TickJsonDecoder();
+        MutableTick tick = new MutableTick();
+        for (String message : buildMessages(200)) {
+            HistoryTrendDTO expected = reader.readValue(message);
+            assertTrue(decoder.decode(message, tick));
+            HistoryTrendDTO actual = tick.toHistoryTrendDTO();
+            assertEquals(expected.getWindCode(), actual.getWindCode());
+            assertSame(tick.getWindCode(), decodeAgain(decoder, message), "股票代码应为驻留字符串");
+            assertEquals(expected.getTradeDate(), actual.getTradeDate());
+            assertEquals(expected.getLatestPrice(), actual.getLatestPrice());
+            assertEquals(expected.getTotalVolume(), actual.getTotalVolume());
+            assertEquals(expected.getAveragePrice(), actual.getAveragePrice());
+            assertEquals(expected.getTraceId(), actual.getTraceId());
+        }
+    }
+
+    @Test
+    @DisplayName("解码耗时与分配量对比")
+    void benchmarkDecode() throws Exception {
+        String[] messages = buildMessages(MESSAGE_COUNT);
+        ObjectReader reader = newObjectMapper().readerFor(HistoryTrendDTO.class);
+        TickJsonDecoder decoder = new TickJsonDecoder();
+        MutableTick tick = new MutableTick();
+
+        double[] readValue = measure("readValue", messages, () -> {
+            double sink = 0;
+            for (String message : messages) {
+                HistoryTrendDTO dto = reader.readValue(message);
+                sink += dto.getLatestPrice();
+            }
+            return sink;
+        });
+        double[] streaming = measure("TickJsonDecoder", messages, () -> {
+            double sink = 0;
+            for (String message : messages) {
+                decoder.decode(message, tick);
+                sink += tick.getLatestPrice();
+            }
+            return sink;
+        });
+
+        log.info("解码对比结论|Decode_benchmark_conclusion,readValueNsPerOp={},streamNsPerOp={},readValueBytesPerOp={},streamBytesPerOp={}",
+                fmt(readValue[0]), fmt(streaming[0]), fmt(readValue[1]), fmt(streaming[1]));
+        assertTrue(streaming[1] < readValue[1], "流式解码分配量应低于readValue");
+    }
+
+    private String decodeAgain(TickJsonDecoder decoder, String message) throws Exception {
+        MutableTick other = new MutableTick();
+        decoder.decode(message, other);
+        return other.getWindCode();
+    }
+
+    /**
+     * 测量单条平均耗时（纳秒）与单条平均分配字节数
+     */
+    private double[] measure(String name, String[] messages, Workload workload) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        double blackhole = 0;
+        for (int i = 0; i < WARMUP_CYCLES; i++) {
+            blackhole += workload.run();
+        }
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < TEST_CYCLES; i++) {
+            blackhole += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long ops = (long) messages.length * TEST_CYCLES;
+        double nsPerOp = (double) elapsed / ops;
+        double bytesPerOp = (double) bytes / ops;
+        log.info("解码压测|Decode_benchmark,name={},ops={},nsPerOp={},bytesPerOp={},blackhole={}",
+                name, ops, fmt(nsPerOp), fmt(bytesPerOp), blackhole);
+        return new double[]{nsPerOp, bytesPerOp};
+    }
+
+    private static String fmt(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static ObjectMapper newObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
+
+    /**
+     * 构造模拟全市场行情消息（ISO 时间格式，两种解析方式均可识别）
+     */
+    private static String[] buildMessages(int count) {
+        String[] messages = new String[count];
+        for (int i = 0; i < count; i++) {
+            int code = 600000 + i % 3000;
+            int second = i % 60;
+            messages[i] = String.format(Locale.ROOT,
+                    "{\"windCode\":\"%d.SH\",\"tradeDate\":\"2026-01-05T09:31:%02d\",\"latestPrice\":%.2f,"
+                            + "\"totalVolume\":%d.0,\"averagePrice\":%.3f,\"traceId\":\"20260105_0931%02d\"}",
+                    code, second, 10 + (i % 500) * 0.01, 100000 + i, 10.5 + (i % 7) * 0.001, second);
+        }
+        return messages;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        double run() throws Exception;
+    }
+}
@@ -0,0 +1,165 @@
+package com.hao.strategyengine.integration.redis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dto.ClosePriceDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import util.JsonUtil;
+import util.PreheatColumnarCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预热数据列式二进制编解码测试
+ * <p>
+ * 测试目的：
+ * 1. 校验编码/解码往返一致，停牌日 NaN 保持不变。
+ * 2. 对比全市场规模下 JSON Hash 与二进制块的体积和解析耗时。
+ *
+ * @author hli
+ * @date 2026-02-05
+ */
+@Slf4j
+class PreheatColumnarCodecTest {
+
+    private static final int STOCK_COUNT = 5_000;
+    private static final int DATE_COUNT = 60;
+    private static final int WARMUP_CYCLES = 5;
+    private static final int TEST_CYCLES = 10;
+
+    @Test
+    @DisplayName("编码解码往返一致")
+    void roundTrip_shouldPreserveValuesAndNaN() {
+        int[] tradeDays = {20260105, 20260102, 20260101};
+        PreheatColumnarCodec.Writer writer = new PreheatColumnarCodec.Writer(tradeDays, true, false);
+        writer.add("600519.SH", new double[]{1800.5, Double.NaN, 1790.25},
+                new double[]{1810, Double.NaN, 1795}, new double[]{1780, Double.NaN, 1785});
+        writer.add("000001.SZ", new double[]{10.01, 10.02, 10.03},
+                new double[]{10.1, 10.2, 10.3}, new double[]{9.9, 9.8, 9.7});
+
+        PreheatColumnarCodec.Reader reader = PreheatColumnarCodec.wrap(writer.toBytes());
+        assertEquals(2, reader.stockCount());
+        assertEquals(3, reader.dateCount());
+        assertTrue(reader.hasHighLow());
+        assertEquals(20260105, reader.tradeDay(0));
+        assertEquals(20260101, reader.tradeDay(2));
+        assertEquals("600519.SH", reader.windCode(0));
+        assertEquals("000001.SZ", reader.windCode(1));
+        assertEquals(1800.5, reader.close(0, 0));
+        assertTrue(Double.isNaN(reader.close(0, 1)), "停牌日应为NaN");
+        assertEquals(1795, reader.high(0, 2));
+        assertEquals(9.7, reader.low(1, 2));
+    }
+
+    @Test
+    @DisplayName("float32与仅收盘价格式")
+    void float32_shouldRoundTripTwoDecimalPrices() {
+        int[] tradeDays = {20260105, 20260102};
+        PreheatColumnarCodec.Writer writer = new PreheatColumnarCodec.Writer(tradeDays, false, true);
+        writer.add("600519.SH", new double[]{1800.55, 1799.99}, null, null);
+
+        PreheatColumnarCodec.Reader reader = PreheatColumnarCodec.wrap(writer.toBytes());
+        assertFalse(reader.hasHighLow());
+        assertEquals(1800.55, Math.round(reader.close(0, 0) * 100) / 100.0);
+        assertEquals(reader.close(0, 1), reader.high(0, 1), "无高低价列时返回收盘价");
+    }
+
+    @Test
+    @DisplayName("非预热数据块应被拒绝")
+    void wrap_shouldRejectForeignBytes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PreheatColumnarCodec.wrap("[{\"tradeDate\":1}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("全市场规模体积与解析耗时对比")
+    void benchmark_jsonVersusBinary() throws Exception {
+        Random random = new Random(7);
+        int[] tradeDays = new int[DATE_COUNT];
+        for (int d = 0; d < DATE_COUNT; d++) {
+            tradeDays[d] = 20260105 - d;
+        }
+        String[] jsonValues = new String[STOCK_COUNT];
+        PreheatColumnarCodec.Writer writer = new PreheatColumnarCodec.Writer(tradeDays, false, false);
+        for (int s = 0; s < STOCK_COUNT; s++) {
+            double[] closes = new double[DATE_COUNT];
+            List<ClosePriceDTO> prices = new ArrayList<>(DATE_COUNT);
+            double price = 5 + random.nextDouble() * 100;
+            for (int d = 0; d < DATE_COUNT; d++) {
+                price = Math.round((price + random.nextGaussian() * 0.2) * 100) / 100.0;
+                boolean suspended = random.nextInt(100) == 0;
+                closes[d] = suspended ? Double.NaN : price;
+                prices.add(new ClosePriceDTO(tradeDays[d] + " 15:00:00", suspended ? null : price));
+            }
+            jsonValues[s] = JsonUtil.toJson(prices);
+            writer.add(String.format(Locale.ROOT, "%06d.SZ", s), closes, null, null);
+        }
+        byte[] blob = writer.toBytes();
+
+        long jsonBytes = 0;
+        for (String json : jsonValues) {
+            jsonBytes += json.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        double jsonNanos = measure(() -> {
+            double sink = 0;
+            for (String json : jsonValues) {
+                JsonNode array = mapper.readTree(json);
+                for (JsonNode bar : array) {
+                    sink += bar.path("closePrice").asDouble(0);
+                }
+            }
+            return sink;
+        });
+        double binaryNanos = measure(() -> {
+            double sink = 0;
+            PreheatColumnarCodec.Reader reader = PreheatColumnarCodec.wrap(blob);
+            for (int s = 0; s < reader.stockCount(); s++) {
+                for (int d = 0; d < reader.dateCount(); d++) {
+                    double close = reader.close(s, d);
+                    if (close > 0) {
+                        sink += close;
+                    }
+                }
+            }
+            return sink;
+        });
+
+        log.info("预热格式对比|Preheat_format_benchmark,stocks={},days={},jsonBytes={},binaryBytes={},jsonParseMs={},binaryParseMs={}",
+                STOCK_COUNT, DATE_COUNT, jsonBytes, blob.length,
+                String.format(Locale.ROOT, "%.2f", jsonNanos / 1e6), String.format(Locale.ROOT, "%.2f", binaryNanos / 1e6));
+        assertTrue(blob.length * 3L < jsonBytes, "二进制体积应明显小于JSON");
+        assertTrue(binaryNanos < jsonNanos, "二进制解析应快于JSON");
+    }
+
+    /**
+     * 预热后多轮测量，返回单轮平均耗时（纳秒）
+     */
+    private double measure(Workload workload) throws Exception {
+        double blackhole = 0;
+        for (int i = 0; i < WARMUP_CYCLES; i++) {
+            blackhole += workload.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TEST_CYCLES; i++) {
+            blackhole += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        log.debug("blackhole={}", blackhole);
+        return (double) elapsed / TEST_CYCLES;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        double run() throws Exception;
+    }
+}